@@ -0,0 +1,99 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de la cola de espera. Cada operación se mide junto con la
+ * inversa que devuelve la cola a su tamaño, de modo que el tamaño medido es
+ * siempre el del parámetro; la operación inversa es de tiempo constante.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GestionClientesBenchmark {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 1, 6, 8, 0);
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int tamano;
+
+    @Param({"0.2"})
+    private double proporcionUrgentes;
+
+    private GestionClientes cola;
+    private String[] ids;
+    private SplittableRandom aleatorio;
+    private int siguienteId;
+
+    @Setup
+    public void preparar() {
+        aleatorio = new SplittableRandom(42);
+        cola = new GestionClientes();
+        ids = new String[tamano];
+        Cliente.TipoSolicitud[] tipos = Cliente.TipoSolicitud.values();
+        for (int i = 0; i < tamano; i++) {
+            Cliente.Prioridad prioridad = aleatorio.nextDouble() < proporcionUrgentes
+                    ? Cliente.Prioridad.URGENTE : Cliente.Prioridad.NORMAL;
+            ids[i] = cola.agregarCliente("Cliente " + i, tipos[i % tipos.length], prioridad,
+                    FECHA.plusSeconds(i)).getId();
+        }
+        siguienteId = tamano;
+    }
+
+    /**
+     * Atiende al siguiente cliente y lo vuelve a formar al final.
+     */
+    @Benchmark
+    public Cliente atenderCliente() {
+        Cliente cliente = cola.atenderCliente(FECHA);
+        cliente.setFechaAtencion(null);
+        cola.agregarClienteExistente(cliente);
+        return cliente;
+    }
+
+    /**
+     * Elimina un cliente elegido al azar y lo vuelve a formar al final.
+     */
+    @Benchmark
+    public Cliente eliminarClientePorIdCola() {
+        Cliente cliente = cola.eliminarClientePorIdCola(ids[aleatorio.nextInt(tamano)]);
+        cola.agregarClienteExistente(cliente);
+        return cliente;
+    }
+
+    /**
+     * Forma un cliente al inicio, como al deshacer una atención, y lo
+     * elimina.
+     */
+    @Benchmark
+    public boolean agregarClienteAlInicio() {
+        Cliente cliente = new Cliente(String.valueOf(++siguienteId), "Cliente", Cliente.TipoSolicitud.SOPORTE,
+                Cliente.Prioridad.NORMAL, FECHA);
+        boolean agregado = cola.agregarClienteAlInicio(cliente);
+        cola.eliminarClientePorIdCola(cliente.getId());
+        return agregado;
+    }
+}
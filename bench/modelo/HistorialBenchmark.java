@@ -0,0 +1,68 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks del historial de atendidos: búsqueda por ID de un cliente
+ * elegido al azar y cálculo del promedio de atención.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HistorialBenchmark {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 1, 6, 8, 0);
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int tamano;
+
+    private Historial historial;
+    private SplittableRandom aleatorio;
+
+    @Setup
+    public void preparar() {
+        aleatorio = new SplittableRandom(42);
+        historial = new Historial();
+        Cliente.TipoSolicitud[] tipos = Cliente.TipoSolicitud.values();
+        for (int i = 1; i <= tamano; i++) {
+            LocalDateTime llegada = FECHA.plusSeconds(i);
+            Cliente cliente = new Cliente(String.valueOf(i), "Cliente " + i, tipos[i % tipos.length],
+                    Cliente.Prioridad.NORMAL, llegada);
+            cliente.setFechaAtencion(llegada.plusMinutes(aleatorio.nextInt(60)));
+            historial.agregarAtendido(cliente);
+        }
+    }
+
+    @Benchmark
+    public Cliente buscarCliente() {
+        return historial.buscarCliente(String.valueOf(1 + aleatorio.nextInt(tamano)));
+    }
+
+    @Benchmark
+    public double getPromedioTiempoAtencion() {
+        return historial.getPromedioTiempoAtencion();
+    }
+}
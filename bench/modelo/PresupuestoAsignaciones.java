@@ -0,0 +1,119 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package modelo;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Verificación de asignaciones de memoria en las operaciones frecuentes del
+ * modelo. Repite el ciclo registrar, atender, eliminar y deshacer sobre una
+ * cola de tamaño estable y mide con {@link com.sun.management.ThreadMXBean}
+ * los bytes que asigna cada operación en promedio, una vez que el
+ * compilador ya optimizó el código. Si alguna operación supera su
+ * presupuesto el programa termina con código 1, lo que hace fallar el
+ * objetivo {@code verificar-asignaciones} de Ant.
+ *
+ * Los presupuestos cubren solo los objetos que cada operación necesita de
+ * verdad (el cliente, su ID, su nodo en la cola, la fecha y la acción
+ * registrada) más el crecimiento amortizado de las pilas y del historial;
+ * deshacer la eliminación solo vuelve a enlazar al cliente en la cola.
+ * Cualquier texto, copia o formateador creado de más los supera.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class PresupuestoAsignaciones {
+
+    private static final String[] OPERACIONES = {"registrar", "atender", "eliminar", "deshacer"};
+    private static final long[] PRESUPUESTOS = {256, 128, 128, 64};
+
+    private static final int PRECARGA = 1000;
+    private static final int CALENTAMIENTO = 200_000;
+    private static final int MEDICIONES = 200_000;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!hilos.isThreadAllocatedMemorySupported()) {
+            System.err.println("La máquina virtual no permite medir asignaciones por hilo");
+            System.exit(2);
+        }
+        hilos.setThreadAllocatedMemoryEnabled(true);
+
+        Modelo modelo = new Modelo(Clock.fixed(LocalDateTime.of(2025, 1, 6, 8, 0).toInstant(ZoneOffset.UTC),
+                ZoneOffset.UTC));
+        for (int i = 0; i < PRECARGA; i++) {
+            modelo.agregarCliente("Cliente", Cliente.TipoSolicitud.SOPORTE, Cliente.Prioridad.NORMAL);
+        }
+        long[] bytes = new long[OPERACIONES.length];
+        ciclo(modelo, hilos, CALENTAMIENTO, bytes);
+        bytes = new long[OPERACIONES.length];
+        long calibracion = calibrar(hilos);
+        ciclo(modelo, hilos, MEDICIONES, bytes);
+
+        boolean excedido = false;
+        System.out.println(String.format("%-10s %12s %12s", "operacion", "bytes/op", "presupuesto"));
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            double porOperacion = Math.max(0, (double) bytes[i] / MEDICIONES - calibracion);
+            boolean falla = porOperacion > PRESUPUESTOS[i];
+            excedido |= falla;
+            System.out.println(String.format(java.util.Locale.ROOT, "%-10s %12.1f %12d%s", OPERACIONES[i],
+                    porOperacion, PRESUPUESTOS[i], falla ? "  EXCEDIDO" : ""));
+        }
+        if (excedido) {
+            System.err.println("Una o más operaciones del modelo superan su presupuesto de asignaciones");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Ejecuta el ciclo y acumula los bytes asignados por cada operación. La
+     * cola conserva su tamaño: se registra un cliente, se atiende a otro, se
+     * elimina el registrado y deshacer lo vuelve a formar.
+     */
+    private static void ciclo(Modelo modelo, com.sun.management.ThreadMXBean hilos, int repeticiones,
+            long[] bytes) {
+        for (int i = 0; i < repeticiones; i++) {
+            long antes = hilos.getCurrentThreadAllocatedBytes();
+            Cliente nuevo = modelo.agregarCliente("Cliente", Cliente.TipoSolicitud.RECLAMO, Cliente.Prioridad.NORMAL);
+            long despues = hilos.getCurrentThreadAllocatedBytes();
+            bytes[0] += despues - antes;
+
+            antes = hilos.getCurrentThreadAllocatedBytes();
+            modelo.atenderCliente();
+            despues = hilos.getCurrentThreadAllocatedBytes();
+            bytes[1] += despues - antes;
+
+            antes = hilos.getCurrentThreadAllocatedBytes();
+            Cliente eliminado = modelo.eliminarClientePorId(nuevo.getId());
+            despues = hilos.getCurrentThreadAllocatedBytes();
+            bytes[2] += despues - antes;
+
+            antes = hilos.getCurrentThreadAllocatedBytes();
+            boolean deshecho = modelo.deshacerUltimaAccion();
+            despues = hilos.getCurrentThreadAllocatedBytes();
+            bytes[3] += despues - antes;
+
+            if (eliminado == null || !deshecho) {
+                throw new IllegalStateException("El ciclo de medición no conservó el tamaño de la cola");
+            }
+        }
+    }
+
+    /**
+     * Mide lo que asigna la propia medición, para descontarlo.
+     */
+    private static long calibrar(com.sun.management.ThreadMXBean hilos) {
+        long total = 0;
+        for (int i = 0; i < MEDICIONES; i++) {
+            long antes = hilos.getCurrentThreadAllocatedBytes();
+            long despues = hilos.getCurrentThreadAllocatedBytes();
+            total += despues - antes;
+        }
+        return total / MEDICIONES;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark del texto del historial de acciones. La pila se llena con
+ * {@link RegistroAcciones#restaurarAction(Action)} para no imprimir cada
+ * acción durante la preparación.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RegistroAccionesBenchmark {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 1, 6, 8, 0);
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int tamano;
+
+    private RegistroAcciones registro;
+
+    @Setup
+    public void preparar() {
+        registro = new RegistroAcciones();
+        Action.TipoAccion[] tipos = Action.TipoAccion.values();
+        for (int i = 1; i <= tamano; i++) {
+            Cliente cliente = new Cliente(String.valueOf(i), "Cliente " + i, Cliente.TipoSolicitud.SOPORTE,
+                    Cliente.Prioridad.NORMAL, FECHA.plusSeconds(i));
+            registro.restaurarAction(new Action(tipos[i % tipos.length], cliente, FECHA.plusSeconds(i), 0, null));
+        }
+    }
+
+    @Benchmark
+    public String getActionsComoTexto() {
+        return registro.getActionsComoTexto();
+    }
+}
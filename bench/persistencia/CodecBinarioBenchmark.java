@@ -0,0 +1,93 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import modelo.Action;
+import modelo.Cliente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendimiento del codec binario: acciones escritas y leídas por segundo,
+ * con IDs numéricos (los que genera el modelo) y de texto (citas
+ * importadas). Cada operación codifica o decodifica un lote de
+ * {@link #LOTE} acciones sobre un buffer reutilizado.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBinarioBenchmark {
+
+    private static final int LOTE = 1024;
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 1, 6, 8, 0);
+
+    @Param({"numerico", "texto"})
+    private String id;
+
+    private CodecBinario codec;
+    private Action[] acciones;
+    private ByteBuffer escritura;
+    private ByteBuffer lectura;
+
+    @Setup
+    public void preparar() {
+        codec = new CodecBinario();
+        acciones = new Action[LOTE];
+        Action.TipoAccion[] tipos = Action.TipoAccion.values();
+        int tamano = 0;
+        for (int i = 0; i < LOTE; i++) {
+            String valor = id.equals("texto") ? "CITA-" + i : String.valueOf(100_000 + i);
+            Cliente cliente = new Cliente(valor, "Cliente Núñez " + i, Cliente.TipoSolicitud.SOPORTE,
+                    Cliente.Prioridad.NORMAL, FECHA.plusSeconds(i), FECHA.plusSeconds(i + 300));
+            acciones[i] = new Action(tipos[i % tipos.length], cliente, FECHA.plusSeconds(i + 300), 0, null);
+            tamano += CodecBinario.tamanoAccion(acciones[i]);
+        }
+        escritura = ByteBuffer.allocate(tamano);
+        lectura = ByteBuffer.allocate(tamano);
+        for (Action accion : acciones) {
+            codec.escribirAccion(lectura, accion);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public int escribirAcciones() {
+        escritura.clear();
+        for (Action accion : acciones) {
+            codec.escribirAccion(escritura, accion);
+        }
+        return escritura.position();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public Action leerAcciones() {
+        lectura.rewind();
+        Action ultima = null;
+        for (int i = 0; i < LOTE; i++) {
+            ultima = codec.leerAccion(lectura);
+        }
+        return ultima;
+    }
+}
@@ -0,0 +1,4 @@
+package modelo.jmh_generated;
+public class GestionClientesBenchmark_jmhType extends GestionClientesBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package modelo.jmh_generated;
+public class HistorialBenchmark_jmhType extends HistorialBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package modelo.jmh_generated;
+public class RegistroAccionesBenchmark_jmhType extends RegistroAccionesBenchmark_jmhType_B3 {
+}
+
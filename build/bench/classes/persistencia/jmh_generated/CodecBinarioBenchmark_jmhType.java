@@ -0,0 +1,4 @@
+package persistencia.jmh_generated;
+public class CodecBinarioBenchmark_jmhType extends CodecBinarioBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,222 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lector y utilidades mínimas de JSON para la API. Los objetos se leen como
+ * {@link Map}, los arreglos como {@link List}, los números como
+ * {@link Double} y los literales como {@link Boolean} o null. Un texto mal
+ * formado produce una {@link IllegalArgumentException}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+final class Json {
+
+    private final String texto;
+    private int posicion;
+
+    private Json(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Lee un valor JSON completo.
+     *
+     * @param texto Texto JSON
+     * @return Valor leído
+     */
+    static Object leer(String texto) {
+        Json lector = new Json(texto);
+        Object valor = lector.valor();
+        lector.saltarEspacios();
+        if (lector.posicion != texto.length()) {
+            throw lector.error("Contenido después del valor");
+        }
+        return valor;
+    }
+
+    /**
+     * Agrega un texto como cadena JSON, entre comillas y con los caracteres
+     * especiales escapados.
+     *
+     * @param destino Texto en construcción
+     * @param valor Texto a agregar, o null
+     * @return El mismo destino
+     */
+    static StringBuilder cadena(StringBuilder destino, String valor) {
+        if (valor == null) {
+            return destino.append("null");
+        }
+        destino.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> destino.append("\\\"");
+                case '\\' -> destino.append("\\\\");
+                case '\n' -> destino.append("\\n");
+                case '\r' -> destino.append("\\r");
+                case '\t' -> destino.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        destino.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        destino.append(c);
+                    }
+                }
+            }
+        }
+        return destino.append('"');
+    }
+
+    private Object valor() {
+        saltarEspacios();
+        if (posicion >= texto.length()) {
+            throw error("Fin inesperado");
+        }
+        char c = texto.charAt(posicion);
+        switch (c) {
+            case '{':
+                return objeto();
+            case '[':
+                return arreglo();
+            case '"':
+                return cadena();
+            case 't':
+                return literal("true", Boolean.TRUE);
+            case 'f':
+                return literal("false", Boolean.FALSE);
+            case 'n':
+                return literal("null", null);
+            default:
+                return numero();
+        }
+    }
+
+    private Map<String, Object> objeto() {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        posicion++;
+        saltarEspacios();
+        if (consumir('}')) {
+            return objeto;
+        }
+        do {
+            saltarEspacios();
+            if (posicion >= texto.length() || texto.charAt(posicion) != '"') {
+                throw error("Se esperaba el nombre de un campo");
+            }
+            String nombre = cadena();
+            saltarEspacios();
+            if (!consumir(':')) {
+                throw error("Se esperaba ':'");
+            }
+            objeto.put(nombre, valor());
+            saltarEspacios();
+        } while (consumir(','));
+        if (!consumir('}')) {
+            throw error("Se esperaba '}'");
+        }
+        return objeto;
+    }
+
+    private List<Object> arreglo() {
+        List<Object> arreglo = new ArrayList<>();
+        posicion++;
+        saltarEspacios();
+        if (consumir(']')) {
+            return arreglo;
+        }
+        do {
+            arreglo.add(valor());
+            saltarEspacios();
+        } while (consumir(','));
+        if (!consumir(']')) {
+            throw error("Se esperaba ']'");
+        }
+        return arreglo;
+    }
+
+    private String cadena() {
+        StringBuilder cadena = new StringBuilder();
+        posicion++;
+        while (posicion < texto.length()) {
+            char c = texto.charAt(posicion++);
+            if (c == '"') {
+                return cadena.toString();
+            }
+            if (c != '\\') {
+                cadena.append(c);
+                continue;
+            }
+            if (posicion >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(posicion++);
+            switch (escape) {
+                case 'n' -> cadena.append('\n');
+                case 'r' -> cadena.append('\r');
+                case 't' -> cadena.append('\t');
+                case 'b' -> cadena.append('\b');
+                case 'f' -> cadena.append('\f');
+                case 'u' -> {
+                    if (posicion + 4 > texto.length()) {
+                        throw error("Escape \\u incompleto");
+                    }
+                    try {
+                        cadena.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("Escape \\u inválido");
+                    }
+                    posicion += 4;
+                }
+                default -> cadena.append(escape);
+            }
+        }
+        throw error("Cadena sin cerrar");
+    }
+
+    private Object literal(String palabra, Object valor) {
+        if (!texto.startsWith(palabra, posicion)) {
+            throw error("Valor inválido");
+        }
+        posicion += palabra.length();
+        return valor;
+    }
+
+    private Double numero() {
+        int inicio = posicion;
+        while (posicion < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(posicion)) >= 0) {
+            posicion++;
+        }
+        try {
+            return Double.valueOf(texto.substring(inicio, posicion));
+        } catch (NumberFormatException ex) {
+            throw error("Valor inválido");
+        }
+    }
+
+    private boolean consumir(char esperado) {
+        if (posicion < texto.length() && texto.charAt(posicion) == esperado) {
+            posicion++;
+            return true;
+        }
+        return false;
+    }
+
+    private void saltarEspacios() {
+        while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+            posicion++;
+        }
+    }
+
+    private IllegalArgumentException error(String mensaje) {
+        return new IllegalArgumentException("JSON inválido en la posición " + posicion + ": " + mensaje);
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import modelo.BucleModelo;
+import modelo.Cliente;
+import modelo.EstadisticasModelo;
+import modelo.InstantaneaModelo;
+import modelo.Modelo;
+
+/**
+ * API HTTP/JSON para que varios quioscos de registro y ventanillas de la red
+ * local compartan la misma cola. Cada petición se atiende en su propio hilo
+ * virtual; las modificaciones se envían al {@link BucleModelo}, que las
+ * aplica en orden sobre el modelo, y las consultas leen su última
+ * instantánea sin esperar al escritor.
+ *
+ * Rutas:
+ * <ul>
+ * <li>{@code POST /clientes} con {@code {"nombre","tipo","prioridad"}}
+ * registra un cliente.</li>
+ * <li>{@code GET /clientes/{id}} busca un cliente en espera o atendido.</li>
+ * <li>{@code DELETE /clientes/{id}} elimina un cliente de la cola.</li>
+ * <li>{@code POST /atender} atiende al siguiente cliente.</li>
+ * <li>{@code POST /deshacer} deshace la última acción.</li>
+ * <li>{@code GET /estadisticas} devuelve las estadísticas del modelo.</li>
+ * <li>{@code POST /lote} recibe un arreglo de operaciones
+ * ({@code {"op":"registrar",...}}, {@code {"op":"atender"}},
+ * {@code {"op":"eliminar","id":...}}, {@code {"op":"deshacer"}}) y las
+ * aplica en orden como un solo comando del bucle, sin que otra petición se
+ * intercale. Todas se validan antes de enviarlas: si alguna es inválida se
+ * responde 400 y no se aplica ninguna. El lote no es una transacción: si
+ * una operación falla al aplicarse (por ejemplo, porque no se pudo escribir
+ * la bitácora), las anteriores quedan aplicadas y la respuesta 503 indica
+ * cuántas fueron.</li>
+ * </ul>
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ServidorApi implements Closeable {
+
+    private static final int TAMANO_MAXIMO_CUERPO = 1 << 20;
+    private static final String TIPO_CONTENIDO = "application/json; charset=utf-8";
+
+    private final HttpServer servidor;
+    private final ExecutorService hilos;
+    private final BucleModelo bucle;
+
+    private ServidorApi(HttpServer servidor, ExecutorService hilos, BucleModelo bucle) {
+        this.servidor = servidor;
+        this.hilos = hilos;
+        this.bucle = bucle;
+    }
+
+    /**
+     * Inicia la API en el puerto indicado de todas las interfaces.
+     *
+     * @param bucle Bucle que posee el modelo
+     * @param puerto Puerto TCP, o 0 para elegir uno libre
+     * @return Servidor iniciado
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public static ServidorApi iniciar(BucleModelo bucle, int puerto) throws IOException {
+        desactivarNagle();
+        HttpServer servidor = HttpServer.create(new InetSocketAddress(puerto), 0);
+        ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+        ServidorApi resultado = new ServidorApi(servidor, hilos, bucle);
+        servidor.createContext("/clientes", resultado.manejador(resultado::clientes));
+        servidor.createContext("/atender", resultado.manejador(resultado::atender));
+        servidor.createContext("/deshacer", resultado.manejador(resultado::deshacer));
+        servidor.createContext("/estadisticas", resultado.manejador(resultado::estadisticas));
+        servidor.createContext("/lote", resultado.manejador(resultado::lote));
+        servidor.setExecutor(hilos);
+        servidor.start();
+        return resultado;
+    }
+
+    /**
+     * El servidor del JDK deja activo el algoritmo de Nagle en sus sockets y
+     * cada respuesta pequeña espera el ACK retrasado del cliente (unos 40
+     * ms). La propiedad se lee al crear el primer servidor del proceso, así
+     * que solo se fija si nadie la definió antes.
+     */
+    static void desactivarNagle() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor.
+     *
+     * @return Puerto TCP
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Respuesta de una ruta: código HTTP y cuerpo JSON.
+     */
+    private record Respuesta(int codigo, String cuerpo) {
+
+        static Respuesta error(int codigo, String mensaje) {
+            return new Respuesta(codigo, Json.cadena(new StringBuilder("{\"error\":"), mensaje).append('}')
+                    .toString());
+        }
+    }
+
+    private interface Ruta {
+
+        Respuesta responder(HttpExchange intercambio) throws IOException;
+    }
+
+    /**
+     * Envuelve una ruta para convertir los errores en respuestas JSON y
+     * cerrar siempre el intercambio.
+     */
+    private HttpHandler manejador(Ruta ruta) {
+        return intercambio -> {
+            try (intercambio) {
+                Respuesta respuesta;
+                try {
+                    respuesta = ruta.responder(intercambio);
+                } catch (IllegalArgumentException ex) {
+                    respuesta = Respuesta.error(400, ex.getMessage());
+                } catch (CompletionException ex) {
+                    respuesta = Respuesta.error(503, "El modelo no pudo aplicar la operación: "
+                            + ex.getCause().getMessage());
+                }
+                byte[] cuerpo = respuesta.cuerpo().getBytes(StandardCharsets.UTF_8);
+                intercambio.getResponseHeaders().set("Content-Type", TIPO_CONTENIDO);
+                if (respuesta.codigo() == 405) {
+                    intercambio.getResponseHeaders().set("Allow", metodosPermitidos(intercambio));
+                }
+                intercambio.sendResponseHeaders(respuesta.codigo(), cuerpo.length);
+                try (OutputStream salida = intercambio.getResponseBody()) {
+                    salida.write(cuerpo);
+                }
+            }
+        };
+    }
+
+    private Respuesta clientes(HttpExchange intercambio) throws IOException {
+        String metodo = intercambio.getRequestMethod();
+        String id = subruta(intercambio);
+        if (id == null) {
+            if (!"POST".equals(metodo)) {
+                return Respuesta.error(405, "Método no permitido");
+            }
+            Function<Modelo, Object> registrar = operacion("registrar", objeto(Json.leer(leerCuerpo(intercambio))));
+            Cliente cliente = (Cliente) bucle.enviar(registrar).join();
+            if (cliente == null) {
+                return Respuesta.error(409, "No se pudo registrar el cliente");
+            }
+            return new Respuesta(201, clienteJson(new StringBuilder(), cliente).toString());
+        }
+        switch (metodo) {
+            case "GET": {
+                InstantaneaModelo instantanea = bucle.getInstantanea();
+                Cliente cliente = instantanea.buscarEnEspera(id);
+                String estado = "EN_ESPERA";
+                if (cliente == null) {
+                    cliente = instantanea.buscarAtendido(id);
+                    estado = "ATENDIDO";
+                }
+                if (cliente == null) {
+                    return Respuesta.error(404, "No existe el cliente " + id);
+                }
+                StringBuilder json = new StringBuilder("{\"estado\":\"").append(estado).append("\",\"cliente\":");
+                return new Respuesta(200, clienteJson(json, cliente).append('}').toString());
+            }
+            case "DELETE": {
+                Cliente cliente = (Cliente) bucle.enviar(operacion("eliminar", Map.of("id", id))).join();
+                if (cliente == null) {
+                    return Respuesta.error(404, "El cliente " + id + " no está en la cola");
+                }
+                return new Respuesta(200, clienteJson(new StringBuilder(), cliente).toString());
+            }
+            default:
+                return Respuesta.error(405, "Método no permitido");
+        }
+    }
+
+    private Respuesta atender(HttpExchange intercambio) {
+        if (!"POST".equals(intercambio.getRequestMethod())) {
+            return Respuesta.error(405, "Método no permitido");
+        }
+        Object cliente = bucle.enviar(operacion("atender", Map.of())).join();
+        return new Respuesta(200, resultadoJson(new StringBuilder(), "atender", cliente).toString());
+    }
+
+    private Respuesta deshacer(HttpExchange intercambio) {
+        if (!"POST".equals(intercambio.getRequestMethod())) {
+            return Respuesta.error(405, "Método no permitido");
+        }
+        Object deshecho = bucle.enviar(operacion("deshacer", Map.of())).join();
+        return new Respuesta(200, resultadoJson(new StringBuilder(), "deshacer", deshecho).toString());
+    }
+
+    private Respuesta estadisticas(HttpExchange intercambio) {
+        if (!"GET".equals(intercambio.getRequestMethod())) {
+            return Respuesta.error(405, "Método no permitido");
+        }
+        EstadisticasModelo estadisticas = bucle.getInstantanea().getEstadisticas();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"version\":").append(estadisticas.getVersion());
+        json.append(",\"clientesEnEspera\":").append(estadisticas.getClientesEnEspera());
+        json.append(",\"urgentesEnEspera\":").append(estadisticas.getUrgentesEnEspera());
+        json.append(",\"clientesAtendidos\":").append(estadisticas.getClientesAtendidos());
+        json.append(",\"promedioTiempoAtencion\":")
+                .append(String.format(Locale.ROOT, "%.2f", estadisticas.getPromedioTiempoAtencion()));
+        json.append(",\"accionesRegistradas\":").append(estadisticas.getCantidadAcciones()).append('}');
+        return new Respuesta(200, json.toString());
+    }
+
+    private Respuesta lote(HttpExchange intercambio) throws IOException {
+        if (!"POST".equals(intercambio.getRequestMethod())) {
+            return Respuesta.error(405, "Método no permitido");
+        }
+        if (!(Json.leer(leerCuerpo(intercambio)) instanceof List<?> elementos)) {
+            throw new IllegalArgumentException("Se esperaba un arreglo de operaciones");
+        }
+        List<String> nombres = new ArrayList<>(elementos.size());
+        List<Function<Modelo, Object>> operaciones = new ArrayList<>(elementos.size());
+        for (Object elemento : elementos) {
+            Map<?, ?> campos = objeto(elemento);
+            if (!(campos.get("op") instanceof String nombre)) {
+                throw new IllegalArgumentException("Cada operación necesita el campo \"op\"");
+            }
+            nombres.add(nombre);
+            operaciones.add(operacion(nombre, campos));
+        }
+        Object[] resultados = bucle.enviar(m -> {
+            Object[] salida = new Object[operaciones.size()];
+            for (int i = 0; i < salida.length; i++) {
+                try {
+                    salida[i] = operaciones.get(i).apply(m);
+                } catch (RuntimeException ex) {
+                    throw new IllegalStateException("Se aplicaron " + i + " de " + salida.length
+                            + " operaciones; falló la " + (i + 1) + " (" + nombres.get(i) + "): " + ex.getMessage(),
+                            ex);
+                }
+            }
+            return salida;
+        }).join();
+        StringBuilder json = new StringBuilder(64 + 160 * resultados.length).append('[');
+        for (int i = 0; i < resultados.length; i++) {
+            resultadoJson(json.append(i > 0 ? "," : ""), nombres.get(i), resultados[i]);
+        }
+        return new Respuesta(200, json.append(']').toString());
+    }
+
+    /**
+     * Convierte una operación de la API en un comando para el bucle. Se
+     * valida aquí, antes de enviarla, para que una operación inválida no
+     * llegue al modelo. Los clientes devueltos son copias.
+     */
+    private static Function<Modelo, Object> operacion(String nombre, Map<?, ?> campos) {
+        switch (nombre) {
+            case "registrar": {
+                String nombreCliente = texto(campos, "nombre");
+                if (nombreCliente.isBlank()) {
+                    throw new IllegalArgumentException("El nombre no puede estar vacío");
+                }
+                Cliente.TipoSolicitud tipo = constante(Cliente.TipoSolicitud.class, texto(campos, "tipo"));
+                Cliente.Prioridad prioridad = campos.get("prioridad") == null ? Cliente.Prioridad.NORMAL
+                        : constante(Cliente.Prioridad.class, texto(campos, "prioridad"));
+                return m -> copia(m.agregarCliente(nombreCliente, tipo, prioridad));
+            }
+            case "atender":
+                return m -> copia(m.atenderCliente());
+            case "eliminar": {
+                String id = texto(campos, "id");
+                return m -> copia(m.eliminarClientePorId(id));
+            }
+            case "deshacer":
+                return Modelo::deshacerUltimaAccion;
+            default:
+                throw new IllegalArgumentException("Operación desconocida: " + nombre);
+        }
+    }
+
+    private static Cliente copia(Cliente cliente) {
+        return cliente != null ? cliente.copiar() : null;
+    }
+
+    private static StringBuilder resultadoJson(StringBuilder json, String operacion, Object resultado) {
+        json.append("{\"op\":\"").append(operacion).append('"');
+        if (resultado instanceof Boolean exito) {
+            json.append(",\"exito\":").append(exito);
+        } else {
+            json.append(",\"exito\":").append(resultado != null).append(",\"cliente\":");
+            if (resultado == null) {
+                json.append("null");
+            } else {
+                clienteJson(json, (Cliente) resultado);
+            }
+        }
+        return json.append('}');
+    }
+
+    private static StringBuilder clienteJson(StringBuilder json, Cliente cliente) {
+        json.append("{\"id\":");
+        Json.cadena(json, cliente.getId()).append(",\"nombre\":");
+        Json.cadena(json, cliente.getNombre());
+        json.append(",\"tipo\":\"").append(cliente.getTipoSolicitud()).append('"');
+        json.append(",\"prioridad\":\"").append(cliente.getPrioridad()).append('"');
+        json.append(",\"fechaLlegada\":\"").append(cliente.getFechaLlegada()).append('"');
+        json.append(",\"fechaAtencion\":");
+        if (cliente.getFechaAtencion() != null) {
+            json.append('"').append(cliente.getFechaAtencion()).append('"');
+        } else {
+            json.append("null");
+        }
+        return json.append('}');
+    }
+
+    private static String leerCuerpo(HttpExchange intercambio) throws IOException {
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            byte[] cuerpo = entrada.readNBytes(TAMANO_MAXIMO_CUERPO + 1);
+            if (cuerpo.length > TAMANO_MAXIMO_CUERPO) {
+                throw new IllegalArgumentException("El cuerpo supera " + TAMANO_MAXIMO_CUERPO + " bytes");
+            }
+            return new String(cuerpo, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<?, ?> objeto(Object valor) {
+        if (!(valor instanceof Map<?, ?> campos)) {
+            throw new IllegalArgumentException("Se esperaba un objeto JSON");
+        }
+        return campos;
+    }
+
+    private static String texto(Map<?, ?> campos, String nombre) {
+        if (!(campos.get(nombre) instanceof String valor)) {
+            throw new IllegalArgumentException("Falta el campo de texto \"" + nombre + "\"");
+        }
+        return valor;
+    }
+
+    private static <E extends Enum<E>> E constante(Class<E> tipo, String valor) {
+        try {
+            return Enum.valueOf(tipo, valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Valor inválido \"" + valor + "\"; se esperaba uno de "
+                    + java.util.Arrays.toString(tipo.getEnumConstants()));
+        }
+    }
+
+    /**
+     * Obtiene el ID de {@code /clientes/{id}}, o null si la ruta es
+     * {@code /clientes}.
+     */
+    private static String subruta(HttpExchange intercambio) {
+        String ruta = intercambio.getRequestURI().getPath();
+        String contexto = intercambio.getHttpContext().getPath();
+        String resto = ruta.substring(Math.min(ruta.length(), contexto.length()));
+        if (resto.startsWith("/")) {
+            resto = resto.substring(1);
+        }
+        return resto.isEmpty() ? null : resto;
+    }
+
+    private static String metodosPermitidos(HttpExchange intercambio) {
+        switch (intercambio.getHttpContext().getPath()) {
+            case "/clientes":
+                return subruta(intercambio) == null ? "POST" : "GET, DELETE";
+            case "/estadisticas":
+                return "GET";
+            default:
+                return "POST";
+        }
+    }
+
+    /**
+     * Detiene el servidor y sus hilos. El bucle del modelo sigue activo.
+     */
+    @Override
+    public void close() {
+        servidor.stop(0);
+        hilos.shutdown();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package carga;
+
+/**
+ * Parámetros de una prueba de carga: mezcla de operaciones, cantidad de
+ * hilos que las envían, duración de la medición y del calentamiento previo,
+ * y clientes que se registran antes de empezar.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ConfiguracionCarga {
+
+    /**
+     * Operaciones que genera la prueba de carga.
+     */
+    public enum Operacion {
+        /** Registrar un cliente nuevo */
+        REGISTRAR,
+        /** Atender al siguiente cliente */
+        ATENDER,
+        /** Eliminar un cliente en espera por su ID */
+        ELIMINAR,
+        /** Deshacer la última acción */
+        DESHACER
+    }
+
+    private final double[] pesos;
+    private int hilos;
+    private double segundos;
+    private double segundosCalentamiento;
+    private int precarga;
+    private boolean directo;
+
+    /**
+     * Constructor con 4 hilos, 10 segundos de medición tras 2 de
+     * calentamiento, 1000 clientes precargados y una mezcla de 40% de
+     * registros, 30% de atenciones, 15% de eliminaciones y 15% de deshacer.
+     */
+    public ConfiguracionCarga() {
+        this.pesos = new double[Operacion.values().length];
+        pesos[Operacion.REGISTRAR.ordinal()] = 40;
+        pesos[Operacion.ATENDER.ordinal()] = 30;
+        pesos[Operacion.ELIMINAR.ordinal()] = 15;
+        pesos[Operacion.DESHACER.ordinal()] = 15;
+        this.hilos = 4;
+        this.segundos = 10;
+        this.segundosCalentamiento = 2;
+        this.precarga = 1000;
+    }
+
+    /**
+     * Obtiene el peso relativo de una operación en la mezcla.
+     *
+     * @param operacion Operación
+     * @return Peso de la operación
+     */
+    public double getPeso(Operacion operacion) {
+        return pesos[operacion.ordinal()];
+    }
+
+    /**
+     * Establece el peso relativo de una operación en la mezcla. Los pesos
+     * no necesitan sumar 100.
+     *
+     * @param operacion Operación
+     * @param peso Peso no negativo; 0 la excluye de la prueba
+     */
+    public void setPeso(Operacion operacion, double peso) {
+        if (peso < 0) {
+            throw new IllegalArgumentException("El peso no puede ser negativo: " + peso);
+        }
+        pesos[operacion.ordinal()] = peso;
+    }
+
+    /**
+     * Elige una operación según los pesos de la mezcla.
+     *
+     * @param aleatorio Número uniforme en [0, 1)
+     * @return Operación elegida
+     */
+    Operacion elegir(double aleatorio) {
+        double total = 0;
+        for (double peso : pesos) {
+            total += peso;
+        }
+        double objetivo = aleatorio * total;
+        Operacion[] operaciones = Operacion.values();
+        for (int i = 0; i < operaciones.length - 1; i++) {
+            objetivo -= pesos[i];
+            if (objetivo < 0) {
+                return operaciones[i];
+            }
+        }
+        return operaciones[operaciones.length - 1];
+    }
+
+    /**
+     * Obtiene la cantidad de hilos que envían operaciones.
+     *
+     * @return Número de hilos
+     */
+    public int getHilos() {
+        return hilos;
+    }
+
+    /**
+     * Establece la cantidad de hilos que envían operaciones.
+     *
+     * @param hilos Número de hilos, al menos 1
+     */
+    public void setHilos(int hilos) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo");
+        }
+        this.hilos = hilos;
+    }
+
+    /**
+     * Obtiene la duración de la medición.
+     *
+     * @return Duración en segundos
+     */
+    public double getSegundos() {
+        return segundos;
+    }
+
+    /**
+     * Establece la duración de la medición.
+     *
+     * @param segundos Duración en segundos
+     */
+    public void setSegundos(double segundos) {
+        if (segundos <= 0) {
+            throw new IllegalArgumentException("La duración debe ser positiva: " + segundos);
+        }
+        this.segundos = segundos;
+    }
+
+    /**
+     * Obtiene la duración del calentamiento, cuyas operaciones no se
+     * cuentan en el resultado.
+     *
+     * @return Duración en segundos
+     */
+    public double getSegundosCalentamiento() {
+        return segundosCalentamiento;
+    }
+
+    /**
+     * Establece la duración del calentamiento.
+     *
+     * @param segundosCalentamiento Duración en segundos, 0 para no calentar
+     */
+    public void setSegundosCalentamiento(double segundosCalentamiento) {
+        this.segundosCalentamiento = Math.max(0, segundosCalentamiento);
+    }
+
+    /**
+     * Obtiene la cantidad de clientes registrados antes de empezar.
+     *
+     * @return Clientes precargados
+     */
+    public int getPrecarga() {
+        return precarga;
+    }
+
+    /**
+     * Establece la cantidad de clientes registrados antes de empezar.
+     *
+     * @param precarga Clientes precargados
+     */
+    public void setPrecarga(int precarga) {
+        this.precarga = Math.max(0, precarga);
+    }
+
+    /**
+     * Indica si las operaciones se aplican directamente sobre el modelo.
+     *
+     * @return true si se usa un solo hilo sin {@link modelo.BucleModelo}
+     */
+    public boolean isDirecto() {
+        return directo;
+    }
+
+    /**
+     * Establece si las operaciones se aplican directamente sobre el modelo
+     * desde un único hilo, para medir el costo del modelo sin la entrega de
+     * comandos entre hilos. En este modo se ignora la cantidad de hilos.
+     *
+     * @param directo true para aplicar las operaciones directamente
+     */
+    public void setDirecto(boolean directo) {
+        this.directo = directo;
+    }
+}
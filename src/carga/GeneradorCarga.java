@@ -0,0 +1,310 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package carga;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import modelo.BucleModelo;
+import modelo.Cliente;
+import modelo.Modelo;
+
+/**
+ * Generador de carga sin interfaz gráfica. Varios hilos aplican sobre un
+ * {@link Modelo} una mezcla de registros, atenciones, eliminaciones y
+ * deshacer durante un tiempo fijo, y al final se imprime un reporte JSON
+ * con operaciones por segundo, percentiles de latencia por operación y la
+ * actividad del recolector de basura y de asignación de memoria durante la
+ * medición.
+ *
+ * Los hilos envían cada operación al {@link BucleModelo} y esperan su
+ * resultado, como lo haría la interfaz; la latencia incluye la entrega del
+ * comando al hilo del modelo. Con {@code --directo} un solo hilo llama al
+ * modelo sin intermediarios, lo que mide solo el costo de las operaciones.
+ *
+ * Opciones: {@code --hilos N}, {@code --segundos S},
+ * {@code --calentamiento S}, {@code --precarga N},
+ * {@code --mezcla registrar=40,atender=30,eliminar=15,deshacer=15},
+ * {@code --semilla N}, {@code --directo} y {@code --salida archivo} para
+ * escribir además el reporte en un archivo.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class GeneradorCarga {
+
+    private static final int RECIENTES = 256;
+
+    /**
+     * @param args Opciones de la prueba de carga
+     * @throws InterruptedException si el hilo principal se interrumpe
+     */
+    public static void main(String[] args) throws InterruptedException {
+        ConfiguracionCarga configuracion = configuracionDesde(args);
+        String valor = valorOpcion(args, "--semilla");
+        long semilla = valor != null ? Long.parseLong(valor) : System.nanoTime();
+        String json = new GeneradorCarga().ejecutar(configuracion, semilla).generarJson();
+        System.out.println(json);
+        String salida = valorOpcion(args, "--salida");
+        if (salida != null) {
+            try {
+                Files.writeString(Paths.get(salida), json + "\n", StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("No se pudo escribir el reporte en " + salida, ex);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una prueba de carga sobre un modelo nuevo.
+     *
+     * @param configuracion Parámetros de la prueba
+     * @param semilla Semilla de los generadores aleatorios de los hilos
+     * @return Resultado de la medición
+     * @throws InterruptedException si el hilo se interrumpe mientras espera
+     */
+    public ResultadoCarga ejecutar(ConfiguracionCarga configuracion, long semilla) throws InterruptedException {
+        double pesoTotal = 0;
+        for (ConfiguracionCarga.Operacion operacion : ConfiguracionCarga.Operacion.values()) {
+            pesoTotal += configuracion.getPeso(operacion);
+        }
+        if (pesoTotal <= 0) {
+            throw new IllegalArgumentException("La mezcla no incluye ninguna operación");
+        }
+        Modelo modelo = new Modelo();
+        SplittableRandom aleatorio = new SplittableRandom(semilla);
+        Cliente.TipoSolicitud[] tipos = Cliente.TipoSolicitud.values();
+        for (int i = 0; i < configuracion.getPrecarga(); i++) {
+            modelo.agregarCliente("Cliente precarga", tipos[aleatorio.nextInt(tipos.length)],
+                    Cliente.Prioridad.NORMAL);
+        }
+        BucleModelo bucle = configuracion.isDirecto() ? null : new BucleModelo(modelo);
+        Function<Function<Modelo, Object>, Object> ejecutor = bucle == null
+                ? comando -> comando.apply(modelo)
+                : comando -> bucle.enviar(comando).join();
+        int hilos = configuracion.isDirecto() ? 1 : configuracion.getHilos();
+
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + (long) (configuracion.getSegundosCalentamiento() * 1e9);
+        long fin = inicioMedicion + (long) (configuracion.getSegundos() * 1e9);
+        List<Trabajador> trabajadores = new ArrayList<>();
+        List<Thread> corriendo = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            Trabajador trabajador = new Trabajador(configuracion, ejecutor, aleatorio.split(),
+                    inicioMedicion, fin);
+            trabajadores.add(trabajador);
+            Thread hilo = new Thread(trabajador, "carga-" + i);
+            hilo.start();
+            corriendo.add(hilo);
+        }
+
+        esperarHasta(inicioMedicion);
+        long asignadosAntes = bytesAsignados();
+        long[] recoleccionesAntes = recolecciones();
+        long inicioReal = System.nanoTime();
+        for (Thread hilo : corriendo) {
+            hilo.join();
+        }
+        long nanosMedidos = System.nanoTime() - inicioReal;
+        long asignados = asignadosAntes >= 0 ? bytesAsignados() - asignadosAntes : -1;
+        long[] recoleccionesDespues = recolecciones();
+        if (bucle != null) {
+            bucle.detener(5, TimeUnit.SECONDS);
+        }
+
+        ResultadoCarga resultado = new ResultadoCarga(configuracion, hilos, nanosMedidos, asignados,
+                modelo.getEstadisticas());
+        for (Trabajador trabajador : trabajadores) {
+            resultado.combinar(trabajador.latencias, trabajador.fallidas);
+        }
+        List<GarbageCollectorMXBean> recolectores = ManagementFactory.getGarbageCollectorMXBeans();
+        for (int i = 0; i < recolectores.size(); i++) {
+            resultado.agregarRecolector(recolectores.get(i).getName(),
+                    recoleccionesDespues[2 * i] - recoleccionesAntes[2 * i],
+                    recoleccionesDespues[2 * i + 1] - recoleccionesAntes[2 * i + 1]);
+        }
+        return resultado;
+    }
+
+    private static void esperarHasta(long instante) throws InterruptedException {
+        long restante = instante - System.nanoTime();
+        if (restante > 0) {
+            TimeUnit.NANOSECONDS.sleep(restante);
+        }
+    }
+
+    /**
+     * Obtiene los bytes asignados por todos los hilos desde que arrancó la
+     * máquina virtual.
+     *
+     * @return Bytes asignados, o -1 si la máquina virtual no lo permite
+     */
+    private static long bytesAsignados() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean hilos
+                && hilos.isThreadAllocatedMemorySupported() && hilos.isThreadAllocatedMemoryEnabled()) {
+            return hilos.getTotalThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene la cantidad y el tiempo acumulado de recolecciones de cada
+     * recolector, intercalados.
+     */
+    private static long[] recolecciones() {
+        List<GarbageCollectorMXBean> recolectores = ManagementFactory.getGarbageCollectorMXBeans();
+        long[] valores = new long[2 * recolectores.size()];
+        for (int i = 0; i < recolectores.size(); i++) {
+            valores[2 * i] = Math.max(0, recolectores.get(i).getCollectionCount());
+            valores[2 * i + 1] = Math.max(0, recolectores.get(i).getCollectionTime());
+        }
+        return valores;
+    }
+
+    /**
+     * Hilo que envía operaciones hasta el fin de la prueba. Cada hilo
+     * guarda sus propias latencias y recuerda los últimos clientes que
+     * registró para elegir a quién eliminar.
+     */
+    private static final class Trabajador implements Runnable {
+
+        private final ConfiguracionCarga configuracion;
+        private final Function<Function<Modelo, Object>, Object> ejecutor;
+        private final SplittableRandom aleatorio;
+        private final long inicioMedicion;
+        private final long fin;
+        private final HistogramaLatencia[] latencias;
+        private final long[] fallidas;
+        private final String[] recientes;
+        private int registrados;
+
+        Trabajador(ConfiguracionCarga configuracion, Function<Function<Modelo, Object>, Object> ejecutor,
+                SplittableRandom aleatorio, long inicioMedicion, long fin) {
+            this.configuracion = configuracion;
+            this.ejecutor = ejecutor;
+            this.aleatorio = aleatorio;
+            this.inicioMedicion = inicioMedicion;
+            this.fin = fin;
+            int operaciones = ConfiguracionCarga.Operacion.values().length;
+            this.latencias = new HistogramaLatencia[operaciones];
+            for (int i = 0; i < operaciones; i++) {
+                latencias[i] = new HistogramaLatencia();
+            }
+            this.fallidas = new long[operaciones];
+            this.recientes = new String[RECIENTES];
+        }
+
+        @Override
+        public void run() {
+            Cliente.TipoSolicitud[] tipos = Cliente.TipoSolicitud.values();
+            long inicio;
+            while ((inicio = System.nanoTime()) < fin) {
+                ConfiguracionCarga.Operacion operacion = configuracion.elegir(aleatorio.nextDouble());
+                Object resultado;
+                switch (operacion) {
+                    case REGISTRAR -> {
+                        Cliente.TipoSolicitud tipo = tipos[aleatorio.nextInt(tipos.length)];
+                        Cliente.Prioridad prioridad = aleatorio.nextDouble() < 0.2
+                                ? Cliente.Prioridad.URGENTE : Cliente.Prioridad.NORMAL;
+                        resultado = ejecutor.apply(m -> idDe(m.agregarCliente("Cliente carga", tipo, prioridad)));
+                        if (resultado != null) {
+                            recientes[registrados++ % RECIENTES] = (String) resultado;
+                        }
+                    }
+                    case ATENDER ->
+                        resultado = ejecutor.apply(m -> idDe(m.atenderCliente()));
+                    case ELIMINAR -> {
+                        String id = registrados > 0
+                                ? recientes[aleatorio.nextInt(Math.min(registrados, RECIENTES))] : "";
+                        resultado = ejecutor.apply(m -> idDe(m.eliminarClientePorId(id)));
+                    }
+                    default ->
+                        resultado = ejecutor.apply(m -> m.deshacerUltimaAccion() ? Boolean.TRUE : null);
+                }
+                long latencia = System.nanoTime() - inicio;
+                if (inicio >= inicioMedicion) {
+                    latencias[operacion.ordinal()].registrar(latencia);
+                    if (resultado == null) {
+                        fallidas[operacion.ordinal()]++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Solo el ID sale del hilo del modelo; el cliente sigue siendo del
+         * modelo.
+         */
+        private static String idDe(Cliente cliente) {
+            return cliente != null ? cliente.getId() : null;
+        }
+    }
+
+    /**
+     * Construye una configuración a partir de las opciones de la línea de
+     * comandos. Las opciones ausentes conservan su valor por defecto.
+     *
+     * @param args Argumentos de la línea de comandos
+     * @return Configuración de la prueba
+     */
+    public static ConfiguracionCarga configuracionDesde(String[] args) {
+        ConfiguracionCarga configuracion = new ConfiguracionCarga();
+        String valor;
+        if ((valor = valorOpcion(args, "--hilos")) != null) {
+            configuracion.setHilos(Integer.parseInt(valor));
+        }
+        if ((valor = valorOpcion(args, "--segundos")) != null) {
+            configuracion.setSegundos(Double.parseDouble(valor));
+        }
+        if ((valor = valorOpcion(args, "--calentamiento")) != null) {
+            configuracion.setSegundosCalentamiento(Double.parseDouble(valor));
+        }
+        if ((valor = valorOpcion(args, "--precarga")) != null) {
+            configuracion.setPrecarga(Integer.parseInt(valor));
+        }
+        if ((valor = valorOpcion(args, "--mezcla")) != null) {
+            for (ConfiguracionCarga.Operacion operacion : ConfiguracionCarga.Operacion.values()) {
+                configuracion.setPeso(operacion, 0);
+            }
+            for (String par : valor.split(",")) {
+                String[] partes = par.split("=");
+                if (partes.length != 2) {
+                    throw new IllegalArgumentException("Peso de operación inválido: " + par);
+                }
+                configuracion.setPeso(ConfiguracionCarga.Operacion.valueOf(partes[0].trim().toUpperCase()),
+                        Double.parseDouble(partes[1].trim()));
+            }
+        }
+        if (java.util.Arrays.asList(args).contains("--directo")) {
+            configuracion.setDirecto(true);
+        }
+        return configuracion;
+    }
+
+    /**
+     * Obtiene el valor que sigue a una opción de la línea de comandos.
+     *
+     * @param args Argumentos de la línea de comandos
+     * @param opcion Nombre de la opción
+     * @return Valor de la opción, o null si no está presente
+     */
+    static String valorOpcion(String[] args, String opcion) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(opcion)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+}
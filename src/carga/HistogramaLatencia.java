@@ -0,0 +1,128 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package carga;
+
+/**
+ * Histograma de latencias en nanosegundos con intervalos logarítmicos: cada
+ * potencia de dos se divide en 16 intervalos, así que el error relativo de
+ * un percentil es menor al 7% en todo el rango. Registrar una latencia no
+ * crea objetos y dos histogramas se combinan sumando sus intervalos.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class HistogramaLatencia {
+
+    private static final int SUBDIVISIONES = 4;
+    private static final int POR_POTENCIA = 1 << SUBDIVISIONES;
+
+    private final long[] intervalos;
+    private long cantidad;
+    private long suma;
+    private long maximo;
+
+    /**
+     * Constructor que crea un histograma vacío.
+     */
+    public HistogramaLatencia() {
+        this.intervalos = new long[(64 - SUBDIVISIONES + 1) * POR_POTENCIA];
+    }
+
+    /**
+     * Registra una latencia.
+     *
+     * @param nanos Latencia en nanosegundos
+     */
+    public void registrar(long nanos) {
+        long valor = Math.max(0, nanos);
+        intervalos[indice(valor)]++;
+        cantidad++;
+        suma += valor;
+        if (valor > maximo) {
+            maximo = valor;
+        }
+    }
+
+    /**
+     * Suma a este histograma todas las latencias de otro.
+     *
+     * @param otro Histograma a combinar
+     */
+    public void combinar(HistogramaLatencia otro) {
+        for (int i = 0; i < intervalos.length; i++) {
+            intervalos[i] += otro.intervalos[i];
+        }
+        cantidad += otro.cantidad;
+        suma += otro.suma;
+        maximo = Math.max(maximo, otro.maximo);
+    }
+
+    /**
+     * Obtiene la cantidad de latencias registradas.
+     *
+     * @return Número de latencias
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la latencia promedio.
+     *
+     * @return Promedio en nanosegundos, o 0 si está vacío
+     */
+    public double getPromedio() {
+        return cantidad > 0 ? (double) suma / cantidad : 0;
+    }
+
+    /**
+     * Obtiene la latencia máxima registrada.
+     *
+     * @return Máximo en nanosegundos
+     */
+    public long getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * Obtiene un percentil de las latencias registradas. Se devuelve el
+     * límite superior del intervalo que lo contiene, sin pasar del máximo.
+     *
+     * @param percentil Percentil entre 0 y 100
+     * @return Latencia en nanosegundos, o 0 si está vacío
+     */
+    public long getPercentil(double percentil) {
+        if (cantidad == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(cantidad * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < intervalos.length; i++) {
+            acumulado += intervalos[i];
+            if (acumulado >= objetivo) {
+                return Math.min(maximo, limiteSuperior(i));
+            }
+        }
+        return maximo;
+    }
+
+    private static int indice(long valor) {
+        if (valor < POR_POTENCIA) {
+            return (int) valor;
+        }
+        int potencia = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = potencia - SUBDIVISIONES;
+        return (desplazamiento + 1) * POR_POTENCIA + (int) ((valor >>> desplazamiento) - POR_POTENCIA);
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < POR_POTENCIA) {
+            return indice;
+        }
+        int desplazamiento = indice / POR_POTENCIA - 1;
+        long base = (long) (POR_POTENCIA + indice % POR_POTENCIA) << desplazamiento;
+        return base + (1L << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package carga;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import modelo.EstadisticasModelo;
+
+/**
+ * Resultado de una prueba de carga: latencias y operaciones fallidas por
+ * operación, actividad del recolector de basura y bytes asignados durante
+ * la medición, y estado final del modelo. Una operación fallida es la que
+ * no tuvo efecto, por ejemplo atender con la cola vacía.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ResultadoCarga {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final ConfiguracionCarga configuracion;
+    private final int hilos;
+    private final long nanosMedidos;
+    private final long bytesAsignados;
+    private final EstadisticasModelo estadisticas;
+    private final HistogramaLatencia[] latencias;
+    private final long[] fallidas;
+    private final List<String> recolectores;
+    private final List<long[]> recolecciones;
+
+    ResultadoCarga(ConfiguracionCarga configuracion, int hilos, long nanosMedidos, long bytesAsignados,
+            EstadisticasModelo estadisticas) {
+        this.configuracion = configuracion;
+        this.hilos = hilos;
+        this.nanosMedidos = nanosMedidos;
+        this.bytesAsignados = bytesAsignados;
+        this.estadisticas = estadisticas;
+        int operaciones = ConfiguracionCarga.Operacion.values().length;
+        this.latencias = new HistogramaLatencia[operaciones];
+        for (int i = 0; i < operaciones; i++) {
+            latencias[i] = new HistogramaLatencia();
+        }
+        this.fallidas = new long[operaciones];
+        this.recolectores = new ArrayList<>();
+        this.recolecciones = new ArrayList<>();
+    }
+
+    void combinar(HistogramaLatencia[] latenciasHilo, long[] fallidasHilo) {
+        for (int i = 0; i < latencias.length; i++) {
+            latencias[i].combinar(latenciasHilo[i]);
+            fallidas[i] += fallidasHilo[i];
+        }
+    }
+
+    void agregarRecolector(String nombre, long cantidad, long milisegundos) {
+        recolectores.add(nombre);
+        recolecciones.add(new long[]{cantidad, milisegundos});
+    }
+
+    /**
+     * Obtiene la cantidad de operaciones medidas.
+     *
+     * @return Total de operaciones
+     */
+    public long getOperaciones() {
+        long total = 0;
+        for (HistogramaLatencia histograma : latencias) {
+            total += histograma.getCantidad();
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene las operaciones completadas por segundo durante la medición.
+     *
+     * @return Operaciones por segundo
+     */
+    public double getOperacionesPorSegundo() {
+        return getOperaciones() / (nanosMedidos / 1e9);
+    }
+
+    /**
+     * Obtiene las latencias de una operación.
+     *
+     * @param operacion Operación
+     * @return Histograma de latencias en nanosegundos
+     */
+    public HistogramaLatencia getLatencias(ConfiguracionCarga.Operacion operacion) {
+        return latencias[operacion.ordinal()];
+    }
+
+    /**
+     * Obtiene los bytes asignados en todo el proceso durante la medición.
+     *
+     * @return Bytes asignados, o -1 si la máquina virtual no lo permite
+     */
+    public long getBytesAsignados() {
+        return bytesAsignados;
+    }
+
+    /**
+     * Genera el reporte en JSON, en una sola línea. Las latencias están en
+     * nanosegundos y los tiempos del recolector en milisegundos.
+     *
+     * @return Reporte en JSON
+     */
+    public String generarJson() {
+        StringBuilder json = new StringBuilder(2048);
+        json.append("{\"modo\":\"").append(configuracion.isDirecto() ? "directo" : "bucle").append('"');
+        json.append(",\"hilos\":").append(hilos);
+        json.append(",\"segundos\":").append(numero(nanosMedidos / 1e9));
+        json.append(",\"calentamientoSegundos\":").append(numero(configuracion.getSegundosCalentamiento()));
+        json.append(",\"precarga\":").append(configuracion.getPrecarga());
+        long operaciones = getOperaciones();
+        json.append(",\"operaciones\":").append(operaciones);
+        json.append(",\"operacionesPorSegundo\":").append(numero(getOperacionesPorSegundo()));
+
+        json.append(",\"porOperacion\":{");
+        boolean primera = true;
+        for (ConfiguracionCarga.Operacion operacion : ConfiguracionCarga.Operacion.values()) {
+            if (configuracion.getPeso(operacion) == 0) {
+                continue;
+            }
+            HistogramaLatencia histograma = latencias[operacion.ordinal()];
+            json.append(primera ? "" : ",").append('"').append(operacion.name().toLowerCase(Locale.ROOT))
+                    .append("\":{");
+            primera = false;
+            json.append("\"peso\":").append(numero(configuracion.getPeso(operacion)));
+            json.append(",\"cantidad\":").append(histograma.getCantidad());
+            json.append(",\"fallidas\":").append(fallidas[operacion.ordinal()]);
+            json.append(",\"porSegundo\":").append(numero(histograma.getCantidad() / (nanosMedidos / 1e9)));
+            json.append(",\"latenciaNs\":{\"promedio\":").append(numero(histograma.getPromedio()));
+            for (double percentil : PERCENTILES) {
+                json.append(",\"p").append(numero(percentil)).append("\":")
+                        .append(histograma.getPercentil(percentil));
+            }
+            json.append(",\"max\":").append(histograma.getMaximo()).append("}}");
+        }
+        json.append('}');
+
+        json.append(",\"memoria\":{\"bytesAsignados\":").append(bytesAsignados);
+        json.append(",\"bytesPorOperacion\":")
+                .append(bytesAsignados >= 0 && operaciones > 0 ? numero((double) bytesAsignados / operaciones) : "null");
+        json.append(",\"recolectores\":[");
+        for (int i = 0; i < recolectores.size(); i++) {
+            json.append(i > 0 ? "," : "").append("{\"nombre\":\"").append(escapar(recolectores.get(i)))
+                    .append("\",\"recolecciones\":").append(recolecciones.get(i)[0])
+                    .append(",\"tiempoMs\":").append(recolecciones.get(i)[1]).append('}');
+        }
+        json.append("]}");
+
+        json.append(",\"modelo\":{\"version\":").append(estadisticas.getVersion());
+        json.append(",\"enEspera\":").append(estadisticas.getClientesEnEspera());
+        json.append(",\"atendidos\":").append(estadisticas.getClientesAtendidos());
+        json.append(",\"acciones\":").append(estadisticas.getCantidadAcciones()).append("}}");
+        return json.toString();
+    }
+
+    private static String numero(double valor) {
+        if (valor == Math.rint(valor) && Math.abs(valor) < 1e15) {
+            return Long.toString((long) valor);
+        }
+        return String.format(Locale.ROOT, "%.3f", valor).replaceAll("0+$", "");
+    }
+
+    private static String escapar(String texto) {
+        return texto.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package controlador;
+
+import eventos.ConsumidorEventos;
+import eventos.EventoModelo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import modelo.Action;
+import modelo.Cliente;
+
+/**
+ * Reúne los cambios del modelo, que llegan por el {@link eventos.BusEventos}
+ * en el hilo de su consumidor, y los entrega juntos al hilo de la interfaz a
+ * lo sumo cada {@link #INTERVALO_MS} milisegundos. Así una ráfaga de
+ * operaciones produce un solo refresco en lugar de uno por operación.
+ *
+ * Cada cambio lleva el tamaño de la cola y del historial justo después de
+ * aplicarse, con lo que las tablas pueden verificar que siguen alineadas
+ * con el modelo sin leerlo desde el hilo de la interfaz.
+ *
+ * @author Valery
+ * @author Andres
+ */
+final class CambiosPendientes implements ConsumidorEventos {
+
+    /**
+     * Tiempo mínimo entre dos refrescos de la interfaz (unos 30 por segundo).
+     */
+    static final int INTERVALO_MS = 33;
+
+    /**
+     * Cambio del modelo tal como se publicó en el bus.
+     */
+    static final class Cambio {
+
+        /**
+         * Tipo de la acción, o null si es una recarga.
+         */
+        final Action.TipoAccion tipo;
+        final Cliente cliente;
+        final boolean deshecha;
+        final int enEspera;
+        final int atendidos;
+        /**
+         * Cola e historial completos cuando el cambio es una recarga.
+         */
+        final List<Cliente> cola;
+        final List<Cliente> historial;
+
+        private Cambio(Action.TipoAccion tipo, Cliente cliente, boolean deshecha, int enEspera, int atendidos,
+                List<Cliente> cola, List<Cliente> historial) {
+            this.tipo = tipo;
+            this.cliente = cliente;
+            this.deshecha = deshecha;
+            this.enEspera = enEspera;
+            this.atendidos = atendidos;
+            this.cola = cola;
+            this.historial = historial;
+        }
+
+        boolean esRecarga() {
+            return cola != null;
+        }
+    }
+
+    private final Queue<Cambio> cambios;
+    private final AtomicBoolean programado;
+    private final List<Cambio> lote;
+    private final Timer temporizador;
+
+    /**
+     * Constructor que prepara la entrega de cambios. Debe agregarse como
+     * consumidor del bus en el que publica el modelo; las tablas se cargan
+     * con el primer evento ESTADO que llegue
+     * ({@link modelo.Modelo#publicarEstado()}).
+     *
+     * @param alRefrescar Acción que recibe los cambios reunidos, en el hilo
+     * de la interfaz
+     */
+    CambiosPendientes(Consumer<List<Cambio>> alRefrescar) {
+        this.cambios = new ConcurrentLinkedQueue<>();
+        this.programado = new AtomicBoolean();
+        this.lote = new ArrayList<>();
+        this.temporizador = new Timer(INTERVALO_MS, e -> {
+            // Se libera antes de vaciar: lo que llegue durante el refresco
+            // programa el siguiente.
+            programado.set(false);
+            Cambio cambio;
+            while ((cambio = cambios.poll()) != null) {
+                lote.add(cambio);
+            }
+            if (!lote.isEmpty()) {
+                alRefrescar.accept(lote);
+                lote.clear();
+            }
+        });
+        this.temporizador.setRepeats(false);
+    }
+
+    /**
+     * Convierte un evento del bus en un cambio pendiente y programa el
+     * refresco.
+     *
+     * @param evento Evento publicado por el modelo
+     * @param secuencia Secuencia del evento en el bus
+     * @param finDeLote true si es el último evento disponible del lote
+     */
+    @Override
+    public void alEvento(EventoModelo evento, long secuencia, boolean finDeLote) {
+        if (evento.getTipo() == EventoModelo.Tipo.ESTADO) {
+            agregar(new Cambio(null, null, false, evento.getEnEspera(), evento.getAtendidos(), evento.getCola(),
+                    evento.getHistorial()));
+        } else {
+            agregar(new Cambio(evento.getTipoAccion(), evento.getCliente(),
+                    evento.getTipo() == EventoModelo.Tipo.DESHECHO, evento.getEnEspera(), evento.getAtendidos(),
+                    null, null));
+        }
+    }
+
+    private void agregar(Cambio cambio) {
+        cambios.add(cambio);
+        if (programado.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(temporizador::restart);
+        }
+    }
+}
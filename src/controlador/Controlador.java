@@ -4,39 +4,88 @@
  */
 package controlador;
 
+import eventos.BusEventos;
+import modelo.BucleModelo;
 import modelo.Cliente;
+import modelo.EstadisticasModelo;
+import modelo.MetricasModelo;
 import modelo.Modelo;
 import vista.Vista;
 import modelo.Action;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.format.DateTimeFormatter;
-import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import javax.swing.*;
 
 /**
  * Controlador principal que coordina la interacción entre el modelo y la vista.
  * Implementa el patrón MVC como capa de controlador, gestionando los eventos
  * de la interfaz de usuario y actualizando el modelo y vista correspondientemente.
+ *
+ * El modelo pertenece a un {@link BucleModelo}: cada botón envía su
+ * operación a ese hilo y el resultado se muestra en el hilo de la interfaz
+ * cuando está listo, de modo que este hilo solo pinta. Los cambios del
+ * modelo llegan por su bus de eventos, reunidos por
+ * {@link CambiosPendientes}, y solo se actualiza
+ * lo que cambió. Las búsquedas y las estadísticas se leen de la última
+ * {@link modelo.InstantaneaModelo} sin pasar por el bucle; el historial de
+ * acciones, que sí debe pedirse al bucle, se vuelve a generar a lo sumo
+ * cada {@link #INTERVALO_HISTORIAL_MS} milisegundos y solo mientras su
+ * pestaña está a la vista. El tablero en vivo se alimenta aparte,
+ * muestreando las métricas del modelo cada segundo con
+ * {@link MuestreadorTablero}.
  * 
  * @author mi pc
  */
 public class Controlador implements ActionListener {
-    private Modelo modelo;
+
+    /**
+     * Formato de fecha y hora de las tablas y mensajes.
+     */
+    static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /**
+     * Tiempo mínimo entre dos actualizaciones de la pestaña de historial.
+     */
+    static final int INTERVALO_HISTORIAL_MS = 1000;
+
+    private final BucleModelo bucle;
+    private final Executor hiloInterfaz;
     private Vista vista;
-    private DateTimeFormatter formatter;
+    private ModeloTablaEspera modeloEspera;
+    private ModeloTablaAtendidos modeloAtendidos;
+    private CambiosPendientes cambios;
+    private MuestreadorTablero muestreador;
+    private boolean recargaPendiente;
+    private boolean historialVisible;
+    private boolean estadisticasVisibles;
+    private boolean historialDesactualizado;
+    private long versionEstadisticas = -1;
+    private Timer temporizadorHistorial;
+
     /**
      * Constructor que inicializa el controlador y configura los componentes.
+     * Toma posesión del modelo: desde aquí solo se modifica en el hilo del
+     * bucle.
      * 
      * @param modelo Instancia del modelo del sistema
      * @param vista Instancia de la vista del sistema
+     * @param bus Bus de eventos aún sin iniciar, con los demás consumidores
+     * ya agregados; el controlador agrega el suyo, lo inicia y lo conecta
+     * al modelo
      */
-    public Controlador(Modelo modelo, Vista vista) {
-        this.modelo = modelo;
+    public Controlador(Modelo modelo, Vista vista, BusEventos bus) {
+        // Las métricas se pueden leer desde cualquier hilo; se toman antes de
+        // entregar el modelo al bucle
+        MetricasModelo metricas = modelo.getMetricas();
+        this.bucle = new BucleModelo(modelo);
+        this.hiloInterfaz = SwingUtilities::invokeLater;
         this.vista = vista;
-        this.formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
         // Configurar componentes de la interfaz
         vista.getTxtId().setEditable(false);
@@ -54,10 +103,40 @@ public class Controlador implements ActionListener {
         configurarCombobox();
         configurarTablas();
 
-        // Cargar datos iniciales
-        actualizarTablaClientesEnEspera();
-        actualizarTablaClientesAtendidos();
-        actualizarIdPrimerCliente();
+        // El historial y las estadísticas se ponen al día con poca frecuencia
+        // y solo cuando su pestaña se muestra
+        temporizadorHistorial = new Timer(INTERVALO_HISTORIAL_MS, e -> actualizarPestanaHistorial());
+        temporizadorHistorial.setRepeats(false);
+        vista.getPanelPestanas().addChangeListener(e -> {
+            if (historialDesactualizado) {
+                actualizarPestanaHistorial();
+            }
+        });
+
+        // Cargar datos iniciales: el primer evento del bus es el estado
+        // completo de la cola y del historial
+        cambios = new CambiosPendientes(this::refrescar);
+        bus.agregarConsumidor("interfaz", cambios);
+        bus.iniciar();
+        bucle.enviar(m -> {
+            m.conectarBus(bus);
+            m.publicarEstado();
+            return null;
+        });
+
+        // Alimentar el tablero en vivo sin pasar por el bucle
+        muestreador = new MuestreadorTablero(metricas, vista.getPanelTablero());
+        muestreador.iniciar();
+    }
+
+    /**
+     * Obtiene el bucle dueño del modelo, para enviarle operaciones desde
+     * otros componentes.
+     *
+     * @return Bucle del modelo
+     */
+    public BucleModelo getBucle() {
+        return bucle;
     }
 
     /**
@@ -65,29 +144,24 @@ public class Controlador implements ActionListener {
      * Valida los datos de entrada y actualiza la interfaz.
      */
     public void registrar() {
-        try {
-            String nombre = vista.getTxtNombre().getText().trim();
-            if (nombre.isEmpty()) {
-                JOptionPane.showMessageDialog(vista, "El nombre no puede estar vacío", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        String nombre = vista.getTxtNombre().getText().trim();
+        if (nombre.isEmpty()) {
+            JOptionPane.showMessageDialog(vista, "El nombre no puede estar vacío", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            Cliente.TipoSolicitud tipoSolicitud = obtenerTipoSolicitudSeleccionado();
-            Cliente.Prioridad prioridad = obtenerPrioridadSeleccionada();
+        Cliente.TipoSolicitud tipoSolicitud = obtenerTipoSolicitudSeleccionado();
+        Cliente.Prioridad prioridad = obtenerPrioridadSeleccionada();
 
-            Cliente nuevoCliente = modelo.agregarCliente(nombre, tipoSolicitud, prioridad);
+        alTerminar(bucle.agregarCliente(nombre, tipoSolicitud, prioridad), "Error", nuevoCliente -> {
             if (nuevoCliente != null) {
-                actualizarTablaClientesEnEspera();
-                actualizarIdPrimerCliente();
                 limpiarCamposRegistro();
                 JOptionPane.showMessageDialog(vista,
                         "Cliente registrado exitosamente\nID: " + nuevoCliente.getId(),
                         "Éxito",
                         JOptionPane.INFORMATION_MESSAGE);
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(vista, "Error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     /**
@@ -95,8 +169,8 @@ public class Controlador implements ActionListener {
      * Utiliza el sistema híbrido de puntos para determinar el orden de atención.
      */
     private void atender() {
-        try {
-            if (!modelo.getGestionClientes().hayClientesEnEspera()) {
+        alTerminar(bucle.atenderCliente(), "Error al atender cliente", clienteAtendido -> {
+            if (clienteAtendido == null) {
                 JOptionPane.showMessageDialog(vista,
                         "No hay clientes en espera para atender",
                         "Información",
@@ -104,32 +178,23 @@ public class Controlador implements ActionListener {
                 return;
             }
 
-            Cliente clienteAtendido = modelo.atenderCliente();
-            if (clienteAtendido != null) {
-                actualizarTablaClientesEnEspera();
-                actualizarIdPrimerCliente();
-                actualizarTablaClientesAtendidos();
-
-                // Mensaje informativo sobre el sistema de prioridades
-                String mensajeSistema = "";
-                if (clienteAtendido.getPrioridad() == Cliente.Prioridad.URGENTE) {
-                    mensajeSistema = "\n Prioridad URGENTE + posición en cola";
-                } else {
-                    mensajeSistema = "\n Prioridad NORMAL + posición en cola";
-                }
-
-                JOptionPane.showMessageDialog(vista,
-                        "CLIENTE ATENDIDO\n"
-                        + "Nombre: " + clienteAtendido.getNombre() + "\n"
-                        + "ID: " + clienteAtendido.getId() + "\n"
-                        + "Tipo: " + clienteAtendido.getTipoSolicitud() 
-                        + mensajeSistema,
-                        "Cliente Atendido",
-                        JOptionPane.INFORMATION_MESSAGE);
+            // Mensaje informativo sobre el sistema de prioridades
+            String mensajeSistema = "";
+            if (clienteAtendido.getPrioridad() == Cliente.Prioridad.URGENTE) {
+                mensajeSistema = "\n Prioridad URGENTE + posición en cola";
+            } else {
+                mensajeSistema = "\n Prioridad NORMAL + posición en cola";
             }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(vista, "Error al atender cliente: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+
+            JOptionPane.showMessageDialog(vista,
+                    "CLIENTE ATENDIDO\n"
+                    + "Nombre: " + clienteAtendido.getNombre() + "\n"
+                    + "ID: " + clienteAtendido.getId() + "\n"
+                    + "Tipo: " + clienteAtendido.getTipoSolicitud() 
+                    + mensajeSistema,
+                    "Cliente Atendido",
+                    JOptionPane.INFORMATION_MESSAGE);
+        });
     }
 
     /**
@@ -137,29 +202,23 @@ public class Controlador implements ActionListener {
      * Requiere que el usuario seleccione un cliente de la tabla.
      */
     private void eliminar() {
-        try {
-            // Obtener la fila seleccionada en la tabla de clientes en espera
-            int filaSeleccionada = vista.getTblClientesEnEspera().getSelectedRow();
+        // Obtener la fila seleccionada en la tabla de clientes en espera
+        int filaSeleccionada = vista.getTblClientesEnEspera().getSelectedRow();
 
-            if (filaSeleccionada == -1) {
-                JOptionPane.showMessageDialog(vista,
-                        "Por favor, seleccione un cliente de la tabla para eliminar",
-                        "Selección Requerida",
-                        JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-
-            // Obtener el ID del cliente seleccionado (columna 0 es ID)
-            String idSeleccionado = (String) vista.getTblClientesEnEspera().getValueAt(filaSeleccionada, 0);
+        if (filaSeleccionada == -1) {
+            JOptionPane.showMessageDialog(vista,
+                    "Por favor, seleccione un cliente de la tabla para eliminar",
+                    "Selección Requerida",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
-            // Eliminar el cliente seleccionado directamente
-            Cliente clienteEliminado = modelo.eliminarClientePorId(idSeleccionado);
+        // Obtener el ID del cliente seleccionado (columna 0 es ID)
+        String idSeleccionado = (String) vista.getTblClientesEnEspera().getValueAt(filaSeleccionada, 0);
 
+        // Eliminar el cliente seleccionado directamente
+        alTerminar(bucle.eliminarClientePorId(idSeleccionado), "Error al eliminar cliente", clienteEliminado -> {
             if (clienteEliminado != null) {
-                // Actualizar las vistas
-                actualizarTablaClientesEnEspera();
-                actualizarIdPrimerCliente();
-
                 // Mensaje simple de confirmación
                 JOptionPane.showMessageDialog(vista,
                         "Cliente eliminado: " + clienteEliminado.getNombre(),
@@ -171,56 +230,51 @@ public class Controlador implements ActionListener {
                         "Error",
                         JOptionPane.ERROR_MESSAGE);
             }
-
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(vista,
-                    "Error al eliminar cliente: " + ex.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
-        }
+        });
     }
 
     /**
-     * Busca un cliente en el historial por su ID.
-     * Muestra los resultados en un cuadro de diálogo.
+     * Busca un cliente en el historial por su ID, en la última instantánea
+     * publicada. Muestra los resultados en un cuadro de diálogo.
      */
     private void buscar() {
-        try {
-            String id = vista.getTxtBuscarId().getText().trim();
-            if (id.isEmpty()) {
-                JOptionPane.showMessageDialog(vista, "Ingrese un ID para buscar", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        String id = vista.getTxtBuscarId().getText().trim();
+        if (id.isEmpty()) {
+            JOptionPane.showMessageDialog(vista, "Ingrese un ID para buscar", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            Cliente cliente = modelo.buscarCliente(id);
-            if (cliente != null) {
-                JOptionPane.showMessageDialog(vista,
-                        "=== CLIENTE ENCONTRADO ===\n" + cliente.toString(),
-                        "Resultado de Búsqueda",
-                        JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(vista,
-                        "Cliente con ID " + id + " no encontrado",
-                        "Búsqueda",
-                        JOptionPane.WARNING_MESSAGE);
-            }
-            vista.getTxtBuscarId().setText("");
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(vista, "Error en búsqueda: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        Cliente cliente = bucle.getInstantanea().buscarAtendido(id);
+        if (cliente != null) {
+            JOptionPane.showMessageDialog(vista,
+                    "=== CLIENTE ENCONTRADO ===\n" + cliente,
+                    "Resultado de Búsqueda",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(vista,
+                    "Cliente con ID " + id + " no encontrado",
+                    "Búsqueda",
+                    JOptionPane.WARNING_MESSAGE);
         }
+        vista.getTxtBuscarId().setText("");
     }
 
     /**
-     * Consulta y muestra el historial completo de acciones realizadas.
+     * Consulta y muestra el historial completo de acciones realizadas. Desde
+     * la primera consulta se mantiene al día con cada cambio.
      */
     private void consultarH() {
-        try {
-            String historial = modelo.obtenerHistorialAcciones();
-            vista.getTxtHistorialAcciones().setText(historial);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(vista, "Error al consultar historial: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        historialVisible = true;
+        historialDesactualizado = false;
+        alTerminar(bucle.enviar(Modelo::obtenerHistorialAcciones), "Error al consultar historial",
+                historial -> {
+                    vista.getTxtHistorialAcciones().setText(historial);
+                    // El resultado llega después de publicar la instantánea,
+                    // así que sus estadísticas ya incluyen el historial
+                    if (estadisticasVisibles) {
+                        mostrarEstadisticas();
+                    }
+                });
     }
 
     /**
@@ -228,8 +282,8 @@ public class Controlador implements ActionListener {
      * Solicita confirmación al usuario antes de ejecutar.
      */
     private void undo() {
-        try {
-            if (!modelo.hayAccionesParaDeshacer()) {
+        alTerminar(bucle.enviar(Modelo::obtenerUltimaAccion), "Error al deshacer", ultimaAccion -> {
+            if (ultimaAccion == null) {
                 JOptionPane.showMessageDialog(vista,
                         "No hay acciones para deshacer",
                         "Información",
@@ -237,75 +291,128 @@ public class Controlador implements ActionListener {
                 return;
             }
 
-            Action ultimaAccion = modelo.obtenerUltimaAccion();
-            if (ultimaAccion == null) {
-                JOptionPane.showMessageDialog(vista,
-                        "No se pudo obtener la última acción",
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
             // Mostrar confirmación al usuario
             int confirmacion = JOptionPane.showConfirmDialog(vista,
                     "¿Está seguro de que desea deshacer la siguiente acción?\n\n"
                     + "Acción: " + ultimaAccion.getTipo() + "\n"
                     + "Cliente: " + ultimaAccion.getCliente().getNombre() + " (ID: " + ultimaAccion.getCliente().getId() + ")\n"
-                    + "Fecha: " + ultimaAccion.getFechaHora().format(formatter),
+                    + "Fecha: " + ultimaAccion.getFechaHora().format(FORMATO_FECHA)
+                    + (ultimaAccion.perteneceAGrupo() ? "\nGrupo: " + ultimaAccion.getNombreGrupo() + " (se deshará completo)" : ""),
                     "Confirmar Deshacer",
                     JOptionPane.YES_NO_OPTION,
                     JOptionPane.QUESTION_MESSAGE);
 
-            if (confirmacion == JOptionPane.YES_OPTION) {
-                boolean exito = modelo.deshacerUltimaAccion();
+            if (confirmacion != JOptionPane.YES_OPTION) {
+                return;
+            }
+            // Solo se deshace la acción confirmada, no otra que haya llegado
+            // mientras el diálogo estaba abierto
+            alTerminar(bucle.enviar(m -> m.obtenerUltimaAccion() == ultimaAccion && m.deshacerUltimaAccion()),
+                    "Error al deshacer", exito -> {
+                        if (exito) {
+                            JOptionPane.showMessageDialog(vista,
+                                    "Acción deshecha exitosamente",
+                                    "Éxito",
+                                    JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(vista,
+                                    "Error al deshacer la acción",
+                                    "Error",
+                                    JOptionPane.ERROR_MESSAGE);
+                        }
+                    });
+        });
+    }
 
-                if (exito) {
-                    // ACTUALIZAR TODAS LAS TABLAS Y VISTAS
-                    actualizarTablaClientesEnEspera();
-                    actualizarIdPrimerCliente();
-                    actualizarTablaClientesAtendidos();
+    /**
+     * Genera y muestra las estadísticas del sistema. Desde la primera
+     * consulta se mantienen al día con cada cambio.
+     */
+    private void generarE() {
+        estadisticasVisibles = true;
+        mostrarEstadisticas();
+    }
 
-                    // Si hay área de texto de historial, actualizarla también
-                    if (vista.getTxtHistorialAcciones() != null) {
-                        consultarH(); // Actualizar el historial de acciones
-                    }
+    /**
+     * Muestra las estadísticas de la última instantánea publicada. El texto
+     * solo se regenera si cambiaron desde la vez anterior.
+     */
+    private void mostrarEstadisticas() {
+        EstadisticasModelo estadisticas = bucle.getInstantanea().getEstadisticas();
+        if (estadisticas.getVersion() != versionEstadisticas) {
+            versionEstadisticas = estadisticas.getVersion();
+            vista.getTxtEstadisticas().setText(estadisticas.generarTexto());
+        }
+    }
 
-                    // Si hay área de texto de estadísticas, actualizarla
-                    if (vista.getTxtEstadisticas() != null) {
-                        generarE(); // Actualizar estadísticas
-                    }
+    /**
+     * Pone al día la pestaña de historial si está a la vista. Si no lo
+     * está, queda pendiente hasta que se seleccione.
+     */
+    private void actualizarPestanaHistorial() {
+        if (!historialDesactualizado || !vista.getTxtHistorialAcciones().isShowing()) {
+            return;
+        }
+        if (historialVisible) {
+            consultarH();
+        } else {
+            historialDesactualizado = false;
+            mostrarEstadisticas();
+        }
+    }
 
-                    JOptionPane.showMessageDialog(vista,
-                            "Acción deshecha exitosamente",
-                            "Éxito",
-                            JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(vista,
-                            "Error al deshacer la acción",
-                            "Error",
-                            JOptionPane.ERROR_MESSAGE);
+    /**
+     * Aplica en el hilo de la interfaz los cambios reunidos desde el último
+     * refresco. Las tablas reciben solo las filas afectadas y el ID se
+     * actualiza; el historial y las estadísticas quedan programados con
+     * {@link #actualizarPestanaHistorial()}.
+     *
+     * @param lote Cambios en el orden en que ocurrieron
+     */
+    private void refrescar(List<CambiosPendientes.Cambio> lote) {
+        for (CambiosPendientes.Cambio cambio : lote) {
+            if (cambio.esRecarga()) {
+                modeloEspera.cargar(cambio.cola);
+                modeloAtendidos.cargar(cambio.historial);
+                recargaPendiente = false;
+            } else if (cambio.tipo != null && !recargaPendiente) {
+                boolean alineadas = modeloEspera.aplicar(cambio.tipo, cambio.cliente, cambio.deshecha,
+                        cambio.enEspera) && (cambio.tipo != Action.TipoAccion.ATENDER
+                        || modeloAtendidos.aplicar(cambio.cliente, cambio.deshecha, cambio.atendidos));
+                if (!alineadas) {
+                    // Las tablas se desalinearon del modelo: se ignoran los
+                    // cambios hasta que llegue la recarga, que se publica
+                    // detrás de los que ya ocurrieron.
+                    recargaPendiente = true;
+                    bucle.enviar(m -> {
+                        m.publicarEstado();
+                        return null;
+                    });
                 }
             }
-
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(vista,
-                    "Error al deshacer: " + ex.getMessage(),
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
+        }
+        actualizarIdPrimerCliente();
+        if (historialVisible || estadisticasVisibles) {
+            historialDesactualizado = true;
+            if (!temporizadorHistorial.isRunning()) {
+                temporizadorHistorial.start();
+            }
         }
     }
 
     /**
-     * Genera y muestra las estadísticas del sistema.
+     * Muestra el resultado de una operación del modelo en el hilo de la
+     * interfaz, o un mensaje si la operación falló.
      */
-    private void generarE() {
-        try {
-            String estadisticas = modelo.generarEstadisticas();
-            vista.getTxtEstadisticas().setText(estadisticas);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(vista, "Error al generar estadísticas: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    private <T> void alTerminar(CompletableFuture<T> operacion, String titulo, Consumer<T> accion) {
+        operacion.whenCompleteAsync((resultado, error) -> {
+            if (error == null) {
+                accion.accept(resultado);
+                return;
+            }
+            Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            JOptionPane.showMessageDialog(vista, titulo + ": " + causa.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }, hiloInterfaz);
     }
 
     /**
@@ -326,76 +433,16 @@ public class Controlador implements ActionListener {
      * Configura los modelos de tabla para clientes en espera y atendidos.
      */
     private void configurarTablas() {
-        // Modelo para tabla de clientes en espera
-        String[] columnasEspera = {"ID", "Nombre", "Tipo Solicitud", "Prioridad", "Hora Ingreso"};
-        DefaultTableModel modelEspera = new DefaultTableModel(columnasEspera, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Hacer la tabla no editable
-            }
-        };
-        vista.getTblClientesEnEspera().setModel(modelEspera);
-
-        // Modelo para tabla de clientes atendidos
-        String[] columnasAtendidos = {"ID", "Nombre", "Tipo Solicitud", "Prioridad", "Hora Ingreso", "Hora Atención", "Tiempo Espera (min)"};
-        DefaultTableModel modelAtendidos = new DefaultTableModel(columnasAtendidos, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Hacer la tabla no editable
-            }
-        };
-        vista.getTblClientesAtendidos().setModel(modelAtendidos);
-    }
-
-    // ==================== MÉTODOS AUXILIARES ====================
-
-    /**
-     * Actualiza la tabla de clientes en espera con los datos actuales del modelo.
-     */
-    private void actualizarTablaClientesEnEspera() {
-        DefaultTableModel model = (DefaultTableModel) vista.getTblClientesEnEspera().getModel();
-        model.setRowCount(0); // Limpiar tabla
-
-        List<Cliente> clientesEnEspera = modelo.getGestionClientes().getClientesEnEspera();
-        for (Cliente cliente : clientesEnEspera) {
-            Object[] fila = {
-                cliente.getId(),
-                cliente.getNombre(),
-                cliente.getTipoSolicitud(),
-                cliente.getPrioridad(),
-                cliente.getFechaLlegada().format(formatter)
-            };
-            model.addRow(fila);
-        }
+        // Modelo para tabla de clientes en espera, que sigue los cambios de la cola
+        modeloEspera = new ModeloTablaEspera();
+        vista.getTblClientesEnEspera().setModel(modeloEspera);
 
-        // Forzar repintado de la tabla
-        vista.getTblClientesEnEspera().repaint();
+        // Modelo para tabla de clientes atendidos, que lee el historial por posición
+        modeloAtendidos = new ModeloTablaAtendidos();
+        vista.getTblClientesAtendidos().setModel(modeloAtendidos);
     }
 
-    /**
-     * Actualiza la tabla de clientes atendidos con los datos actuales del historial.
-     */
-    private void actualizarTablaClientesAtendidos() {
-        DefaultTableModel model = (DefaultTableModel) vista.getTblClientesAtendidos().getModel();
-        model.setRowCount(0); // Limpiar tabla
-
-        List<Cliente> clientesAtendidos = modelo.getHistorial().getClientesAtendidos();
-        for (Cliente cliente : clientesAtendidos) {
-            Object[] fila = {
-                cliente.getId(),
-                cliente.getNombre(),
-                cliente.getTipoSolicitud(),
-                cliente.getPrioridad(),
-                cliente.getFechaLlegada().format(formatter),
-                cliente.getFechaAtencion() != null ? cliente.getFechaAtencion().format(formatter) : "N/A",
-                cliente.calcularTiempoAtencion() > 0 ? cliente.calcularTiempoAtencion() + " min" : "N/A"
-            };
-            model.addRow(fila);
-        }
-
-        // Forzar repintado de la tabla
-        vista.getTblClientesAtendidos().repaint();
-    }
+    // ==================== MÉTODOS AUXILIARES ====================
 
     /**
      * Limpia los campos del formulario de registro.
@@ -427,12 +474,12 @@ public class Controlador implements ActionListener {
     }
 
     /**
-     * Actualiza el campo de ID con el primer cliente en la cola de espera.
+     * Actualiza el campo de ID con el primer cliente en la cola de espera,
+     * que es la primera fila de la tabla.
      */
     private void actualizarIdPrimerCliente() {
-        Cliente primerCliente = modelo.getGestionClientes().obtenerSiguienteCliente();
-        if (primerCliente != null) {
-            vista.getTxtId().setText(primerCliente.getId());
+        if (modeloEspera.getRowCount() > 0) {
+            vista.getTxtId().setText(modeloEspera.getCliente(0).getId());
         } else {
             vista.getTxtId().setText("No hay clientes en espera");
         }
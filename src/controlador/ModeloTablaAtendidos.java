@@ -0,0 +1,151 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package controlador;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+import modelo.Cliente;
+
+/**
+ * Modelo de la tabla de clientes atendidos. Guarda solo las referencias a
+ * los clientes en orden de atención, como {@link modelo.Historial}; la
+ * tabla pide las filas que pinta y se leen por posición. Los textos de las
+ * filas pedidas se guardan en una caché pequeña de tamaño fijo, suficiente
+ * para la parte visible de la tabla, así que el costo de pintar no depende
+ * de cuántos clientes se hayan atendido.
+ *
+ * Cada atención agrega una fila al final y deshacerla quita esa misma fila,
+ * de modo que a la tabla solo se le avisa de esa fila.
+ *
+ * Se usa solo en el hilo de la interfaz: el historial pertenece al hilo del
+ * modelo, así que las filas llegan por {@link CambiosPendientes}. Un cliente
+ * atendido no cambia mientras está en el historial, por lo que se puede
+ * leer desde este hilo.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ModeloTablaAtendidos extends AbstractTableModel {
+
+    private static final String[] COLUMNAS = {"ID", "Nombre", "Tipo Solicitud", "Prioridad", "Hora Ingreso",
+        "Hora Atención", "Tiempo Espera (min)"};
+
+    /**
+     * Filas guardadas en la caché; potencia de dos mayor que las filas que
+     * caben en pantalla.
+     */
+    private static final int FILAS_EN_CACHE = 256;
+
+    private final List<Cliente> filas;
+    private final Object[][] cache;
+    private final int[] filaEnCache;
+
+    /**
+     * Constructor de una tabla vacía hasta la primera carga.
+     */
+    public ModeloTablaAtendidos() {
+        this.filas = new ArrayList<>();
+        this.cache = new Object[FILAS_EN_CACHE][];
+        this.filaEnCache = new int[FILAS_EN_CACHE];
+        Arrays.fill(filaEnCache, -1);
+    }
+
+    /**
+     * Reemplaza todas las filas por el historial indicado.
+     *
+     * @param historial Clientes atendidos en orden de atención
+     */
+    void cargar(List<Cliente> historial) {
+        filas.clear();
+        filas.addAll(historial);
+        Arrays.fill(filaEnCache, -1);
+        Arrays.fill(cache, null);
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return filas.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        int posicion = fila & (FILAS_EN_CACHE - 1);
+        if (filaEnCache[posicion] != fila) {
+            cache[posicion] = formatear(filas.get(fila));
+            filaEnCache[posicion] = fila;
+        }
+        return cache[posicion][columna];
+    }
+
+    private static Object[] formatear(Cliente cliente) {
+        // La fecha de atención se lee una sola vez: el hilo del modelo la
+        // borra al deshacer la atención, antes de que llegue el cambio.
+        LocalDateTime atencion = cliente.getFechaAtencion();
+        long tiempo = atencion != null ? Duration.between(cliente.getFechaLlegada(), atencion).toMinutes() : -1;
+        return new Object[]{
+            cliente.getId(),
+            cliente.getNombre(),
+            cliente.getTipoSolicitud(),
+            cliente.getPrioridad(),
+            cliente.getFechaLlegada().format(Controlador.FORMATO_FECHA),
+            atencion != null ? atencion.format(Controlador.FORMATO_FECHA) : "N/A",
+            tiempo > 0 ? tiempo + " min" : "N/A"
+        };
+    }
+
+    /**
+     * Aplica una atención o su deshacer sobre las filas. Las atenciones se
+     * deshacen en orden inverso, así que el cliente que sale del historial
+     * es siempre el último.
+     *
+     * @param cliente Cliente atendido
+     * @param deshecha true si la atención se deshizo
+     * @param atendidos Tamaño del historial después de la acción
+     * @return false si las filas ya no coinciden con el historial y hay que
+     * volver a cargarlas
+     */
+    boolean aplicar(Cliente cliente, boolean deshecha, int atendidos) {
+        int anterior = filas.size();
+        if (atendidos == anterior) {
+            return true;
+        }
+        if (!deshecha && atendidos == anterior + 1) {
+            olvidar(anterior);
+            filas.add(cliente);
+            fireTableRowsInserted(anterior, anterior);
+            return true;
+        }
+        if (deshecha && atendidos == anterior - 1 && filas.get(anterior - 1) == cliente) {
+            filas.remove(anterior - 1);
+            olvidar(anterior - 1);
+            fireTableRowsDeleted(anterior - 1, anterior - 1);
+            return true;
+        }
+        return false;
+    }
+
+    private void olvidar(int fila) {
+        int posicion = fila & (FILAS_EN_CACHE - 1);
+        if (filaEnCache[posicion] == fila) {
+            filaEnCache[posicion] = -1;
+            cache[posicion] = null;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package controlador;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+import modelo.Action;
+import modelo.Cliente;
+
+/**
+ * Modelo de la tabla de clientes en espera. Mantiene las filas en el mismo
+ * orden que la cola y las actualiza con cada cambio del modelo, avisando a
+ * la tabla solo de la fila que entró o salió; así registrar o atender no
+ * reconstruye la tabla ni la repinta completa.
+ *
+ * Los clientes entran al final (registro, deshacer una eliminación) o al
+ * inicio (deshacer una atención) y salen de cualquier posición. Las filas
+ * se guardan en un arreglo de ranuras que crece hacia ambos lados, con un
+ * mapa por identidad de cada cliente a su ranura. Al salir, la ranura
+ * queda vacía en lugar de correr las siguientes; un árbol de Fenwick sobre
+ * las ranuras ocupadas traduce entre ranura y número de fila. Así cada
+ * cambio cuesta O(log n) en el hilo de la interfaz. Las ranuras vacías se
+ * compactan cuando superan a las ocupadas o cuando un extremo se llena.
+ * Los textos de cada celda se generan recién cuando la tabla la pinta.
+ *
+ * Se usa solo en el hilo de la interfaz: no lee el modelo, que pertenece a
+ * otro hilo, sino los cambios que le entrega {@link CambiosPendientes}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ModeloTablaEspera extends AbstractTableModel {
+
+    private static final String[] COLUMNAS = {"ID", "Nombre", "Tipo Solicitud", "Prioridad", "Hora Ingreso"};
+
+    private static final int CAPACIDAD_MINIMA = 64;
+
+    private final Map<Cliente, Integer> ranuraPorCliente;
+    private Cliente[] ranuras;
+    private int[] ocupadas;
+    private int inicio;
+    private int fin;
+    private int cantidad;
+
+    /**
+     * Constructor de una tabla vacía hasta la primera carga.
+     */
+    public ModeloTablaEspera() {
+        this.ranuraPorCliente = new IdentityHashMap<>();
+        reconstruir(List.of());
+    }
+
+    /**
+     * Reemplaza todas las filas por la cola indicada.
+     *
+     * @param cola Clientes en espera en orden
+     */
+    void cargar(List<Cliente> cola) {
+        reconstruir(cola);
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return cantidad;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        Cliente cliente = getCliente(fila);
+        switch (columna) {
+            case 0:
+                return cliente.getId();
+            case 1:
+                return cliente.getNombre();
+            case 2:
+                return cliente.getTipoSolicitud();
+            case 3:
+                return cliente.getPrioridad();
+            default:
+                return cliente.getFechaLlegada().format(Controlador.FORMATO_FECHA);
+        }
+    }
+
+    /**
+     * Obtiene el cliente que se muestra en una fila.
+     *
+     * @param fila Índice de la fila en el modelo de la tabla
+     * @return Cliente de esa fila
+     */
+    public Cliente getCliente(int fila) {
+        if (fila < 0 || fila >= cantidad) {
+            throw new IndexOutOfBoundsException("Fila: " + fila + ", filas: " + cantidad);
+        }
+        return ranuras[ranuraDeFila(fila)];
+    }
+
+    /**
+     * Aplica una acción del modelo sobre las filas.
+     *
+     * @param tipo Tipo de la acción
+     * @param cliente Cliente afectado
+     * @param deshecha true si la acción se deshizo
+     * @param enEspera Tamaño de la cola después de la acción
+     * @return false si las filas ya no coinciden con la cola y hay que
+     * volver a cargarlas
+     */
+    boolean aplicar(Action.TipoAccion tipo, Cliente cliente, boolean deshecha, int enEspera) {
+        if (enEspera == cantidad) {
+            // La acción no cambió la cola, por ejemplo al deshacer una
+            // eliminación de un ID que ya estaba en ella.
+            return true;
+        }
+        boolean entra = tipo == Action.TipoAccion.REGISTRAR ? !deshecha : deshecha;
+        if (entra && enEspera == cantidad + 1 && !ranuraPorCliente.containsKey(cliente)) {
+            if (tipo == Action.TipoAccion.ATENDER) {
+                insertarAlInicio(cliente);
+            } else {
+                insertarAlFinal(cliente);
+            }
+            return true;
+        }
+        return !entra && enEspera == cantidad - 1 && quitar(cliente);
+    }
+
+    private void insertarAlInicio(Cliente cliente) {
+        if (inicio == 0) {
+            compactar();
+        }
+        ocupar(--inicio, cliente);
+        fireTableRowsInserted(0, 0);
+    }
+
+    private void insertarAlFinal(Cliente cliente) {
+        if (fin == ranuras.length) {
+            compactar();
+        }
+        ocupar(fin++, cliente);
+        fireTableRowsInserted(cantidad - 1, cantidad - 1);
+    }
+
+    private void ocupar(int ranura, Cliente cliente) {
+        ranuras[ranura] = cliente;
+        ranuraPorCliente.put(cliente, ranura);
+        sumar(ranura, 1);
+        cantidad++;
+    }
+
+    private boolean quitar(Cliente cliente) {
+        Integer ranura = ranuraPorCliente.remove(cliente);
+        if (ranura == null) {
+            return false;
+        }
+        int fila = contarHasta(ranura) - 1;
+        ranuras[ranura] = null;
+        sumar(ranura, -1);
+        cantidad--;
+        if (fin - inicio - cantidad > Math.max(cantidad, CAPACIDAD_MINIMA)) {
+            compactar();
+        }
+        fireTableRowsDeleted(fila, fila);
+        return true;
+    }
+
+    /**
+     * Vuelve a construir las ranuras sin huecos; las filas no cambian.
+     */
+    private void compactar() {
+        Cliente[] clientes = new Cliente[cantidad];
+        int siguiente = 0;
+        for (int ranura = inicio; ranura < fin; ranura++) {
+            if (ranuras[ranura] != null) {
+                clientes[siguiente++] = ranuras[ranura];
+            }
+        }
+        reconstruir(List.of(clientes));
+    }
+
+    /**
+     * Ubica los clientes en ranuras consecutivas, con espacio libre a ambos
+     * lados, y arma el árbol de ranuras ocupadas en tiempo lineal.
+     */
+    private void reconstruir(List<Cliente> clientes) {
+        int capacidad = Math.max(CAPACIDAD_MINIMA, 2 * clientes.size());
+        ranuras = new Cliente[capacidad];
+        ocupadas = new int[capacidad + 1];
+        ranuraPorCliente.clear();
+        inicio = (capacidad - clientes.size()) / 4;
+        fin = inicio;
+        for (Cliente cliente : clientes) {
+            ranuras[fin] = cliente;
+            ranuraPorCliente.put(cliente, fin);
+            ocupadas[fin + 1] = 1;
+            fin++;
+        }
+        cantidad = clientes.size();
+        for (int i = 1; i < ocupadas.length; i++) {
+            int padre = i + (i & -i);
+            if (padre < ocupadas.length) {
+                ocupadas[padre] += ocupadas[i];
+            }
+        }
+    }
+
+    private void sumar(int ranura, int delta) {
+        for (int i = ranura + 1; i < ocupadas.length; i += i & -i) {
+            ocupadas[i] += delta;
+        }
+    }
+
+    /**
+     * Cuenta las ranuras ocupadas desde la primera hasta la indicada,
+     * inclusive.
+     */
+    private int contarHasta(int ranura) {
+        int suma = 0;
+        for (int i = ranura + 1; i > 0; i -= i & -i) {
+            suma += ocupadas[i];
+        }
+        return suma;
+    }
+
+    /**
+     * Busca la ranura ocupada número {@code fila} (desde 0) bajando por el
+     * árbol.
+     */
+    private int ranuraDeFila(int fila) {
+        int posicion = 0;
+        int restantes = fila + 1;
+        for (int paso = Integer.highestOneBit(ocupadas.length - 1); paso > 0; paso >>= 1) {
+            int siguiente = posicion + paso;
+            if (siguiente < ocupadas.length && ocupadas[siguiente] < restantes) {
+                posicion = siguiente;
+                restantes -= ocupadas[siguiente];
+            }
+        }
+        return posicion;
+    }
+}
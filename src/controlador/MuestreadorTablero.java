@@ -0,0 +1,157 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package controlador;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+import modelo.Cliente;
+import modelo.MetricasModelo;
+import vista.PanelTablero;
+
+/**
+ * Toma una muestra de las {@link MetricasModelo} cada segundo y la agrega al
+ * {@link PanelTablero} en el hilo de la interfaz. Las métricas son
+ * contadores acumulados y se pueden leer desde cualquier hilo, así que el
+ * muestreo no pasa por el bucle del modelo ni lo detiene.
+ *
+ * Guarda los acumulados de los últimos {@link #VENTANA} segundos en un
+ * arreglo circular: las llegadas y atenciones por minuto son la diferencia
+ * con la muestra de hace un minuto, y los percentiles de espera se calculan
+ * sobre el histograma de las atenciones de ese minuto, interpolando dentro
+ * de cada intervalo de {@link MetricasModelo#getLimiteEspera(int)}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+final class MuestreadorTablero implements Closeable {
+
+    /**
+     * Segundos que abarca la ventana de las tasas y percentiles.
+     */
+    static final int VENTANA = 60;
+
+    private static final int INTERVALOS = MetricasModelo.getCantidadLimites() + 1;
+
+    private final MetricasModelo metricas;
+    private final PanelTablero panel;
+    private final ScheduledExecutorService hilo;
+    private final long[] llegadas;
+    private final long[] atenciones;
+    private final long[][] conteos;
+    private final long[] diferencia;
+    private int siguiente;
+    private int cantidad;
+
+    /**
+     * Constructor del muestreador; no empieza a muestrear hasta
+     * {@link #iniciar()}.
+     *
+     * @param metricas Métricas del modelo
+     * @param panel Tablero que recibe las muestras
+     */
+    MuestreadorTablero(MetricasModelo metricas, PanelTablero panel) {
+        this.metricas = metricas;
+        this.panel = panel;
+        this.llegadas = new long[VENTANA + 1];
+        this.atenciones = new long[VENTANA + 1];
+        this.conteos = new long[VENTANA + 1][INTERVALOS];
+        this.diferencia = new long[INTERVALOS];
+        this.hilo = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread t = new Thread(tarea, "muestreo-tablero");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Empieza a muestrear una vez por segundo.
+     */
+    void iniciar() {
+        hilo.scheduleAtFixedRate(this::muestrear, 0, 1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void close() {
+        hilo.shutdownNow();
+    }
+
+    /**
+     * Toma una muestra. Solo se llama desde el hilo del muestreador.
+     */
+    void muestrear() {
+        int actual = siguiente;
+        llegadas[actual] = metricas.getLlegadas();
+        atenciones[actual] = metricas.getAtenciones();
+        long[] conteo = conteos[actual];
+        for (int i = 0; i < INTERVALOS; i++) {
+            long total = 0;
+            for (Cliente.TipoSolicitud tipo : Cliente.TipoSolicitud.values()) {
+                for (Cliente.Prioridad prioridad : Cliente.Prioridad.values()) {
+                    total += metricas.getConteoEspera(tipo, prioridad, i);
+                }
+            }
+            conteo[i] = total;
+        }
+        siguiente = (siguiente + 1) % llegadas.length;
+        if (cantidad < llegadas.length) {
+            cantidad++;
+        }
+
+        // Muestra más antigua de la ventana; con menos de un minuto de
+        // muestras, las tasas se extrapolan a un minuto
+        int segundos = cantidad - 1;
+        int anterior = (actual - segundos + llegadas.length) % llegadas.length;
+        double escala = segundos > 0 ? (double) VENTANA / segundos : 0;
+        double llegadasMinuto = Math.max(0, llegadas[actual] - llegadas[anterior]) * escala;
+        double atencionesMinuto = Math.max(0, atenciones[actual] - atenciones[anterior]) * escala;
+        long atendidos = 0;
+        for (int i = 0; i < INTERVALOS; i++) {
+            diferencia[i] = Math.max(0, conteo[i] - conteos[anterior][i]);
+            atendidos += diferencia[i];
+        }
+        double p50 = percentilMinutos(diferencia, atendidos, 0.50);
+        double p90 = percentilMinutos(diferencia, atendidos, 0.90);
+        double p99 = percentilMinutos(diferencia, atendidos, 0.99);
+        int enEspera = metricas.getEnEspera();
+        SwingUtilities.invokeLater(() -> panel.registrarMuestra(enEspera, llegadasMinuto, atencionesMinuto,
+                p50, p90, p99));
+    }
+
+    /**
+     * Estima un percentil de la espera a partir de un histograma con los
+     * intervalos de {@link MetricasModelo#getLimiteEspera(int)}, suponiendo que
+     * las esperas se reparten de forma pareja dentro de cada intervalo. El
+     * último intervalo no tiene límite superior y se informa su límite
+     * inferior.
+     *
+     * @param conteo Atenciones por intervalo
+     * @param total Suma de {@code conteo}
+     * @param fraccion Percentil buscado, entre 0 y 1
+     * @return Espera en minutos, o NaN si no hubo atenciones
+     */
+    static double percentilMinutos(long[] conteo, long total, double fraccion) {
+        if (total <= 0) {
+            return Double.NaN;
+        }
+        double objetivo = fraccion * total;
+        int limites = MetricasModelo.getCantidadLimites();
+        long acumulado = 0;
+        for (int i = 0; i < conteo.length; i++) {
+            if (conteo[i] > 0 && acumulado + conteo[i] >= objetivo) {
+                double inferior = i == 0 ? 0 : MetricasModelo.getLimiteEspera(i - 1);
+                if (i == limites) {
+                    return inferior / 60;
+                }
+                double posicion = (objetivo - acumulado) / conteo[i];
+                return (inferior + posicion * (MetricasModelo.getLimiteEspera(i) - inferior)) / 60;
+            }
+            acumulado += conteo[i];
+        }
+        return MetricasModelo.getLimiteEspera(limites - 1) / 60;
+    }
+}
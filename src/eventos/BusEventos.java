@@ -0,0 +1,306 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package eventos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import modelo.Action;
+import modelo.Cliente;
+
+/**
+ * Bus de eventos del modelo sobre un anillo preasignado, al estilo del
+ * Disruptor de LMAX. Hay un único productor (el hilo que modifica el
+ * modelo) y varios consumidores, cada uno en su propio hilo y con su propia
+ * secuencia, que procesan los eventos en lotes a su propio ritmo.
+ *
+ * El modelo publica en el bus una vez conectado a él, desde el hilo que lo
+ * modifica:
+ * <pre>
+ * BusEventos bus = new BusEventos(4096, new EstrategiaEspera.Bloqueante());
+ * bus.agregarConsumidor("metricas", modelo.getMetricas());
+ * bus.iniciar();
+ * modelo.conectarBus(bus);
+ * </pre>
+ *
+ * Publicar un evento no crea objetos: se copian los datos de la acción en
+ * la ranura del anillo y se avanza el cursor. Si el consumidor más lento
+ * tiene el anillo lleno, el productor espera según la estrategia y como
+ * máximo el plazo configurado; agotado el plazo el evento se descarta y se
+ * cuenta en {@link #getEventosDescartados()}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class BusEventos {
+
+    private static final Logger LOGGER = Logger.getLogger(BusEventos.class.getName());
+
+    private final EventoModelo[] anillo;
+    private final int mascara;
+    private final EstrategiaEspera estrategia;
+    private final long esperaMaximaNanos;
+    private final Secuencia cursor;
+    private final List<Procesador> procesadores;
+    private final LongSupplier minimoConsumidores;
+    private final BooleanSupplier activoSupplier;
+    private Secuencia[] secuencias;
+    private volatile boolean activo;
+    private volatile boolean iniciado;
+
+    // Solo las modifica el hilo productor
+    private long siguiente;
+    private long minimoCacheado;
+    private volatile long eventosDescartados;
+
+    /**
+     * Constructor en el que el productor espera sin límite a los
+     * consumidores lentos.
+     *
+     * @param capacidad Cantidad de ranuras del anillo; debe ser potencia de 2
+     * @param estrategia Estrategia de espera de productor y consumidores
+     */
+    public BusEventos(int capacidad, EstrategiaEspera estrategia) {
+        this(capacidad, estrategia, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructor con plazo máximo de espera del productor.
+     *
+     * @param capacidad Cantidad de ranuras del anillo; debe ser potencia de 2
+     * @param estrategia Estrategia de espera de productor y consumidores
+     * @param esperaMaxima Tiempo máximo que el productor espera por espacio
+     * antes de descartar un evento
+     * @param unidad Unidad de la espera máxima
+     */
+    public BusEventos(int capacidad, EstrategiaEspera estrategia, long esperaMaxima, TimeUnit unidad) {
+        if (capacidad <= 0 || Integer.bitCount(capacidad) != 1) {
+            throw new IllegalArgumentException("La capacidad del anillo debe ser una potencia de 2");
+        }
+        this.anillo = new EventoModelo[capacidad];
+        for (int i = 0; i < capacidad; i++) {
+            anillo[i] = new EventoModelo();
+        }
+        this.mascara = capacidad - 1;
+        this.estrategia = estrategia;
+        this.esperaMaximaNanos = unidad.toNanos(esperaMaxima);
+        this.cursor = new Secuencia();
+        this.procesadores = new ArrayList<>();
+        this.minimoConsumidores = this::minimo;
+        this.activoSupplier = () -> activo;
+        this.secuencias = new Secuencia[0];
+        this.siguiente = Secuencia.INICIAL;
+        this.minimoCacheado = Secuencia.INICIAL;
+    }
+
+    /**
+     * Agrega un consumidor. Debe llamarse antes de {@link #iniciar()}.
+     *
+     * @param nombre Nombre del consumidor, usado para su hilo
+     * @param consumidor Consumidor de eventos
+     */
+    public void agregarConsumidor(String nombre, ConsumidorEventos consumidor) {
+        if (iniciado) {
+            throw new IllegalStateException("No se pueden agregar consumidores a un bus iniciado");
+        }
+        procesadores.add(new Procesador(nombre, consumidor));
+    }
+
+    /**
+     * Inicia un hilo por cada consumidor agregado.
+     */
+    public void iniciar() {
+        if (iniciado) {
+            throw new IllegalStateException("El bus ya fue iniciado");
+        }
+        Secuencia[] nuevas = new Secuencia[procesadores.size()];
+        for (int i = 0; i < nuevas.length; i++) {
+            nuevas[i] = procesadores.get(i).secuencia;
+        }
+        secuencias = nuevas;
+        activo = true;
+        iniciado = true;
+        for (Procesador procesador : procesadores) {
+            procesador.hilo.start();
+        }
+    }
+
+    /**
+     * Detiene el bus. Los consumidores terminan de procesar los eventos ya
+     * publicados antes de finalizar.
+     *
+     * @param espera Tiempo máximo de espera por cada consumidor
+     * @param unidad Unidad de la espera
+     * @throws InterruptedException si el hilo fue interrumpido mientras
+     * esperaba a los consumidores
+     */
+    public void detener(long espera, TimeUnit unidad) throws InterruptedException {
+        activo = false;
+        estrategia.senalizar();
+        for (Procesador procesador : procesadores) {
+            procesador.hilo.join(Math.max(1, unidad.toMillis(espera)));
+        }
+    }
+
+    /**
+     * Publica un evento en el anillo. Solo debe llamarse desde el hilo
+     * productor.
+     *
+     * @param tipo Tipo del evento
+     * @param accion Acción que origina el evento
+     * @param enEspera Clientes en espera tras el cambio
+     * @param urgentesEnEspera Clientes urgentes en espera tras el cambio
+     * @param atendidos Clientes en el historial tras el cambio
+     */
+    public void publicar(EventoModelo.Tipo tipo, Action accion, int enEspera, int urgentesEnEspera, int atendidos) {
+        long secuencia = reservar();
+        if (secuencia >= 0) {
+            anillo[(int) secuencia & mascara].copiar(tipo, accion, enEspera, urgentesEnEspera, atendidos);
+            confirmar(secuencia);
+        }
+    }
+
+    /**
+     * Publica un evento ESTADO con la cola y el historial completos. Solo
+     * debe llamarse desde el hilo productor.
+     *
+     * @param cola Copia de la cola en orden de atención
+     * @param historial Copia del historial
+     * @param urgentesEnEspera Clientes urgentes en la cola
+     */
+    public void publicarEstado(List<Cliente> cola, List<Cliente> historial, int urgentesEnEspera) {
+        long secuencia = reservar();
+        if (secuencia >= 0) {
+            anillo[(int) secuencia & mascara].copiarEstado(cola, historial, urgentesEnEspera);
+            confirmar(secuencia);
+        }
+    }
+
+    /**
+     * Reserva la siguiente ranura, esperando si el anillo está lleno.
+     *
+     * @return Secuencia reservada, o -1 si el bus está detenido o se agotó
+     * la espera y el evento se descarta
+     */
+    private long reservar() {
+        if (!activo) {
+            return -1;
+        }
+        long secuencia = siguiente + 1;
+        long envoltura = secuencia - anillo.length;
+        if (envoltura > minimoCacheado) {
+            long minimo = minimo();
+            if (envoltura > minimo) {
+                if (!estrategia.esperarCapacidad(envoltura, minimoConsumidores, esperaMaximaNanos)) {
+                    eventosDescartados++;
+                    return -1;
+                }
+                minimo = minimo();
+            }
+            minimoCacheado = minimo;
+        }
+        return secuencia;
+    }
+
+    private void confirmar(long secuencia) {
+        siguiente = secuencia;
+        cursor.set(secuencia);
+        estrategia.senalizar();
+    }
+
+    private long minimo() {
+        long minimo = cursor.get();
+        for (Secuencia secuencia : secuencias) {
+            long valor = secuencia.get();
+            if (valor < minimo) {
+                minimo = valor;
+            }
+        }
+        return minimo;
+    }
+
+    /**
+     * Obtiene la última secuencia publicada.
+     *
+     * @return Secuencia del último evento publicado, o -1 si no hay
+     */
+    public long getSecuenciaPublicada() {
+        return cursor.get();
+    }
+
+    /**
+     * Obtiene la cantidad de eventos descartados porque el anillo seguía
+     * lleno al agotarse la espera máxima del productor.
+     *
+     * @return Cantidad de eventos descartados
+     */
+    public long getEventosDescartados() {
+        return eventosDescartados;
+    }
+
+    /**
+     * Obtiene la capacidad del anillo.
+     *
+     * @return Cantidad de ranuras del anillo
+     */
+    public int getCapacidad() {
+        return anillo.length;
+    }
+
+    /**
+     * Hilo consumidor: espera eventos, los procesa en lote y luego avanza su
+     * secuencia para liberar las ranuras al productor.
+     */
+    private final class Procesador implements Runnable {
+
+        private final String nombre;
+        private final ConsumidorEventos consumidor;
+        private final Secuencia secuencia;
+        private final Thread hilo;
+
+        Procesador(String nombre, ConsumidorEventos consumidor) {
+            this.nombre = nombre;
+            this.consumidor = consumidor;
+            this.secuencia = new Secuencia();
+            this.hilo = new Thread(this, "consumidor-" + nombre);
+            this.hilo.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long proxima = secuencia.get() + 1;
+            while (true) {
+                long disponible;
+                try {
+                    disponible = estrategia.esperarPor(proxima, cursor, activoSupplier);
+                } catch (InterruptedException ex) {
+                    if (!activo) {
+                        break;
+                    }
+                    continue;
+                }
+                if (disponible < proxima) {
+                    if (!activo) {
+                        break;
+                    }
+                    continue;
+                }
+                for (long s = proxima; s <= disponible; s++) {
+                    try {
+                        consumidor.alEvento(anillo[(int) s & mascara], s, s == disponible);
+                    } catch (Exception ex) {
+                        LOGGER.log(Level.WARNING, "Error en el consumidor " + nombre + " (evento " + s + ")", ex);
+                    }
+                }
+                secuencia.set(disponible);
+                proxima = disponible + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package eventos;
+
+/**
+ * Consumidor de eventos del {@link BusEventos}. Cada consumidor corre en su
+ * propio hilo y recibe los eventos en orden, en lotes de todos los eventos
+ * disponibles desde la última vez que avanzó.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@FunctionalInterface
+public interface ConsumidorEventos {
+
+    /**
+     * Procesa un evento.
+     *
+     * @param evento Evento a procesar; solo es válido durante esta llamada
+     * @param secuencia Secuencia del evento en el bus
+     * @param finDeLote true si es el último evento disponible del lote
+     * actual, útil para agrupar escrituras o refrescos
+     * @throws Exception si el evento no se pudo procesar; se informa y el
+     * consumidor continúa con el siguiente
+     */
+    void alEvento(EventoModelo evento, long secuencia, boolean finDeLote) throws Exception;
+}
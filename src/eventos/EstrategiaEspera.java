@@ -0,0 +1,202 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package eventos;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Define cómo esperan los consumidores a que haya eventos nuevos y cómo
+ * espera el productor a que haya espacio libre en el anillo. Las
+ * implementaciones cambian latencia por uso de CPU:
+ * <ul>
+ * <li>{@link Bloqueante}: duerme en una condición, no consume CPU.</li>
+ * <li>{@link Dormida}: reintenta con pausas cortas de {@code parkNanos}.</li>
+ * <li>{@link Cedente}: reintenta cediendo el procesador con
+ * {@code Thread.yield}.</li>
+ * <li>{@link Ocupada}: gira sin pausa; menor latencia, un núcleo por
+ * consumidor.</li>
+ * </ul>
+ *
+ * @author Valery
+ * @author Andres
+ */
+public interface EstrategiaEspera {
+
+    /**
+     * Espera a que el cursor del productor alcance la secuencia indicada.
+     *
+     * @param secuencia Secuencia que se necesita
+     * @param cursor Cursor del productor
+     * @param activo Indica si el bus sigue activo; al volverse false la
+     * espera termina aunque la secuencia no esté disponible
+     * @return Mayor secuencia publicada; menor que la pedida solo si el bus
+     * se detuvo
+     * @throws InterruptedException si el hilo fue interrumpido
+     */
+    long esperarPor(long secuencia, Secuencia cursor, BooleanSupplier activo) throws InterruptedException;
+
+    /**
+     * Avisa a los consumidores en espera que se publicó un evento o que el
+     * bus se detuvo.
+     */
+    void senalizar();
+
+    /**
+     * Espera del lado del productor a que el consumidor más lento libere la
+     * posición que se quiere sobrescribir. Gira brevemente, luego cede el
+     * procesador y finalmente duerme en pausas cortas hasta agotar el
+     * plazo.
+     *
+     * @param envoltura Secuencia que el consumidor más lento debe haber
+     * procesado
+     * @param minimoConsumidores Secuencia del consumidor más lento
+     * @param plazoNanos Tiempo máximo de espera en nanosegundos
+     * @return true si hay espacio, false si se agotó el plazo
+     */
+    default boolean esperarCapacidad(long envoltura, LongSupplier minimoConsumidores, long plazoNanos) {
+        long inicio = System.nanoTime();
+        for (int intento = 0; minimoConsumidores.getAsLong() < envoltura; intento++) {
+            if (System.nanoTime() - inicio >= plazoNanos) {
+                return false;
+            }
+            if (intento < 100) {
+                Thread.onSpinWait();
+            } else if (intento < 200) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estrategia que duerme a los consumidores en una condición hasta que
+     * el productor publica. Es la opción por defecto para la interfaz.
+     */
+    final class Bloqueante implements EstrategiaEspera {
+
+        private final ReentrantLock candado = new ReentrantLock();
+        private final Condition publicado = candado.newCondition();
+        private final AtomicBoolean senalPendiente = new AtomicBoolean();
+
+        @Override
+        public long esperarPor(long secuencia, Secuencia cursor, BooleanSupplier activo) throws InterruptedException {
+            long disponible = cursor.get();
+            if (disponible >= secuencia) {
+                return disponible;
+            }
+            candado.lock();
+            try {
+                while (true) {
+                    senalPendiente.getAndSet(true);
+                    if ((disponible = cursor.get()) >= secuencia || !activo.getAsBoolean()) {
+                        break;
+                    }
+                    publicado.await();
+                }
+            } finally {
+                candado.unlock();
+            }
+            return disponible;
+        }
+
+        @Override
+        public void senalizar() {
+            // Solo se toma el candado si algún consumidor anunció que va a dormir
+            if (!senalPendiente.getAndSet(false)) {
+                return;
+            }
+            candado.lock();
+            try {
+                publicado.signalAll();
+            } finally {
+                candado.unlock();
+            }
+        }
+    }
+
+    /**
+     * Estrategia que reintenta con pausas cortas de {@code parkNanos}.
+     */
+    final class Dormida implements EstrategiaEspera {
+
+        private final long pausaNanos;
+
+        /**
+         * Constructor con una pausa de 100 microsegundos.
+         */
+        public Dormida() {
+            this(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+
+        /**
+         * Constructor con pausa configurable.
+         *
+         * @param pausaNanos Duración de cada pausa en nanosegundos
+         */
+        public Dormida(long pausaNanos) {
+            this.pausaNanos = pausaNanos;
+        }
+
+        @Override
+        public long esperarPor(long secuencia, Secuencia cursor, BooleanSupplier activo) {
+            long disponible;
+            while ((disponible = cursor.get()) < secuencia && activo.getAsBoolean()) {
+                LockSupport.parkNanos(pausaNanos);
+            }
+            return disponible;
+        }
+
+        @Override
+        public void senalizar() {
+        }
+    }
+
+    /**
+     * Estrategia que reintenta cediendo el procesador a otros hilos.
+     */
+    final class Cedente implements EstrategiaEspera {
+
+        @Override
+        public long esperarPor(long secuencia, Secuencia cursor, BooleanSupplier activo) {
+            long disponible;
+            while ((disponible = cursor.get()) < secuencia && activo.getAsBoolean()) {
+                Thread.yield();
+            }
+            return disponible;
+        }
+
+        @Override
+        public void senalizar() {
+        }
+    }
+
+    /**
+     * Estrategia de espera activa. Ofrece la menor latencia a costa de
+     * ocupar un núcleo completo por consumidor.
+     */
+    final class Ocupada implements EstrategiaEspera {
+
+        @Override
+        public long esperarPor(long secuencia, Secuencia cursor, BooleanSupplier activo) {
+            long disponible;
+            while ((disponible = cursor.get()) < secuencia && activo.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+            return disponible;
+        }
+
+        @Override
+        public void senalizar() {
+        }
+    }
+}
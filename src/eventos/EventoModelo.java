@@ -0,0 +1,272 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package eventos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import modelo.Action;
+import modelo.Cliente;
+
+/**
+ * Evento de cambio del modelo. Las instancias se crean una sola vez al
+ * construir el {@link BusEventos} y se reutilizan en cada vuelta del anillo;
+ * el productor copia en ellas los datos del cambio, de modo que publicar un
+ * evento no crea objetos nuevos.
+ *
+ * Los consumidores solo deben leer el evento dentro de
+ * {@link ConsumidorEventos#alEvento}; fuera de esa llamada su contenido
+ * puede ser sobrescrito.
+ *
+ * Además de los datos del cliente, cada evento lleva el tamaño de la cola y
+ * del historial justo después del cambio, para que los consumidores no
+ * tengan que leer el modelo desde su hilo.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class EventoModelo {
+
+    /**
+     * Tipos de evento publicados por el modelo.
+     */
+    public enum Tipo {
+        /** Un cliente fue registrado en la cola de espera */
+        REGISTRADO,
+        /** Un cliente fue eliminado de la cola de espera */
+        ELIMINADO,
+        /** Un cliente fue atendido y pasó al historial */
+        ATENDIDO,
+        /** Se deshizo una acción */
+        DESHECHO,
+        /** Se rehizo una acción previamente deshecha */
+        REHECHO,
+        /**
+         * Estado completo de la cola y del historial, con el que se
+         * recargan los consumidores que los reflejan
+         */
+        ESTADO
+    }
+
+    private Tipo tipo;
+    private Action.TipoAccion tipoAccion;
+    private String idCliente;
+    private String nombreCliente;
+    private Cliente.TipoSolicitud tipoSolicitud;
+    private Cliente.Prioridad prioridad;
+    private LocalDateTime fechaLlegada;
+    private LocalDateTime fechaAtencion;
+    private LocalDateTime fechaHora;
+    private String nombreGrupo;
+    private Cliente cliente;
+    private int enEspera;
+    private int urgentesEnEspera;
+    private int atendidos;
+    private List<Cliente> cola;
+    private List<Cliente> historial;
+
+    EventoModelo() {
+    }
+
+    /**
+     * Copia en el evento los datos de una acción y los tamaños del modelo
+     * tras aplicarla.
+     */
+    void copiar(Tipo tipo, Action accion, int enEspera, int urgentesEnEspera, int atendidos) {
+        Cliente cliente = accion.getCliente();
+        this.tipo = tipo;
+        this.cliente = cliente;
+        this.enEspera = enEspera;
+        this.urgentesEnEspera = urgentesEnEspera;
+        this.atendidos = atendidos;
+        this.cola = null;
+        this.historial = null;
+        this.tipoAccion = accion.getTipo();
+        this.idCliente = cliente.getId();
+        this.nombreCliente = cliente.getNombre();
+        this.tipoSolicitud = cliente.getTipoSolicitud();
+        this.prioridad = cliente.getPrioridad();
+        this.fechaLlegada = cliente.getFechaLlegada();
+        this.fechaAtencion = cliente.getFechaAtencion();
+        this.fechaHora = accion.getFechaHora();
+        this.nombreGrupo = accion.getNombreGrupo();
+    }
+
+    /**
+     * Copia en el evento el estado completo de la cola y del historial.
+     */
+    void copiarEstado(List<Cliente> cola, List<Cliente> historial, int urgentesEnEspera) {
+        this.tipo = Tipo.ESTADO;
+        this.tipoAccion = null;
+        this.cliente = null;
+        this.idCliente = null;
+        this.nombreCliente = null;
+        this.tipoSolicitud = null;
+        this.prioridad = null;
+        this.fechaLlegada = null;
+        this.fechaAtencion = null;
+        this.fechaHora = null;
+        this.nombreGrupo = null;
+        this.enEspera = cola.size();
+        this.urgentesEnEspera = urgentesEnEspera;
+        this.atendidos = historial.size();
+        this.cola = cola;
+        this.historial = historial;
+    }
+
+    /**
+     * Obtiene el tipo de evento.
+     *
+     * @return Tipo del evento
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Obtiene el tipo de la acción que originó el evento. Para los eventos
+     * DESHECHO y REHECHO indica qué acción se deshizo o rehízo.
+     *
+     * @return Tipo de la acción
+     */
+    public Action.TipoAccion getTipoAccion() {
+        return tipoAccion;
+    }
+
+    /**
+     * Obtiene el ID del cliente involucrado.
+     *
+     * @return ID del cliente
+     */
+    public String getIdCliente() {
+        return idCliente;
+    }
+
+    /**
+     * Obtiene el nombre del cliente involucrado.
+     *
+     * @return Nombre del cliente
+     */
+    public String getNombreCliente() {
+        return nombreCliente;
+    }
+
+    /**
+     * Obtiene el tipo de solicitud del cliente involucrado.
+     *
+     * @return Tipo de solicitud del cliente
+     */
+    public Cliente.TipoSolicitud getTipoSolicitud() {
+        return tipoSolicitud;
+    }
+
+    /**
+     * Obtiene la prioridad del cliente involucrado.
+     *
+     * @return Prioridad del cliente
+     */
+    public Cliente.Prioridad getPrioridad() {
+        return prioridad;
+    }
+
+    /**
+     * Obtiene la fecha de llegada del cliente involucrado.
+     *
+     * @return Fecha y hora de llegada
+     */
+    public LocalDateTime getFechaLlegada() {
+        return fechaLlegada;
+    }
+
+    /**
+     * Obtiene la fecha de atención del cliente en el momento del evento.
+     *
+     * @return Fecha y hora de atención, o null si no estaba atendido
+     */
+    public LocalDateTime getFechaAtencion() {
+        return fechaAtencion;
+    }
+
+    /**
+     * Obtiene la fecha y hora de la acción que originó el evento.
+     *
+     * @return Fecha y hora de la acción
+     */
+    public LocalDateTime getFechaHora() {
+        return fechaHora;
+    }
+
+    /**
+     * Obtiene el nombre del grupo de la acción.
+     *
+     * @return Nombre del grupo, o null si la acción no pertenece a ninguno
+     */
+    public String getNombreGrupo() {
+        return nombreGrupo;
+    }
+
+    /**
+     * Obtiene el cliente involucrado tal como está en el modelo, para
+     * reconocerlo en las tablas que ya lo muestran. Sus campos pueden haber
+     * cambiado después del evento; los del momento del evento son los de
+     * los demás getters.
+     *
+     * @return Cliente del modelo, o null en un evento ESTADO
+     */
+    public Cliente getCliente() {
+        return cliente;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes en espera justo después del cambio.
+     *
+     * @return Clientes en la cola
+     */
+    public int getEnEspera() {
+        return enEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes urgentes en espera justo después del
+     * cambio.
+     *
+     * @return Clientes urgentes en la cola
+     */
+    public int getUrgentesEnEspera() {
+        return urgentesEnEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes en el historial justo después del
+     * cambio.
+     *
+     * @return Clientes atendidos
+     */
+    public int getAtendidos() {
+        return atendidos;
+    }
+
+    /**
+     * Obtiene la cola completa de un evento ESTADO.
+     *
+     * @return Copia de la cola en orden de atención, o null en otro evento
+     */
+    public List<Cliente> getCola() {
+        return cola;
+    }
+
+    /**
+     * Obtiene el historial completo de un evento ESTADO.
+     *
+     * @return Copia del historial, o null en otro evento
+     */
+    public List<Cliente> getHistorial() {
+        return historial;
+    }
+
+    @Override
+    public String toString() {
+        return tipo + " - " + tipoAccion + " - Cliente: " + nombreCliente + " (ID: " + idCliente + ")";
+    }
+}
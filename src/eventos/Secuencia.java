@@ -0,0 +1,59 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package eventos;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Contador de secuencia compartido entre hilos. Se rellena con campos sin
+ * uso a ambos lados del valor para que dos secuencias nunca compartan línea
+ * de caché (false sharing) entre el productor y los consumidores.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class Secuencia {
+
+    /**
+     * Valor inicial de toda secuencia: todavía no se publicó ningún evento.
+     */
+    public static final long INICIAL = -1L;
+
+    private static final VarHandle VALOR;
+
+    static {
+        try {
+            VALOR = MethodHandles.lookup().findVarHandle(Secuencia.class, "valor", long.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+    private volatile long valor = INICIAL;
+    @SuppressWarnings("unused")
+    private long q1, q2, q3, q4, p5b, p6b, p7b;
+
+    /**
+     * Lee el valor con semántica de adquisición.
+     *
+     * @return Valor actual de la secuencia
+     */
+    public long get() {
+        return (long) VALOR.getAcquire(this);
+    }
+
+    /**
+     * Publica un nuevo valor con semántica de liberación: todo lo escrito
+     * antes por este hilo es visible para quien lea el nuevo valor.
+     *
+     * @param nuevo Nuevo valor de la secuencia
+     */
+    public void set(long nuevo) {
+        VALOR.setRelease(this, nuevo);
+    }
+}
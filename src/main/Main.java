@@ -4,9 +4,33 @@
  */
 package main;
 
+import api.ServidorApi;
+import carga.GeneradorCarga;
 import controlador.Controlador;
+import eventos.BusEventos;
+import eventos.EstrategiaEspera;
 import vista.Vista;
+import modelo.BucleModelo;
 import modelo.Modelo;
+import monitoreo.ServidorMetricas;
+import persistencia.ExportadorHistorial;
+import persistencia.GestorPersistencia;
+import persistencia.GrabadorSesion;
+import persistencia.ImportadorCsv;
+import persistencia.ReplicaEspera;
+import persistencia.ReplicaPrimaria;
+import persistencia.ReproductorSesion;
+import persistencia.ResultadoReproduccion;
+import simulacion.Simulador;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import modelo.Cliente;
 
 /**
  * Clase main encargada de inicializar las clases modelo, controlador y de
@@ -17,19 +41,230 @@ import modelo.Modelo;
 public class Main {
 
     /**
+     * Ranuras del bus de eventos del modelo.
+     */
+    private static final int CAPACIDAD_EVENTOS = 1 << 14;
+
+    /**
+     * Tiempo máximo que el modelo espera a un consumidor atrasado con el
+     * bus lleno antes de descartar el evento.
+     */
+    private static final long ESPERA_EVENTOS_MS = 1000;
+
+    /**
+     * Recursos que el cierre debe detener o cerrar; se completan a medida que
+     * se crean.
+     */
+    private static volatile BucleModelo bucle;
+    private static volatile BusEventos eventos;
+    private static volatile GrabadorSesion grabador;
+    private static volatile GestorPersistencia persistencia;
+
+    /**
+     * Sin opciones abre la ventana con un modelo vacío. Opciones:
+     * <ul>
+     * <li>{@code --datos <directorio>}: el modelo se recupera y persiste en
+     * ese directorio.</li>
+     * <li>{@code --simular}: ejecuta una simulación sin interfaz gráfica (ver
+     * {@link Simulador}).</li>
+     * <li>{@code --carga}: ejecuta una prueba de carga sin interfaz gráfica
+     * (ver {@link GeneradorCarga}).</li>
+     * <li>{@code --importar <archivo.csv>}: precarga citas desde un CSV como
+     * un solo grupo de acciones.</li>
+     * <li>{@code --exportar <archivo>}: exporta el historial de atendidos
+     * (CSV si el archivo termina en .csv, columnar en otro caso) y termina
+     * sin abrir la ventana. Se puede filtrar con {@code --desde},
+     * {@code --hasta} y {@code --tipos}.</li>
+     * <li>{@code --grabar <archivo>}: graba las operaciones de la sesión en
+     * una traza.</li>
+     * <li>{@code --reproducir <archivo>}: reproduce una traza sin interfaz
+     * gráfica, opcionalmente a {@code --escala <factor>} del tiempo
+     * real.</li>
+     * <li>{@code --metricas <puerto>}: publica las métricas en formato
+     * Prometheus en {@code http://host:puerto/metrics}.</li>
+     * <li>{@code --api <puerto>}: sirve el modelo por HTTP/JSON a quioscos y
+     * ventanillas remotos (ver {@link ServidorApi}) en lugar de abrir la
+     * ventana.</li>
+     * <li>{@code --replicar <puerto>}: junto con {@code --datos}, envía la
+     * bitácora a una réplica en espera (ver {@link ReplicaPrimaria}).</li>
+     * <li>{@code --espera <host:puerto>}: sigue al primario como réplica y
+     * toma su lugar cuando este cae.</li>
+     * </ul>
+     *
      * @param args the command line arguments
+     * @throws IOException si no se puede recuperar el estado persistido
+     * @throws InterruptedException si se interrumpe la prueba de carga
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (Arrays.asList(args).contains("--simular")) {
+            Simulador.main(args);
+            return;
+        }
+        if (Arrays.asList(args).contains("--carga")) {
+            GeneradorCarga.main(args);
+            return;
+        }
+        String traza = valorOpcion(args, "--reproducir");
+        if (traza != null) {
+            String escala = valorOpcion(args, "--escala");
+            ResultadoReproduccion resultado = ReproductorSesion.reproducir(Paths.get(traza),
+                    escala != null ? Double.parseDouble(escala) : 0);
+            System.out.println(resultado.generarReporte());
+            System.exit(resultado.coincide() ? 0 : 1);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::cerrar, "cierre"));
+
         // Crear el modelo (lógica de negocio)
-        Modelo modelo = new Modelo();
+        Modelo modelo;
+        String directorioDatos = valorOpcion(args, "--datos");
+        String primario = valorOpcion(args, "--espera");
+        if (primario != null) {
+            // Réplica en espera: se sigue al primario y, cuando cae, se
+            // continúa con su cola como si este proceso fuera el primario.
+            ReplicaEspera espera = ReplicaEspera.desde(primario);
+            System.out.println("Replicando al primario " + primario);
+            modelo = espera.seguir();
+            System.out.println(espera.generarReporte());
+            if (directorioDatos != null) {
+                persistencia = GestorPersistencia.continuar(Paths.get(directorioDatos), modelo, espera.getSecuencia());
+            }
+        } else if (directorioDatos != null) {
+            persistencia = GestorPersistencia.abrir(Paths.get(directorioDatos));
+            modelo = persistencia.getModelo();
+        } else {
+            modelo = new Modelo();
+        }
+        String puertoReplicacion = valorOpcion(args, "--replicar");
+        if (puertoReplicacion != null) {
+            if (persistencia == null) {
+                System.err.println("--replicar necesita --datos: se replica la bitácora de ese directorio");
+                System.exit(2);
+            }
+            ReplicaPrimaria replicacion = ReplicaPrimaria.iniciar(persistencia, Integer.parseInt(puertoReplicacion));
+            System.out.println("Replicación en el puerto " + replicacion.getPuerto());
+        }
+        String importacion = valorOpcion(args, "--importar");
+        if (importacion != null) {
+            System.out.println(new ImportadorCsv().importar(Paths.get(importacion), modelo).generarReporte());
+        }
+        String exportacion = valorOpcion(args, "--exportar");
+        if (exportacion != null) {
+            exportarHistorial(args, modelo, Paths.get(exportacion));
+            return;
+        }
+        String grabacion = valorOpcion(args, "--grabar");
+        if (grabacion != null) {
+            grabador = GrabadorSesion.iniciar(Paths.get(grabacion), modelo);
+        }
+
+        // Las métricas, y la interfaz si se abre, siguen al modelo por su bus
+        eventos = new BusEventos(CAPACIDAD_EVENTOS, new EstrategiaEspera.Bloqueante(),
+                ESPERA_EVENTOS_MS, TimeUnit.MILLISECONDS);
+        eventos.agregarConsumidor("metricas", modelo.getMetricas());
+
+        String puertoMetricas = valorOpcion(args, "--metricas");
+        if (puertoMetricas != null) {
+            ServidorMetricas servidor = ServidorMetricas.iniciar(modelo.getMetricas(),
+                    Integer.parseInt(puertoMetricas));
+            System.out.println("Métricas en http://localhost:" + servidor.getPuerto() + ServidorMetricas.RUTA);
+        }
+
+        String puertoApi = valorOpcion(args, "--api");
+        if (puertoApi != null) {
+            // La API toma posesión del modelo a través del bucle; la ventana no
+            // se abre porque modificaría el modelo desde otro hilo.
+            eventos.iniciar();
+            modelo.conectarBus(eventos);
+            bucle = new BucleModelo(modelo);
+            ServidorApi api = ServidorApi.iniciar(bucle, Integer.parseInt(puertoApi));
+            System.out.println("API en http://localhost:" + api.getPuerto());
+            return;
+        }
 
         // Crear la vista (interfaz de usuario)
         Vista vista = new Vista();
 
         // Crear el controlador (coordinador MVC)
-        Controlador controlador = new Controlador(modelo, vista);
+        Controlador controlador = new Controlador(modelo, vista, eventos);
+        bucle = controlador.getBucle();
 
         // Hacer visible la ventana principal
         vista.setVisible(true);
     }
+
+    /**
+     * Cierre ordenado al terminar la aplicación: primero se detiene el bucle
+     * del modelo, para que nadie siga escribiendo en la grabación ni en la
+     * bitácora, después el bus de eventos y al final se cierran ambas.
+     */
+    private static void cerrar() {
+        if (bucle != null) {
+            try {
+                bucle.detener(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (eventos != null) {
+            try {
+                eventos.detener(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (grabador != null) {
+            try {
+                grabador.close();
+            } catch (IOException ex) {
+                System.err.println("Error al cerrar la grabación: " + ex.getMessage());
+            }
+        }
+        if (persistencia != null) {
+            try {
+                persistencia.close();
+            } catch (IOException ex) {
+                System.err.println("Error al cerrar la persistencia: " + ex.getMessage());
+            }
+        }
+    }
+
+    private static void exportarHistorial(String[] args, Modelo modelo, Path archivo) throws IOException {
+        ExportadorHistorial exportador = new ExportadorHistorial();
+        String desde = valorOpcion(args, "--desde");
+        String hasta = valorOpcion(args, "--hasta");
+        exportador.setRango(desde != null ? LocalDateTime.parse(desde) : null,
+                hasta != null ? LocalDateTime.parse(hasta) : null);
+        String tipos = valorOpcion(args, "--tipos");
+        if (tipos != null) {
+            Set<Cliente.TipoSolicitud> seleccion = EnumSet.noneOf(Cliente.TipoSolicitud.class);
+            for (String tipo : tipos.split(",")) {
+                seleccion.add(Cliente.TipoSolicitud.valueOf(tipo.trim().toUpperCase()));
+            }
+            exportador.setTipos(seleccion);
+        }
+        long inicio = System.nanoTime();
+        long filas = archivo.getFileName().toString().toLowerCase().endsWith(".csv")
+                ? exportador.exportarCsv(modelo.getHistorial(), archivo)
+                : exportador.exportarColumnar(modelo.getHistorial(), archivo);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.println(String.format("Exportación: %d filas en %.2f s (%.0f filas/s) -> %s", filas, segundos,
+                filas / segundos, archivo.toAbsolutePath()));
+    }
+
+    /**
+     * Obtiene el valor que sigue a una opción de la línea de comandos.
+     *
+     * @param args Argumentos de la línea de comandos
+     * @param opcion Nombre de la opción, por ejemplo "--datos"
+     * @return Valor de la opción, o null si no está presente
+     */
+    static String valorOpcion(String[] args, String opcion) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(opcion)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
 }
@@ -5,7 +5,6 @@
 package modelo;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Representa una acción realizada en el sistema de atención al cliente.
@@ -30,6 +29,8 @@ public class Action {
     private TipoAccion tipo;
     private Cliente cliente;
     private LocalDateTime fechaHora;
+    private long idGrupo;
+    private String nombreGrupo;
 
     /**
      * Constructor para crear una nueva acción.
@@ -38,9 +39,36 @@ public class Action {
      * @param cliente Cliente involucrado en la acción
      */
     public Action(TipoAccion tipo, Cliente cliente) {
+        this(tipo, cliente, LocalDateTime.now());
+    }
+
+    /**
+     * Constructor para crear una acción con una fecha/hora dada.
+     * 
+     * @param tipo Tipo de acción realizada
+     * @param cliente Cliente involucrado en la acción
+     * @param fechaHora Fecha y hora en que se realizó la acción
+     */
+    public Action(TipoAccion tipo, Cliente cliente, LocalDateTime fechaHora) {
+        this(tipo, cliente, fechaHora, 0, null);
+    }
+
+    /**
+     * Constructor para crear una acción que pertenece a un grupo de
+     * acciones que se deshacen juntas.
+     * 
+     * @param tipo Tipo de acción realizada
+     * @param cliente Cliente involucrado en la acción
+     * @param fechaHora Fecha y hora en que se realizó la acción
+     * @param idGrupo Identificador del grupo, o 0 si no pertenece a ninguno
+     * @param nombreGrupo Nombre del grupo, o null si no pertenece a ninguno
+     */
+    public Action(TipoAccion tipo, Cliente cliente, LocalDateTime fechaHora, long idGrupo, String nombreGrupo) {
         this.tipo = tipo;
         this.cliente = cliente;
-        this.fechaHora = LocalDateTime.now();
+        this.fechaHora = fechaHora;
+        this.idGrupo = idGrupo;
+        this.nombreGrupo = nombreGrupo;
     }
 
     /**
@@ -70,15 +98,43 @@ public class Action {
         return fechaHora;
     }
 
+    /**
+     * Obtiene el identificador del grupo al que pertenece la acción.
+     * 
+     * @return Identificador del grupo, o 0 si no pertenece a ninguno
+     */
+    public long getIdGrupo() {
+        return idGrupo;
+    }
+
+    /**
+     * Obtiene el nombre del grupo al que pertenece la acción.
+     * 
+     * @return Nombre del grupo, o null si no pertenece a ninguno
+     */
+    public String getNombreGrupo() {
+        return nombreGrupo;
+    }
+
+    /**
+     * Indica si la acción pertenece a un grupo.
+     * 
+     * @return true si la acción forma parte de un grupo
+     */
+    public boolean perteneceAGrupo() {
+        return idGrupo != 0;
+    }
+
     /**
      * Representación en String de la acción.
      * 
-     * @return String con formato: "TIPO - Cliente: NOMBRE (ID: ID) - FECHA"
+     * @return String con formato: "TIPO - Cliente: NOMBRE (ID: ID) - FECHA",
+     * seguido de "[GRUPO]" si la acción pertenece a un grupo
      */
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        return String.format("%s - Cliente: %s (ID: %s) - %s",
-                tipo, cliente.getNombre(), cliente.getId(), fechaHora.format(formatter));
+        String texto = String.format("%s - Cliente: %s (ID: %s) - %s",
+                tipo, cliente.getNombre(), cliente.getId(), fechaHora.format(Cliente.FORMATO_FECHA));
+        return perteneceAGrupo() ? texto + " [" + nombreGrupo + "]" : texto;
     }
 }
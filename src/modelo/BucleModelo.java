@@ -0,0 +1,339 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Modo de un solo escritor para el modelo. Un hilo dueño toma los comandos
+ * de una cola, los aplica sobre el {@link Modelo} en orden y, al terminar
+ * cada lote, publica una {@link InstantaneaModelo} inmutable en un campo
+ * volátil. Los lectores (tablas, estadísticas, búsquedas) obtienen una vista
+ * consistente con una sola lectura volátil, sin candados y sin detener al
+ * escritor.
+ *
+ * Una vez creado el bucle, el modelo solo debe modificarse a través de él.
+ * Los resultados de cada comando se entregan después de publicar la
+ * instantánea, así que quien espera el resultado ya ve su propio cambio en
+ * {@link #getInstantanea()}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class BucleModelo implements ObservadorModelo {
+
+    /**
+     * Cantidad máxima de comandos aplicados antes de publicar una
+     * instantánea.
+     */
+    private static final int TAMANO_LOTE = 256;
+
+    private final Modelo modelo;
+    private final BlockingQueue<Comando<?>> comandos;
+    private final Thread hilo;
+    private final Map<Cliente, Cliente> copiasEnCola;
+    private final ListaAtendidosCompartida atendidos;
+    private final List<Comando<?>> lote;
+    private final Object candadoEnvio;
+    private volatile InstantaneaModelo instantanea;
+    private volatile boolean activo;
+    private long version;
+    private boolean colaModificada;
+    private List<Cliente> colaPublicada;
+    private Map<String, Cliente> colaPorId;
+
+    /**
+     * Constructor que toma posesión del modelo e inicia el hilo dueño.
+     *
+     * @param modelo Modelo que será modificado solo por este bucle
+     */
+    public BucleModelo(Modelo modelo) {
+        this.modelo = modelo;
+        this.comandos = new LinkedBlockingQueue<>();
+        this.copiasEnCola = new IdentityHashMap<>();
+        this.atendidos = new ListaAtendidosCompartida();
+        this.lote = new ArrayList<>(TAMANO_LOTE);
+        this.candadoEnvio = new Object();
+        for (Cliente cliente : modelo.getGestionClientes().getClientesEnEspera()) {
+            copiasEnCola.put(cliente, cliente.copiar());
+        }
+        for (Cliente cliente : modelo.getHistorial().getClientesAtendidos()) {
+            atendidos.agregar(cliente);
+        }
+        this.colaModificada = true;
+        publicar();
+        modelo.agregarObservador(this);
+        this.activo = true;
+        this.hilo = new Thread(this::ejecutar, "bucle-modelo");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Obtiene la última instantánea publicada. No bloquea.
+     *
+     * @return Vista inmutable del estado del modelo
+     */
+    public InstantaneaModelo getInstantanea() {
+        return instantanea;
+    }
+
+    /**
+     * Envía un comando para ejecutarse en el hilo dueño del modelo. Si se
+     * llama desde el propio hilo dueño, el comando se ejecuta de inmediato.
+     *
+     * @param <T> Tipo del resultado
+     * @param comando Operación a aplicar sobre el modelo
+     * @return Future con el resultado del comando
+     */
+    public <T> CompletableFuture<T> enviar(Function<Modelo, T> comando) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        if (Thread.currentThread() == hilo) {
+            try {
+                futuro.complete(comando.apply(modelo));
+            } catch (RuntimeException ex) {
+                futuro.completeExceptionally(ex);
+            }
+            return futuro;
+        }
+        // La verificación y el encolado van juntos frente a detener(): un
+        // comando aceptado siempre queda antes del comando final y se aplica
+        synchronized (candadoEnvio) {
+            if (activo) {
+                comandos.add(new Comando<>(comando, futuro));
+                return futuro;
+            }
+        }
+        futuro.completeExceptionally(new RejectedExecutionException("El bucle del modelo está detenido"));
+        return futuro;
+    }
+
+    /**
+     * Agrega un nuevo cliente al sistema.
+     *
+     * @param nombre Nombre del cliente
+     * @param tipoSolicitud Tipo de solicitud del cliente
+     * @param prioridad Prioridad del cliente
+     * @return Future con el cliente agregado, o null si no se pudo agregar
+     */
+    public CompletableFuture<Cliente> agregarCliente(String nombre, Cliente.TipoSolicitud tipoSolicitud,
+            Cliente.Prioridad prioridad) {
+        return enviar(m -> copia(m.agregarCliente(nombre, tipoSolicitud, prioridad)));
+    }
+
+    /**
+     * Elimina un cliente de la cola por su ID.
+     *
+     * @param id ID del cliente a eliminar
+     * @return Future con el cliente eliminado, o null si no se encontró
+     */
+    public CompletableFuture<Cliente> eliminarClientePorId(String id) {
+        return enviar(m -> copia(m.eliminarClientePorId(id)));
+    }
+
+    /**
+     * Atiende al siguiente cliente según el sistema de prioridades.
+     *
+     * @return Future con el cliente atendido, o null si no hay clientes
+     */
+    public CompletableFuture<Cliente> atenderCliente() {
+        return enviar(m -> copia(m.atenderCliente()));
+    }
+
+    /**
+     * Deshace la última acción realizada.
+     *
+     * @return Future con true si se deshizo exitosamente
+     */
+    public CompletableFuture<Boolean> deshacerUltimaAccion() {
+        return enviar(Modelo::deshacerUltimaAccion);
+    }
+
+    /**
+     * Rehace la última acción deshecha.
+     *
+     * @return Future con true si se rehizo exitosamente
+     */
+    public CompletableFuture<Boolean> rehacerUltimaAccion() {
+        return enviar(Modelo::rehacerUltimaAccion);
+    }
+
+    /**
+     * Detiene el bucle después de aplicar los comandos ya encolados. Los
+     * comandos enviados después se rechazan con
+     * {@link RejectedExecutionException}.
+     *
+     * @param espera Tiempo máximo de espera
+     * @param unidad Unidad de la espera
+     * @throws InterruptedException si el hilo fue interrumpido mientras
+     * esperaba
+     */
+    public void detener(long espera, TimeUnit unidad) throws InterruptedException {
+        synchronized (candadoEnvio) {
+            if (activo) {
+                activo = false;
+                comandos.add(new Comando<>(m -> null, new CompletableFuture<>()));
+            }
+        }
+        hilo.join(Math.max(1, unidad.toMillis(espera)));
+    }
+
+    /**
+     * Los clientes devueltos a otros hilos son copias, para que no vean
+     * cambios posteriores del hilo dueño.
+     */
+    private static Cliente copia(Cliente cliente) {
+        return cliente != null ? cliente.copiar() : null;
+    }
+
+    private void ejecutar() {
+        while (activo || !comandos.isEmpty()) {
+            try {
+                lote.add(comandos.take());
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            comandos.drainTo(lote, TAMANO_LOTE - 1);
+            for (Comando<?> comando : lote) {
+                comando.aplicar(modelo);
+            }
+            publicar();
+            for (Comando<?> comando : lote) {
+                comando.entregar();
+            }
+            lote.clear();
+        }
+        modelo.removerObservador(this);
+    }
+
+    /**
+     * Publica una nueva instantánea si el modelo cambió desde la anterior.
+     * La cola y su mapa por ID se copian solo si la cola fue modificada; el
+     * historial se comparte.
+     */
+    private void publicar() {
+        InstantaneaModelo anterior = instantanea;
+        if (anterior != null && anterior.getVersion() == version) {
+            return;
+        }
+        if (colaModificada || colaPublicada == null) {
+            List<Cliente> enEspera = modelo.getGestionClientes().getClientesEnEspera();
+            Map<String, Cliente> porId = new HashMap<>(enEspera.size() * 4 / 3 + 1);
+            for (int i = 0; i < enEspera.size(); i++) {
+                Cliente copia = copiasEnCola.get(enEspera.get(i));
+                enEspera.set(i, copia);
+                porId.put(copia.getId(), copia);
+            }
+            colaPublicada = Collections.unmodifiableList(enEspera);
+            colaPorId = Collections.unmodifiableMap(porId);
+            colaModificada = false;
+        }
+        RegistroAcciones registro = modelo.getRegistroAcciones();
+        instantanea = new InstantaneaModelo(version, colaPublicada, colaPorId, atendidos.publicar(),
+                modelo.getEstadisticas(), registro.hayActions(), registro.hayActionsDeshechas());
+    }
+
+    @Override
+    public void accionRegistrada(Action accion) {
+        aplicarCambio(accion.getTipo(), accion.getCliente(), false);
+    }
+
+    @Override
+    public void accionDeshecha(Action accion) {
+        aplicarCambio(accion.getTipo(), accion.getCliente(), true);
+    }
+
+    @Override
+    public void accionRehecha(Action accion) {
+        aplicarCambio(accion.getTipo(), accion.getCliente(), false);
+    }
+
+    @Override
+    public void grupoIniciado(String nombre) {
+        version++;
+    }
+
+    @Override
+    public void grupoFinalizado() {
+        version++;
+    }
+
+    /**
+     * Actualiza las copias de la cola y del historial según la acción
+     * aplicada (o deshecha) sobre el modelo.
+     */
+    private void aplicarCambio(Action.TipoAccion tipo, Cliente cliente, boolean deshecha) {
+        version++;
+        colaModificada = true;
+        switch (tipo) {
+            case REGISTRAR:
+                if (deshecha) {
+                    copiasEnCola.remove(cliente);
+                } else {
+                    copiasEnCola.put(cliente, cliente.copiar());
+                }
+                break;
+            case ELIMINAR:
+                if (deshecha) {
+                    copiasEnCola.put(cliente, cliente.copiar());
+                } else {
+                    copiasEnCola.remove(cliente);
+                }
+                break;
+            case ATENDER:
+                if (deshecha) {
+                    atendidos.removerUltimo();
+                    copiasEnCola.put(cliente, cliente.copiar());
+                } else {
+                    copiasEnCola.remove(cliente);
+                    atendidos.agregar(cliente);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Comando encolado junto con el future que recibirá su resultado.
+     */
+    private static final class Comando<T> {
+
+        private final Function<Modelo, T> operacion;
+        private final CompletableFuture<T> futuro;
+        private T resultado;
+        private RuntimeException error;
+
+        Comando(Function<Modelo, T> operacion, CompletableFuture<T> futuro) {
+            this.operacion = operacion;
+            this.futuro = futuro;
+        }
+
+        void aplicar(Modelo modelo) {
+            try {
+                resultado = operacion.apply(modelo);
+            } catch (RuntimeException ex) {
+                error = ex;
+            }
+        }
+
+        void entregar() {
+            if (error != null) {
+                futuro.completeExceptionally(error);
+            } else {
+                futuro.complete(resultado);
+            }
+        }
+    }
+}
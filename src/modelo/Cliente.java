@@ -19,9 +19,11 @@ import java.time.format.DateTimeFormatter;
 public class Cliente {
 
     /**
-     * Contador estático para generar IDs únicos automáticamente
+     * Formato de las fechas en la representación de texto. Es inmutable y
+     * seguro para hilos, así que se comparte en lugar de crearlo en cada
+     * llamada.
      */
-    private static int contadorId = 0;
+    static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     private String id;
     private String nombre;
@@ -63,20 +65,41 @@ public class Cliente {
     }
 
     /**
-     * Constructor para crear un nuevo cliente.
+     * Constructor para crear un nuevo cliente en espera. El ID lo asigna
+     * quien crea el cliente, normalmente {@link GestionClientes}, que lleva
+     * su propio contador; así cada modelo numera a sus clientes de forma
+     * independiente.
      *
+     * @param id ID único del cliente
      * @param nombre Nombre completo del cliente
      * @param tipoSolicitud Tipo de solicitud del cliente
      * @param prioridad Nivel de prioridad del cliente
+     * @param fechaLlegada Fecha y hora de llegada del cliente
      */
-    public Cliente(String nombre, TipoSolicitud tipoSolicitud, Prioridad prioridad) {
-        contadorId++;
-        this.id = String.valueOf(contadorId);
+    public Cliente(String id, String nombre, TipoSolicitud tipoSolicitud, Prioridad prioridad,
+            LocalDateTime fechaLlegada) {
+        this(id, nombre, tipoSolicitud, prioridad, fechaLlegada, null);
+    }
+
+    /**
+     * Constructor para reconstruir un cliente existente con todos sus datos.
+     * Se utiliza al cargar el estado desde una instantánea.
+     *
+     * @param id ID original del cliente
+     * @param nombre Nombre completo del cliente
+     * @param tipoSolicitud Tipo de solicitud del cliente
+     * @param prioridad Nivel de prioridad del cliente
+     * @param fechaLlegada Fecha y hora de llegada del cliente
+     * @param fechaAtencion Fecha y hora de atención, o null si está en espera
+     */
+    public Cliente(String id, String nombre, TipoSolicitud tipoSolicitud, Prioridad prioridad,
+            LocalDateTime fechaLlegada, LocalDateTime fechaAtencion) {
+        this.id = id;
         this.nombre = nombre;
         this.tipoSolicitud = tipoSolicitud;
         this.prioridad = prioridad;
-        this.fechaLlegada = LocalDateTime.now();
-        this.fechaAtencion = null;
+        this.fechaLlegada = fechaLlegada;
+        this.fechaAtencion = fechaAtencion;
     }
 
     /**
@@ -180,22 +203,13 @@ public class Cliente {
     }
 
     /**
-     * Obtiene el valor actual del contador de IDs.
-     *
-     * @return int con el valor actual del contador
-     */
-    public static int getContadorId() {
-        return contadorId;
-    }
-
-    /**
-     * Establece el valor del contador de IDs. Útil para reiniciar el sistema o
-     * cargar datos.
+     * Crea una copia independiente del cliente con el mismo ID y los mismos
+     * datos.
      *
-     * @param contadorId Nuevo valor del contador
+     * @return Copia del cliente
      */
-    public static void setContadorId(int contadorId) {
-        Cliente.contadorId = contadorId;
+    public Cliente copiar() {
+        return new Cliente(id, nombre, tipoSolicitud, prioridad, fechaLlegada, fechaAtencion);
     }
 
     /**
@@ -218,12 +232,11 @@ public class Cliente {
      */
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
         String info = String.format("ID: %s | Nombre: %s | Tipo: %s | Prioridad: %s | Ingreso: %s",
-                id, nombre, tipoSolicitud, prioridad, fechaLlegada.format(formatter));
+                id, nombre, tipoSolicitud, prioridad, fechaLlegada.format(FORMATO_FECHA));
         if (fechaAtencion != null) {
             info += String.format(" | Atendido: %s | Tiempo Espera: %d min",
-                    fechaAtencion.format(formatter), calcularTiempoAtencion());
+                    fechaAtencion.format(FORMATO_FECHA), calcularTiempoAtencion());
         } else {
             info += " | Estado: En espera";
         }
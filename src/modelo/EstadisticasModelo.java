@@ -0,0 +1,138 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+/**
+ * Estadísticas del modelo en un momento dado, como valores inmutables. La
+ * versión identifica el estado del que se obtuvieron: el modelo entrega el
+ * mismo objeto mientras no cambie, así que consultarlo con frecuencia no
+ * cuesta nada y dos estadísticas con la misma versión son iguales.
+ *
+ * El texto que muestra la aplicación es solo una forma de presentarlas; se
+ * genera la primera vez que se pide y se reutiliza después.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class EstadisticasModelo {
+
+    private final long version;
+    private final int clientesEnEspera;
+    private final int urgentesEnEspera;
+    private final int clientesAtendidos;
+    private final long minutosAtencionTotal;
+    private final int atendidosConTiempo;
+    private final int cantidadAcciones;
+    private String texto;
+
+    EstadisticasModelo(long version, int clientesEnEspera, int urgentesEnEspera, int clientesAtendidos,
+            long minutosAtencionTotal, int atendidosConTiempo, int cantidadAcciones) {
+        this.version = version;
+        this.clientesEnEspera = clientesEnEspera;
+        this.urgentesEnEspera = urgentesEnEspera;
+        this.clientesAtendidos = clientesAtendidos;
+        this.minutosAtencionTotal = minutosAtencionTotal;
+        this.atendidosConTiempo = atendidosConTiempo;
+        this.cantidadAcciones = cantidadAcciones;
+    }
+
+    /**
+     * Obtiene la versión del modelo de la que se tomaron las estadísticas.
+     *
+     * @return Versión del modelo
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes en espera.
+     *
+     * @return Número de clientes en la cola
+     */
+    public int getClientesEnEspera() {
+        return clientesEnEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes urgentes en espera.
+     *
+     * @return Número de clientes urgentes en la cola
+     */
+    public int getUrgentesEnEspera() {
+        return urgentesEnEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes atendidos.
+     *
+     * @return Número de clientes en el historial
+     */
+    public int getClientesAtendidos() {
+        return clientesAtendidos;
+    }
+
+    /**
+     * Obtiene la suma de los tiempos de atención en minutos.
+     *
+     * @return Total de minutos de espera de los clientes atendidos
+     */
+    public long getMinutosAtencionTotal() {
+        return minutosAtencionTotal;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes que cuentan en el promedio.
+     *
+     * @return Clientes atendidos con tiempo de atención positivo
+     */
+    public int getAtendidosConTiempo() {
+        return atendidosConTiempo;
+    }
+
+    /**
+     * Obtiene el promedio de tiempo de atención en minutos.
+     *
+     * @return Promedio de tiempo de atención, o 0.0 si no hay clientes
+     * atendidos
+     */
+    public double getPromedioTiempoAtencion() {
+        return atendidosConTiempo > 0 ? (double) minutosAtencionTotal / atendidosConTiempo : 0.0;
+    }
+
+    /**
+     * Obtiene la cantidad de acciones en la pila de deshacer.
+     *
+     * @return Número de acciones registradas
+     */
+    public int getCantidadAcciones() {
+        return cantidadAcciones;
+    }
+
+    /**
+     * Genera el texto de estadísticas que muestra la aplicación.
+     *
+     * @return String con las estadísticas formateadas
+     */
+    public String generarTexto() {
+        String generado = texto;
+        if (generado == null) {
+            StringBuilder estadistica = new StringBuilder();
+            estadistica.append("=== ESTADÍSTICAS DEL SISTEMA ===\n\n");
+            estadistica.append("Clientes en espera: ").append(clientesEnEspera).append("\n");
+            estadistica.append("Clientes atendidos: ").append(clientesAtendidos).append("\n");
+            estadistica.append("Promedio tiempo atención: ").append(String.format("%.2f", getPromedioTiempoAtencion())).append(" minutos\n");
+            estadistica.append("Acciones registradas: ").append(cantidadAcciones).append("\n");
+            generado = estadistica.toString();
+            texto = generado;
+        }
+        return generado;
+    }
+
+    @Override
+    public String toString() {
+        return generarTexto();
+    }
+}
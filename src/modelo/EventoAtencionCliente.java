@@ -0,0 +1,53 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Flight Recorder emitido por {@link GestionClientes} al elegir
+ * al siguiente cliente. Su duración es la del recorrido de la cola.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@Name("simulador.AtencionCliente")
+@Label("Atención de cliente")
+@Category({"Simulador", "Cola"})
+@Description("Elección del siguiente cliente según la política de atención")
+final class EventoAtencionCliente extends Event {
+
+    @Label("ID del cliente")
+    String idCliente;
+
+    @Label("Tipo de solicitud")
+    String tipoSolicitud;
+
+    @Label("Prioridad")
+    String prioridad;
+
+    @Label("Política")
+    String politica;
+
+    @Label("Puntos")
+    @Description("Puntaje con el que ganó el cliente elegido")
+    int puntos;
+
+    @Label("Posición")
+    @Description("Posición en la cola del cliente elegido, desde 0")
+    int posicion;
+
+    @Label("Clientes revisados")
+    @Description("Clientes recorridos antes de detener la búsqueda")
+    int revisados;
+
+    @Label("Clientes en espera")
+    @Description("Tamaño de la cola después de la atención")
+    int enEspera;
+}
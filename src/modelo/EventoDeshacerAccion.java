@@ -0,0 +1,38 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Flight Recorder emitido por {@link Modelo} al deshacer una
+ * acción individual.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@Name("simulador.DeshacerAccion")
+@Label("Deshacer acción")
+@Category({"Simulador", "Acciones"})
+@Description("Reversión de una acción de la pila de deshacer")
+final class EventoDeshacerAccion extends Event {
+
+    @Label("Tipo de acción")
+    String tipoAccion;
+
+    @Label("ID del cliente")
+    String idCliente;
+
+    @Label("Grupo")
+    @Description("Nombre del grupo al que pertenece la acción, si tiene")
+    String grupo;
+
+    @Label("Éxito")
+    boolean exito;
+}
@@ -0,0 +1,35 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Flight Recorder emitido por {@link GestionClientes} al quitar
+ * un cliente de la cola por su ID.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@Name("simulador.EliminacionCliente")
+@Label("Eliminación de cliente")
+@Category({"Simulador", "Cola"})
+@Description("Un cliente sale de la cola por su ID")
+final class EventoEliminacionCliente extends Event {
+
+    @Label("ID del cliente")
+    String idCliente;
+
+    @Label("Encontrado")
+    boolean encontrado;
+
+    @Label("Clientes en espera")
+    @Description("Tamaño de la cola después de la eliminación")
+    int enEspera;
+}
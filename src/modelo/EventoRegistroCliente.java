@@ -0,0 +1,38 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Flight Recorder emitido por {@link GestionClientes} al agregar
+ * un cliente nuevo a la cola.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@Name("simulador.RegistroCliente")
+@Label("Registro de cliente")
+@Category({"Simulador", "Cola"})
+@Description("Un cliente nuevo entra a la cola de espera")
+final class EventoRegistroCliente extends Event {
+
+    @Label("ID del cliente")
+    String idCliente;
+
+    @Label("Tipo de solicitud")
+    String tipoSolicitud;
+
+    @Label("Prioridad")
+    String prioridad;
+
+    @Label("Clientes en espera")
+    @Description("Tamaño de la cola después de agregar al cliente")
+    int enEspera;
+}
@@ -0,0 +1,35 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento de Flight Recorder emitido por {@link Historial} al quitar un
+ * cliente atendido, normalmente al deshacer una atención.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@Name("simulador.RemocionHistorial")
+@Label("Remoción del historial")
+@Category({"Simulador", "Historial"})
+@Description("Un cliente atendido sale del historial")
+final class EventoRemocionHistorial extends Event {
+
+    @Label("ID del cliente")
+    String idCliente;
+
+    @Label("Búsqueda lineal")
+    @Description("Verdadero si el cliente no era el último y hubo que recorrer la lista")
+    boolean busquedaLineal;
+
+    @Label("Encontrado")
+    boolean encontrado;
+}
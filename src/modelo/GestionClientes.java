@@ -4,27 +4,78 @@
  */
 package modelo;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Gestiona la cola de clientes en espera utilizando un sistema de prioridades híbrido.
  * Implementa una cola FIFO con prioridad donde los clientes urgentes tienen ventaja
  * pero los normales en primeras posiciones también pueden ser atendidos.
  * 
+ * La cola es una lista doblemente enlazada con un índice por ID, de modo que
+ * agregar al inicio o al final y quitar un cliente por su ID son operaciones
+ * de tiempo constante. Esto permite deshacer y rehacer sin reconstruir la cola.
+ * 
  * @author Valery
  * @author Andres
  */
 public class GestionClientes {
-private Queue<Cliente> colaClientes;
+
+    private static final Logger LOGGER = Logger.getLogger(GestionClientes.class.getName());
+
+    /**
+     * Nodo de la lista enlazada de clientes en espera.
+     */
+    private static final class Nodo {
+        private final Cliente cliente;
+        private Nodo anterior;
+        private Nodo siguiente;
+
+        private Nodo(Cliente cliente) {
+            this.cliente = cliente;
+        }
+    }
+
+    private Nodo primero;
+    private Nodo ultimo;
+    private int cantidad;
+    private int contadorId;
+    private int cantidadUrgentes;
+    private long modificaciones;
+    private PoliticaAtencion politica;
+    private Map<String, Nodo> indicePorId;
 
     /**
      * Constructor que inicializa la cola de clientes.
      */
     public GestionClientes() {
-        this.colaClientes = new ArrayDeque<>();
+        this.indicePorId = new HashMap<>();
+        this.politica = PoliticaAtencion.HIBRIDA;
+    }
+
+    /**
+     * Obtiene la política con la que se elige al siguiente cliente.
+     *
+     * @return Política de atención actual
+     */
+    public PoliticaAtencion getPoliticaAtencion() {
+        return politica;
+    }
+
+    /**
+     * Establece la política con la que se elige al siguiente cliente.
+     *
+     * @param politica Política de atención
+     */
+    public void setPoliticaAtencion(PoliticaAtencion politica) {
+        if (politica == null) {
+            throw new IllegalArgumentException("La política de atención es obligatoria");
+        }
+        this.politica = politica;
     }
 
     /**
@@ -36,52 +87,123 @@ private Queue<Cliente> colaClientes;
      * @return Cliente agregado, o null si no se pudo agregar
      */
     public Cliente agregarCliente(String nombre, Cliente.TipoSolicitud tipoSolicitud, Cliente.Prioridad prioridad) {
-        Cliente nuevoCliente = new Cliente(nombre, tipoSolicitud, prioridad);
-        boolean agregado = colaClientes.offer(nuevoCliente);
-        if (agregado) {
+        return agregarCliente(nombre, tipoSolicitud, prioridad, java.time.LocalDateTime.now());
+    }
+
+    /**
+     * Agrega un nuevo cliente a la cola de espera con una fecha de llegada dada.
+     * 
+     * @param nombre Nombre del cliente
+     * @param tipoSolicitud Tipo de solicitud del cliente
+     * @param prioridad Prioridad del cliente
+     * @param fechaLlegada Fecha y hora de llegada del cliente
+     * @return Cliente agregado, o null si no se pudo agregar
+     */
+    public Cliente agregarCliente(String nombre, Cliente.TipoSolicitud tipoSolicitud, Cliente.Prioridad prioridad,
+            java.time.LocalDateTime fechaLlegada) {
+        contadorId++;
+        Cliente nuevoCliente = new Cliente(String.valueOf(contadorId), nombre, tipoSolicitud, prioridad,
+                fechaLlegada);
+        if (enlazarAlFinal(nuevoCliente)) {
+            EventoRegistroCliente evento = new EventoRegistroCliente();
+            if (evento.shouldCommit()) {
+                evento.idCliente = nuevoCliente.getId();
+                evento.tipoSolicitud = tipoSolicitud.name();
+                evento.prioridad = prioridad.name();
+                evento.enEspera = cantidad;
+                evento.commit();
+            }
             return nuevoCliente;
         }
         return null;
     }
 
     /**
-     * Atiende al cliente con mayor prioridad según el sistema híbrido.
-     * Sistema de puntos: Urgente=8, Normal=6 + bonus por posición (4,3,2,1,0...)
+     * Obtiene el valor actual del contador de IDs de esta cola.
+     *
+     * @return int con el último ID asignado
+     */
+    public int getContadorId() {
+        return contadorId;
+    }
+
+    /**
+     * Establece el valor del contador de IDs. Se utiliza al cargar el estado
+     * desde una instantánea.
+     *
+     * @param contadorId Nuevo valor del contador
+     */
+    public void setContadorId(int contadorId) {
+        this.contadorId = contadorId;
+    }
+
+    /**
+     * Atiende al cliente con mayor prioridad según la política de atención.
+     * Por defecto el sistema híbrido: Urgente=8, Normal=6 + bonus por
+     * posición (4,3,2,1,0...)
      * 
      * @return Cliente atendido, o null si no hay clientes en espera
      */
     public Cliente atenderCliente() {
-        if (colaClientes.isEmpty()) {
+        return atenderCliente(java.time.LocalDateTime.now());
+    }
+
+    /**
+     * Atiende al cliente con mayor prioridad según la política de atención,
+     * registrando la fecha de atención indicada.
+     * 
+     * @param fechaAtencion Fecha y hora de atención del cliente
+     * @return Cliente atendido, o null si no hay clientes en espera
+     */
+    public Cliente atenderCliente(java.time.LocalDateTime fechaAtencion) {
+        if (primero == null) {
             return null;
         }
+        EventoAtencionCliente evento = new EventoAtencionCliente();
+        evento.begin();
 
-        // Sistema de prioridad híbrido - Opción 4
-        Cliente clienteConMayorPrioridad = null;
+        Nodo nodoConMayorPrioridad = null;
         int maxPuntos = -1;
+        int posicionGanador = 0;
         int posicion = 0;
+        boolean hayUrgentes = cantidadUrgentes > 0;
 
-        for (Cliente cliente : colaClientes) {
-            // Puntos base: Urgente=8, Normal=6
-            int puntosBase = (cliente.getPrioridad() == Cliente.Prioridad.URGENTE) ? 8 : 6;
-
-            // Bonus por posición: 4,3,2,1,0... (máximo 4 puntos para primera posición)
-            int bonusPosicion = Math.max(0, 4 - posicion);
-
-            int puntosTotales = puntosBase + bonusPosicion;
+        for (Nodo nodo = primero; nodo != null; nodo = nodo.siguiente) {
+            // Los puntos máximos solo decrecen con la posición: si el mejor
+            // encontrado ya los alcanza, ningún cliente posterior puede ganarle
+            if (politica.puntosMaximos(posicion, hayUrgentes) <= maxPuntos) {
+                break;
+            }
+            int puntosTotales = politica.puntos(nodo.cliente, posicion);
 
             if (puntosTotales > maxPuntos) {
                 maxPuntos = puntosTotales;
-                clienteConMayorPrioridad = cliente;
+                nodoConMayorPrioridad = nodo;
+                posicionGanador = posicion;
             }
             posicion++;
         }
 
         // Remover y retornar el cliente con mayor prioridad
-        if (clienteConMayorPrioridad != null) {
-            colaClientes.remove(clienteConMayorPrioridad);
-            clienteConMayorPrioridad.setFechaAtencion(java.time.LocalDateTime.now());
+        Cliente clienteConMayorPrioridad = nodoConMayorPrioridad.cliente;
+        desenlazar(nodoConMayorPrioridad);
+        clienteConMayorPrioridad.setFechaAtencion(fechaAtencion);
+
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.idCliente = clienteConMayorPrioridad.getId();
+            evento.tipoSolicitud = clienteConMayorPrioridad.getTipoSolicitud().name();
+            evento.prioridad = clienteConMayorPrioridad.getPrioridad().name();
+            evento.politica = politica.name();
+            evento.puntos = maxPuntos;
+            evento.posicion = posicionGanador;
+            evento.revisados = posicion;
+            evento.enEspera = cantidad;
+            evento.commit();
+        }
 
-            System.out.println("Sistema de prioridades - Atendiendo: "
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Sistema de prioridades - Atendiendo: "
                     + clienteConMayorPrioridad.getNombre()
                     + " (" + clienteConMayorPrioridad.getPrioridad()
                     + ") - " + maxPuntos + " puntos totales");
@@ -98,16 +220,23 @@ private Queue<Cliente> colaClientes;
      * @return true si se agregó exitosamente, false en caso contrario
      */
     public boolean agregarClienteAlInicio(Cliente cliente) {
-        if (cliente == null) {
+        if (cliente == null || indicePorId.containsKey(cliente.getId())) {
             return false;
         }
-        // Convertimos la cola a lista, agregamos al inicio y reconstruimos
-        List<Cliente> listaClientes = new ArrayList<>(colaClientes);
-
-        listaClientes.add(0, cliente);
-        colaClientes.clear();
-        colaClientes.addAll(listaClientes);
-
+        Nodo nodo = new Nodo(cliente);
+        nodo.siguiente = primero;
+        if (primero != null) {
+            primero.anterior = nodo;
+        } else {
+            ultimo = nodo;
+        }
+        primero = nodo;
+        indicePorId.put(cliente.getId(), nodo);
+        cantidad++;
+        modificaciones++;
+        if (cliente.getPrioridad() == Cliente.Prioridad.URGENTE) {
+            cantidadUrgentes++;
+        }
         return true;
     }
 
@@ -122,7 +251,7 @@ private Queue<Cliente> colaClientes;
         if (cliente == null) {
             return false;
         }
-        return colaClientes.offer(cliente);
+        return enlazarAlFinal(cliente);
     }
 
     /**
@@ -132,7 +261,11 @@ private Queue<Cliente> colaClientes;
      * @return true si el cliente está en la cola, false en caso contrario
      */
     public boolean contieneCliente(Cliente cliente) {
-        return colaClientes.contains(cliente);
+        if (cliente == null) {
+            return false;
+        }
+        Nodo nodo = indicePorId.get(cliente.getId());
+        return nodo != null && nodo.cliente.equals(cliente);
     }
 
     /**
@@ -142,15 +275,18 @@ private Queue<Cliente> colaClientes;
      * @return Cliente eliminado, o null si no se encontró
      */
     public Cliente eliminarClientePorIdCola(String id) {
-        java.util.Iterator<Cliente> iterator = colaClientes.iterator();
-        while (iterator.hasNext()) {
-            Cliente cliente = iterator.next();
-            if (cliente.getId().equals(id)) {
-                iterator.remove();
-                return cliente;
-            }
+        Nodo nodo = indicePorId.get(id);
+        if (nodo != null) {
+            desenlazar(nodo);
         }
-        return null;
+        EventoEliminacionCliente evento = new EventoEliminacionCliente();
+        if (evento.shouldCommit()) {
+            evento.idCliente = id;
+            evento.encontrado = nodo != null;
+            evento.enEspera = cantidad;
+            evento.commit();
+        }
+        return nodo != null ? nodo.cliente : null;
     }
 
     /**
@@ -160,12 +296,7 @@ private Queue<Cliente> colaClientes;
      * @return true si el cliente existe, false en caso contrario
      */
     public boolean existeClientePorId(String id) {
-        for (Cliente cliente : colaClientes) {
-            if (cliente.getId().equals(id)) {
-                return true;
-            }
-        }
-        return false;
+        return indicePorId.containsKey(id);
     }
 
     /**
@@ -174,7 +305,7 @@ private Queue<Cliente> colaClientes;
      * @return Cliente en la primera posición, o null si la cola está vacía
      */
     public Cliente obtenerSiguienteCliente() {
-        return colaClientes.peek();
+        return primero != null ? primero.cliente : null;
     }
 
     /**
@@ -183,7 +314,11 @@ private Queue<Cliente> colaClientes;
      * @return Lista de clientes en espera
      */
     public List<Cliente> getClientesEnEspera() {
-        return new ArrayList<>(colaClientes);
+        List<Cliente> clientes = new ArrayList<>(cantidad);
+        for (Nodo nodo = primero; nodo != null; nodo = nodo.siguiente) {
+            clientes.add(nodo.cliente);
+        }
+        return clientes;
     }
 
     /**
@@ -192,7 +327,27 @@ private Queue<Cliente> colaClientes;
      * @return Número de clientes en la cola de espera
      */
     public int getCantidadClientesEnEspera() {
-        return colaClientes.size();
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes urgentes en espera.
+     *
+     * @return Número de clientes urgentes en la cola
+     */
+    public int getCantidadUrgentesEnEspera() {
+        return cantidadUrgentes;
+    }
+
+    /**
+     * Obtiene la cantidad de cambios que ha tenido la cola. Aumenta cada vez
+     * que un cliente entra o sale, de modo que sirve para saber si un
+     * cálculo hecho antes sigue vigente.
+     *
+     * @return Contador de modificaciones de la cola
+     */
+    public long getModificaciones() {
+        return modificaciones;
     }
 
     /**
@@ -201,6 +356,55 @@ private Queue<Cliente> colaClientes;
      * @return true si hay clientes en espera, false en caso contrario
      */
     public boolean hayClientesEnEspera() {
-        return !colaClientes.isEmpty();
+        return cantidad > 0;
+    }
+
+    /**
+     * Enlaza un cliente al final de la cola. Un ID ya presente en la cola no
+     * se agrega dos veces.
+     */
+    private boolean enlazarAlFinal(Cliente cliente) {
+        if (indicePorId.containsKey(cliente.getId())) {
+            return false;
+        }
+        Nodo nodo = new Nodo(cliente);
+        nodo.anterior = ultimo;
+        if (ultimo != null) {
+            ultimo.siguiente = nodo;
+        } else {
+            primero = nodo;
+        }
+        ultimo = nodo;
+        indicePorId.put(cliente.getId(), nodo);
+        cantidad++;
+        modificaciones++;
+        if (cliente.getPrioridad() == Cliente.Prioridad.URGENTE) {
+            cantidadUrgentes++;
+        }
+        return true;
+    }
+
+    /**
+     * Quita un nodo de la cola en tiempo constante.
+     */
+    private void desenlazar(Nodo nodo) {
+        if (nodo.anterior != null) {
+            nodo.anterior.siguiente = nodo.siguiente;
+        } else {
+            primero = nodo.siguiente;
+        }
+        if (nodo.siguiente != null) {
+            nodo.siguiente.anterior = nodo.anterior;
+        } else {
+            ultimo = nodo.anterior;
+        }
+        nodo.anterior = null;
+        nodo.siguiente = null;
+        indicePorId.remove(nodo.cliente.getId());
+        cantidad--;
+        modificaciones++;
+        if (nodo.cliente.getPrioridad() == Cliente.Prioridad.URGENTE) {
+            cantidadUrgentes--;
+        }
     }
 }
@@ -0,0 +1,217 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de espera segura para hilos. Envuelve una {@link GestionClientes} y
+ * serializa todas sus operaciones con un único candado, de modo que la
+ * elección del siguiente cliente sigue exactamente la misma política de
+ * atención que en la aplicación.
+ *
+ * Se usa un {@link ReentrantLock} en lugar de {@code synchronized} porque
+ * un hilo virtual que espera un candado de este tipo libera su hilo
+ * portador; así miles de clientes simulados pueden competir por la cola
+ * sin acaparar los portadores. Las ventanillas pueden además esperar a que
+ * llegue un cliente con {@link #atenderCliente(Clock)}: cada llegada
+ * despierta a una y {@link #cerrar()} despierta a todas cuando ya no
+ * llegarán más, así que ninguna necesita consultar la cola periódicamente.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class GestionClientesConcurrente {
+
+    private final GestionClientes cola;
+    private final ReentrantLock candado;
+    private final Condition hayClientes;
+    private boolean cerrada;
+
+    /**
+     * Constructor que crea una cola vacía con la política híbrida.
+     */
+    public GestionClientesConcurrente() {
+        this(new GestionClientes());
+    }
+
+    /**
+     * Constructor que envuelve una cola existente. A partir de aquí la cola
+     * solo debe usarse a través de esta envoltura.
+     *
+     * @param cola Cola a proteger
+     */
+    public GestionClientesConcurrente(GestionClientes cola) {
+        this.cola = cola;
+        this.candado = new ReentrantLock();
+        this.hayClientes = candado.newCondition();
+    }
+
+    /**
+     * Establece la política con la que se elige al siguiente cliente.
+     *
+     * @param politica Política de atención
+     */
+    public void setPoliticaAtencion(PoliticaAtencion politica) {
+        candado.lock();
+        try {
+            cola.setPoliticaAtencion(politica);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Agrega un nuevo cliente a la cola y despierta a una ventanilla que
+     * esté esperando.
+     *
+     * @param nombre Nombre del cliente
+     * @param tipoSolicitud Tipo de solicitud del cliente
+     * @param prioridad Prioridad del cliente
+     * @param fechaLlegada Fecha y hora de llegada del cliente
+     * @return Cliente agregado, o null si no se pudo agregar
+     * @throws IllegalStateException si la cola ya fue cerrada
+     */
+    public Cliente agregarCliente(String nombre, Cliente.TipoSolicitud tipoSolicitud, Cliente.Prioridad prioridad,
+            LocalDateTime fechaLlegada) {
+        candado.lock();
+        try {
+            if (cerrada) {
+                throw new IllegalStateException("La cola ya no recibe clientes");
+            }
+            Cliente cliente = cola.agregarCliente(nombre, tipoSolicitud, prioridad, fechaLlegada);
+            if (cliente != null) {
+                hayClientes.signal();
+            }
+            return cliente;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Atiende al cliente con mayor prioridad, si hay alguno.
+     *
+     * @param fechaAtencion Fecha y hora de atención del cliente
+     * @return Cliente atendido, o null si no hay clientes en espera
+     */
+    public Cliente atenderCliente(LocalDateTime fechaAtencion) {
+        candado.lock();
+        try {
+            return cola.atenderCliente(fechaAtencion);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Atiende al cliente con mayor prioridad, esperando a que llegue uno si
+     * la cola está vacía. La fecha de atención se toma del reloj en el
+     * momento de la elección.
+     *
+     * @param reloj Reloj con el que se fecha la atención
+     * @return Cliente atendido, o null si la cola está cerrada y vacía
+     * @throws InterruptedException si el hilo se interrumpe mientras espera
+     */
+    public Cliente atenderCliente(Clock reloj) throws InterruptedException {
+        candado.lockInterruptibly();
+        try {
+            while (!cola.hayClientesEnEspera()) {
+                if (cerrada) {
+                    return null;
+                }
+                hayClientes.await();
+            }
+            return cola.atenderCliente(LocalDateTime.now(reloj));
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Atiende al cliente con mayor prioridad, esperando a lo sumo un plazo a
+     * que llegue uno si la cola está vacía. La fecha de atención se toma del
+     * reloj en el momento de la elección.
+     *
+     * @param reloj Reloj con el que se fecha la atención
+     * @param plazo Tiempo máximo de espera
+     * @param unidad Unidad del plazo
+     * @return Cliente atendido, o null si no llegó ninguno dentro del plazo
+     * o la cola está cerrada y vacía
+     * @throws InterruptedException si el hilo se interrumpe mientras espera
+     */
+    public Cliente atenderCliente(Clock reloj, long plazo, TimeUnit unidad) throws InterruptedException {
+        long restante = unidad.toNanos(plazo);
+        candado.lockInterruptibly();
+        try {
+            while (!cola.hayClientesEnEspera()) {
+                if (cerrada || restante <= 0) {
+                    return null;
+                }
+                restante = hayClientes.awaitNanos(restante);
+            }
+            return cola.atenderCliente(LocalDateTime.now(reloj));
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Indica que no llegarán más clientes y despierta a todas las
+     * ventanillas que esperan: atienden a los que quedan y, con la cola
+     * vacía, {@link #atenderCliente(Clock)} devuelve null.
+     */
+    public void cerrar() {
+        candado.lock();
+        try {
+            cerrada = true;
+            hayClientes.signalAll();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Elimina un cliente de la cola por su ID.
+     *
+     * @param id ID del cliente a eliminar
+     * @return Cliente eliminado, o null si ya no estaba en la cola
+     */
+    public Cliente eliminarClientePorIdCola(String id) {
+        candado.lock();
+        try {
+            return cola.eliminarClientePorIdCola(id);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de clientes en espera.
+     *
+     * @return Número de clientes en la cola de espera
+     */
+    public int getCantidadClientesEnEspera() {
+        candado.lock();
+        try {
+            return cola.getCantidadClientesEnEspera();
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Verifica si hay clientes en espera.
+     *
+     * @return true si hay clientes en espera, false en caso contrario
+     */
+    public boolean hayClientesEnEspera() {
+        return getCantidadClientesEnEspera() > 0;
+    }
+}
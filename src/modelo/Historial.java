@@ -4,13 +4,21 @@
  */
 package modelo;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * Gestiona el historial de clientes atendidos. Implementa una lista enlazada
- * para almacenar y consultar clientes que ya han sido atendidos. Proporciona
- * métodos para búsqueda, estadísticas y gestión del historial.
+ * Gestiona el historial de clientes atendidos. Los clientes se guardan en un
+ * arreglo en orden de atención, de modo que se pueden leer por posición sin
+ * recorrer ni copiar el historial (por ejemplo, solo las filas visibles de
+ * una tabla). Proporciona métodos para búsqueda, estadísticas y gestión del
+ * historial.
+ *
+ * El total de minutos de atención y la cantidad de clientes que lo componen
+ * se mantienen al agregar y remover, así que el promedio no recorre la
+ * lista. Por eso la fecha de atención de un cliente no debe cambiar
+ * mientras está en el historial.
  *
  * @author Valery
  * @author Andres
@@ -21,12 +29,15 @@ import java.util.List;
 public class Historial {
 
     private List<Cliente> clientesAtendidos;
+    private long minutosAtencionTotal;
+    private int atendidosConTiempo;
+    private long modificaciones;
 
     /**
      * Constructor que inicializa la lista de clientes atendidos.
      */
     public Historial() {
-        this.clientesAtendidos = new LinkedList<>();
+        this.clientesAtendidos = new ArrayList<>();
     }
 
     /**
@@ -37,6 +48,7 @@ public class Historial {
     public void agregarAtendido(Cliente cliente) {
         if (cliente != null) {
             clientesAtendidos.add(cliente);
+            acumular(cliente, 1);
         }
     }
 
@@ -55,13 +67,36 @@ public class Historial {
         return null;
     }
 
+    /**
+     * Recorre los clientes atendidos en orden de atención sin copiar la
+     * lista. La acción no debe modificar el historial.
+     *
+     * @param accion Acción que recibe cada cliente
+     */
+    public void recorrer(Consumer<Cliente> accion) {
+        for (Cliente cliente : clientesAtendidos) {
+            accion.accept(cliente);
+        }
+    }
+
+    /**
+     * Obtiene el cliente atendido en una posición, sin copiar la lista.
+     *
+     * @param indice Posición en orden de atención, desde 0
+     * @return Cliente atendido en esa posición
+     * @throws IndexOutOfBoundsException si la posición no existe
+     */
+    public Cliente getAtendido(int indice) {
+        return clientesAtendidos.get(indice);
+    }
+
     /**
      * Obtiene una copia de la lista de clientes atendidos.
      *
      * @return Lista de clientes atendidos
      */
     public List<Cliente> getClientesAtendidos() {
-        return new LinkedList<>(clientesAtendidos);
+        return new ArrayList<>(clientesAtendidos);
     }
 
     /**
@@ -80,22 +115,55 @@ public class Historial {
      * atendidos
      */
     public double getPromedioTiempoAtencion() {
-        if (clientesAtendidos.isEmpty()) {
-            return 0.0;
-        }
+        return atendidosConTiempo > 0 ? (double) minutosAtencionTotal / atendidosConTiempo : 0.0;
+    }
 
-        long totalMinutos = 0;
-        int contador = 0;
+    /**
+     * Obtiene la suma de los tiempos de atención en minutos.
+     *
+     * @return Total de minutos de espera de los clientes atendidos
+     */
+    public long getMinutosAtencionTotal() {
+        return minutosAtencionTotal;
+    }
 
-        for (Cliente cliente : clientesAtendidos) {
-            long tiempo = cliente.calcularTiempoAtencion();
-            if (tiempo > 0) {
-                totalMinutos += tiempo;
-                contador++;
-            }
+    /**
+     * Obtiene la cantidad de clientes que cuentan en el promedio, es decir,
+     * los que esperaron al menos un minuto.
+     *
+     * @return Clientes atendidos con tiempo de atención positivo
+     */
+    public int getAtendidosConTiempo() {
+        return atendidosConTiempo;
+    }
+
+    /**
+     * Obtiene la cantidad de cambios que ha tenido el historial. Aumenta con
+     * cada cliente agregado o removido.
+     *
+     * @return Contador de modificaciones del historial
+     */
+    public long getModificaciones() {
+        return modificaciones;
+    }
+
+    private static void registrarRemocion(String id, boolean busquedaLineal, boolean encontrado) {
+        EventoRemocionHistorial evento = new EventoRemocionHistorial();
+        if (evento.shouldCommit()) {
+            evento.idCliente = id;
+            evento.busquedaLineal = busquedaLineal;
+            evento.encontrado = encontrado;
+            evento.commit();
         }
+    }
 
-        return contador > 0 ? (double) totalMinutos / contador : 0.0;
+    private void acumular(Cliente cliente, int signo) {
+        long tiempo = cliente.calcularTiempoAtencion();
+        if (tiempo > 0) {
+            minutosAtencionTotal += signo * tiempo;
+            atendidosConTiempo += signo;
+        }
+        modificaciones++;
     }
 
     /**
@@ -106,7 +174,32 @@ public class Historial {
      * @return true si se removió exitosamente, false en caso contrario
      */
     public boolean removerClienteAtendido(Cliente cliente) {
-        return clientesAtendidos.remove(cliente);
+        boolean removido = clientesAtendidos.remove(cliente);
+        if (removido) {
+            acumular(cliente, -1);
+        }
+        registrarRemocion(cliente != null ? cliente.getId() : null, true, removido);
+        return removido;
+    }
+
+    /**
+     * Remueve un cliente que se espera que sea el último atendido. Como las
+     * acciones se deshacen en orden inverso, al deshacer una atención el
+     * cliente siempre es el último del historial y se quita en tiempo
+     * constante; en otro caso se busca en toda la lista.
+     *
+     * @param cliente Cliente a remover
+     * @return true si se removió exitosamente, false en caso contrario
+     */
+    public boolean removerUltimoAtendido(Cliente cliente) {
+        int ultimo = clientesAtendidos.size() - 1;
+        if (ultimo >= 0 && clientesAtendidos.get(ultimo) == cliente) {
+            clientesAtendidos.remove(ultimo);
+            acumular(cliente, -1);
+            registrarRemocion(cliente.getId(), false, true);
+            return true;
+        }
+        return removerClienteAtendido(cliente);
     }
 
     /**
@@ -116,12 +209,16 @@ public class Historial {
      * @return Cliente removido, o null si no se encontró
      */
     public Cliente removerClientePorIdList(String id) {
-        for (Cliente cliente : clientesAtendidos) {
+        for (int i = 0; i < clientesAtendidos.size(); i++) {
+            Cliente cliente = clientesAtendidos.get(i);
             if (cliente.getId().equals(id)) {
-                clientesAtendidos.remove(cliente);
+                clientesAtendidos.remove(i);
+                acumular(cliente, -1);
+                registrarRemocion(id, true, true);
                 return cliente;
             }
         }
+        registrarRemocion(id, true, false);
         return null;
     }
 
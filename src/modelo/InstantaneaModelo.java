@@ -0,0 +1,164 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vista inmutable y consistente del estado del modelo, publicada por
+ * {@link BucleModelo} después de aplicar cada lote de comandos. Las listas y
+ * los clientes que contiene son copias que nunca se modifican, así que
+ * cualquier hilo puede leerla sin sincronización. La búsqueda por ID usa un
+ * mapa de la cola y el índice de posiciones del historial, sin recorrerlos.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class InstantaneaModelo {
+
+    private final long version;
+    private final List<Cliente> clientesEnEspera;
+    private final Map<String, Cliente> enEsperaPorId;
+    private final ListaAtendidosCompartida.Vista clientesAtendidos;
+    private final EstadisticasModelo estadisticas;
+    private final boolean accionesParaDeshacer;
+    private final boolean accionesParaRehacer;
+
+    InstantaneaModelo(long version, List<Cliente> clientesEnEspera, Map<String, Cliente> enEsperaPorId,
+            ListaAtendidosCompartida.Vista clientesAtendidos, EstadisticasModelo estadisticas,
+            boolean accionesParaDeshacer, boolean accionesParaRehacer) {
+        this.version = version;
+        this.clientesEnEspera = clientesEnEspera;
+        this.enEsperaPorId = enEsperaPorId;
+        this.clientesAtendidos = clientesAtendidos;
+        this.estadisticas = estadisticas;
+        this.accionesParaDeshacer = accionesParaDeshacer;
+        this.accionesParaRehacer = accionesParaRehacer;
+    }
+
+    /**
+     * Obtiene la versión del modelo. Aumenta con cada cambio aplicado, de
+     * modo que dos instantáneas con la misma versión tienen el mismo
+     * contenido.
+     *
+     * @return Versión del modelo
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Obtiene los clientes en espera en el orden de la cola.
+     *
+     * @return Lista inmutable de clientes en espera
+     */
+    public List<Cliente> getClientesEnEspera() {
+        return clientesEnEspera;
+    }
+
+    /**
+     * Obtiene los clientes atendidos en orden de atención.
+     *
+     * @return Lista inmutable de clientes atendidos
+     */
+    public List<Cliente> getClientesAtendidos() {
+        return clientesAtendidos;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes en espera.
+     *
+     * @return Número de clientes en la cola
+     */
+    public int getCantidadClientesEnEspera() {
+        return clientesEnEspera.size();
+    }
+
+    /**
+     * Obtiene la cantidad de clientes atendidos.
+     *
+     * @return Número de clientes en el historial
+     */
+    public int getCantidadAtendidos() {
+        return clientesAtendidos.size();
+    }
+
+    /**
+     * Obtiene el promedio de tiempo de atención en minutos.
+     *
+     * @return Promedio de tiempo de atención, o 0.0 si no hay clientes
+     * atendidos
+     */
+    public double getPromedioTiempoAtencion() {
+        return estadisticas.getPromedioTiempoAtencion();
+    }
+
+    /**
+     * Obtiene las estadísticas del modelo al publicar la instantánea.
+     *
+     * @return Estadísticas del modelo
+     */
+    public EstadisticasModelo getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Obtiene la cantidad de acciones en la pila de deshacer.
+     *
+     * @return Número de acciones registradas
+     */
+    public int getCantidadAcciones() {
+        return estadisticas.getCantidadAcciones();
+    }
+
+    /**
+     * Verifica si hay acciones para deshacer.
+     *
+     * @return true si hay acciones para deshacer
+     */
+    public boolean hayAccionesParaDeshacer() {
+        return accionesParaDeshacer;
+    }
+
+    /**
+     * Verifica si hay acciones para rehacer.
+     *
+     * @return true si hay acciones deshechas que se pueden rehacer
+     */
+    public boolean hayAccionesParaRehacer() {
+        return accionesParaRehacer;
+    }
+
+    /**
+     * Busca un cliente atendido por su ID.
+     *
+     * @param id ID del cliente a buscar
+     * @return Cliente encontrado, o null si no existe
+     */
+    public Cliente buscarAtendido(String id) {
+        return clientesAtendidos.buscar(id);
+    }
+
+    /**
+     * Busca un cliente en espera por su ID.
+     *
+     * @param id ID del cliente a buscar
+     * @return Cliente encontrado, o null si no está en la cola
+     */
+    public Cliente buscarEnEspera(String id) {
+        return enEsperaPorId.get(id);
+    }
+
+    /**
+     * Genera las estadísticas con el mismo formato que
+     * {@link Modelo#generarEstadisticas()}.
+     *
+     * @return String con las estadísticas formateadas
+     */
+    public String generarEstadisticas() {
+        return estadisticas.generarTexto();
+    }
+}
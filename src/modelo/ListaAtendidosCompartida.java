@@ -0,0 +1,156 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copia del historial de atendidos que se comparte con los lectores de
+ * {@link InstantaneaModelo}. Los clientes se guardan en bloques de tamaño
+ * fijo; publicar una vista no copia nada, solo fija el tamaño visible. Como
+ * el historial casi siempre crece por el final, el hilo dueño escribe en
+ * posiciones que ningún lector ve. Solo cuando se deshace una atención y
+ * luego se escribe sobre una posición ya publicada se copia ese bloque
+ * (copia en escritura).
+ *
+ * Junto con los bloques se comparte un índice de la posición de cada
+ * cliente por su ID. Las vistas lo consultan y verifican el cliente que
+ * encuentran en esa posición, porque una atención deshecha deja su entrada
+ * y la posición puede quedar ocupada por otro cliente.
+ *
+ * No es segura para hilos: solo el hilo dueño del modelo la modifica.
+ *
+ * @author Valery
+ * @author Andres
+ */
+final class ListaAtendidosCompartida {
+
+    private static final int BITS_BLOQUE = 10;
+    private static final int TAMANO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA_BLOQUE = TAMANO_BLOQUE - 1;
+
+    private Cliente[][] bloques;
+    private int tamano;
+    private int publicadoHasta;
+    private boolean bloquesCompartidos;
+    private int bloquePrivado;
+    private final Map<String, Integer> posiciones;
+
+    ListaAtendidosCompartida() {
+        this.posiciones = new ConcurrentHashMap<>();
+        this.bloques = new Cliente[16][];
+        this.bloquePrivado = -1;
+    }
+
+    /**
+     * Agrega al final una copia congelada del cliente atendido.
+     */
+    void agregar(Cliente cliente) {
+        Cliente copia = cliente.copiar();
+        int indice = tamano;
+        int bloque = indice >>> BITS_BLOQUE;
+        if (bloque == bloques.length) {
+            bloques = Arrays.copyOf(bloques, bloque * 2);
+            bloquesCompartidos = false;
+        }
+        if (bloques[bloque] == null) {
+            bloques[bloque] = new Cliente[TAMANO_BLOQUE];
+        } else if (indice < publicadoHasta && bloque != bloquePrivado) {
+            if (bloquesCompartidos) {
+                bloques = bloques.clone();
+                bloquesCompartidos = false;
+            }
+            bloques[bloque] = bloques[bloque].clone();
+            bloquePrivado = bloque;
+        }
+        bloques[bloque][indice & MASCARA_BLOQUE] = copia;
+        posiciones.put(copia.getId(), indice);
+        tamano++;
+    }
+
+    /**
+     * Quita el último cliente. La posición no se limpia porque puede seguir
+     * visible en una vista ya publicada.
+     */
+    void removerUltimo() {
+        if (tamano > 0) {
+            tamano--;
+        }
+    }
+
+    /**
+     * Crea una vista inmutable del contenido actual.
+     */
+    Vista publicar() {
+        publicadoHasta = Math.max(publicadoHasta, tamano);
+        bloquesCompartidos = true;
+        bloquePrivado = -1;
+        return new Vista(bloques, tamano, posiciones);
+    }
+
+    int getTamano() {
+        return tamano;
+    }
+
+    /**
+     * Vista de solo lectura sobre los bloques tal como estaban al publicar.
+     */
+    static final class Vista extends AbstractList<Cliente> implements RandomAccess {
+
+        private final Cliente[][] bloques;
+        private final int tamano;
+        private final Map<String, Integer> posiciones;
+
+        Vista(Cliente[][] bloques, int tamano, Map<String, Integer> posiciones) {
+            this.bloques = bloques;
+            this.tamano = tamano;
+            this.posiciones = posiciones;
+        }
+
+        /**
+         * Busca un cliente por su ID a través del índice de posiciones. Si
+         * la entrada no corresponde a esta vista (el cliente se atendió de
+         * nuevo después de deshacer su atención) se recorre la vista desde
+         * el final.
+         */
+        Cliente buscar(String id) {
+            Integer posicion = posiciones.get(id);
+            if (posicion == null) {
+                return null;
+            }
+            if (posicion < tamano) {
+                Cliente cliente = get(posicion);
+                if (cliente.getId().equals(id)) {
+                    return cliente;
+                }
+            }
+            for (int i = tamano - 1; i >= 0; i--) {
+                Cliente cliente = get(i);
+                if (cliente.getId().equals(id)) {
+                    return cliente;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Cliente get(int indice) {
+            if (indice < 0 || indice >= tamano) {
+                throw new IndexOutOfBoundsException("Índice: " + indice + ", tamaño: " + tamano);
+            }
+            return bloques[indice >>> BITS_BLOQUE][indice & MASCARA_BLOQUE];
+        }
+
+        @Override
+        public int size() {
+            return tamano;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package modelo;
+
+import eventos.ConsumidorEventos;
+import eventos.EventoModelo;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de operación del modelo para monitoreo. Se actualizan como
+ * consumidor del {@link eventos.BusEventos} conectado al modelo, fuera del
+ * hilo que lo modifica, y cualquier otro hilo puede leerlos en cualquier
+ * momento: son contadores sin bloqueo
+ * ({@link LongAdder}) y valores volátiles, así que una lectura nunca
+ * detiene al modelo ni a la interfaz.
+ *
+ * Los contadores solo crecen; deshacer una operación no los descuenta sino
+ * que incrementa el contador de deshacer. Las esperas se acumulan en
+ * histogramas por tipo de solicitud y prioridad con límites fijos en
+ * segundos.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class MetricasModelo implements ConsumidorEventos {
+
+    /**
+     * Límites superiores, en segundos, de los intervalos de los histogramas
+     * de espera. Hay un intervalo adicional sin límite.
+     */
+    private static final double[] LIMITES_ESPERA = {60, 120, 300, 600, 900, 1800, 3600, 7200, 14400, 28800};
+
+    private final LongAdder llegadas = new LongAdder();
+    private final LongAdder atenciones = new LongAdder();
+    private final LongAdder eliminaciones = new LongAdder();
+    private final LongAdder deshechas = new LongAdder();
+    private final LongAdder rehechas = new LongAdder();
+    private volatile int enEspera;
+    private volatile int urgentesEnEspera;
+    private final LongAdder[][][] conteosEspera;
+    private final DoubleAdder[][] sumasEspera;
+
+    MetricasModelo() {
+        int tipos = Cliente.TipoSolicitud.values().length;
+        int prioridades = Cliente.Prioridad.values().length;
+        conteosEspera = new LongAdder[tipos][prioridades][LIMITES_ESPERA.length + 1];
+        sumasEspera = new DoubleAdder[tipos][prioridades];
+        for (int t = 0; t < tipos; t++) {
+            for (int p = 0; p < prioridades; p++) {
+                for (int i = 0; i <= LIMITES_ESPERA.length; i++) {
+                    conteosEspera[t][p][i] = new LongAdder();
+                }
+                sumasEspera[t][p] = new DoubleAdder();
+            }
+        }
+    }
+
+    /**
+     * Cuenta un cambio del modelo y toma de él el tamaño de la cola.
+     *
+     * @param evento Evento publicado por el modelo
+     * @param secuencia Secuencia del evento en el bus
+     * @param finDeLote true si es el último evento disponible del lote
+     */
+    @Override
+    public void alEvento(EventoModelo evento, long secuencia, boolean finDeLote) {
+        switch (evento.getTipo()) {
+            case REGISTRADO:
+                llegadas.increment();
+                break;
+            case ELIMINADO:
+                eliminaciones.increment();
+                break;
+            case ATENDIDO:
+                registrarAtencion(evento.getTipoSolicitud(), evento.getPrioridad(),
+                        ChronoUnit.MILLIS.between(evento.getFechaLlegada(), evento.getFechaAtencion()) / 1000.0);
+                break;
+            case DESHECHO:
+                deshechas.increment();
+                break;
+            case REHECHO:
+                rehechas.increment();
+                break;
+            default:
+                break;
+        }
+        actualizarCola(evento.getEnEspera(), evento.getUrgentesEnEspera());
+    }
+
+    private void registrarAtencion(Cliente.TipoSolicitud tipoSolicitud, Cliente.Prioridad prioridadCliente,
+            double segundosEspera) {
+        atenciones.increment();
+        int intervalo = 0;
+        while (intervalo < LIMITES_ESPERA.length && segundosEspera > LIMITES_ESPERA[intervalo]) {
+            intervalo++;
+        }
+        int tipo = tipoSolicitud.ordinal();
+        int prioridad = prioridadCliente.ordinal();
+        conteosEspera[tipo][prioridad][intervalo].increment();
+        sumasEspera[tipo][prioridad].add(segundosEspera);
+    }
+
+    void actualizarCola(int enEspera, int urgentesEnEspera) {
+        this.enEspera = enEspera;
+        this.urgentesEnEspera = urgentesEnEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes registrados en la cola.
+     *
+     * @return Total de llegadas
+     */
+    public long getLlegadas() {
+        return llegadas.sum();
+    }
+
+    /**
+     * Obtiene la cantidad de clientes atendidos.
+     *
+     * @return Total de atenciones
+     */
+    public long getAtenciones() {
+        return atenciones.sum();
+    }
+
+    /**
+     * Obtiene la cantidad de clientes eliminados de la cola.
+     *
+     * @return Total de eliminaciones
+     */
+    public long getEliminaciones() {
+        return eliminaciones.sum();
+    }
+
+    /**
+     * Obtiene la cantidad de acciones deshechas.
+     *
+     * @return Total de acciones deshechas
+     */
+    public long getDeshechas() {
+        return deshechas.sum();
+    }
+
+    /**
+     * Obtiene la cantidad de acciones rehechas.
+     *
+     * @return Total de acciones rehechas
+     */
+    public long getRehechas() {
+        return rehechas.sum();
+    }
+
+    /**
+     * Obtiene la cantidad de clientes en espera tras la última operación.
+     *
+     * @return Clientes en la cola
+     */
+    public int getEnEspera() {
+        return enEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes urgentes en espera tras la última
+     * operación.
+     *
+     * @return Clientes urgentes en la cola
+     */
+    public int getUrgentesEnEspera() {
+        return urgentesEnEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de límites de los histogramas de espera. Los
+     * histogramas tienen un intervalo más, sin límite superior.
+     *
+     * @return Cantidad de límites
+     */
+    public static int getCantidadLimites() {
+        return LIMITES_ESPERA.length;
+    }
+
+    /**
+     * Obtiene el límite superior de un intervalo de los histogramas de
+     * espera.
+     *
+     * @param intervalo Índice del límite, menor que
+     * {@link #getCantidadLimites()}
+     * @return Límite en segundos
+     */
+    public static double getLimiteEspera(int intervalo) {
+        return LIMITES_ESPERA[intervalo];
+    }
+
+    /**
+     * Obtiene cuántas esperas cayeron en un intervalo del histograma.
+     *
+     * @param tipo Tipo de solicitud
+     * @param prioridad Prioridad del cliente
+     * @param intervalo Índice de un límite de espera, o
+     * {@link #getCantidadLimites()} para el intervalo sin límite
+     * @return Cantidad de esperas en el intervalo (no acumulada)
+     */
+    public long getConteoEspera(Cliente.TipoSolicitud tipo, Cliente.Prioridad prioridad, int intervalo) {
+        return conteosEspera[tipo.ordinal()][prioridad.ordinal()][intervalo].sum();
+    }
+
+    /**
+     * Obtiene la suma de las esperas registradas.
+     *
+     * @param tipo Tipo de solicitud
+     * @param prioridad Prioridad del cliente
+     * @return Suma de las esperas en segundos
+     */
+    public double getSumaEspera(Cliente.TipoSolicitud tipo, Cliente.Prioridad prioridad) {
+        return sumasEspera[tipo.ordinal()][prioridad.ordinal()].sum();
+    }
+}
@@ -4,6 +4,13 @@
  */
 package modelo;
 
+import eventos.BusEventos;
+import eventos.EventoModelo;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Clase principal del modelo que coordina todas las funcionalidades del
  * sistema. Implementa el patrón MVC como capa de modelo, integrando la gestión
@@ -16,14 +23,102 @@ public class Modelo {
     private GestionClientes gestionClientes;
     private Historial historial;
     private RegistroAcciones registroAcciones;
+    private Clock reloj;
+    private List<ObservadorModelo> observadores;
+    private EstadisticasModelo estadisticas;
+    private final MetricasModelo metricas;
+    private BusEventos bus;
 
     /**
      * Constructor que inicializa todos los componentes del modelo.
      */
     public Modelo() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor que inicializa el modelo con un reloj específico. Todas las
+     * fechas de llegada, atención y acciones se toman de este reloj.
+     *
+     * @param reloj Reloj usado para fechar las operaciones
+     */
+    public Modelo(Clock reloj) {
         this.gestionClientes = new GestionClientes();
         this.historial = new Historial();
         this.registroAcciones = new RegistroAcciones();
+        this.reloj = reloj;
+        this.observadores = new ArrayList<>();
+        this.metricas = new MetricasModelo();
+    }
+
+    /**
+     * Obtiene los contadores de operación del modelo. Pueden leerse desde
+     * cualquier hilo sin sincronización y solo avanzan si se registran como
+     * consumidor del bus conectado con {@link #conectarBus(BusEventos)}.
+     * Esta llamada, hecha desde el hilo que modifica el modelo, también
+     * actualiza la cantidad de clientes en espera, por ejemplo tras
+     * restaurar una instantánea.
+     *
+     * @return Métricas del modelo
+     */
+    public MetricasModelo getMetricas() {
+        actualizarMetricasCola();
+        return metricas;
+    }
+
+    /**
+     * Conecta el bus de eventos en el que el modelo publica cada registro,
+     * eliminación, atención, deshacer y rehacer, con los tamaños de la cola
+     * y del historial tras el cambio. Los observadores, como la bitácora,
+     * siguen recibiendo cada acción en el mismo hilo; el bus es para los
+     * consumidores que pueden ir detrás, como las métricas o la interfaz.
+     * Debe llamarse desde el hilo que modifica el modelo.
+     *
+     * @param bus Bus ya iniciado, o null para dejar de publicar
+     */
+    public void conectarBus(BusEventos bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Publica en el bus conectado el estado completo de la cola y del
+     * historial, con el que los consumidores que los reflejan se recargan
+     * en orden con los demás eventos.
+     */
+    public void publicarEstado() {
+        if (bus != null) {
+            bus.publicarEstado(gestionClientes.getClientesEnEspera(), historial.getClientesAtendidos(),
+                    gestionClientes.getCantidadUrgentesEnEspera());
+        }
+    }
+
+    /**
+     * Obtiene el reloj usado por el modelo.
+     *
+     * @return Clock actual del modelo
+     */
+    public Clock getReloj() {
+        return reloj;
+    }
+
+    /**
+     * Agrega un observador que será notificado de cada cambio del modelo.
+     *
+     * @param observador Observador a agregar
+     */
+    public void agregarObservador(ObservadorModelo observador) {
+        if (observador != null) {
+            observadores.add(observador);
+        }
+    }
+
+    /**
+     * Remueve un observador previamente agregado.
+     *
+     * @param observador Observador a remover
+     */
+    public void removerObservador(ObservadorModelo observador) {
+        observadores.remove(observador);
     }
 
     /**
@@ -62,9 +157,31 @@ public class Modelo {
      * @return Cliente agregado, o null si no se pudo agregar
      */
     public Cliente agregarCliente(String nombre, Cliente.TipoSolicitud tipoSolicitud, Cliente.Prioridad prioridad) {
-        Cliente nuevoCliente = gestionClientes.agregarCliente(nombre, tipoSolicitud, prioridad);
+        LocalDateTime ahora = LocalDateTime.now(reloj);
+        return agregarCliente(nombre, tipoSolicitud, prioridad, ahora, ahora);
+    }
+
+    /**
+     * Agrega un cliente que llegó en otro momento, por ejemplo una cita
+     * importada, y registra la acción con la fecha actual.
+     *
+     * @param nombre Nombre del cliente
+     * @param tipoSolicitud Tipo de solicitud del cliente
+     * @param prioridad Prioridad del cliente
+     * @param fechaLlegada Fecha y hora de llegada del cliente
+     * @return Cliente agregado, o null si no se pudo agregar
+     */
+    public Cliente agregarCliente(String nombre, Cliente.TipoSolicitud tipoSolicitud, Cliente.Prioridad prioridad,
+            LocalDateTime fechaLlegada) {
+        return agregarCliente(nombre, tipoSolicitud, prioridad, fechaLlegada, LocalDateTime.now(reloj));
+    }
+
+    private Cliente agregarCliente(String nombre, Cliente.TipoSolicitud tipoSolicitud, Cliente.Prioridad prioridad,
+            LocalDateTime fechaLlegada, LocalDateTime ahora) {
+        Cliente nuevoCliente = gestionClientes.agregarCliente(nombre, tipoSolicitud, prioridad, fechaLlegada);
         if (nuevoCliente != null) {
-            registroAcciones.registrarAction(Action.TipoAccion.REGISTRAR, nuevoCliente);
+            notificarRegistro(registroAcciones.registrarAction(Action.TipoAccion.REGISTRAR, nuevoCliente, ahora),
+                    EventoModelo.Tipo.REGISTRADO);
         }
         return nuevoCliente;
     }
@@ -78,7 +195,8 @@ public class Modelo {
     public Cliente eliminarClientePorId(String id) {
         Cliente clienteEliminado = gestionClientes.eliminarClientePorIdCola(id);
         if (clienteEliminado != null) {
-            registroAcciones.registrarAction(Action.TipoAccion.ELIMINAR, clienteEliminado);
+            notificarRegistro(registroAcciones.registrarAction(Action.TipoAccion.ELIMINAR, clienteEliminado,
+                    LocalDateTime.now(reloj)), EventoModelo.Tipo.ELIMINADO);
         }
         return clienteEliminado;
     }
@@ -90,10 +208,12 @@ public class Modelo {
      * @return Cliente atendido, o null si no hay clientes en espera
      */
     public Cliente atenderCliente() {
-        Cliente clienteAtendido = gestionClientes.atenderCliente();
+        LocalDateTime ahora = LocalDateTime.now(reloj);
+        Cliente clienteAtendido = gestionClientes.atenderCliente(ahora);
         if (clienteAtendido != null) {
             historial.agregarAtendido(clienteAtendido);
-            registroAcciones.registrarAction(Action.TipoAccion.ATENDER, clienteAtendido);
+            notificarRegistro(registroAcciones.registrarAction(Action.TipoAccion.ATENDER, clienteAtendido, ahora),
+                    EventoModelo.Tipo.ATENDIDO);
         }
         return clienteAtendido;
     }
@@ -108,19 +228,44 @@ public class Modelo {
         return historial.buscarCliente(id);
     }
 
+    /**
+     * Obtiene la versión del modelo: aumenta con cada cambio en la cola, el
+     * historial o las pilas de acciones, incluso si se hizo directamente
+     * sobre esos componentes.
+     *
+     * @return Versión actual del modelo
+     */
+    public long getVersion() {
+        return gestionClientes.getModificaciones() + historial.getModificaciones()
+                + registroAcciones.getModificaciones();
+    }
+
+    /**
+     * Obtiene las estadísticas del sistema. Se calculan solo cuando cambió la
+     * versión del modelo; mientras tanto se devuelve el mismo objeto.
+     *
+     * @return Estadísticas de la versión actual
+     */
+    public EstadisticasModelo getEstadisticas() {
+        long version = getVersion();
+        EstadisticasModelo actuales = estadisticas;
+        if (actuales == null || actuales.getVersion() != version) {
+            actuales = new EstadisticasModelo(version, gestionClientes.getCantidadClientesEnEspera(),
+                    gestionClientes.getCantidadUrgentesEnEspera(), historial.getCantidadAtendidos(),
+                    historial.getMinutosAtencionTotal(), historial.getAtendidosConTiempo(),
+                    registroAcciones.getCantidadActions());
+            estadisticas = actuales;
+        }
+        return actuales;
+    }
+
     /**
      * Genera estadísticas completas del sistema.
      *
      * @return String con las estadísticas formateadas
      */
     public String generarEstadisticas() {
-        StringBuilder estadistica = new StringBuilder();
-        estadistica.append("=== ESTADÍSTICAS DEL SISTEMA ===\n\n");
-        estadistica.append("Clientes en espera: ").append(gestionClientes.getCantidadClientesEnEspera()).append("\n");
-        estadistica.append("Clientes atendidos: ").append(historial.getCantidadAtendidos()).append("\n");
-        estadistica.append("Promedio tiempo atención: ").append(String.format("%.2f", historial.getPromedioTiempoAtencion())).append(" minutos\n");
-        estadistica.append("Acciones registradas: ").append(registroAcciones.getCantidadActions()).append("\n");
-        return estadistica.toString();
+        return getEstadisticas().generarTexto();
     }
 
     /**
@@ -133,31 +278,227 @@ public class Modelo {
     }
 
     /**
-     * Deshace la última acción realizada en el sistema.
+     * Deshace la última acción realizada en el sistema. Si la acción
+     * pertenece a un grupo, se deshace el grupo completo.
      *
      * @return true si se deshizo exitosamente, false en caso contrario
      */
     public boolean deshacerUltimaAccion() {
+        Action ultimaAccion = registroAcciones.obtenerUltimaAction();
+        if (ultimaAccion == null) {
+            return false;
+        }
+        boolean exito = deshacerAccionIndividual();
+        long idGrupo = ultimaAccion.getIdGrupo();
+        while (idGrupo != 0 && mismoGrupo(registroAcciones.obtenerUltimaAction(), idGrupo)) {
+            exito &= deshacerAccionIndividual();
+        }
+        return exito;
+    }
+
+    /**
+     * Deshace las últimas acciones realizadas. Cada grupo cuenta como un
+     * solo paso.
+     *
+     * @param pasos Cantidad de pasos a deshacer
+     * @return Cantidad de pasos deshechos exitosamente
+     */
+    public int deshacer(int pasos) {
+        int deshechos = 0;
+        while (deshechos < pasos && registroAcciones.hayActions() && deshacerUltimaAccion()) {
+            deshechos++;
+        }
+        return deshechos;
+    }
+
+    /**
+     * Deshace únicamente la acción del tope de la pila, aunque pertenezca a
+     * un grupo. Utilizado al reproducir la bitácora.
+     *
+     * @return true si se deshizo exitosamente, false en caso contrario
+     */
+    public boolean deshacerAccionIndividual() {
         Action ultimaAccion = registroAcciones.deshacerUltimaAction();
         if (ultimaAccion == null) {
             return false;
         }
+        EventoDeshacerAccion evento = new EventoDeshacerAccion();
+        evento.begin();
 
         Cliente cliente = ultimaAccion.getCliente();
         Action.TipoAccion tipo = ultimaAccion.getTipo();
+        boolean exito;
 
         switch (tipo) {
             case REGISTRAR:
-                return deshacerAgregar(cliente);
+                exito = deshacerAgregar(cliente);
+                break;
 
             case ELIMINAR:
-                return deshacerEliminar(cliente);
+                exito = deshacerEliminar(cliente);
+                break;
 
             case ATENDER:
-                return deshacerAtender(cliente);
+                exito = deshacerAtender(cliente);
+                break;
 
             default:
-                return false;
+                exito = false;
+        }
+
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.tipoAccion = tipo.name();
+            evento.idCliente = cliente.getId();
+            evento.grupo = ultimaAccion.getNombreGrupo();
+            evento.exito = exito;
+            evento.commit();
+        }
+        publicar(EventoModelo.Tipo.DESHECHO, ultimaAccion);
+        for (ObservadorModelo observador : observadores) {
+            observador.accionDeshecha(ultimaAccion);
+        }
+        return exito;
+    }
+
+    /**
+     * Rehace la última acción deshecha. Si la acción pertenece a un grupo, se
+     * rehace el grupo completo.
+     *
+     * @return true si se rehizo exitosamente, false en caso contrario
+     */
+    public boolean rehacerUltimaAccion() {
+        Action accion = registroAcciones.obtenerUltimaActionDeshecha();
+        if (accion == null) {
+            return false;
+        }
+        boolean exito = rehacerAccionIndividual();
+        long idGrupo = accion.getIdGrupo();
+        while (idGrupo != 0 && mismoGrupo(registroAcciones.obtenerUltimaActionDeshecha(), idGrupo)) {
+            exito &= rehacerAccionIndividual();
+        }
+        return exito;
+    }
+
+    /**
+     * Rehace las últimas acciones deshechas. Cada grupo cuenta como un solo
+     * paso.
+     *
+     * @param pasos Cantidad de pasos a rehacer
+     * @return Cantidad de pasos rehechos exitosamente
+     */
+    public int rehacer(int pasos) {
+        int rehechos = 0;
+        while (rehechos < pasos && registroAcciones.hayActionsDeshechas() && rehacerUltimaAccion()) {
+            rehechos++;
+        }
+        return rehechos;
+    }
+
+    /**
+     * Rehace únicamente la última acción deshecha, aunque pertenezca a un
+     * grupo. Utilizado al reproducir la bitácora.
+     *
+     * @return true si se rehizo exitosamente, false en caso contrario
+     */
+    public boolean rehacerAccionIndividual() {
+        Action accion = registroAcciones.rehacerUltimaAction();
+        if (accion == null) {
+            return false;
+        }
+
+        Cliente cliente = accion.getCliente();
+        boolean exito;
+
+        switch (accion.getTipo()) {
+            case REGISTRAR:
+                exito = gestionClientes.agregarClienteExistente(cliente);
+                break;
+
+            case ELIMINAR:
+                exito = gestionClientes.eliminarClientePorIdCola(cliente.getId()) != null;
+                break;
+
+            case ATENDER:
+                // Se atiende de nuevo al mismo cliente, no al que elegiría hoy la política
+                exito = gestionClientes.eliminarClientePorIdCola(cliente.getId()) != null;
+                if (exito) {
+                    cliente.setFechaAtencion(accion.getFechaHora());
+                    historial.agregarAtendido(cliente);
+                }
+                break;
+
+            default:
+                exito = false;
+        }
+
+        publicar(EventoModelo.Tipo.REHECHO, accion);
+        for (ObservadorModelo observador : observadores) {
+            observador.accionRehecha(accion);
+        }
+        return exito;
+    }
+
+    /**
+     * Abre un grupo de acciones con nombre. Todas las acciones realizadas
+     * hasta {@link #finalizarGrupo()} se deshacen y rehacen en un solo paso,
+     * por ejemplo una importación masiva o una atención por lotes.
+     *
+     * @param nombre Nombre descriptivo del grupo
+     * @throws IllegalStateException si ya hay un grupo abierto
+     */
+    public void iniciarGrupo(String nombre) {
+        registroAcciones.iniciarGrupo(nombre);
+        for (ObservadorModelo observador : observadores) {
+            observador.grupoIniciado(nombre);
+        }
+    }
+
+    /**
+     * Cierra el grupo de acciones abierto.
+     */
+    public void finalizarGrupo() {
+        if (!registroAcciones.hayGrupoAbierto()) {
+            return;
+        }
+        registroAcciones.finalizarGrupo();
+        for (ObservadorModelo observador : observadores) {
+            observador.grupoFinalizado();
+        }
+    }
+
+    private static boolean mismoGrupo(Action accion, long idGrupo) {
+        return accion != null && accion.getIdGrupo() == idGrupo;
+    }
+
+    private void actualizarMetricasCola() {
+        metricas.actualizarCola(gestionClientes.getCantidadClientesEnEspera(),
+                gestionClientes.getCantidadUrgentesEnEspera());
+    }
+
+    /**
+     * Publica un cambio en el bus conectado, si hay uno.
+     *
+     * @param tipo Tipo del evento
+     * @param accion Acción que originó el cambio
+     */
+    private void publicar(EventoModelo.Tipo tipo, Action accion) {
+        if (bus != null) {
+            bus.publicar(tipo, accion, gestionClientes.getCantidadClientesEnEspera(),
+                    gestionClientes.getCantidadUrgentesEnEspera(), historial.getCantidadAtendidos());
+        }
+    }
+
+    /**
+     * Publica y notifica a los observadores una acción recién registrada.
+     *
+     * @param accion Acción registrada
+     * @param tipo Tipo del evento que se publica en el bus
+     */
+    private void notificarRegistro(Action accion, EventoModelo.Tipo tipo) {
+        publicar(tipo, accion);
+        for (ObservadorModelo observador : observadores) {
+            observador.accionRegistrada(accion);
         }
     }
 
@@ -189,10 +530,9 @@ public class Modelo {
      * @return true si se deshizo exitosamente
      */
     private boolean deshacerAtender(Cliente cliente) {
-        Cliente clienteRemovido = historial.removerClientePorIdList(cliente.getId());
-        if (clienteRemovido != null) {
-            clienteRemovido.setFechaAtencion(null);
-            return gestionClientes.agregarClienteAlInicio(clienteRemovido);
+        if (historial.removerUltimoAtendido(cliente)) {
+            cliente.setFechaAtencion(null);
+            return gestionClientes.agregarClienteAlInicio(cliente);
         }
         return false;
     }
@@ -214,4 +554,22 @@ public class Modelo {
     public boolean hayAccionesParaDeshacer() {
         return registroAcciones.hayActions();
     }
+
+    /**
+     * Obtiene la última acción deshecha sin rehacerla.
+     *
+     * @return Próxima acción a rehacer, o null si no hay ninguna
+     */
+    public Action obtenerUltimaAccionDeshecha() {
+        return registroAcciones.obtenerUltimaActionDeshecha();
+    }
+
+    /**
+     * Verifica si hay acciones disponibles para rehacer.
+     *
+     * @return true si hay acciones para rehacer, false en caso contrario
+     */
+    public boolean hayAccionesParaRehacer() {
+        return registroAcciones.hayActionsDeshechas();
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package modelo;
+
+/**
+ * Observador de los cambios realizados sobre el modelo. Recibe cada acción
+ * registrada, deshecha o rehecha en el mismo hilo que ejecutó la operación,
+ * justo después de que el estado del modelo fue modificado.
+ *
+ * @author Valery
+ * @author Andres
+ * @see Modelo#agregarObservador(ObservadorModelo)
+ */
+public interface ObservadorModelo {
+
+    /**
+     * Notifica que se registró una nueva acción (registrar, eliminar o
+     * atender).
+     *
+     * @param accion Acción registrada
+     */
+    default void accionRegistrada(Action accion) {
+    }
+
+    /**
+     * Notifica que se deshizo una acción.
+     *
+     * @param accion Acción deshecha
+     */
+    default void accionDeshecha(Action accion) {
+    }
+
+    /**
+     * Notifica que se rehizo una acción previamente deshecha.
+     *
+     * @param accion Acción rehecha
+     */
+    default void accionRehecha(Action accion) {
+    }
+
+    /**
+     * Notifica que se abrió un grupo de acciones.
+     *
+     * @param nombre Nombre del grupo
+     */
+    default void grupoIniciado(String nombre) {
+    }
+
+    /**
+     * Notifica que se cerró el grupo de acciones abierto.
+     */
+    default void grupoFinalizado() {
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Enum.java to edit this template
+ */
+package modelo;
+
+/**
+ * Política con la que {@link GestionClientes} elige al siguiente cliente a
+ * atender. Cada política asigna puntos a un cliente según su prioridad y su
+ * posición en la cola; gana el de más puntos y, ante empate, el que está
+ * más adelante.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public enum PoliticaAtencion {
+
+    /**
+     * Sistema híbrido: Urgente=8, Normal=6 más un bonus por posición de
+     * 4,3,2,1,0... Los normales en las primeras posiciones pueden ganarle a
+     * un urgente que está más atrás.
+     */
+    HIBRIDA {
+        @Override
+        public int puntos(Cliente cliente, int posicion) {
+            int puntosBase = (cliente.getPrioridad() == Cliente.Prioridad.URGENTE) ? 8 : 6;
+            return puntosBase + Math.max(0, 4 - posicion);
+        }
+
+        @Override
+        public int puntosMaximos(int posicion, boolean hayUrgentes) {
+            return (hayUrgentes ? 8 : 6) + Math.max(0, 4 - posicion);
+        }
+    },
+
+    /**
+     * Prioridad estricta: se atiende al primer urgente de la cola y, si no
+     * hay urgentes, al primero en llegar.
+     */
+    PRIORIDAD_ESTRICTA {
+        @Override
+        public int puntos(Cliente cliente, int posicion) {
+            return cliente.getPrioridad() == Cliente.Prioridad.URGENTE ? 1 : 0;
+        }
+
+        @Override
+        public int puntosMaximos(int posicion, boolean hayUrgentes) {
+            return hayUrgentes ? 1 : 0;
+        }
+    };
+
+    /**
+     * Calcula los puntos de un cliente en una posición de la cola.
+     *
+     * @param cliente Cliente en espera
+     * @param posicion Posición en la cola, desde 0
+     * @return Puntos del cliente
+     */
+    public abstract int puntos(Cliente cliente, int posicion);
+
+    /**
+     * Cota superior de los puntos que puede obtener cualquier cliente desde
+     * la posición indicada en adelante. Cuando el mejor encontrado ya la
+     * alcanza, el recorrido de la cola se detiene.
+     *
+     * @param posicion Posición en la cola, desde 0
+     * @param hayUrgentes Si quedan clientes urgentes en la cola
+     * @return Máximo de puntos alcanzable desde esa posición
+     */
+    public abstract int puntosMaximos(int posicion, boolean hayUrgentes);
+}
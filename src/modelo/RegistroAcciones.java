@@ -7,21 +7,34 @@ package modelo;
 import java.util.Stack;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Gestiona el registro de todas las acciones realizadas en el sistema.
- * Implementa una pila (LIFO) para almacenar acciones y permitir la funcionalidad de deshacer.
+ * Implementa una pila (LIFO) para almacenar acciones y permitir la funcionalidad de deshacer,
+ * y una segunda pila con las acciones deshechas para poder rehacerlas.
  * Proporciona métodos para registrar, consultar y revertir acciones.
  * 
+ * Las acciones registradas mientras hay un grupo abierto quedan marcadas con
+ * ese grupo, de modo que pueden deshacerse y rehacerse juntas.
+ * 
  * @author mi pc
  */
 public class RegistroAcciones {
+private static final Logger LOGGER = Logger.getLogger(RegistroAcciones.class.getName());
 private Stack<Action> pilaAcciones;
+private Stack<Action> pilaRehacer;
+private long contadorGrupos;
+private long idGrupoAbierto;
+private String nombreGrupoAbierto;
+private long modificaciones;
     /**
      * Constructor que inicializa la pila de acciones.
      */
     public RegistroAcciones() {
         this.pilaAcciones = new Stack<>();
+        this.pilaRehacer = new Stack<>();
     }
 
     /**
@@ -31,9 +44,126 @@ private Stack<Action> pilaAcciones;
      * @param cliente Cliente involucrado en la acción
      */
     public void registrarAction(Action.TipoAccion tipo, Cliente cliente) {
-        Action nuevaAccion = new Action(tipo, cliente);
+        registrarAction(tipo, cliente, java.time.LocalDateTime.now());
+    }
+
+    /**
+     * Registra una nueva acción en la pila con una fecha/hora dada.
+     * 
+     * @param tipo Tipo de acción a registrar
+     * @param cliente Cliente involucrado en la acción
+     * @param fechaHora Fecha y hora de la acción
+     * @return Acción registrada
+     */
+    public Action registrarAction(Action.TipoAccion tipo, Cliente cliente, java.time.LocalDateTime fechaHora) {
+        Action nuevaAccion = new Action(tipo, cliente, fechaHora, idGrupoAbierto, nombreGrupoAbierto);
         pilaAcciones.push(nuevaAccion);
-        System.out.println("Acción registrada: " + nuevaAccion);
+        // Una acción nueva invalida las acciones que se podían rehacer
+        pilaRehacer.clear();
+        modificaciones++;
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Acción registrada: " + nuevaAccion);
+        }
+        return nuevaAccion;
+    }
+
+    /**
+     * Restaura una acción existente en el tope de la pila.
+     * Utilizado al cargar el estado desde una instantánea.
+     * 
+     * @param accion Acción a restaurar
+     */
+    public void restaurarAction(Action accion) {
+        if (accion != null) {
+            pilaAcciones.push(accion);
+            modificaciones++;
+        }
+    }
+
+    /**
+     * Restaura una acción deshecha en el tope de la pila de rehacer.
+     * Utilizado al cargar el estado desde una instantánea.
+     * 
+     * @param accion Acción deshecha a restaurar
+     */
+    public void restaurarActionDeshecha(Action accion) {
+        if (accion != null) {
+            pilaRehacer.push(accion);
+            modificaciones++;
+        }
+    }
+
+    /**
+     * Abre un grupo de acciones. Todas las acciones registradas hasta
+     * {@link #finalizarGrupo()} se deshacen y rehacen juntas.
+     * 
+     * @param nombre Nombre descriptivo del grupo
+     * @throws IllegalStateException si ya hay un grupo abierto
+     */
+    public void iniciarGrupo(String nombre) {
+        if (idGrupoAbierto != 0) {
+            throw new IllegalStateException("Ya hay un grupo de acciones abierto: " + nombreGrupoAbierto);
+        }
+        idGrupoAbierto = ++contadorGrupos;
+        nombreGrupoAbierto = nombre;
+    }
+
+    /**
+     * Cierra el grupo de acciones abierto, si lo hay.
+     */
+    public void finalizarGrupo() {
+        idGrupoAbierto = 0;
+        nombreGrupoAbierto = null;
+    }
+
+    /**
+     * Verifica si hay un grupo de acciones abierto.
+     * 
+     * @return true si hay un grupo abierto
+     */
+    public boolean hayGrupoAbierto() {
+        return idGrupoAbierto != 0;
+    }
+
+    /**
+     * Obtiene el nombre del grupo abierto.
+     * 
+     * @return Nombre del grupo abierto, o null si no hay ninguno
+     */
+    public String getNombreGrupoAbierto() {
+        return nombreGrupoAbierto;
+    }
+
+    /**
+     * Obtiene el identificador del grupo abierto.
+     * 
+     * @return Identificador del grupo abierto, o 0 si no hay ninguno
+     */
+    public long getIdGrupoAbierto() {
+        return idGrupoAbierto;
+    }
+
+    /**
+     * Obtiene el último identificador de grupo asignado.
+     * 
+     * @return Contador de grupos
+     */
+    public long getContadorGrupos() {
+        return contadorGrupos;
+    }
+
+    /**
+     * Restaura el estado de los grupos. Utilizado al cargar el estado desde
+     * una instantánea.
+     * 
+     * @param contadorGrupos Último identificador de grupo asignado
+     * @param idGrupoAbierto Identificador del grupo abierto, o 0
+     * @param nombreGrupoAbierto Nombre del grupo abierto, o null
+     */
+    public void restaurarGrupos(long contadorGrupos, long idGrupoAbierto, String nombreGrupoAbierto) {
+        this.contadorGrupos = contadorGrupos;
+        this.idGrupoAbierto = idGrupoAbierto;
+        this.nombreGrupoAbierto = nombreGrupoAbierto;
     }
 
     /**
@@ -45,6 +175,16 @@ private Stack<Action> pilaAcciones;
         return pilaAcciones.size();
     }
 
+    /**
+     * Obtiene la cantidad de cambios que han tenido las pilas de acciones.
+     * Aumenta con cada acción registrada, deshecha, rehecha o restaurada.
+     * 
+     * @return Contador de modificaciones del registro
+     */
+    public long getModificaciones() {
+        return modificaciones;
+    }
+
     /**
      * Verifica si hay acciones registradas.
      * 
@@ -68,33 +208,73 @@ private Stack<Action> pilaAcciones;
         StringBuilder sb = new StringBuilder();
         sb.append("=== HISTORIAL DE ACCIONES (más recientes primero) ===\n\n");
 
-        // Recorrer la pila en orden inverso (más reciente primero)
-        Stack<Action> pilaTemp = (Stack<Action>) pilaAcciones.clone();
-        List<Action> listaInversa = new ArrayList<>();
-        while (!pilaTemp.isEmpty()) {
-            listaInversa.add(pilaTemp.pop());
-        }
-
-        for (int i = 0; i < listaInversa.size(); i++) {
-            Action action = listaInversa.get(i);
-            sb.append((i + 1)).append(". ").append(action.toString()).append("\n");
+        // Recorrer la pila desde el tope (más reciente primero) sin copiarla
+        for (int i = pilaAcciones.size() - 1, n = 1; i >= 0; i--, n++) {
+            sb.append(n).append(". ").append(pilaAcciones.get(i).toString()).append("\n");
         }
 
         return sb.toString();
     }
 
     /**
-     * Deshace la última acción registrada (elimina y retorna de la pila).
+     * Deshace la última acción registrada (la mueve de la pila de acciones
+     * a la pila de rehacer y la retorna).
      * 
      * @return Última acción realizada, o null si no hay acciones
      */
     public Action deshacerUltimaAction() {
         if (!pilaAcciones.isEmpty()) {
-            return pilaAcciones.pop();
+            modificaciones++;
+            return pilaRehacer.push(pilaAcciones.pop());
         }
         return null;
     }
 
+    /**
+     * Rehace la última acción deshecha (la mueve de vuelta a la pila de
+     * acciones y la retorna).
+     * 
+     * @return Última acción deshecha, o null si no hay acciones para rehacer
+     */
+    public Action rehacerUltimaAction() {
+        if (!pilaRehacer.isEmpty()) {
+            modificaciones++;
+            return pilaAcciones.push(pilaRehacer.pop());
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene la última acción deshecha sin rehacerla.
+     * 
+     * @return Última acción deshecha, o null si no hay ninguna
+     */
+    public Action obtenerUltimaActionDeshecha() {
+        if (!pilaRehacer.isEmpty()) {
+            return pilaRehacer.peek();
+        }
+        return null;
+    }
+
+    /**
+     * Verifica si hay acciones deshechas que se puedan rehacer.
+     * 
+     * @return true si hay acciones para rehacer
+     */
+    public boolean hayActionsDeshechas() {
+        return !pilaRehacer.isEmpty();
+    }
+
+    /**
+     * Obtiene una lista con las acciones deshechas, desde la más antigua
+     * hasta la próxima a rehacer.
+     * 
+     * @return Lista de acciones deshechas en orden de la pila
+     */
+    public List<Action> getTodasLasActionsDeshechas() {
+        return new ArrayList<>(pilaRehacer);
+    }
+
     /**
      * Obtiene la última acción sin eliminarla de la pila.
      * 
@@ -0,0 +1,170 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package monitoreo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import modelo.Cliente;
+import modelo.MetricasModelo;
+
+/**
+ * Servidor HTTP mínimo que publica las métricas del modelo en el formato de
+ * texto de Prometheus en {@code /metrics}. Usa el servidor incluido en el
+ * JDK y un único hilo propio; cada consulta solo lee los contadores de
+ * {@link MetricasModelo}, sin tocar el modelo ni el hilo de la interfaz.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ServidorMetricas implements Closeable {
+
+    /**
+     * Ruta en la que se publican las métricas.
+     */
+    public static final String RUTA = "/metrics";
+
+    private static final String TIPO_CONTENIDO = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer servidor;
+    private final ExecutorService hilo;
+    private final MetricasModelo metricas;
+
+    private ServidorMetricas(HttpServer servidor, ExecutorService hilo, MetricasModelo metricas) {
+        this.servidor = servidor;
+        this.hilo = hilo;
+        this.metricas = metricas;
+    }
+
+    /**
+     * Inicia el servidor en el puerto indicado de todas las interfaces.
+     *
+     * @param metricas Métricas que se publican
+     * @param puerto Puerto TCP, o 0 para elegir uno libre
+     * @return Servidor iniciado
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public static ServidorMetricas iniciar(MetricasModelo metricas, int puerto) throws IOException {
+        // Sin Nagle cada respuesta sale de inmediato; la propiedad se lee al
+        // crear el primer servidor HTTP del proceso.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer servidor = HttpServer.create(new InetSocketAddress(puerto), 0);
+        ExecutorService hilo = Executors.newSingleThreadExecutor(tarea -> {
+            Thread nuevo = new Thread(tarea, "servidor-metricas");
+            nuevo.setDaemon(true);
+            return nuevo;
+        });
+        ServidorMetricas resultado = new ServidorMetricas(servidor, hilo, metricas);
+        servidor.createContext(RUTA, resultado::responder);
+        servidor.setExecutor(hilo);
+        servidor.start();
+        return resultado;
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor.
+     *
+     * @return Puerto TCP
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    private void responder(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            if (!"GET".equals(intercambio.getRequestMethod()) && !"HEAD".equals(intercambio.getRequestMethod())) {
+                intercambio.getResponseHeaders().set("Allow", "GET, HEAD");
+                intercambio.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] cuerpo = generarTexto(metricas).getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", TIPO_CONTENIDO);
+            if ("HEAD".equals(intercambio.getRequestMethod())) {
+                intercambio.sendResponseHeaders(200, -1);
+                return;
+            }
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        }
+    }
+
+    /**
+     * Genera el texto de las métricas en el formato de exposición de
+     * Prometheus.
+     *
+     * @param metricas Métricas del modelo
+     * @return Texto con todas las métricas
+     */
+    public static String generarTexto(MetricasModelo metricas) {
+        StringBuilder texto = new StringBuilder(4096);
+        contador(texto, "simulador_llegadas_total", "Clientes registrados en la cola.", metricas.getLlegadas());
+        contador(texto, "simulador_atenciones_total", "Clientes atendidos.", metricas.getAtenciones());
+        contador(texto, "simulador_eliminaciones_total", "Clientes eliminados de la cola.",
+                metricas.getEliminaciones());
+        contador(texto, "simulador_deshacer_total", "Acciones deshechas.", metricas.getDeshechas());
+        contador(texto, "simulador_rehacer_total", "Acciones rehechas.", metricas.getRehechas());
+
+        encabezado(texto, "simulador_clientes_en_espera", "Clientes en la cola de espera por prioridad.", "gauge");
+        int enEspera = metricas.getEnEspera();
+        int urgentes = metricas.getUrgentesEnEspera();
+        texto.append("simulador_clientes_en_espera{prioridad=\"").append(Cliente.Prioridad.NORMAL).append("\"} ")
+                .append(enEspera - urgentes).append('\n');
+        texto.append("simulador_clientes_en_espera{prioridad=\"").append(Cliente.Prioridad.URGENTE).append("\"} ")
+                .append(urgentes).append('\n');
+
+        encabezado(texto, "simulador_espera_segundos", "Tiempo de espera de los clientes atendidos.", "histogram");
+        int limites = MetricasModelo.getCantidadLimites();
+        for (Cliente.TipoSolicitud tipo : Cliente.TipoSolicitud.values()) {
+            for (Cliente.Prioridad prioridad : Cliente.Prioridad.values()) {
+                String etiquetas = "tipo=\"" + tipo + "\",prioridad=\"" + prioridad + "\"";
+                long acumulado = 0;
+                for (int i = 0; i <= limites; i++) {
+                    acumulado += metricas.getConteoEspera(tipo, prioridad, i);
+                    texto.append("simulador_espera_segundos_bucket{").append(etiquetas).append(",le=\"");
+                    if (i < limites) {
+                        texto.append((long) MetricasModelo.getLimiteEspera(i));
+                    } else {
+                        texto.append("+Inf");
+                    }
+                    texto.append("\"} ").append(acumulado).append('\n');
+                }
+                texto.append("simulador_espera_segundos_sum{").append(etiquetas).append("} ")
+                        .append(metricas.getSumaEspera(tipo, prioridad)).append('\n');
+                texto.append("simulador_espera_segundos_count{").append(etiquetas).append("} ")
+                        .append(acumulado).append('\n');
+            }
+        }
+        return texto.toString();
+    }
+
+    private static void contador(StringBuilder texto, String nombre, String ayuda, long valor) {
+        encabezado(texto, nombre, ayuda, "counter");
+        texto.append(nombre).append(' ').append(valor).append('\n');
+    }
+
+    private static void encabezado(StringBuilder texto, String nombre, String ayuda, String tipo) {
+        texto.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        texto.append("# TYPE ").append(nombre).append(' ').append(tipo).append('\n');
+    }
+
+    /**
+     * Detiene el servidor y su hilo.
+     */
+    @Override
+    public void close() {
+        servidor.stop(0);
+        hilo.shutdown();
+    }
+}
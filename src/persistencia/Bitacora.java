@@ -0,0 +1,403 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import modelo.Action;
+import modelo.Cliente;
+import modelo.Modelo;
+
+/**
+ * Bitácora de mutaciones del modelo. Cada acción registrada o deshecha se
+ * escribe como un registro con número de secuencia en el segmento vigente.
+ * Los segmentos se nombran con la primera secuencia que contienen, de modo
+ * que los anteriores a una instantánea pueden borrarse completos.
+ *
+ * Formato de cada registro: longitud (int), secuencia (varint), código de
+ * operación (byte) y la acción codificada con {@link CodecBinario}. Los
+ * registros de grupo llevan solo el nombre del grupo que se abre. Las trazas
+ * de sesión usan el mismo formato en un único archivo y terminan con un
+ * registro de cierre que lleva las estadísticas finales.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class Bitacora implements Closeable {
+
+    static final String PREFIJO = "bitacora-";
+    static final String SUFIJO = ".log";
+
+    static final byte REGISTRADA = 1;
+    static final byte DESHECHA = 2;
+    static final byte REHECHA = 3;
+    static final byte GRUPO_INICIADO = 4;
+    static final byte GRUPO_FINALIZADO = 5;
+    static final byte CIERRE = 6;
+
+    private final Path directorio;
+    private final CodecBinario codec;
+    private ByteBuffer buffer;
+    private FileChannel salida;
+    private long secuencia;
+    private long inicioSegmento;
+
+    /**
+     * Constructor que abre un nuevo segmento a continuación de la última
+     * secuencia conocida.
+     *
+     * @param directorio Directorio donde se guardan los segmentos
+     * @param ultimaSecuencia Última secuencia ya aplicada al modelo
+     * @throws IOException si no se puede crear el segmento
+     */
+    public Bitacora(Path directorio, long ultimaSecuencia) throws IOException {
+        this.directorio = directorio;
+        this.secuencia = ultimaSecuencia;
+        this.codec = new CodecBinario();
+        this.buffer = ByteBuffer.allocate(256);
+        abrirSegmento();
+    }
+
+    /**
+     * Constructor que escribe los registros en un canal ya abierto, sin
+     * segmentos ni rotación. Lo usan las trazas de sesión, que guardan toda
+     * la bitácora en un único archivo.
+     *
+     * @param salida Canal donde se escriben los registros
+     */
+    Bitacora(FileChannel salida) {
+        this.directorio = null;
+        this.codec = new CodecBinario();
+        this.buffer = ByteBuffer.allocate(256);
+        this.salida = salida;
+        this.inicioSegmento = 1;
+    }
+
+    /**
+     * Escribe una acción registrada en la bitácora.
+     *
+     * @param accion Acción registrada en el modelo
+     * @return Secuencia asignada al registro
+     * @throws IOException si no se puede escribir
+     */
+    public long escribirRegistrada(Action accion) throws IOException {
+        return escribir(REGISTRADA, accion);
+    }
+
+    /**
+     * Escribe una acción deshecha en la bitácora.
+     *
+     * @param accion Acción deshecha en el modelo
+     * @return Secuencia asignada al registro
+     * @throws IOException si no se puede escribir
+     */
+    public long escribirDeshecha(Action accion) throws IOException {
+        return escribir(DESHECHA, accion);
+    }
+
+    /**
+     * Escribe una acción rehecha en la bitácora.
+     *
+     * @param accion Acción rehecha en el modelo
+     * @return Secuencia asignada al registro
+     * @throws IOException si no se puede escribir
+     */
+    public long escribirRehecha(Action accion) throws IOException {
+        return escribir(REHECHA, accion);
+    }
+
+    /**
+     * Escribe la apertura de un grupo de acciones.
+     *
+     * @param nombre Nombre del grupo
+     * @return Secuencia asignada al registro
+     * @throws IOException si no se puede escribir
+     */
+    public long escribirGrupoIniciado(String nombre) throws IOException {
+        long siguiente = secuencia + 1;
+        prepararBuffer(siguiente, GRUPO_INICIADO, CodecBinario.tamanoTexto(nombre));
+        CodecBinario.escribirTexto(buffer, nombre);
+        return volcar(siguiente);
+    }
+
+    /**
+     * Escribe el cierre del grupo de acciones abierto.
+     *
+     * @return Secuencia asignada al registro
+     * @throws IOException si no se puede escribir
+     */
+    public long escribirGrupoFinalizado() throws IOException {
+        long siguiente = secuencia + 1;
+        prepararBuffer(siguiente, GRUPO_FINALIZADO, 0);
+        return volcar(siguiente);
+    }
+
+    /**
+     * Escribe el registro de cierre de una traza de sesión con las
+     * estadísticas del modelo al terminar la grabación.
+     *
+     * @param estadisticas Estadísticas generadas por el modelo
+     * @return Secuencia asignada al registro
+     * @throws IOException si no se puede escribir
+     */
+    long escribirCierre(String estadisticas) throws IOException {
+        long siguiente = secuencia + 1;
+        prepararBuffer(siguiente, CIERRE, CodecBinario.tamanoTexto(estadisticas));
+        CodecBinario.escribirTexto(buffer, estadisticas);
+        return volcar(siguiente);
+    }
+
+    private long escribir(byte operacion, Action accion) throws IOException {
+        long siguiente = secuencia + 1;
+        prepararBuffer(siguiente, operacion, CodecBinario.tamanoAccion(accion));
+        codec.escribirAccion(buffer, accion);
+        return volcar(siguiente);
+    }
+
+    private void prepararBuffer(long siguiente, byte operacion, int tamanoDatos) {
+        int longitud = CodecBinario.tamanoVarLong(siguiente) + 1 + tamanoDatos;
+        if (buffer.capacity() < Integer.BYTES + longitud) {
+            buffer = ByteBuffer.allocate(Math.max(Integer.BYTES + longitud, buffer.capacity() * 2));
+        }
+        buffer.clear();
+        buffer.putInt(longitud);
+        CodecBinario.escribirVarLong(buffer, siguiente);
+        buffer.put(operacion);
+    }
+
+    private long volcar(long siguiente) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            salida.write(buffer);
+        }
+        secuencia = siguiente;
+        return secuencia;
+    }
+
+    /**
+     * Cierra el segmento vigente y abre uno nuevo que comienza en la
+     * siguiente secuencia. Si el segmento vigente está vacío no se rota.
+     *
+     * @return Primera secuencia del segmento vigente tras la rotación
+     * @throws IOException si no se puede crear el nuevo segmento
+     */
+    public long rotar() throws IOException {
+        if (directorio == null) {
+            throw new IllegalStateException("Esta bitácora escribe en un único archivo y no rota");
+        }
+        if (secuencia + 1 == inicioSegmento) {
+            return inicioSegmento;
+        }
+        salida.close();
+        abrirSegmento();
+        return inicioSegmento;
+    }
+
+    /**
+     * Obtiene la última secuencia escrita.
+     *
+     * @return Última secuencia de la bitácora
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+
+    private void abrirSegmento() throws IOException {
+        inicioSegmento = secuencia + 1;
+        Path archivo = directorio.resolve(nombreSegmento(inicioSegmento));
+        salida = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reproduce sobre el modelo todos los registros posteriores a la
+     * secuencia indicada. Un registro incompleto al final del último
+     * segmento (escritura interrumpida) se descarta. Las secuencias deben
+     * seguirse sin saltos: si falta un segmento o un registro intermedio
+     * está dañado, la reproducción se detiene con un error en lugar de
+     * aplicar los registros siguientes sobre un modelo que ya no coincide.
+     *
+     * @param directorio Directorio de los segmentos
+     * @param desdeSecuencia Última secuencia ya contenida en el modelo
+     * @param modelo Modelo sobre el que se aplican las operaciones
+     * @param reloj Reloj del modelo, que se fija en la fecha de cada registro
+     * @return Última secuencia aplicada
+     * @throws IOException si no se pueden leer los segmentos o falta una
+     * secuencia
+     */
+    public static long reproducir(Path directorio, long desdeSecuencia, Modelo modelo, RelojControlable reloj)
+            throws IOException {
+        return reproducir(directorio, desdeSecuencia, Long.MAX_VALUE, modelo, reloj);
+    }
+
+    /**
+     * Reproduce sobre el modelo los registros posteriores a una secuencia y
+     * hasta otra, inclusive. Solo se abren los segmentos que comienzan en o
+     * antes de la secuencia final, así que el segmento vigente no se lee si
+     * la secuencia final es anterior a su inicio.
+     *
+     * @param directorio Directorio de los segmentos
+     * @param desdeSecuencia Última secuencia ya contenida en el modelo
+     * @param hastaSecuencia Última secuencia que se aplica
+     * @param modelo Modelo sobre el que se aplican las operaciones
+     * @param reloj Reloj del modelo, que se fija en la fecha de cada registro
+     * @return Última secuencia aplicada
+     * @throws IOException si no se pueden leer los segmentos o falta una
+     * secuencia
+     */
+    static long reproducir(Path directorio, long desdeSecuencia, long hastaSecuencia, Modelo modelo,
+            RelojControlable reloj) throws IOException {
+        long ultima = desdeSecuencia;
+        CodecBinario codec = new CodecBinario();
+        try {
+            for (Path segmento : segmentos(directorio)) {
+                if (inicioDe(segmento) > hastaSecuencia || ultima == hastaSecuencia) {
+                    break;
+                }
+                try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ)) {
+                    MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                    while (datos.remaining() >= Integer.BYTES) {
+                        int longitud = datos.getInt();
+                        if (longitud < 0 || datos.remaining() < longitud) {
+                            break;
+                        }
+                        int fin = datos.position() + longitud;
+                        long secuencia = CodecBinario.leerVarLong(datos);
+                        if (secuencia > hastaSecuencia) {
+                            break;
+                        }
+                        if (secuencia > ultima + 1) {
+                            throw new IOException("Falta la secuencia " + (ultima + 1) + " en la bitácora: "
+                                    + segmento.getFileName() + " continúa en la " + secuencia);
+                        }
+                        if (secuencia > ultima) {
+                            aplicar(datos, codec, modelo, reloj);
+                            ultima = secuencia;
+                        }
+                        datos.position(fin);
+                    }
+                }
+            }
+        } finally {
+            reloj.liberar();
+        }
+        return ultima;
+    }
+
+    /**
+     * Aplica al modelo la operación del registro que comienza en la posición
+     * actual del buffer, justo después de la secuencia. Verifica que el
+     * cliente afectado sea el mismo que se registró, de modo que cualquier
+     * diferencia en el orden de atención se detecta en el registro donde
+     * ocurre.
+     */
+    static void aplicar(ByteBuffer datos, CodecBinario codec, Modelo modelo, RelojControlable reloj) {
+        byte operacion = datos.get();
+        if (operacion == GRUPO_INICIADO) {
+            modelo.iniciarGrupo(codec.leerTexto(datos));
+            return;
+        }
+        if (operacion == GRUPO_FINALIZADO) {
+            modelo.finalizarGrupo();
+            return;
+        }
+        Action accion = codec.leerAccion(datos);
+        Cliente registrado = accion.getCliente();
+        reloj.fijar(accion.getFechaHora());
+        Cliente cliente;
+        if (operacion == DESHECHA || operacion == REHECHA) {
+            Action ultima = operacion == DESHECHA ? modelo.obtenerUltimaAccion() : modelo.obtenerUltimaAccionDeshecha();
+            if (ultima == null || ultima.getTipo() != accion.getTipo()) {
+                throw new IllegalStateException("La bitácora no coincide con la pila de acciones");
+            }
+            cliente = ultima.getCliente();
+            if (operacion == DESHECHA) {
+                modelo.deshacerAccionIndividual();
+            } else {
+                modelo.rehacerAccionIndividual();
+            }
+        } else if (operacion == REGISTRADA) {
+            switch (accion.getTipo()) {
+                case REGISTRAR:
+                    cliente = modelo.agregarCliente(registrado.getNombre(), registrado.getTipoSolicitud(),
+                            registrado.getPrioridad(), registrado.getFechaLlegada());
+                    break;
+                case ELIMINAR:
+                    cliente = modelo.eliminarClientePorId(registrado.getId());
+                    break;
+                case ATENDER:
+                    cliente = modelo.atenderCliente();
+                    break;
+                default:
+                    cliente = null;
+            }
+        } else {
+            throw new IllegalStateException("Operación desconocida en la bitácora: " + operacion);
+        }
+        if (cliente == null || !cliente.getId().equals(registrado.getId())) {
+            throw new IllegalStateException("La bitácora no coincide con el estado del modelo (cliente "
+                    + registrado.getId() + ")");
+        }
+    }
+
+    /**
+     * Obtiene los segmentos del directorio ordenados por su primera
+     * secuencia.
+     *
+     * @param directorio Directorio de los segmentos
+     * @return Lista de segmentos en orden
+     * @throws IOException si no se puede listar el directorio
+     */
+    static List<Path> segmentos(Path directorio) throws IOException {
+        List<Path> segmentos = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.filter(archivo -> archivo.getFileName().toString().startsWith(PREFIJO))
+                    .filter(archivo -> archivo.getFileName().toString().endsWith(SUFIJO))
+                    .sorted()
+                    .forEach(segmentos::add);
+        }
+        return segmentos;
+    }
+
+    /**
+     * Borra los segmentos que comienzan antes de la secuencia indicada, del
+     * más antiguo al más nuevo: {@link ReplicaPrimaria} cuenta con que un
+     * segmento nunca desaparece antes que los anteriores.
+     *
+     * @param directorio Directorio de los segmentos
+     * @param inicioVigente Primera secuencia del segmento que se conserva
+     * @throws IOException si no se puede borrar algún segmento
+     */
+    static void truncarAnteriores(Path directorio, long inicioVigente) throws IOException {
+        for (Path segmento : segmentos(directorio)) {
+            if (inicioDe(segmento) < inicioVigente) {
+                Files.deleteIfExists(segmento);
+            }
+        }
+    }
+
+    static String nombreSegmento(long inicio) {
+        return String.format("%s%020d%s", PREFIJO, inicio, SUFIJO);
+    }
+
+    static long inicioDe(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length()));
+    }
+}
@@ -0,0 +1,533 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import modelo.Action;
+import modelo.Cliente;
+
+/**
+ * Codec binario compacto para clientes y acciones. Se usa en la bitácora,
+ * las instantáneas y en cualquier exportación o transferencia entre
+ * procesos.
+ *
+ * Cada registro comienza con un byte de versión y la longitud del cuerpo
+ * como varint, de modo que un lector puede saltar registros completos o
+ * ignorar campos agregados en versiones posteriores: los registros de una
+ * versión más nueva se aceptan, se leen los campos conocidos y se salta el
+ * resto del cuerpo. Por eso una versión nueva solo puede agregar campos al
+ * final del cuerpo, y una acción de una versión nueva siempre escribe los
+ * campos de grupo (con id 0 si no pertenece a uno) antes de los suyos.
+ *
+ * Los campos numéricos se escriben como varint, las enumeraciones como un
+ * código de un byte y los textos en UTF-8. El ID del cliente se escribe
+ * como varint cuando es un número decimal sin ceros a la izquierda (como
+ * los que genera {@link modelo.GestionClientes}) y como texto en otro caso,
+ * por ejemplo los IDs de citas importadas.
+ *
+ * <pre>
+ * Cliente: flags, id (varint o texto), tipoSolicitud, prioridad, nombre, llegada [, atencion]
+ * Action:  tipoAccion, fechaHora, Cliente [, idGrupo, nombreGrupo]
+ * </pre>
+ *
+ * La escritura va directamente al {@link ByteBuffer} sin objetos
+ * intermedios. Cada instancia reutiliza un arreglo interno para decodificar
+ * nombres, por lo que no debe compartirse entre hilos.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class CodecBinario {
+
+    /**
+     * Versión del formato que escribe este codec.
+     */
+    public static final byte VERSION = 1;
+
+    private static final int TIENE_ATENCION = 1;
+    private static final int ID_TEXTO = 2;
+
+    /**
+     * Cantidad máxima de dígitos de un ID que se escribe como varint; con 18
+     * dígitos el valor siempre cabe en un long.
+     */
+    private static final int DIGITOS_ID_NUMERICO = 18;
+
+    private byte[] temporal = new byte[64];
+
+    // ==================== CLIENTE ====================
+
+    /**
+     * Escribe un cliente como registro versionado.
+     *
+     * @param destino Buffer de destino
+     * @param cliente Cliente a escribir
+     * @throws BufferOverflowException si el buffer no tiene espacio
+     */
+    public void escribirCliente(ByteBuffer destino, Cliente cliente) {
+        destino.put(VERSION);
+        escribirVarInt(destino, tamanoCuerpoCliente(cliente));
+        LocalDateTime llegada = cliente.getFechaLlegada();
+        LocalDateTime atencion = cliente.getFechaAtencion();
+        String id = cliente.getId();
+        boolean idTexto = !esIdNumerico(id);
+        destino.put((byte) ((atencion != null ? TIENE_ATENCION : 0) | (idTexto ? ID_TEXTO : 0)));
+        if (idTexto) {
+            escribirTexto(destino, id);
+        } else {
+            escribirVarLong(destino, Long.parseLong(id));
+        }
+        destino.put(codigo(cliente.getTipoSolicitud()));
+        destino.put(codigo(cliente.getPrioridad()));
+        escribirTexto(destino, cliente.getNombre());
+        escribirFecha(destino, llegada);
+        if (atencion != null) {
+            escribirFecha(destino, atencion);
+        }
+    }
+
+    /**
+     * Lee un cliente escrito con {@link #escribirCliente}.
+     *
+     * @param origen Buffer de origen, posicionado al inicio del registro
+     * @return Cliente leído
+     * @throws IllegalArgumentException si el registro no es válido
+     */
+    public Cliente leerCliente(ByteBuffer origen) {
+        int fin = leerEncabezado(origen);
+        int flags = origen.get();
+        String id = (flags & ID_TEXTO) != 0 ? leerTexto(origen) : String.valueOf(leerVarLong(origen));
+        Cliente.TipoSolicitud tipo = tipoSolicitud(origen.get());
+        Cliente.Prioridad prioridad = prioridad(origen.get());
+        String nombre = leerTexto(origen);
+        LocalDateTime llegada = leerFecha(origen);
+        LocalDateTime atencion = (flags & TIENE_ATENCION) != 0 ? leerFecha(origen) : null;
+        origen.position(fin);
+        return new Cliente(id, nombre, tipo, prioridad, llegada, atencion);
+    }
+
+    /**
+     * Calcula el tamaño total en bytes del registro de un cliente.
+     *
+     * @param cliente Cliente a medir
+     * @return Bytes que ocupará el registro
+     */
+    public static int tamanoCliente(Cliente cliente) {
+        int cuerpo = tamanoCuerpoCliente(cliente);
+        return 1 + tamanoVarInt(cuerpo) + cuerpo;
+    }
+
+    private static int tamanoCuerpoCliente(Cliente cliente) {
+        // flags, tipo de solicitud y prioridad ocupan un byte cada uno
+        String id = cliente.getId();
+        int tamano = 3 + (esIdNumerico(id) ? tamanoVarLong(Long.parseLong(id)) : tamanoTexto(id));
+        tamano += tamanoTexto(cliente.getNombre());
+        tamano += tamanoFecha(cliente.getFechaLlegada());
+        if (cliente.getFechaAtencion() != null) {
+            tamano += tamanoFecha(cliente.getFechaAtencion());
+        }
+        return tamano;
+    }
+
+    // ==================== ACCIÓN ====================
+
+    /**
+     * Escribe una acción, incluyendo su cliente, como registro versionado.
+     *
+     * @param destino Buffer de destino
+     * @param accion Acción a escribir
+     * @throws BufferOverflowException si el buffer no tiene espacio
+     */
+    public void escribirAccion(ByteBuffer destino, Action accion) {
+        destino.put(VERSION);
+        escribirVarInt(destino, tamanoCuerpoAccion(accion));
+        destino.put(codigo(accion.getTipo()));
+        escribirFecha(destino, accion.getFechaHora());
+        escribirCliente(destino, accion.getCliente());
+        if (accion.perteneceAGrupo()) {
+            escribirVarLong(destino, accion.getIdGrupo());
+            escribirTexto(destino, accion.getNombreGrupo());
+        }
+    }
+
+    /**
+     * Lee una acción escrita con {@link #escribirAccion}.
+     *
+     * @param origen Buffer de origen, posicionado al inicio del registro
+     * @return Acción leída con su cliente
+     * @throws IllegalArgumentException si el registro no es válido
+     */
+    public Action leerAccion(ByteBuffer origen) {
+        int fin = leerEncabezado(origen);
+        Action.TipoAccion tipo = tipoAccion(origen.get());
+        LocalDateTime fechaHora = leerFecha(origen);
+        Cliente cliente = leerCliente(origen);
+        long idGrupo = 0;
+        String nombreGrupo = null;
+        if (origen.position() < fin) {
+            idGrupo = leerVarLong(origen);
+            nombreGrupo = leerTexto(origen);
+            if (idGrupo == 0) {
+                nombreGrupo = null;
+            }
+        }
+        origen.position(fin);
+        return new Action(tipo, cliente, fechaHora, idGrupo, nombreGrupo);
+    }
+
+    /**
+     * Lee solo la fecha de la acción que comienza en la posición actual del
+     * buffer, sin avanzar la posición ni decodificar el cliente.
+     *
+     * @param origen Buffer de origen, posicionado al inicio del registro
+     * @return Fecha y hora de la acción
+     */
+    public static LocalDateTime leerFechaAccion(ByteBuffer origen) {
+        int inicio = origen.position();
+        leerEncabezado(origen);
+        origen.get();
+        LocalDateTime fechaHora = leerFecha(origen);
+        origen.position(inicio);
+        return fechaHora;
+    }
+
+    /**
+     * Calcula el tamaño total en bytes del registro de una acción.
+     *
+     * @param accion Acción a medir
+     * @return Bytes que ocupará el registro
+     */
+    public static int tamanoAccion(Action accion) {
+        int cuerpo = tamanoCuerpoAccion(accion);
+        return 1 + tamanoVarInt(cuerpo) + cuerpo;
+    }
+
+    private static int tamanoCuerpoAccion(Action accion) {
+        int tamano = 1 + tamanoFecha(accion.getFechaHora()) + tamanoCliente(accion.getCliente());
+        if (accion.perteneceAGrupo()) {
+            tamano += tamanoVarLong(accion.getIdGrupo()) + tamanoTexto(accion.getNombreGrupo());
+        }
+        return tamano;
+    }
+
+    /**
+     * Lee la versión y la longitud del registro. Se aceptan versiones
+     * posteriores a {@link #VERSION}: quien llama lee los campos que conoce
+     * y se posiciona en el fin devuelto, saltando los que no conoce.
+     *
+     * @return Posición del fin del cuerpo
+     */
+    private static int leerEncabezado(ByteBuffer origen) {
+        byte version = origen.get();
+        if (version < 1) {
+            throw new IllegalArgumentException("Versión de registro no válida: " + version);
+        }
+        int longitud = leerVarInt(origen);
+        if (longitud < 0 || longitud > origen.remaining()) {
+            throw new IllegalArgumentException("Longitud de registro no válida: " + longitud);
+        }
+        return origen.position() + longitud;
+    }
+
+    // ==================== ENUMERACIONES ====================
+
+    /**
+     * Código de un byte del tipo de solicitud.
+     */
+    public static byte codigo(Cliente.TipoSolicitud tipo) {
+        switch (tipo) {
+            case SOPORTE:
+                return 1;
+            case MANTENIMIENTO:
+                return 2;
+            case RECLAMO:
+                return 3;
+            default:
+                throw new IllegalArgumentException("Tipo de solicitud sin código: " + tipo);
+        }
+    }
+
+    /**
+     * Tipo de solicitud correspondiente a un código.
+     */
+    public static Cliente.TipoSolicitud tipoSolicitud(byte codigo) {
+        switch (codigo) {
+            case 1:
+                return Cliente.TipoSolicitud.SOPORTE;
+            case 2:
+                return Cliente.TipoSolicitud.MANTENIMIENTO;
+            case 3:
+                return Cliente.TipoSolicitud.RECLAMO;
+            default:
+                throw new IllegalArgumentException("Código de tipo de solicitud desconocido: " + codigo);
+        }
+    }
+
+    /**
+     * Código de un byte de la prioridad.
+     */
+    public static byte codigo(Cliente.Prioridad prioridad) {
+        switch (prioridad) {
+            case NORMAL:
+                return 1;
+            case URGENTE:
+                return 2;
+            default:
+                throw new IllegalArgumentException("Prioridad sin código: " + prioridad);
+        }
+    }
+
+    /**
+     * Prioridad correspondiente a un código.
+     */
+    public static Cliente.Prioridad prioridad(byte codigo) {
+        switch (codigo) {
+            case 1:
+                return Cliente.Prioridad.NORMAL;
+            case 2:
+                return Cliente.Prioridad.URGENTE;
+            default:
+                throw new IllegalArgumentException("Código de prioridad desconocido: " + codigo);
+        }
+    }
+
+    /**
+     * Código de un byte del tipo de acción.
+     */
+    public static byte codigo(Action.TipoAccion tipo) {
+        switch (tipo) {
+            case REGISTRAR:
+                return 1;
+            case ELIMINAR:
+                return 2;
+            case ATENDER:
+                return 3;
+            default:
+                throw new IllegalArgumentException("Tipo de acción sin código: " + tipo);
+        }
+    }
+
+    /**
+     * Tipo de acción correspondiente a un código.
+     */
+    public static Action.TipoAccion tipoAccion(byte codigo) {
+        switch (codigo) {
+            case 1:
+                return Action.TipoAccion.REGISTRAR;
+            case 2:
+                return Action.TipoAccion.ELIMINAR;
+            case 3:
+                return Action.TipoAccion.ATENDER;
+            default:
+                throw new IllegalArgumentException("Código de tipo de acción desconocido: " + codigo);
+        }
+    }
+
+    // ==================== CAMPOS PRIMITIVOS ====================
+
+    /**
+     * Escribe un entero sin signo en formato varint (7 bits por byte).
+     */
+    public static void escribirVarInt(ByteBuffer destino, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            destino.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        destino.put((byte) valor);
+    }
+
+    /**
+     * Lee un entero escrito con {@link #escribirVarInt}.
+     */
+    public static int leerVarInt(ByteBuffer origen) {
+        int valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 7) {
+            byte b = origen.get();
+            valor |= (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+
+    /**
+     * Escribe un long sin signo en formato varint.
+     */
+    public static void escribirVarLong(ByteBuffer destino, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            destino.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        destino.put((byte) valor);
+    }
+
+    /**
+     * Lee un long escrito con {@link #escribirVarLong}.
+     */
+    public static long leerVarLong(ByteBuffer origen) {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            byte b = origen.get();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Varlong demasiado largo");
+    }
+
+    /**
+     * Bytes que ocupa un entero como varint.
+     */
+    public static int tamanoVarInt(int valor) {
+        int bytes = 1;
+        while ((valor & ~0x7F) != 0) {
+            valor >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    /**
+     * Bytes que ocupa un long como varint.
+     */
+    public static int tamanoVarLong(long valor) {
+        int bytes = 1;
+        while ((valor & ~0x7FL) != 0) {
+            valor >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    /**
+     * Escribe una fecha local como segundos desde la época (zigzag varint)
+     * seguidos de los nanosegundos (varint).
+     */
+    public static void escribirFecha(ByteBuffer destino, LocalDateTime fecha) {
+        long segundos = fecha.toEpochSecond(ZoneOffset.UTC);
+        escribirVarLong(destino, (segundos << 1) ^ (segundos >> 63));
+        escribirVarInt(destino, fecha.getNano());
+    }
+
+    /**
+     * Lee una fecha escrita con {@link #escribirFecha}.
+     */
+    public static LocalDateTime leerFecha(ByteBuffer origen) {
+        long zigzag = leerVarLong(origen);
+        long segundos = (zigzag >>> 1) ^ -(zigzag & 1);
+        int nanos = leerVarInt(origen);
+        return LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC);
+    }
+
+    /**
+     * Bytes que ocupa una fecha.
+     */
+    public static int tamanoFecha(LocalDateTime fecha) {
+        long segundos = fecha.toEpochSecond(ZoneOffset.UTC);
+        return tamanoVarLong((segundos << 1) ^ (segundos >> 63)) + tamanoVarInt(fecha.getNano());
+    }
+
+    /**
+     * Escribe un texto como longitud varint seguida de sus bytes UTF-8,
+     * codificando carácter por carácter directamente en el buffer.
+     */
+    public static void escribirTexto(ByteBuffer destino, String texto) {
+        escribirVarInt(destino, longitudUtf8(texto));
+        int longitud = texto.length();
+        for (int i = 0; i < longitud; i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                destino.put((byte) c);
+            } else if (c < 0x800) {
+                destino.put((byte) (0xC0 | (c >> 6)));
+                destino.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < longitud
+                    && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int punto = Character.toCodePoint(c, texto.charAt(++i));
+                destino.put((byte) (0xF0 | (punto >> 18)));
+                destino.put((byte) (0x80 | ((punto >> 12) & 0x3F)));
+                destino.put((byte) (0x80 | ((punto >> 6) & 0x3F)));
+                destino.put((byte) (0x80 | (punto & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                destino.put((byte) '?');
+            } else {
+                destino.put((byte) (0xE0 | (c >> 12)));
+                destino.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                destino.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * Lee un texto escrito con {@link #escribirTexto}.
+     */
+    public String leerTexto(ByteBuffer origen) {
+        int longitud = leerVarInt(origen);
+        if (origen.hasArray()) {
+            int inicio = origen.arrayOffset() + origen.position();
+            origen.position(origen.position() + longitud);
+            return new String(origen.array(), inicio, longitud, StandardCharsets.UTF_8);
+        }
+        if (temporal.length < longitud) {
+            temporal = new byte[Math.max(longitud, temporal.length * 2)];
+        }
+        origen.get(temporal, 0, longitud);
+        return new String(temporal, 0, longitud, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Bytes que ocupa un texto, incluyendo su longitud.
+     */
+    public static int tamanoTexto(String texto) {
+        int bytes = longitudUtf8(texto);
+        return tamanoVarInt(bytes) + bytes;
+    }
+
+    private static int longitudUtf8(String texto) {
+        int bytes = 0;
+        int longitud = texto.length();
+        for (int i = 0; i < longitud; i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < longitud
+                    && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 1;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Indica si el ID se puede escribir como varint y leerse de vuelta como
+     * el mismo texto: solo dígitos, sin ceros a la izquierda y sin signo.
+     */
+    private static boolean esIdNumerico(String id) {
+        int longitud = id.length();
+        if (longitud == 0 || longitud > DIGITOS_ID_NUMERICO || (id.charAt(0) == '0' && longitud > 1)) {
+            return false;
+        }
+        for (int i = 0; i < longitud; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import modelo.Cliente;
+import modelo.Historial;
+
+/**
+ * Exporta los clientes atendidos del {@link Historial} a CSV o a un formato
+ * binario columnar. El historial se recorre sin copiarlo y las filas se
+ * escriben a través de un buffer directo de tamaño fijo, así que la memoria
+ * usada no depende de la cantidad de filas. Se puede filtrar por rango de
+ * fecha de atención y por tipo de solicitud.
+ *
+ * El CSV tiene las columnas
+ * {@code id,nombre,tipo,prioridad,llegada,atencion,esperaMinutos}, con las
+ * fechas como {@code yyyy-MM-dd HH:mm:ss}.
+ *
+ * El formato columnar (todos los enteros en big-endian) empieza con
+ * {@link #MAGIA_COLUMNAR} y {@link #VERSION_COLUMNAR}, sigue con bloques
+ * de hasta {@link #FILAS_POR_BLOQUE} filas y termina con un entero 0, la
+ * cantidad total de filas (long) y la magia otra vez. Cada bloque es la
+ * cantidad de filas n (int) seguida de sus columnas: n bytes con el ordinal
+ * del tipo, n bytes con el ordinal de la prioridad, n longs con la llegada
+ * en segundos desde la época (hora local tomada como UTC), n ints con la
+ * espera en segundos, y los IDs y los nombres, cada uno como n+1 posiciones
+ * (int) seguidas de sus bytes UTF-8.
+ *
+ * El historial debe exportarse desde el hilo que modifica el modelo.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ExportadorHistorial {
+
+    /**
+     * Identificador de los archivos columnares ("HCOL").
+     */
+    public static final int MAGIA_COLUMNAR = 0x48434F4C;
+
+    /**
+     * Versión del formato columnar.
+     */
+    public static final byte VERSION_COLUMNAR = 1;
+
+    /**
+     * Cantidad máxima de filas por bloque del formato columnar.
+     */
+    public static final int FILAS_POR_BLOQUE = 4096;
+
+    private static final int TAMANO_BUFFER = 256 * 1024;
+    private static final byte[] ENCABEZADO_CSV =
+            "id,nombre,tipo,prioridad,llegada,atencion,esperaMinutos\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer buffer;
+    private LocalDateTime desde;
+    private LocalDateTime hasta;
+    private Set<Cliente.TipoSolicitud> tipos;
+    private FileChannel canal;
+    private long filas;
+
+    // Columnas del bloque en construcción
+    private final byte[] tiposBloque = new byte[FILAS_POR_BLOQUE];
+    private final byte[] prioridadesBloque = new byte[FILAS_POR_BLOQUE];
+    private final long[] llegadasBloque = new long[FILAS_POR_BLOQUE];
+    private final int[] esperasBloque = new int[FILAS_POR_BLOQUE];
+    private final TextosBloque idsBloque = new TextosBloque();
+    private final TextosBloque nombresBloque = new TextosBloque();
+    private int filasBloque;
+    private byte[] auxiliar = new byte[256];
+
+    /**
+     * Constructor que exporta todo el historial.
+     */
+    public ExportadorHistorial() {
+        this.buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+        this.tipos = EnumSet.allOf(Cliente.TipoSolicitud.class);
+    }
+
+    /**
+     * Limita la exportación a los clientes atendidos en un rango de fechas.
+     *
+     * @param desde Inicio del rango (inclusivo), o null para no limitarlo
+     * @param hasta Fin del rango (exclusivo), o null para no limitarlo
+     */
+    public void setRango(LocalDateTime desde, LocalDateTime hasta) {
+        this.desde = desde;
+        this.hasta = hasta;
+    }
+
+    /**
+     * Limita la exportación a algunos tipos de solicitud.
+     *
+     * @param tipos Tipos a exportar
+     */
+    public void setTipos(Set<Cliente.TipoSolicitud> tipos) {
+        this.tipos = tipos.isEmpty() ? EnumSet.noneOf(Cliente.TipoSolicitud.class) : EnumSet.copyOf(tipos);
+    }
+
+    /**
+     * Exporta el historial a un archivo CSV.
+     *
+     * @param historial Historial a exportar
+     * @param archivo Archivo de salida, que se reemplaza
+     * @return Cantidad de filas escritas
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public long exportarCsv(Historial historial, Path archivo) throws IOException {
+        return exportar(historial, archivo, false);
+    }
+
+    /**
+     * Exporta el historial al formato binario columnar.
+     *
+     * @param historial Historial a exportar
+     * @param archivo Archivo de salida, que se reemplaza
+     * @return Cantidad de filas escritas
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public long exportarColumnar(Historial historial, Path archivo) throws IOException {
+        return exportar(historial, archivo, true);
+    }
+
+    private long exportar(Historial historial, Path archivo, boolean columnar) throws IOException {
+        filas = 0;
+        filasBloque = 0;
+        buffer.clear();
+        try (FileChannel salida = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            canal = salida;
+            if (columnar) {
+                buffer.putInt(MAGIA_COLUMNAR).put(VERSION_COLUMNAR);
+            } else {
+                buffer.put(ENCABEZADO_CSV);
+            }
+            try {
+                historial.recorrer(cliente -> {
+                    if (!incluir(cliente)) {
+                        return;
+                    }
+                    try {
+                        if (columnar) {
+                            agregarAlBloque(cliente);
+                        } else {
+                            escribirFilaCsv(cliente);
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    filas++;
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            if (columnar) {
+                escribirBloque();
+                asegurar(16);
+                buffer.putInt(0).putLong(filas).putInt(MAGIA_COLUMNAR);
+            }
+            vaciar();
+        } finally {
+            canal = null;
+        }
+        return filas;
+    }
+
+    private boolean incluir(Cliente cliente) {
+        LocalDateTime atencion = cliente.getFechaAtencion();
+        if (atencion == null || !tipos.contains(cliente.getTipoSolicitud())) {
+            return false;
+        }
+        return (desde == null || !atencion.isBefore(desde)) && (hasta == null || atencion.isBefore(hasta));
+    }
+
+    private void escribirFilaCsv(Cliente cliente) throws IOException {
+        asegurar(128 + 6 * (cliente.getId().length() + cliente.getNombre().length()));
+        escribirTextoCsv(cliente.getId());
+        buffer.put((byte) ',');
+        escribirTextoCsv(cliente.getNombre());
+        buffer.put((byte) ',');
+        escribirAscii(cliente.getTipoSolicitud().name());
+        buffer.put((byte) ',');
+        escribirAscii(cliente.getPrioridad().name());
+        buffer.put((byte) ',');
+        escribirFecha(cliente.getFechaLlegada());
+        buffer.put((byte) ',');
+        escribirFecha(cliente.getFechaAtencion());
+        buffer.put((byte) ',');
+        escribirNumero(cliente.calcularTiempoAtencion());
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Escribe un texto en UTF-8, entre comillas solo si contiene comas,
+     * comillas o saltos de línea.
+     */
+    private void escribirTextoCsv(String texto) {
+        boolean comillas = false;
+        for (int i = 0; i < texto.length() && !comillas; i++) {
+            char c = texto.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (6 * texto.length() + 2 > auxiliar.length) {
+            auxiliar = new byte[6 * texto.length() + 2];
+        }
+        int largo = 0;
+        if (comillas) {
+            auxiliar[largo++] = '"';
+        }
+        largo = codificar(texto, auxiliar, largo, comillas);
+        if (comillas) {
+            auxiliar[largo++] = '"';
+        }
+        buffer.put(auxiliar, 0, largo);
+    }
+
+    /**
+     * Codifica un texto en UTF-8 sobre un arreglo con espacio suficiente
+     * (tres bytes por carácter, seis si se duplican comillas).
+     *
+     * @return Posición siguiente al último byte escrito
+     */
+    private static int codificar(String texto, byte[] destino, int posicion, boolean duplicarComillas) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                if (c == '"' && duplicarComillas) {
+                    destino[posicion++] = '"';
+                }
+                destino[posicion++] = (byte) c;
+            } else if (c < 0x800) {
+                destino[posicion++] = (byte) (0xC0 | (c >> 6));
+                destino[posicion++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                    && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int punto = Character.toCodePoint(c, texto.charAt(++i));
+                destino[posicion++] = (byte) (0xF0 | (punto >> 18));
+                destino[posicion++] = (byte) (0x80 | ((punto >> 12) & 0x3F));
+                destino[posicion++] = (byte) (0x80 | ((punto >> 6) & 0x3F));
+                destino[posicion++] = (byte) (0x80 | (punto & 0x3F));
+            } else {
+                destino[posicion++] = (byte) (0xE0 | (c >> 12));
+                destino[posicion++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                destino[posicion++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return posicion;
+    }
+
+    private void escribirAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            buffer.put((byte) texto.charAt(i));
+        }
+    }
+
+    private void escribirFecha(LocalDateTime fecha) {
+        escribirDigitos(fecha.getYear(), 4);
+        buffer.put((byte) '-');
+        escribirDigitos(fecha.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        escribirDigitos(fecha.getDayOfMonth(), 2);
+        buffer.put((byte) ' ');
+        escribirDigitos(fecha.getHour(), 2);
+        buffer.put((byte) ':');
+        escribirDigitos(fecha.getMinute(), 2);
+        buffer.put((byte) ':');
+        escribirDigitos(fecha.getSecond(), 2);
+    }
+
+    private void escribirDigitos(int valor, int ancho) {
+        for (int divisor = (int) Math.pow(10, ancho - 1); divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + (valor / divisor) % 10));
+        }
+    }
+
+    private void escribirNumero(long valor) {
+        if (valor < 0) {
+            buffer.put((byte) '-');
+            valor = -valor;
+        }
+        long divisor = 1;
+        while (divisor <= valor / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + (valor / divisor) % 10));
+        }
+    }
+
+    private void agregarAlBloque(Cliente cliente) throws IOException {
+        long llegada = cliente.getFechaLlegada().toEpochSecond(ZoneOffset.UTC);
+        long atencion = cliente.getFechaAtencion().toEpochSecond(ZoneOffset.UTC);
+        tiposBloque[filasBloque] = (byte) cliente.getTipoSolicitud().ordinal();
+        prioridadesBloque[filasBloque] = (byte) cliente.getPrioridad().ordinal();
+        llegadasBloque[filasBloque] = llegada;
+        esperasBloque[filasBloque] = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, atencion - llegada));
+        idsBloque.agregar(cliente.getId());
+        nombresBloque.agregar(cliente.getNombre());
+        if (++filasBloque == FILAS_POR_BLOQUE) {
+            escribirBloque();
+        }
+    }
+
+    private void escribirBloque() throws IOException {
+        if (filasBloque == 0) {
+            return;
+        }
+        int n = filasBloque;
+        asegurar(4 + 2 * n + 12 * n);
+        buffer.putInt(n).put(tiposBloque, 0, n).put(prioridadesBloque, 0, n);
+        for (int i = 0; i < n; i++) {
+            buffer.putLong(llegadasBloque[i]);
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(esperasBloque[i]);
+        }
+        idsBloque.escribir(n);
+        nombresBloque.escribir(n);
+        filasBloque = 0;
+    }
+
+    /**
+     * Textos de una columna del bloque: posiciones y bytes UTF-8
+     * consecutivos. Los arreglos se reutilizan entre bloques.
+     */
+    private final class TextosBloque {
+
+        private final int[] posiciones = new int[FILAS_POR_BLOQUE + 1];
+        private byte[] bytes = new byte[16 * FILAS_POR_BLOQUE];
+        private int usados;
+        private int cantidad;
+
+        void agregar(String texto) {
+            if (usados + 3 * texto.length() > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, usados + 3 * texto.length()));
+            }
+            usados = codificar(texto, bytes, usados, false);
+            posiciones[++cantidad] = usados;
+        }
+
+        void escribir(int n) throws IOException {
+            asegurar(4 * (n + 1));
+            for (int i = 0; i <= n; i++) {
+                buffer.putInt(posiciones[i]);
+            }
+            int escritos = 0;
+            while (escritos < usados) {
+                if (!buffer.hasRemaining()) {
+                    vaciar();
+                }
+                int parte = Math.min(buffer.remaining(), usados - escritos);
+                buffer.put(bytes, escritos, parte);
+                escritos += parte;
+            }
+            usados = 0;
+            cantidad = 0;
+        }
+    }
+
+    /**
+     * Garantiza espacio en el buffer, vaciándolo al archivo si hace falta.
+     */
+    private void asegurar(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            vaciar();
+            if (buffer.remaining() < bytes) {
+                throw new IOException("Una fila no cabe en el buffer de exportación (" + bytes + " bytes)");
+            }
+        }
+    }
+
+    private void vaciar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import modelo.Action;
+import modelo.Modelo;
+import modelo.ObservadorModelo;
+
+/**
+ * Coordina la persistencia del modelo: escribe cada cambio en la bitácora,
+ * toma instantáneas periódicas y recupera el estado al iniciar.
+ *
+ * Cada cierto número de registros se rota la bitácora; es lo único que
+ * hace el hilo que modifica el modelo, así que el costo no crece con el
+ * estado. La instantánea se arma en un hilo en segundo plano sobre un
+ * modelo sombra: una copia que solo ese hilo modifica, reproduciendo los
+ * segmentos ya cerrados de la bitácora desde la instantánea anterior. Luego
+ * se codifica y se escribe a disco en el mismo hilo, y cuando queda escrita
+ * se borran los segmentos de bitácora y las instantáneas anteriores. Al
+ * arrancar se mapea en memoria la instantánea más reciente y solo se
+ * reproduce la cola de la bitácora posterior a ella.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class GestorPersistencia implements ObservadorModelo, Closeable {
+
+    /**
+     * Cantidad de registros de bitácora entre instantáneas por defecto.
+     */
+    public static final int INTERVALO_POR_DEFECTO = 10_000;
+
+    private static final Logger LOGGER = Logger.getLogger(GestorPersistencia.class.getName());
+
+    private final Path directorio;
+    private final Modelo modelo;
+    private final Bitacora bitacora;
+    private final int intervalo;
+    private final ExecutorService escritor;
+    private int registrosDesdeInstantanea;
+
+    // Estado del hilo escritor: la instantánea de la que parte el modelo
+    // sombra, que se lee recién al tomar la primera instantánea
+    private Path instantaneaBase;
+    private Modelo sombra;
+    private RelojControlable relojSombra;
+    private long secuenciaSombra;
+
+    private GestorPersistencia(Path directorio, Modelo modelo, Bitacora bitacora, int intervalo,
+            Path instantaneaBase) {
+        this.directorio = directorio;
+        this.modelo = modelo;
+        this.bitacora = bitacora;
+        this.intervalo = intervalo;
+        this.instantaneaBase = instantaneaBase;
+        this.escritor = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "escritor-instantaneas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Abre el directorio de persistencia con el intervalo por defecto.
+     *
+     * @param directorio Directorio de persistencia
+     * @return Gestor con el modelo recuperado
+     * @throws IOException si no se puede recuperar el estado
+     */
+    public static GestorPersistencia abrir(Path directorio) throws IOException {
+        return abrir(directorio, INTERVALO_POR_DEFECTO);
+    }
+
+    /**
+     * Abre el directorio de persistencia, recupera el modelo a partir de la
+     * última instantánea y la bitácora posterior, y comienza a registrar sus
+     * cambios.
+     *
+     * @param directorio Directorio de persistencia
+     * @param intervalo Registros de bitácora entre instantáneas
+     * @return Gestor con el modelo recuperado
+     * @throws IOException si no se puede recuperar el estado
+     */
+    public static GestorPersistencia abrir(Path directorio, int intervalo) throws IOException {
+        if (intervalo <= 0) {
+            throw new IllegalArgumentException("El intervalo de instantáneas debe ser positivo");
+        }
+        Files.createDirectories(directorio);
+        RelojControlable reloj = new RelojControlable();
+
+        Instantanea instantanea = null;
+        Path base = null;
+        List<Path> instantaneas = instantaneas(directorio);
+        for (int i = instantaneas.size() - 1; i >= 0 && instantanea == null; i--) {
+            try {
+                instantanea = Instantanea.leer(instantaneas.get(i));
+                base = instantaneas.get(i);
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Se ignora la instantánea {0}: {1}",
+                        new Object[]{instantaneas.get(i), ex.getMessage()});
+            }
+        }
+
+        Modelo modelo = instantanea != null ? instantanea.restaurar(reloj) : new Modelo(reloj);
+        long desde = instantanea != null ? instantanea.getSecuencia() : 0;
+        long ultima = Bitacora.reproducir(directorio, desde, modelo, reloj);
+
+        GestorPersistencia gestor = new GestorPersistencia(directorio, modelo, new Bitacora(directorio, ultima),
+                intervalo, base);
+        modelo.agregarObservador(gestor);
+        return gestor;
+    }
+
+    /**
+     * Continúa en un directorio la persistencia de un modelo que llegó por
+     * otra vía, por ejemplo una réplica que toma el lugar del primario. Se
+     * escribe una instantánea con la secuencia indicada y se descarta lo que
+     * hubiera antes en el directorio, de modo que la bitácora sigue la
+     * numeración del primario.
+     *
+     * @param directorio Directorio de persistencia
+     * @param modelo Modelo que se persistirá desde ahora
+     * @param secuencia Última secuencia de bitácora contenida en el modelo
+     * @return Gestor que registra los cambios del modelo
+     * @throws IOException si no se puede escribir en el directorio
+     */
+    public static GestorPersistencia continuar(Path directorio, Modelo modelo, long secuencia) throws IOException {
+        Files.createDirectories(directorio);
+        Path escrita = Instantanea.capturar(modelo, secuencia).escribir(directorio);
+        for (Path anterior : instantaneas(directorio)) {
+            if (!anterior.equals(escrita)) {
+                Files.deleteIfExists(anterior);
+            }
+        }
+        Bitacora.truncarAnteriores(directorio, Long.MAX_VALUE);
+        GestorPersistencia gestor = new GestorPersistencia(directorio, modelo, new Bitacora(directorio, secuencia),
+                INTERVALO_POR_DEFECTO, escrita);
+        modelo.agregarObservador(gestor);
+        return gestor;
+    }
+
+    /**
+     * Obtiene el directorio de persistencia.
+     *
+     * @return Directorio con la bitácora y las instantáneas
+     */
+    Path getDirectorio() {
+        return directorio;
+    }
+
+    /**
+     * Obtiene la última secuencia escrita en la bitácora. Debe llamarse
+     * desde el hilo que modifica el modelo.
+     *
+     * @return Última secuencia de la bitácora
+     */
+    long getSecuencia() {
+        return bitacora.getSecuencia();
+    }
+
+    /**
+     * Obtiene el modelo recuperado y persistido por este gestor.
+     *
+     * @return Modelo persistido
+     */
+    public Modelo getModelo() {
+        return modelo;
+    }
+
+    @Override
+    public void accionRegistrada(Action accion) {
+        try {
+            bitacora.escribirRegistrada(accion);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la bitácora", ex);
+        }
+        contarRegistro();
+    }
+
+    @Override
+    public void accionDeshecha(Action accion) {
+        try {
+            bitacora.escribirDeshecha(accion);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la bitácora", ex);
+        }
+        contarRegistro();
+    }
+
+    @Override
+    public void accionRehecha(Action accion) {
+        try {
+            bitacora.escribirRehecha(accion);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la bitácora", ex);
+        }
+        contarRegistro();
+    }
+
+    @Override
+    public void grupoIniciado(String nombre) {
+        try {
+            bitacora.escribirGrupoIniciado(nombre);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la bitácora", ex);
+        }
+        contarRegistro();
+    }
+
+    @Override
+    public void grupoFinalizado() {
+        try {
+            bitacora.escribirGrupoFinalizado();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la bitácora", ex);
+        }
+        contarRegistro();
+    }
+
+    private void contarRegistro() {
+        if (++registrosDesdeInstantanea >= intervalo) {
+            tomarInstantanea();
+        }
+    }
+
+    /**
+     * Toma una instantánea del modelo en la secuencia actual de la bitácora.
+     * Debe llamarse desde el hilo que modifica el modelo, pero allí solo se
+     * rota la bitácora: la instantánea se arma y se escribe en segundo plano.
+     *
+     * @return Future que se completa cuando la instantánea queda escrita y
+     * la bitácora anterior truncada
+     */
+    public Future<?> tomarInstantanea() {
+        registrosDesdeInstantanea = 0;
+        long secuencia = bitacora.getSecuencia();
+        long inicioVigente;
+        try {
+            inicioVigente = bitacora.rotar();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo rotar la bitácora", ex);
+        }
+        return escritor.submit(() -> {
+            try {
+                Path escrita = avanzarSombra(secuencia).escribir(directorio);
+                Bitacora.truncarAnteriores(directorio, inicioVigente);
+                for (Path anterior : instantaneas(directorio)) {
+                    if (!anterior.equals(escrita)) {
+                        Files.deleteIfExists(anterior);
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "No se pudo escribir la instantánea en la secuencia " + secuencia, ex);
+            }
+        });
+    }
+
+    /**
+     * Lleva el modelo sombra hasta la secuencia indicada, reproduciendo los
+     * segmentos cerrados de la bitácora, y lo captura. Solo se llama desde el
+     * hilo escritor; la primera vez el modelo sombra se restaura desde la
+     * instantánea con la que arrancó el gestor.
+     */
+    private Instantanea avanzarSombra(long secuencia) throws IOException {
+        if (sombra == null) {
+            relojSombra = new RelojControlable();
+            if (instantaneaBase != null) {
+                Instantanea base = Instantanea.leer(instantaneaBase);
+                sombra = base.restaurar(relojSombra);
+                secuenciaSombra = base.getSecuencia();
+            } else {
+                sombra = new Modelo(relojSombra);
+                secuenciaSombra = 0;
+            }
+            instantaneaBase = null;
+        }
+        try {
+            long alcanzada = Bitacora.reproducir(directorio, secuenciaSombra, secuencia, sombra, relojSombra);
+            if (alcanzada != secuencia) {
+                throw new IOException("La bitácora termina en la secuencia " + alcanzada + " y se esperaba la "
+                        + secuencia);
+            }
+        } catch (IOException | RuntimeException ex) {
+            // El modelo sombra quedó a medio avanzar; la próxima vez se arma
+            // de nuevo desde la última instantánea escrita
+            sombra = null;
+            List<Path> escritas = instantaneas(directorio);
+            instantaneaBase = escritas.isEmpty() ? null : escritas.get(escritas.size() - 1);
+            throw ex;
+        }
+        secuenciaSombra = secuencia;
+        return Instantanea.capturar(sombra, secuencia);
+    }
+
+    /**
+     * Espera a que terminen las escrituras pendientes y cierra la bitácora.
+     *
+     * @throws IOException si no se puede cerrar la bitácora
+     */
+    @Override
+    public void close() throws IOException {
+        modelo.removerObservador(this);
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        bitacora.close();
+    }
+
+    static List<Path> instantaneas(Path directorio) throws IOException {
+        List<Path> archivos = new ArrayList<>();
+        try (Stream<Path> contenido = Files.list(directorio)) {
+            contenido.filter(archivo -> archivo.getFileName().toString().startsWith(Instantanea.PREFIJO))
+                    .filter(archivo -> archivo.getFileName().toString().endsWith(Instantanea.SUFIJO))
+                    .sorted()
+                    .forEach(archivos::add);
+        }
+        return archivos;
+    }
+}
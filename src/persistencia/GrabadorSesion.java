@@ -0,0 +1,154 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import modelo.Action;
+import modelo.Modelo;
+import modelo.ObservadorModelo;
+
+/**
+ * Graba en una traza compacta cada operación que recibe el modelo durante
+ * una sesión, con su fecha y hora, para poder reproducirla después con
+ * {@link ReproductorSesion}.
+ *
+ * La traza es un único archivo: encabezado con la política de atención, una
+ * instantánea del estado al comenzar la grabación y, a continuación, los
+ * registros de la sesión en el mismo formato que la {@link Bitacora}. Al
+ * cerrar se agrega un registro con las estadísticas finales, que el
+ * reproductor compara con las que obtiene él.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class GrabadorSesion implements ObservadorModelo, Closeable {
+
+    static final int MAGIA = 0x53494D52;
+    static final byte VERSION = 1;
+
+    private final Modelo modelo;
+    private final FileChannel canal;
+    private final Bitacora bitacora;
+    private boolean cerrado;
+
+    private GrabadorSesion(Modelo modelo, FileChannel canal) {
+        this.modelo = modelo;
+        this.canal = canal;
+        this.bitacora = new Bitacora(canal);
+    }
+
+    /**
+     * Comienza a grabar las operaciones del modelo en el archivo indicado.
+     * Debe llamarse desde el hilo que modifica el modelo.
+     *
+     * @param archivo Archivo de la traza; se reemplaza si ya existe
+     * @param modelo Modelo cuyas operaciones se graban
+     * @return Grabador registrado como observador del modelo
+     * @throws IOException si no se puede crear la traza
+     */
+    public static GrabadorSesion iniciar(Path archivo, Modelo modelo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try {
+            String politica = modelo.getGestionClientes().getPoliticaAtencion().name();
+            ByteBuffer encabezado = ByteBuffer.allocate(Integer.BYTES + 1 + CodecBinario.tamanoTexto(politica));
+            encabezado.putInt(MAGIA);
+            encabezado.put(VERSION);
+            CodecBinario.escribirTexto(encabezado, politica);
+            encabezado.flip();
+            while (encabezado.hasRemaining()) {
+                canal.write(encabezado);
+            }
+            Instantanea.capturar(modelo, 0).escribir(canal);
+        } catch (IOException | RuntimeException ex) {
+            canal.close();
+            throw ex;
+        }
+        GrabadorSesion grabador = new GrabadorSesion(modelo, canal);
+        modelo.agregarObservador(grabador);
+        return grabador;
+    }
+
+    /**
+     * Obtiene la cantidad de operaciones grabadas hasta ahora.
+     *
+     * @return Registros escritos en la traza
+     */
+    public long getOperacionesGrabadas() {
+        return bitacora.getSecuencia();
+    }
+
+    @Override
+    public void accionRegistrada(Action accion) {
+        try {
+            bitacora.escribirRegistrada(accion);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la traza", ex);
+        }
+    }
+
+    @Override
+    public void accionDeshecha(Action accion) {
+        try {
+            bitacora.escribirDeshecha(accion);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la traza", ex);
+        }
+    }
+
+    @Override
+    public void accionRehecha(Action accion) {
+        try {
+            bitacora.escribirRehecha(accion);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la traza", ex);
+        }
+    }
+
+    @Override
+    public void grupoIniciado(String nombre) {
+        try {
+            bitacora.escribirGrupoIniciado(nombre);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la traza", ex);
+        }
+    }
+
+    @Override
+    public void grupoFinalizado() {
+        try {
+            bitacora.escribirGrupoFinalizado();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir en la traza", ex);
+        }
+    }
+
+    /**
+     * Deja de grabar, escribe las estadísticas finales del modelo y cierra la
+     * traza.
+     *
+     * @throws IOException si no se puede completar la traza
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        modelo.removerObservador(this);
+        try {
+            bitacora.escribirCierre(modelo.generarEstadisticas());
+            canal.force(true);
+        } finally {
+            canal.close();
+        }
+    }
+}
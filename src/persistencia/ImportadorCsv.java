@@ -0,0 +1,303 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import modelo.Cliente;
+import modelo.Modelo;
+
+/**
+ * Importa citas desde un archivo CSV con las columnas
+ * {@code nombre,tipo,prioridad,llegada}, donde la llegada tiene la forma
+ * {@code yyyy-MM-dd HH:mm} (o con {@code T} y segundos opcionales). La
+ * primera fila se omite si es un encabezado que empieza con "nombre".
+ *
+ * El archivo se lee por bloques con un {@link FileChannel} y cada fila se
+ * analiza directamente sobre los bytes: el tipo y la prioridad se comparan
+ * con los nombres de las constantes y la fecha se convierte dígito a dígito,
+ * así que la única cadena creada por fila es el nombre del cliente. Todas
+ * las filas se agregan dentro de un grupo de acciones, de modo que la
+ * importación completa se deshace en un solo paso. Las filas inválidas se
+ * omiten y se cuentan en el resultado.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ImportadorCsv {
+
+    private static final int TAMANO_BLOQUE = 1 << 20;
+    private static final byte[][] TIPOS = nombres(Cliente.TipoSolicitud.values());
+    private static final byte[][] PRIORIDADES = nombres(Cliente.Prioridad.values());
+
+    private final byte[] bloque;
+    private final ByteBuffer buffer;
+    private final int[] inicios;
+    private final int[] fines;
+
+    /**
+     * Constructor que reserva el bloque de lectura.
+     */
+    public ImportadorCsv() {
+        this.bloque = new byte[TAMANO_BLOQUE];
+        this.buffer = ByteBuffer.wrap(bloque);
+        this.inicios = new int[4];
+        this.fines = new int[4];
+    }
+
+    /**
+     * Importa todas las filas del archivo al modelo como un solo grupo de
+     * acciones.
+     *
+     * @param archivo Archivo CSV
+     * @param modelo Modelo en el que se registran los clientes
+     * @return Resultado con las filas importadas y rechazadas
+     * @throws IOException si no se puede leer el archivo
+     */
+    public ResultadoImportacion importar(Path archivo, Modelo modelo) throws IOException {
+        ResultadoImportacion resultado = new ResultadoImportacion(archivo);
+        long inicio = System.nanoTime();
+        modelo.iniciarGrupo("Importación " + archivo.getFileName());
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            buffer.clear();
+            long linea = 0;
+            boolean finArchivo = false;
+            while (!finArchivo) {
+                finArchivo = canal.read(buffer) < 0;
+                int limite = buffer.position();
+                int posicion = 0;
+                while (true) {
+                    int finLinea = buscar(bloque, posicion, limite, (byte) '\n');
+                    if (finLinea < 0) {
+                        if (!finArchivo) {
+                            break;
+                        }
+                        if (posicion == limite) {
+                            break;
+                        }
+                        finLinea = limite;
+                    }
+                    linea++;
+                    procesarLinea(posicion, finLinea, linea, modelo, resultado);
+                    posicion = Math.min(limite, finLinea + 1);
+                }
+                if (posicion == 0 && limite == bloque.length) {
+                    throw new IOException("La línea " + (linea + 1) + " supera " + TAMANO_BLOQUE + " bytes");
+                }
+                // La línea incompleta pasa al inicio del bloque para la
+                // siguiente lectura
+                System.arraycopy(bloque, posicion, bloque, 0, limite - posicion);
+                buffer.position(limite - posicion);
+            }
+        } finally {
+            modelo.finalizarGrupo();
+        }
+        resultado.setNanos(System.nanoTime() - inicio);
+        return resultado;
+    }
+
+    private void procesarLinea(int inicio, int fin, long linea, Modelo modelo, ResultadoImportacion resultado) {
+        if (fin > inicio && bloque[fin - 1] == '\r') {
+            fin--;
+        }
+        if (fin == inicio) {
+            return;
+        }
+        if (linea == 1 && empiezaCon(bloque, inicio, fin, "nombre")) {
+            return;
+        }
+        String nombre;
+        int siguiente;
+        if (bloque[inicio] == '"') {
+            int cierre = inicio + 1;
+            while (cierre < fin && !(bloque[cierre] == '"' && (cierre + 1 == fin || bloque[cierre + 1] != '"'))) {
+                cierre += bloque[cierre] == '"' ? 2 : 1;
+            }
+            if (cierre >= fin) {
+                resultado.rechazar(linea, "comillas sin cerrar");
+                return;
+            }
+            nombre = new String(bloque, inicio + 1, cierre - inicio - 1, StandardCharsets.UTF_8).replace("\"\"", "\"");
+            siguiente = cierre + 1;
+            if (siguiente < fin && bloque[siguiente] != ',') {
+                resultado.rechazar(linea, "texto después de las comillas");
+                return;
+            }
+        } else {
+            siguiente = buscar(bloque, inicio, fin, (byte) ',');
+            if (siguiente < 0) {
+                resultado.rechazar(linea, "faltan columnas");
+                return;
+            }
+            nombre = null;
+            inicios[0] = inicio;
+            fines[0] = siguiente;
+        }
+        int columnas = 1;
+        int posicion = siguiente + 1;
+        while (columnas < 4 && posicion <= fin) {
+            int coma = buscar(bloque, posicion, fin, (byte) ',');
+            int finColumna = coma < 0 ? fin : coma;
+            inicios[columnas] = posicion;
+            fines[columnas] = finColumna;
+            columnas++;
+            posicion = finColumna + 1;
+        }
+        if (columnas < 4) {
+            resultado.rechazar(linea, "faltan columnas");
+            return;
+        }
+        if (posicion <= fin) {
+            resultado.rechazar(linea, "sobran columnas");
+            return;
+        }
+        int tipo = constante(TIPOS, inicios[1], fines[1]);
+        if (tipo < 0) {
+            resultado.rechazar(linea, "tipo de solicitud inválido");
+            return;
+        }
+        int prioridad = constante(PRIORIDADES, inicios[2], fines[2]);
+        if (prioridad < 0) {
+            resultado.rechazar(linea, "prioridad inválida");
+            return;
+        }
+        LocalDateTime llegada = fecha(inicios[3], fines[3]);
+        if (llegada == null) {
+            resultado.rechazar(linea, "fecha de llegada inválida");
+            return;
+        }
+        if (nombre == null) {
+            int a = recortarInicio(inicios[0], fines[0]);
+            int b = recortarFin(a, fines[0]);
+            if (a == b) {
+                resultado.rechazar(linea, "nombre vacío");
+                return;
+            }
+            nombre = new String(bloque, a, b - a, StandardCharsets.UTF_8);
+        } else if (nombre.isBlank()) {
+            resultado.rechazar(linea, "nombre vacío");
+            return;
+        }
+        if (modelo.agregarCliente(nombre, Cliente.TipoSolicitud.values()[tipo], Cliente.Prioridad.values()[prioridad],
+                llegada) != null) {
+            resultado.aceptar();
+        } else {
+            resultado.rechazar(linea, "el modelo no aceptó el cliente");
+        }
+    }
+
+    /**
+     * Busca la constante cuyo nombre coincide con la columna, sin importar
+     * mayúsculas ni espacios alrededor.
+     */
+    private int constante(byte[][] nombres, int inicio, int fin) {
+        int a = recortarInicio(inicio, fin);
+        int b = recortarFin(a, fin);
+        for (int i = 0; i < nombres.length; i++) {
+            byte[] nombre = nombres[i];
+            if (nombre.length != b - a) {
+                continue;
+            }
+            int j = 0;
+            while (j < nombre.length && (bloque[a + j] & ~0x20) == nombre[j]) {
+                j++;
+            }
+            if (j == nombre.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Convierte {@code yyyy-MM-dd HH:mm[:ss]} (o con {@code T}) sin crear
+     * cadenas intermedias.
+     */
+    private LocalDateTime fecha(int inicio, int fin) {
+        int a = recortarInicio(inicio, fin);
+        int b = recortarFin(a, fin);
+        int largo = b - a;
+        if ((largo != 16 && largo != 19) || bloque[a + 4] != '-' || bloque[a + 7] != '-'
+                || (bloque[a + 10] != ' ' && bloque[a + 10] != 'T') || bloque[a + 13] != ':'
+                || (largo == 19 && bloque[a + 16] != ':')) {
+            return null;
+        }
+        int anio = digitos(a, 4);
+        int mes = digitos(a + 5, 2);
+        int dia = digitos(a + 8, 2);
+        int hora = digitos(a + 11, 2);
+        int minuto = digitos(a + 14, 2);
+        int segundo = largo == 19 ? digitos(a + 17, 2) : 0;
+        if ((anio | mes | dia | hora | minuto | segundo) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(anio, mes, dia, hora, minuto, segundo);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    private int digitos(int inicio, int cantidad) {
+        int valor = 0;
+        for (int i = inicio; i < inicio + cantidad; i++) {
+            int digito = bloque[i] - '0';
+            if (digito < 0 || digito > 9) {
+                return -1;
+            }
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    private int recortarInicio(int inicio, int fin) {
+        while (inicio < fin && (bloque[inicio] == ' ' || bloque[inicio] == '\t')) {
+            inicio++;
+        }
+        return inicio;
+    }
+
+    private int recortarFin(int inicio, int fin) {
+        while (fin > inicio && (bloque[fin - 1] == ' ' || bloque[fin - 1] == '\t')) {
+            fin--;
+        }
+        return fin;
+    }
+
+    private static int buscar(byte[] datos, int desde, int hasta, byte valor) {
+        for (int i = desde; i < hasta; i++) {
+            if (datos[i] == valor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean empiezaCon(byte[] datos, int inicio, int fin, String prefijo) {
+        if (fin - inicio < prefijo.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefijo.length(); i++) {
+            if ((datos[inicio + i] | 0x20) != prefijo.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[][] nombres(Enum<?>[] constantes) {
+        byte[][] nombres = new byte[constantes.length][];
+        for (int i = 0; i < constantes.length; i++) {
+            nombres[i] = constantes[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return nombres;
+    }
+}
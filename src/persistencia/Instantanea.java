@@ -0,0 +1,363 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import modelo.Action;
+import modelo.Cliente;
+import modelo.Modelo;
+import modelo.RegistroAcciones;
+
+/**
+ * Copia inmutable del estado completo del modelo en un punto de la
+ * bitácora: orden de la cola de espera, historial de atendidos, pilas de
+ * deshacer y rehacer, grupos de acciones y contador de IDs.
+ *
+ * La captura copia los clientes, así que la escritura a disco puede hacerse
+ * después sin que los cambios posteriores del modelo la alteren.
+ * {@link GestorPersistencia} la captura, codifica y escribe en su hilo
+ * escritor a partir de un modelo sombra, sin tocar el hilo que atiende las
+ * operaciones. Los clientes se guardan una sola vez en una tabla y la cola,
+ * el historial y las acciones los referencian por índice, conservando así
+ * la identidad entre acciones y clientes al restaurar.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class Instantanea {
+
+    static final String PREFIJO = "instantanea-";
+    static final String SUFIJO = ".bin";
+
+    private static final int MAGIA = 0x53494D53;
+    private static final byte VERSION = 3;
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private final long secuencia;
+    private final int contadorId;
+    private final Cliente[] clientes;
+    private final int[] cola;
+    private final int[] atendidos;
+    private final PilaAcciones acciones;
+    private final PilaAcciones deshechas;
+    private final long contadorGrupos;
+    private final long idGrupoAbierto;
+    private final String nombreGrupoAbierto;
+
+    /**
+     * Pila de acciones capturada, desde la base hasta el tope. Los clientes
+     * se referencian por su índice en la tabla de clientes.
+     */
+    private static final class PilaAcciones {
+        private final Action[] acciones;
+        private final int[] clientes;
+
+        private PilaAcciones(Action[] acciones, int[] clientes) {
+            this.acciones = acciones;
+            this.clientes = clientes;
+        }
+
+        private static PilaAcciones capturar(List<Action> pila, Map<Cliente, Integer> indices, List<Cliente> tabla) {
+            Action[] acciones = pila.toArray(new Action[0]);
+            int[] clientes = new int[acciones.length];
+            for (int i = 0; i < acciones.length; i++) {
+                clientes[i] = indice(acciones[i].getCliente(), indices, tabla);
+            }
+            return new PilaAcciones(acciones, clientes);
+        }
+
+        private ByteBuffer escribir(FileChannel canal, ByteBuffer buffer) throws IOException {
+            buffer = asegurarEspacio(canal, buffer, 5);
+            CodecBinario.escribirVarInt(buffer, acciones.length);
+            for (int i = 0; i < acciones.length; i++) {
+                Action accion = acciones[i];
+                String grupo = accion.perteneceAGrupo() ? accion.getNombreGrupo() : "";
+                buffer = asegurarEspacio(canal, buffer, 40 + CodecBinario.tamanoTexto(grupo));
+                buffer.put(CodecBinario.codigo(accion.getTipo()));
+                CodecBinario.escribirVarInt(buffer, clientes[i]);
+                CodecBinario.escribirFecha(buffer, accion.getFechaHora());
+                CodecBinario.escribirVarLong(buffer, accion.getIdGrupo());
+                if (accion.perteneceAGrupo()) {
+                    CodecBinario.escribirTexto(buffer, grupo);
+                }
+            }
+            return buffer;
+        }
+
+        private static PilaAcciones leer(ByteBuffer datos, CodecBinario codec, Cliente[] tabla) {
+            Action[] acciones = new Action[CodecBinario.leerVarInt(datos)];
+            int[] clientes = new int[acciones.length];
+            for (int i = 0; i < acciones.length; i++) {
+                Action.TipoAccion tipo = CodecBinario.tipoAccion(datos.get());
+                clientes[i] = CodecBinario.leerVarInt(datos);
+                LocalDateTime fecha = CodecBinario.leerFecha(datos);
+                long idGrupo = CodecBinario.leerVarLong(datos);
+                String grupo = idGrupo != 0 ? codec.leerTexto(datos) : null;
+                acciones[i] = new Action(tipo, tabla[clientes[i]], fecha, idGrupo, grupo);
+            }
+            return new PilaAcciones(acciones, clientes);
+        }
+    }
+
+    private Instantanea(long secuencia, int contadorId, Cliente[] clientes, int[] cola, int[] atendidos,
+            PilaAcciones acciones, PilaAcciones deshechas, long contadorGrupos, long idGrupoAbierto,
+            String nombreGrupoAbierto) {
+        this.secuencia = secuencia;
+        this.contadorId = contadorId;
+        this.clientes = clientes;
+        this.cola = cola;
+        this.atendidos = atendidos;
+        this.acciones = acciones;
+        this.deshechas = deshechas;
+        this.contadorGrupos = contadorGrupos;
+        this.idGrupoAbierto = idGrupoAbierto;
+        this.nombreGrupoAbierto = nombreGrupoAbierto;
+    }
+
+    /**
+     * Captura el estado actual del modelo.
+     *
+     * @param modelo Modelo a capturar
+     * @param secuencia Última secuencia de bitácora contenida en el estado
+     * @return Instantánea del modelo
+     */
+    public static Instantanea capturar(Modelo modelo, long secuencia) {
+        Map<Cliente, Integer> indices = new IdentityHashMap<>();
+        List<Cliente> tabla = new ArrayList<>();
+
+        List<Cliente> enEspera = modelo.getGestionClientes().getClientesEnEspera();
+        int[] cola = new int[enEspera.size()];
+        for (int i = 0; i < cola.length; i++) {
+            cola[i] = indice(enEspera.get(i), indices, tabla);
+        }
+
+        List<Cliente> atendidosLista = modelo.getHistorial().getClientesAtendidos();
+        int[] atendidos = new int[atendidosLista.size()];
+        int posicion = 0;
+        for (Cliente cliente : atendidosLista) {
+            atendidos[posicion++] = indice(cliente, indices, tabla);
+        }
+
+        RegistroAcciones registro = modelo.getRegistroAcciones();
+        PilaAcciones acciones = PilaAcciones.capturar(registro.getTodasLasActions(), indices, tabla);
+        PilaAcciones deshechas = PilaAcciones.capturar(registro.getTodasLasActionsDeshechas(), indices, tabla);
+
+        return new Instantanea(secuencia, modelo.getGestionClientes().getContadorId(),
+                tabla.toArray(new Cliente[0]), cola, atendidos, acciones, deshechas, registro.getContadorGrupos(),
+                registro.getIdGrupoAbierto(), registro.getNombreGrupoAbierto());
+    }
+
+    private static int indice(Cliente cliente, Map<Cliente, Integer> indices, List<Cliente> tabla) {
+        Integer indice = indices.get(cliente);
+        if (indice == null) {
+            indice = tabla.size();
+            indices.put(cliente, indice);
+            // Copia para que los cambios posteriores del cliente no alteren la instantánea
+            tabla.add(cliente.copiar());
+        }
+        return indice;
+    }
+
+    /**
+     * Obtiene la última secuencia de bitácora contenida en la instantánea.
+     *
+     * @return Secuencia de la instantánea
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Escribe la instantánea en el directorio indicado. Se escribe primero a
+     * un archivo temporal que luego se renombra, de modo que nunca queda una
+     * instantánea a medio escribir.
+     *
+     * @param directorio Directorio de persistencia
+     * @return Ruta del archivo escrito
+     * @throws IOException si no se puede escribir
+     */
+    public Path escribir(Path directorio) throws IOException {
+        Path destino = directorio.resolve(nombreArchivo(secuencia));
+        Path temporal = directorio.resolve(nombreArchivo(secuencia) + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escribir(canal);
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return destino;
+    }
+
+    /**
+     * Escribe la instantánea en la posición actual del canal, sin forzarla a
+     * disco. Permite incrustarla al inicio de otros archivos, como las
+     * trazas de sesión.
+     *
+     * @param canal Canal de destino
+     * @throws IOException si no se puede escribir
+     */
+    void escribir(FileChannel canal) throws IOException {
+        CodecBinario codec = new CodecBinario();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+        buffer.putInt(MAGIA);
+        buffer.put(VERSION);
+        CodecBinario.escribirVarLong(buffer, secuencia);
+        CodecBinario.escribirVarInt(buffer, contadorId);
+
+        CodecBinario.escribirVarInt(buffer, clientes.length);
+        for (Cliente cliente : clientes) {
+            buffer = asegurarEspacio(canal, buffer, CodecBinario.tamanoCliente(cliente));
+            codec.escribirCliente(buffer, cliente);
+        }
+        buffer = escribirIndices(canal, buffer, cola);
+        buffer = escribirIndices(canal, buffer, atendidos);
+        buffer = acciones.escribir(canal, buffer);
+        buffer = deshechas.escribir(canal, buffer);
+        String grupoAbierto = nombreGrupoAbierto != null ? nombreGrupoAbierto : "";
+        buffer = asegurarEspacio(canal, buffer, 20 + CodecBinario.tamanoTexto(grupoAbierto));
+        CodecBinario.escribirVarLong(buffer, contadorGrupos);
+        CodecBinario.escribirVarLong(buffer, idGrupoAbierto);
+        CodecBinario.escribirTexto(buffer, grupoAbierto);
+        volcar(canal, buffer);
+    }
+
+    private static ByteBuffer escribirIndices(FileChannel canal, ByteBuffer buffer, int[] indices) throws IOException {
+        buffer = asegurarEspacio(canal, buffer, 5);
+        CodecBinario.escribirVarInt(buffer, indices.length);
+        for (int indice : indices) {
+            buffer = asegurarEspacio(canal, buffer, 5);
+            CodecBinario.escribirVarInt(buffer, indice);
+        }
+        return buffer;
+    }
+
+    /**
+     * Vuelca el buffer al canal si no tiene espacio para el siguiente
+     * registro; si el registro es más grande que el buffer, devuelve uno
+     * nuevo con capacidad suficiente.
+     */
+    private static ByteBuffer asegurarEspacio(FileChannel canal, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        volcar(canal, buffer);
+        if (buffer.capacity() < bytes) {
+            return ByteBuffer.allocateDirect(bytes);
+        }
+        return buffer;
+    }
+
+    private static void volcar(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Lee una instantánea mapeando el archivo en memoria.
+     *
+     * @param archivo Archivo de la instantánea
+     * @return Instantánea leída
+     * @throws IOException si el archivo no se puede leer o no es válido
+     */
+    public static Instantanea leer(Path archivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            return leer(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()), archivo.toString());
+        }
+    }
+
+    /**
+     * Lee una instantánea desde la posición actual del buffer, que queda
+     * justo después de ella.
+     *
+     * @param datos Buffer con la instantánea
+     * @param origen Descripción del origen para los mensajes de error
+     * @return Instantánea leída
+     * @throws IOException si los datos no son una instantánea válida
+     */
+    static Instantanea leer(ByteBuffer datos, String origen) throws IOException {
+        try {
+            if (datos.remaining() < Integer.BYTES + 1 || datos.getInt() != MAGIA || datos.get() != VERSION) {
+                throw new IOException("Instantánea no válida: " + origen);
+            }
+            long secuencia = CodecBinario.leerVarLong(datos);
+            int contadorId = CodecBinario.leerVarInt(datos);
+
+            CodecBinario codec = new CodecBinario();
+            Cliente[] clientes = new Cliente[CodecBinario.leerVarInt(datos)];
+            for (int i = 0; i < clientes.length; i++) {
+                clientes[i] = codec.leerCliente(datos);
+            }
+            int[] cola = leerIndices(datos);
+            int[] atendidos = leerIndices(datos);
+            PilaAcciones acciones = PilaAcciones.leer(datos, codec, clientes);
+            PilaAcciones deshechas = PilaAcciones.leer(datos, codec, clientes);
+            long contadorGrupos = CodecBinario.leerVarLong(datos);
+            long idGrupoAbierto = CodecBinario.leerVarLong(datos);
+            String nombreGrupoAbierto = codec.leerTexto(datos);
+            return new Instantanea(secuencia, contadorId, clientes, cola, atendidos, acciones, deshechas,
+                    contadorGrupos, idGrupoAbierto, idGrupoAbierto != 0 ? nombreGrupoAbierto : null);
+        } catch (RuntimeException ex) {
+            throw new IOException("Instantánea dañada: " + origen, ex);
+        }
+    }
+
+    private static int[] leerIndices(ByteBuffer datos) {
+        int[] indices = new int[CodecBinario.leerVarInt(datos)];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = CodecBinario.leerVarInt(datos);
+        }
+        return indices;
+    }
+
+    /**
+     * Construye un modelo nuevo con el estado de la instantánea.
+     *
+     * @param reloj Reloj que usará el modelo restaurado
+     * @return Modelo restaurado
+     */
+    public Modelo restaurar(Clock reloj) {
+        Modelo modelo = new Modelo(reloj);
+        for (int indice : cola) {
+            modelo.getGestionClientes().agregarClienteExistente(clientes[indice]);
+        }
+        for (int indice : atendidos) {
+            modelo.getHistorial().agregarAtendido(clientes[indice]);
+        }
+        RegistroAcciones registro = modelo.getRegistroAcciones();
+        for (Action accion : acciones.acciones) {
+            registro.restaurarAction(accion);
+        }
+        for (Action accion : deshechas.acciones) {
+            registro.restaurarActionDeshecha(accion);
+        }
+        registro.restaurarGrupos(contadorGrupos, idGrupoAbierto, nombreGrupoAbierto);
+        modelo.getGestionClientes().setContadorId(contadorId);
+        return modelo;
+    }
+
+    static String nombreArchivo(long secuencia) {
+        return String.format("%s%020d%s", PREFIJO, secuencia, SUFIJO);
+    }
+
+    static long secuenciaDe(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length()));
+    }
+}
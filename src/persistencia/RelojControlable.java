@@ -0,0 +1,72 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Reloj que normalmente delega en un reloj base, pero que puede fijarse en
+ * un instante concreto. Se utiliza al reproducir la bitácora para que las
+ * operaciones vuelvan a fecharse exactamente igual que cuando ocurrieron.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class RelojControlable extends Clock {
+
+    private final Clock base;
+    private volatile Instant fijo;
+
+    /**
+     * Constructor que crea un reloj controlable sobre el reloj del sistema.
+     */
+    public RelojControlable() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor que crea un reloj controlable sobre un reloj base.
+     *
+     * @param base Reloj usado mientras no haya un instante fijado
+     */
+    public RelojControlable(Clock base) {
+        this.base = base;
+    }
+
+    /**
+     * Fija el reloj en la fecha/hora local indicada.
+     *
+     * @param fechaHora Fecha y hora que devolverá el reloj
+     */
+    public void fijar(LocalDateTime fechaHora) {
+        this.fijo = fechaHora.atZone(base.getZone()).toInstant();
+    }
+
+    /**
+     * Libera el reloj para que vuelva a seguir al reloj base.
+     */
+    public void liberar() {
+        this.fijo = null;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return base.getZone();
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new RelojControlable(base.withZone(zone));
+    }
+
+    @Override
+    public Instant instant() {
+        Instant instante = fijo;
+        return instante != null ? instante : base.instant();
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import modelo.Modelo;
+
+/**
+ * Lado en espera de la replicación: se conecta a un {@link ReplicaPrimaria},
+ * aplica su bitácora sobre un modelo propio y, cuando el primario deja de
+ * responder, entrega ese modelo para tomar su lugar con la cola al día.
+ *
+ * Los registros se aplican con las mismas reglas que al recuperar la
+ * bitácora del disco, así que cualquier diferencia con el primario se
+ * detecta en el registro donde ocurre. Se considera que el primario cayó
+ * si cierra la conexión o si pasan {@link #TIEMPO_SIN_LATIDOS_MS} sin
+ * recibir nada.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ReplicaEspera {
+
+    /**
+     * Tiempo sin datos ni latidos tras el cual se toma el lugar del primario.
+     */
+    public static final int TIEMPO_SIN_LATIDOS_MS = 5000;
+
+    private static final long ESPERA_RECONEXION_MS = 500;
+
+    private final InetSocketAddress primario;
+    private final RelojControlable reloj;
+    private final CodecBinario codec;
+    private Modelo modelo;
+    private ByteBuffer pendiente;
+    // Se lee desde otros hilos mientras se sigue al primario
+    private volatile long secuencia;
+    private long registrosAplicados;
+    private long lotesRecibidos;
+    private long bytesRecibidos;
+    private String motivoRelevo;
+
+    /**
+     * Constructor que prepara un modelo vacío para replicar al primario.
+     *
+     * @param host Host del primario
+     * @param puerto Puerto de replicación del primario
+     */
+    public ReplicaEspera(String host, int puerto) {
+        this.primario = new InetSocketAddress(host, puerto);
+        this.reloj = new RelojControlable();
+        this.codec = new CodecBinario();
+        this.modelo = new Modelo(reloj);
+        this.pendiente = ByteBuffer.allocate(1 << 16);
+    }
+
+    /**
+     * Crea una réplica a partir de una dirección {@code host:puerto}.
+     *
+     * @param direccion Dirección del primario
+     * @return Réplica sin conectar
+     */
+    public static ReplicaEspera desde(String direccion) {
+        int separador = direccion.lastIndexOf(':');
+        if (separador < 0) {
+            return new ReplicaEspera("localhost", Integer.parseInt(direccion));
+        }
+        return new ReplicaEspera(direccion.substring(0, separador),
+                Integer.parseInt(direccion.substring(separador + 1)));
+    }
+
+    /**
+     * Sigue al primario hasta que deja de responder. Mientras el primario no
+     * acepte conexiones se reintenta; una vez conectado, perder la conexión
+     * significa tomar su lugar.
+     *
+     * @return Modelo replicado, listo para usarse como primario
+     * @throws IllegalStateException si los datos recibidos no coinciden con
+     * el modelo replicado
+     * @throws InterruptedException si se interrumpe la espera de conexión
+     */
+    public Modelo seguir() throws InterruptedException {
+        try (Socket socket = conectar()) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(TIEMPO_SIN_LATIDOS_MS);
+            DataOutputStream salida = new DataOutputStream(socket.getOutputStream());
+            salida.writeInt(ReplicaPrimaria.MAGIA);
+            salida.writeLong(secuencia);
+            salida.flush();
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            while (true) {
+                byte tipo = entrada.readByte();
+                if (tipo == ReplicaPrimaria.BITACORA) {
+                    recibirLote(entrada, entrada.readInt());
+                } else if (tipo == ReplicaPrimaria.INSTANTANEA) {
+                    recibirInstantanea(entrada, entrada.readLong());
+                } else if (tipo != ReplicaPrimaria.LATIDO) {
+                    throw new IllegalStateException("Mensaje de replicación desconocido: " + tipo);
+                }
+            }
+        } catch (SocketTimeoutException ex) {
+            motivoRelevo = "sin noticias del primario durante " + TIEMPO_SIN_LATIDOS_MS + " ms";
+        } catch (EOFException ex) {
+            motivoRelevo = "el primario cerró la conexión";
+        } catch (IOException ex) {
+            motivoRelevo = "conexión perdida (" + ex.getMessage() + ")";
+        }
+        // Un grupo a medio llegar queda cerrado para que el modelo acepte
+        // operaciones; sus acciones recibidas se deshacen juntas.
+        reloj.liberar();
+        modelo.finalizarGrupo();
+        return modelo;
+    }
+
+    private Socket conectar() throws InterruptedException {
+        while (true) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(primario, TIEMPO_SIN_LATIDOS_MS);
+                return socket;
+            } catch (IOException ex) {
+                try {
+                    socket.close();
+                } catch (IOException ignorada) {
+                    // El socket nunca llegó a conectarse.
+                }
+                Thread.sleep(ESPERA_RECONEXION_MS);
+            }
+        }
+    }
+
+    private void recibirLote(DataInputStream entrada, int longitud) throws IOException {
+        if (pendiente.remaining() < longitud) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(pendiente.capacity() * 2, pendiente.position() + longitud));
+            pendiente.flip();
+            mayor.put(pendiente);
+            pendiente = mayor;
+        }
+        entrada.readFully(pendiente.array(), pendiente.position(), longitud);
+        pendiente.position(pendiente.position() + longitud);
+        lotesRecibidos++;
+        bytesRecibidos += longitud;
+
+        // El lote puede terminar a mitad de un registro; el resto queda
+        // pendiente hasta el siguiente.
+        pendiente.flip();
+        while (pendiente.remaining() >= Integer.BYTES) {
+            int tamano = pendiente.getInt(pendiente.position());
+            if (pendiente.remaining() < Integer.BYTES + tamano) {
+                break;
+            }
+            pendiente.position(pendiente.position() + Integer.BYTES);
+            int fin = pendiente.position() + tamano;
+            long registro = CodecBinario.leerVarLong(pendiente);
+            if (registro > secuencia + 1) {
+                throw new IllegalStateException("Falta la secuencia " + (secuencia + 1)
+                        + " en la bitácora recibida: el primario continúa en la " + registro);
+            }
+            if (registro > secuencia) {
+                Bitacora.aplicar(pendiente, codec, modelo, reloj);
+                secuencia = registro;
+                registrosAplicados++;
+            }
+            pendiente.position(fin);
+        }
+        pendiente.compact();
+    }
+
+    private void recibirInstantanea(DataInputStream entrada, long longitud) throws IOException {
+        if (longitud > Integer.MAX_VALUE) {
+            throw new IOException("Instantánea demasiado grande: " + longitud + " bytes");
+        }
+        byte[] datos = new byte[(int) longitud];
+        entrada.readFully(datos);
+        Instantanea instantanea;
+        try {
+            instantanea = Instantanea.leer(ByteBuffer.wrap(datos), "primario " + primario);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+        modelo = instantanea.restaurar(reloj);
+        secuencia = instantanea.getSecuencia();
+        pendiente.clear();
+        bytesRecibidos += longitud;
+    }
+
+    /**
+     * Obtiene la última secuencia de bitácora aplicada.
+     *
+     * @return Secuencia del primario contenida en el modelo
+     */
+    public long getSecuencia() {
+        return secuencia;
+    }
+
+    /**
+     * Genera un resumen de la replicación y del relevo.
+     *
+     * @return Texto con el motivo del relevo y lo recibido
+     */
+    public String generarReporte() {
+        return String.format("Relevo del primario %s: %s%n"
+                + "Secuencia: %d, registros aplicados: %d en %d lotes (%d bytes)%n"
+                + "Clientes en espera: %d, atendidos: %d",
+                primario, motivoRelevo != null ? motivoRelevo : "-", secuencia, registrosAplicados, lotesRecibidos,
+                bytesRecibidos, modelo.getGestionClientes().getCantidadClientesEnEspera(),
+                modelo.getHistorial().getCantidadAtendidos());
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import modelo.Action;
+import modelo.ObservadorModelo;
+
+/**
+ * Lado primario de la replicación: envía la bitácora del modelo a un
+ * proceso en espera ({@link ReplicaEspera}) por un socket TCP.
+ *
+ * No se vuelve a codificar nada: se envían los bytes de los segmentos de la
+ * bitácora tal como los escribió {@link GestorPersistencia}, con
+ * {@link FileChannel#transferTo} para que el sistema operativo los copie del
+ * archivo al socket sin pasar por la JVM. Todo lo escrito desde el último
+ * envío viaja en un solo lote, así que con mucha carga se envían pocos
+ * lotes grandes. Si la réplica necesita segmentos que ya se borraron, porque
+ * viene de una secuencia antigua o porque se quedó atrás mientras se
+ * tomaba una instantánea, se le envía la última instantánea y se sigue
+ * desde ella.
+ *
+ * Protocolo: la réplica saluda con {@link #MAGIA} (int) y la última
+ * secuencia que tiene (long). Luego el primario envía mensajes de tipo
+ * {@link #INSTANTANEA} (long con la longitud y el archivo), {@link #BITACORA}
+ * (int con la longitud y bytes de registros, que pueden cortar un registro
+ * a la mitad) o {@link #LATIDO} (sin datos) cuando no hubo cambios.
+ *
+ * Se atiende una réplica a la vez; si se desconecta se espera la siguiente.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ReplicaPrimaria implements ObservadorModelo, Closeable {
+
+    static final int MAGIA = 0x5245504C;
+    static final byte INSTANTANEA = 'I';
+    static final byte BITACORA = 'B';
+    static final byte LATIDO = 'L';
+
+    /**
+     * Tiempo sin cambios tras el cual se envía un latido.
+     */
+    static final long INTERVALO_LATIDO_MS = 1000;
+
+    private static final Logger LOGGER = Logger.getLogger(ReplicaPrimaria.class.getName());
+
+    private static final int TAMANO_LOTE_MAXIMO = 1 << 20;
+    private static final long ESPERA_SIN_CAMBIOS_NS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long INTERVALO_REVISION_NS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final GestorPersistencia gestor;
+    private final Path directorio;
+    private final ServerSocketChannel servidor;
+    private final ByteBuffer encabezado;
+    private final Thread hilo;
+    private volatile SocketChannel replica;
+    private volatile boolean activo;
+    private volatile long lotesEnviados;
+    private volatile long bytesEnviados;
+
+    private ReplicaPrimaria(GestorPersistencia gestor, ServerSocketChannel servidor) {
+        this.gestor = gestor;
+        this.directorio = gestor.getDirectorio();
+        this.servidor = servidor;
+        this.encabezado = ByteBuffer.allocate(1 + Long.BYTES);
+        this.activo = true;
+        this.hilo = new Thread(this::ejecutar, "replica-primaria");
+        this.hilo.setDaemon(true);
+    }
+
+    /**
+     * Comienza a aceptar réplicas en el puerto indicado.
+     *
+     * @param gestor Persistencia del modelo cuya bitácora se replica
+     * @param puerto Puerto TCP, o 0 para elegir uno libre
+     * @return Primario iniciado
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public static ReplicaPrimaria iniciar(GestorPersistencia gestor, int puerto) throws IOException {
+        ServerSocketChannel servidor = ServerSocketChannel.open();
+        servidor.bind(new InetSocketAddress(puerto));
+        ReplicaPrimaria primaria = new ReplicaPrimaria(gestor, servidor);
+        gestor.getModelo().agregarObservador(primaria);
+        primaria.hilo.start();
+        return primaria;
+    }
+
+    /**
+     * Obtiene el puerto en el que se aceptan réplicas.
+     *
+     * @return Puerto TCP
+     * @throws IOException si el servidor está cerrado
+     */
+    public int getPuerto() throws IOException {
+        return ((InetSocketAddress) servidor.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Obtiene la cantidad de lotes de bitácora enviados.
+     *
+     * @return Lotes enviados a todas las réplicas
+     */
+    public long getLotesEnviados() {
+        return lotesEnviados;
+    }
+
+    /**
+     * Obtiene la cantidad de bytes de bitácora enviados.
+     *
+     * @return Bytes enviados a todas las réplicas
+     */
+    public long getBytesEnviados() {
+        return bytesEnviados;
+    }
+
+    private void ejecutar() {
+        while (activo) {
+            try (SocketChannel conectada = servidor.accept()) {
+                conectada.socket().setTcpNoDelay(true);
+                replica = conectada;
+                enviarBitacora(conectada);
+            } catch (IOException ex) {
+                if (activo) {
+                    LOGGER.log(Level.WARNING, "Réplica desconectada: {0}", ex.getMessage());
+                }
+            } finally {
+                replica = null;
+            }
+        }
+    }
+
+    private void enviarBitacora(SocketChannel destino) throws IOException {
+        ByteBuffer saludo = ByteBuffer.allocate(Integer.BYTES + Long.BYTES);
+        while (saludo.hasRemaining()) {
+            if (destino.read(saludo) < 0) {
+                throw new IOException("La réplica cerró la conexión antes de saludar");
+            }
+        }
+        saludo.flip();
+        if (saludo.getInt() != MAGIA) {
+            throw new IOException("Saludo de réplica no válido");
+        }
+        long desde = saludo.getLong();
+
+        Path segmento = null;
+        FileChannel canal = null;
+        try {
+            long posicion = 0;
+            long ultimoEnvio = System.nanoTime();
+            long ultimaRevision = 0;
+            while (activo) {
+                if (canal == null) {
+                    // Si los segmentos que siguen a la réplica ya se borraron,
+                    // o se borran mientras se abren, se envía la instantánea
+                    // que los reemplazó y se continúa desde ella
+                    List<Path> segmentos = Bitacora.segmentos(directorio);
+                    if (desde + 1 < Bitacora.inicioDe(segmentos.get(0))) {
+                        desde = enviarInstantanea(destino);
+                        continue;
+                    }
+                    segmento = segmentoCon(segmentos, desde + 1);
+                    try {
+                        canal = FileChannel.open(segmento, StandardOpenOption.READ);
+                    } catch (NoSuchFileException ex) {
+                        continue;
+                    }
+                    posicion = 0;
+                }
+                long tamano = canal.size();
+                if (posicion < tamano) {
+                    posicion += enviarLote(destino, canal, posicion, tamano - posicion);
+                    ultimoEnvio = System.nanoTime();
+                    continue;
+                }
+                long ahora = System.nanoTime();
+                if (ahora - ultimaRevision >= INTERVALO_REVISION_NS) {
+                    // Al rotar, el segmento anterior se cierra antes de crear
+                    // el siguiente: si ya existe uno posterior, el actual no
+                    // crecerá más y se puede pasar al siguiente. Los
+                    // segmentos se borran del más antiguo al más nuevo, así
+                    // que si el actual sigue en el disco, el primero posterior
+                    // es el que continúa su numeración; si no, se retoma
+                    // desde la instantánea que los reemplazó.
+                    ultimaRevision = ahora;
+                    Path siguiente = segmentoPosterior(Bitacora.inicioDe(segmento));
+                    if (siguiente != null && canal.size() == posicion) {
+                        canal.close();
+                        canal = null;
+                        desde = Files.exists(segmento) ? Bitacora.inicioDe(siguiente) - 1
+                                : Bitacora.inicioDe(segmento) - 1;
+                        continue;
+                    }
+                }
+                if (ahora - ultimoEnvio >= TimeUnit.MILLISECONDS.toNanos(INTERVALO_LATIDO_MS)) {
+                    escribirEncabezado(destino, LATIDO, -1);
+                    ultimoEnvio = ahora;
+                }
+                LockSupport.parkNanos(this, ESPERA_SIN_CAMBIOS_NS);
+            }
+        } finally {
+            if (canal != null) {
+                canal.close();
+            }
+        }
+    }
+
+    private long enviarLote(SocketChannel destino, FileChannel canal, long posicion, long disponibles)
+            throws IOException {
+        int longitud = (int) Math.min(disponibles, TAMANO_LOTE_MAXIMO);
+        escribirEncabezado(destino, BITACORA, longitud);
+        transferir(canal, posicion, longitud, destino);
+        lotesEnviados++;
+        bytesEnviados += longitud;
+        return longitud;
+    }
+
+    /**
+     * Envía la instantánea más reciente del directorio.
+     *
+     * @return Secuencia de la instantánea enviada
+     */
+    private long enviarInstantanea(SocketChannel destino) throws IOException {
+        while (true) {
+            List<Path> instantaneas = GestorPersistencia.instantaneas(directorio);
+            if (instantaneas.isEmpty()) {
+                throw new IOException("Faltan segmentos de bitácora y no hay instantánea para enviar");
+            }
+            Path archivo = instantaneas.get(instantaneas.size() - 1);
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                long tamano = canal.size();
+                encabezado.clear();
+                encabezado.put(INSTANTANEA).putLong(tamano).flip();
+                escribirTodo(destino, encabezado);
+                transferir(canal, 0, tamano, destino);
+                return Instantanea.secuenciaDe(archivo);
+            } catch (NoSuchFileException ex) {
+                // Se borró al escribirse una más nueva; se envía esa.
+            }
+        }
+    }
+
+    private void escribirEncabezado(SocketChannel destino, byte tipo, int longitud) throws IOException {
+        encabezado.clear();
+        encabezado.put(tipo);
+        if (longitud >= 0) {
+            encabezado.putInt(longitud);
+        }
+        encabezado.flip();
+        escribirTodo(destino, encabezado);
+    }
+
+    private static void transferir(FileChannel origen, long posicion, long longitud, SocketChannel destino)
+            throws IOException {
+        long enviados = 0;
+        while (enviados < longitud) {
+            long parcial = origen.transferTo(posicion + enviados, longitud - enviados, destino);
+            if (parcial <= 0 && origen.size() < posicion + longitud) {
+                throw new IOException("El archivo se acortó durante el envío");
+            }
+            enviados += parcial;
+        }
+    }
+
+    private static void escribirTodo(SocketChannel destino, ByteBuffer datos) throws IOException {
+        while (datos.hasRemaining()) {
+            destino.write(datos);
+        }
+    }
+
+    private static Path segmentoCon(List<Path> segmentos, long secuencia) {
+        Path elegido = segmentos.get(0);
+        for (Path segmento : segmentos) {
+            if (Bitacora.inicioDe(segmento) <= secuencia) {
+                elegido = segmento;
+            }
+        }
+        return elegido;
+    }
+
+    private Path segmentoPosterior(long inicio) throws IOException {
+        for (Path segmento : Bitacora.segmentos(directorio)) {
+            if (Bitacora.inicioDe(segmento) > inicio) {
+                return segmento;
+            }
+        }
+        return null;
+    }
+
+    private void despertar() {
+        LockSupport.unpark(hilo);
+    }
+
+    @Override
+    public void accionRegistrada(Action accion) {
+        despertar();
+    }
+
+    @Override
+    public void accionDeshecha(Action accion) {
+        despertar();
+    }
+
+    @Override
+    public void accionRehecha(Action accion) {
+        despertar();
+    }
+
+    @Override
+    public void grupoIniciado(String nombre) {
+        despertar();
+    }
+
+    @Override
+    public void grupoFinalizado() {
+        despertar();
+    }
+
+    /**
+     * Deja de aceptar réplicas y cierra la conexión vigente.
+     *
+     * @throws IOException si no se puede cerrar el servidor
+     */
+    @Override
+    public void close() throws IOException {
+        activo = false;
+        gestor.getModelo().removerObservador(this);
+        servidor.close();
+        SocketChannel conectada = replica;
+        if (conectada != null) {
+            conectada.close();
+        }
+        despertar();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.LockSupport;
+import modelo.Modelo;
+import modelo.PoliticaAtencion;
+
+/**
+ * Reproduce sin interfaz gráfica una traza grabada con
+ * {@link GrabadorSesion}. Restaura el estado inicial de la traza, fija el
+ * reloj del modelo en la fecha de cada operación y la aplica, de modo que
+ * las fechas de llegada y atención, el orden de atención y las
+ * estadísticas resultan idénticos a los de la sesión original.
+ *
+ * Cada atención se compara con el cliente que se atendió al grabar; la
+ * primera diferencia detiene la reproducción y queda en el resultado. Al
+ * final se comparan las estadísticas con las guardadas en la traza.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class ReproductorSesion {
+
+    private ReproductorSesion() {
+    }
+
+    /**
+     * Reproduce una traza a máxima velocidad.
+     *
+     * @param archivo Archivo de la traza
+     * @return Resultado de la reproducción
+     * @throws IOException si la traza no se puede leer o no es válida
+     */
+    public static ResultadoReproduccion reproducir(Path archivo) throws IOException {
+        return reproducir(archivo, 0);
+    }
+
+    /**
+     * Reproduce una traza respetando los intervalos entre operaciones
+     * divididos por la escala indicada: 1 reproduce en tiempo real, 10 diez
+     * veces más rápido y 0 sin esperas.
+     *
+     * @param archivo Archivo de la traza
+     * @param escala Factor de aceleración, o 0 para máxima velocidad
+     * @return Resultado de la reproducción
+     * @throws IOException si la traza no se puede leer o no es válida
+     */
+    public static ResultadoReproduccion reproducir(Path archivo, double escala) throws IOException {
+        if (escala < 0 || Double.isNaN(escala)) {
+            throw new IllegalArgumentException("La escala debe ser cero o positiva");
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            PoliticaAtencion politica;
+            try {
+                if (datos.remaining() < Integer.BYTES + 1 || datos.getInt() != GrabadorSesion.MAGIA
+                        || datos.get() != GrabadorSesion.VERSION) {
+                    throw new IOException("Traza no válida: " + archivo);
+                }
+                politica = PoliticaAtencion.valueOf(new CodecBinario().leerTexto(datos));
+            } catch (RuntimeException ex) {
+                throw new IOException("Traza dañada: " + archivo, ex);
+            }
+            RelojControlable reloj = new RelojControlable();
+            Modelo modelo = Instantanea.leer(datos, archivo.toString()).restaurar(reloj);
+            modelo.getGestionClientes().setPoliticaAtencion(politica);
+            return reproducir(datos, modelo, reloj, escala);
+        }
+    }
+
+    private static ResultadoReproduccion reproducir(ByteBuffer datos, Modelo modelo, RelojControlable reloj,
+            double escala) {
+        CodecBinario codec = new CodecBinario();
+        long operaciones = 0;
+        String estadisticasGrabadas = null;
+        String divergencia = null;
+        LocalDateTime primera = null;
+        long inicio = System.nanoTime();
+        try {
+            while (datos.remaining() >= Integer.BYTES) {
+                int longitud = datos.getInt();
+                if (datos.remaining() < longitud) {
+                    break;
+                }
+                int fin = datos.position() + longitud;
+                long secuencia = CodecBinario.leerVarLong(datos);
+                byte operacion = datos.get(datos.position());
+                if (operacion == Bitacora.CIERRE) {
+                    datos.get();
+                    estadisticasGrabadas = codec.leerTexto(datos);
+                    break;
+                }
+                if (escala > 0 && operacion != Bitacora.GRUPO_INICIADO && operacion != Bitacora.GRUPO_FINALIZADO) {
+                    datos.get();
+                    LocalDateTime fecha = CodecBinario.leerFechaAccion(datos);
+                    datos.position(datos.position() - 1);
+                    if (primera == null) {
+                        primera = fecha;
+                    } else {
+                        esperarHasta(inicio + (long) (Duration.between(primera, fecha).toNanos() / escala));
+                    }
+                }
+                try {
+                    Bitacora.aplicar(datos, codec, modelo, reloj);
+                } catch (IllegalStateException ex) {
+                    divergencia = "Registro " + secuencia + ": " + ex.getMessage();
+                    break;
+                }
+                operaciones++;
+                datos.position(fin);
+            }
+        } finally {
+            reloj.liberar();
+        }
+        long nanos = System.nanoTime() - inicio;
+        return new ResultadoReproduccion(modelo, operaciones, nanos, estadisticasGrabadas,
+                modelo.generarEstadisticas(), divergencia);
+    }
+
+    private static void esperarHasta(long instanteNanos) {
+        long restante;
+        while ((restante = instanteNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una importación CSV: filas importadas y rechazadas, los
+ * primeros errores con su número de línea y el rendimiento en filas por
+ * segundo.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ResultadoImportacion {
+
+    private static final int ERRORES_MAXIMOS = 10;
+
+    private final Path archivo;
+    private long importadas;
+    private long rechazadas;
+    private final List<String> errores;
+    private long nanos;
+
+    ResultadoImportacion(Path archivo) {
+        this.archivo = archivo;
+        this.errores = new ArrayList<>();
+    }
+
+    void aceptar() {
+        importadas++;
+    }
+
+    void rechazar(long linea, String motivo) {
+        rechazadas++;
+        if (errores.size() < ERRORES_MAXIMOS) {
+            errores.add("Línea " + linea + ": " + motivo);
+        }
+    }
+
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * Obtiene la cantidad de filas importadas.
+     *
+     * @return Clientes agregados al modelo
+     */
+    public long getImportadas() {
+        return importadas;
+    }
+
+    /**
+     * Obtiene la cantidad de filas rechazadas.
+     *
+     * @return Filas inválidas omitidas
+     */
+    public long getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * Obtiene los primeros errores encontrados.
+     *
+     * @return Hasta diez errores con su número de línea
+     */
+    public List<String> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+
+    /**
+     * Obtiene las filas procesadas por segundo, contando las rechazadas.
+     *
+     * @return Filas por segundo
+     */
+    public double getFilasPorSegundo() {
+        return nanos > 0 ? (importadas + rechazadas) / (nanos / 1e9) : 0;
+    }
+
+    /**
+     * Genera un reporte de texto de la importación.
+     *
+     * @return Reporte con las filas importadas, rechazadas y el rendimiento
+     */
+    public String generarReporte() {
+        StringBuilder reporte = new StringBuilder();
+        reporte.append(String.format("Importación de %s: %d filas importadas, %d rechazadas en %.2f s (%.0f filas/s)",
+                archivo.getFileName(), importadas, rechazadas, nanos / 1e9, getFilasPorSegundo()));
+        for (String error : errores) {
+            reporte.append("\n  ").append(error);
+        }
+        if (rechazadas > errores.size()) {
+            reporte.append("\n  ...");
+        }
+        return reporte.toString();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import modelo.Modelo;
+
+/**
+ * Resultado de reproducir una traza de sesión con {@link ReproductorSesion}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class ResultadoReproduccion {
+
+    private final Modelo modelo;
+    private final long operaciones;
+    private final long nanosReales;
+    private final String estadisticasGrabadas;
+    private final String estadisticas;
+    private final String divergencia;
+
+    ResultadoReproduccion(Modelo modelo, long operaciones, long nanosReales, String estadisticasGrabadas,
+            String estadisticas, String divergencia) {
+        this.modelo = modelo;
+        this.operaciones = operaciones;
+        this.nanosReales = nanosReales;
+        this.estadisticasGrabadas = estadisticasGrabadas;
+        this.estadisticas = estadisticas;
+        this.divergencia = divergencia;
+    }
+
+    /**
+     * Obtiene el modelo en el estado en que quedó tras la reproducción.
+     *
+     * @return Modelo reproducido
+     */
+    public Modelo getModelo() {
+        return modelo;
+    }
+
+    /**
+     * Obtiene la cantidad de operaciones aplicadas.
+     *
+     * @return Operaciones reproducidas
+     */
+    public long getOperaciones() {
+        return operaciones;
+    }
+
+    /**
+     * Obtiene el tiempo real que tomó la reproducción.
+     *
+     * @return Nanosegundos transcurridos
+     */
+    public long getNanosReales() {
+        return nanosReales;
+    }
+
+    /**
+     * Calcula la velocidad de la reproducción.
+     *
+     * @return Operaciones por segundo de tiempo real
+     */
+    public double getOperacionesPorSegundo() {
+        return nanosReales > 0 ? operaciones * 1e9 / nanosReales : 0;
+    }
+
+    /**
+     * Obtiene las estadísticas guardadas al cerrar la grabación.
+     *
+     * @return Estadísticas grabadas, o null si la traza no se cerró
+     */
+    public String getEstadisticasGrabadas() {
+        return estadisticasGrabadas;
+    }
+
+    /**
+     * Obtiene las estadísticas del modelo reproducido.
+     *
+     * @return Estadísticas tras la reproducción
+     */
+    public String getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Obtiene la primera diferencia encontrada con la sesión grabada.
+     *
+     * @return Descripción de la diferencia, o null si no hubo ninguna
+     */
+    public String getDivergencia() {
+        return divergencia;
+    }
+
+    /**
+     * Indica si la reproducción coincidió con la sesión grabada: mismo
+     * cliente en cada operación y estadísticas idénticas. Una traza sin
+     * registro de cierre solo se verifica operación por operación.
+     *
+     * @return true si la reproducción es fiel a la grabación
+     */
+    public boolean coincide() {
+        return divergencia == null && (estadisticasGrabadas == null || estadisticasGrabadas.equals(estadisticas));
+    }
+
+    /**
+     * Genera un reporte de texto con el resultado de la reproducción.
+     *
+     * @return Reporte formateado
+     */
+    public String generarReporte() {
+        StringBuilder reporte = new StringBuilder();
+        reporte.append("=== REPRODUCCIÓN DE SESIÓN ===\n\n");
+        reporte.append("Operaciones: ").append(operaciones).append(" en ")
+                .append(String.format("%.1f", nanosReales / 1e6)).append(" ms (")
+                .append(String.format("%.0f", getOperacionesPorSegundo())).append(" operaciones/s)\n");
+        if (divergencia != null) {
+            reporte.append("Divergencia: ").append(divergencia).append("\n");
+        } else {
+            reporte.append("Orden de atención: idéntico\n");
+        }
+        if (estadisticasGrabadas == null) {
+            reporte.append("Estadísticas: la traza no tiene registro de cierre\n");
+        } else if (estadisticasGrabadas.equals(estadisticas)) {
+            reporte.append("Estadísticas: idénticas\n");
+        } else {
+            reporte.append("Estadísticas: DIFERENTES\n\n--- Grabadas ---\n").append(estadisticasGrabadas)
+                    .append("\n--- Reproducidas ---\n");
+        }
+        reporte.append("\n").append(estadisticas);
+        return reporte.toString();
+    }
+}
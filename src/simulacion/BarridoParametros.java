@@ -0,0 +1,286 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import modelo.PoliticaAtencion;
+
+/**
+ * Barrido de parámetros para análisis de "qué pasaría si": recorre la
+ * grilla de tasas de llegada, cantidades de ventanillas, proporciones de
+ * urgentes y políticas de atención, ejecuta réplicas de cada punto y
+ * escribe una fila CSV por punto apenas termina.
+ *
+ * Los puntos se reparten entre los hilos del pool común; cada hilo ejecuta
+ * las réplicas de su punto en secuencia con su propio motor, que queda
+ * preparado para el siguiente punto. Ningún resultado se guarda en memoria
+ * después de escribirse, de modo que el barrido puede tener miles de
+ * puntos.
+ *
+ * Por ejemplo, para saber cuántas ventanillas hacen falta para que el p95
+ * de espera de los urgentes quede bajo 5 minutos con 300 llegadas por hora:
+ * {@code --barrido --tasas 300 --rango-ventanillas 10:20 --politicas
+ * HIBRIDA,PRIORIDAD_ESTRICTA --salida barrido.csv} y filtrar la columna
+ * {@code espera_p95_urgente}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class BarridoParametros {
+
+    private final ConfiguracionSimulacion base;
+    private double[] tasas;
+    private int[] ventanillas;
+    private double[] proporcionesUrgentes;
+    private PoliticaAtencion[] politicas;
+    private int replicas;
+    private long semilla;
+    private double confianza;
+
+    /**
+     * Constructor que toma como base una configuración; cada punto de la
+     * grilla es una copia de ella con los parámetros barridos cambiados.
+     *
+     * @param base Configuración base
+     */
+    public BarridoParametros(ConfiguracionSimulacion base) {
+        this.base = base.copiar();
+        this.tasas = new double[]{base.getTasaLlegadasPorHora()};
+        this.ventanillas = new int[]{base.getVentanillas()};
+        this.proporcionesUrgentes = new double[]{base.getProporcionUrgentes()};
+        this.politicas = new PoliticaAtencion[]{base.getPoliticaAtencion()};
+        this.replicas = 30;
+        this.semilla = 1;
+        this.confianza = 0.95;
+    }
+
+    /**
+     * Establece las tasas de llegada a barrer.
+     *
+     * @param tasas Llegadas por hora
+     */
+    public void setTasas(double... tasas) {
+        this.tasas = tasas.clone();
+    }
+
+    /**
+     * Establece las cantidades de ventanillas a barrer.
+     *
+     * @param ventanillas Cantidades de ventanillas
+     */
+    public void setVentanillas(int... ventanillas) {
+        this.ventanillas = ventanillas.clone();
+    }
+
+    /**
+     * Establece las proporciones de urgentes a barrer.
+     *
+     * @param proporciones Proporciones entre 0 y 1
+     */
+    public void setProporcionesUrgentes(double... proporciones) {
+        this.proporcionesUrgentes = proporciones.clone();
+    }
+
+    /**
+     * Establece las políticas de atención a comparar.
+     *
+     * @param politicas Políticas de atención
+     */
+    public void setPoliticas(PoliticaAtencion... politicas) {
+        this.politicas = politicas.clone();
+    }
+
+    /**
+     * Establece la cantidad de réplicas por punto.
+     *
+     * @param replicas Réplicas por punto
+     */
+    public void setReplicas(int replicas) {
+        if (replicas < 1) {
+            throw new IllegalArgumentException("Debe haber al menos una réplica por punto");
+        }
+        this.replicas = replicas;
+    }
+
+    /**
+     * Establece la semilla base. Todos los puntos usan las mismas semillas
+     * (números aleatorios comunes), lo que reduce la varianza al comparar
+     * puntos entre sí.
+     *
+     * @param semilla Semilla base
+     */
+    public void setSemilla(long semilla) {
+        this.semilla = semilla;
+    }
+
+    /**
+     * Establece el nivel de confianza de los intervalos.
+     *
+     * @param confianza Nivel de confianza, por ejemplo 0.95
+     */
+    public void setConfianza(double confianza) {
+        this.confianza = confianza;
+    }
+
+    /**
+     * Obtiene la cantidad de puntos de la grilla.
+     *
+     * @return Cantidad de combinaciones de parámetros
+     */
+    public int getCantidadPuntos() {
+        return tasas.length * ventanillas.length * proporcionesUrgentes.length * politicas.length;
+    }
+
+    /**
+     * Ejecuta el barrido y escribe los resultados en un archivo CSV.
+     *
+     * @param salida Archivo CSV de salida
+     * @return Cantidad de puntos escritos
+     * @throws IOException si no se puede escribir el archivo
+     */
+    public int ejecutar(Path salida) throws IOException {
+        int puntos = getCantidadPuntos();
+        AtomicInteger escritos = new AtomicInteger();
+        try (BufferedWriter escritor = Files.newBufferedWriter(salida, StandardCharsets.UTF_8)) {
+            escritor.write(encabezado());
+            escritor.newLine();
+            escritor.flush();
+            try {
+                IntStream.range(0, puntos).parallel().forEach(punto -> {
+                    ConfiguracionSimulacion configuracion = configuracionDe(punto);
+                    ResultadoReplicaciones resultado = Replicaciones.ejecutarEnHilo(configuracion, replicas, semilla);
+                    String fila = fila(punto, configuracion, resultado);
+                    synchronized (escritor) {
+                        try {
+                            escritor.write(fila);
+                            escritor.newLine();
+                            escritor.flush();
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException("No se pudo escribir el resultado del barrido", ex);
+                        }
+                    }
+                    escritos.incrementAndGet();
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+        return escritos.get();
+    }
+
+    /**
+     * Construye la configuración de un punto de la grilla.
+     *
+     * @param punto Índice del punto
+     * @return Configuración del punto
+     */
+    ConfiguracionSimulacion configuracionDe(int punto) {
+        int resto = punto;
+        PoliticaAtencion politica = politicas[resto % politicas.length];
+        resto /= politicas.length;
+        double urgentes = proporcionesUrgentes[resto % proporcionesUrgentes.length];
+        resto /= proporcionesUrgentes.length;
+        int cantidadVentanillas = ventanillas[resto % ventanillas.length];
+        resto /= ventanillas.length;
+        double tasa = tasas[resto];
+
+        ConfiguracionSimulacion configuracion = base.copiar();
+        configuracion.setTasaLlegadasPorHora(tasa);
+        configuracion.setVentanillas(cantidadVentanillas);
+        configuracion.setProporcionUrgentes(urgentes);
+        configuracion.setPoliticaAtencion(politica);
+        return configuracion;
+    }
+
+    private static String encabezado() {
+        StringBuilder linea = new StringBuilder("punto,tasa_por_hora,ventanillas,proporcion_urgentes,politica,replicas");
+        for (ResultadoReplicaciones.Metrica metrica : ResultadoReplicaciones.Metrica.values()) {
+            String nombre = metrica.name().toLowerCase(Locale.ROOT);
+            linea.append(',').append(nombre).append(',').append(nombre).append("_ic");
+        }
+        return linea.toString();
+    }
+
+    private String fila(int punto, ConfiguracionSimulacion configuracion, ResultadoReplicaciones resultado) {
+        StringBuilder linea = new StringBuilder();
+        linea.append(punto).append(',')
+                .append(formatear(configuracion.getTasaLlegadasPorHora())).append(',')
+                .append(configuracion.getVentanillas()).append(',')
+                .append(formatear(configuracion.getProporcionUrgentes())).append(',')
+                .append(configuracion.getPoliticaAtencion()).append(',')
+                .append(resultado.getReplicas());
+        for (ResultadoReplicaciones.Metrica metrica : ResultadoReplicaciones.Metrica.values()) {
+            EstadisticaReplicas estadistica = resultado.get(metrica);
+            linea.append(',').append(formatear(estadistica.getMedia()))
+                    .append(',').append(formatear(estadistica.getSemiancho(confianza)));
+        }
+        return linea.toString();
+    }
+
+    private static String formatear(double valor) {
+        return Double.isNaN(valor) ? "" : String.format(Locale.ROOT, "%.4f", valor);
+    }
+
+    /**
+     * Interpreta un rango de valores reales: un valor suelto, una lista
+     * separada por comas ({@code 0.1,0.2}) o un rango
+     * {@code desde:hasta[:paso]} con paso 1 por defecto.
+     *
+     * @param texto Texto del rango
+     * @return Valores del rango
+     */
+    public static double[] rango(String texto) {
+        List<Double> valores = new ArrayList<>();
+        for (String parte : texto.split(",")) {
+            String[] limites = parte.trim().split(":");
+            if (limites.length == 1) {
+                valores.add(Double.parseDouble(limites[0]));
+                continue;
+            }
+            double desde = Double.parseDouble(limites[0]);
+            double hasta = Double.parseDouble(limites[1]);
+            double paso = limites.length > 2 ? Double.parseDouble(limites[2]) : 1.0;
+            if (!(paso > 0)) {
+                throw new IllegalArgumentException("El paso del rango debe ser positivo: " + parte);
+            }
+            // Se cuenta por índice para no acumular error de redondeo
+            long pasos = (long) Math.floor((hasta - desde) / paso + 1e-9);
+            for (long i = 0; i <= pasos; i++) {
+                valores.add(desde + i * paso);
+            }
+        }
+        double[] resultado = new double[valores.size()];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = valores.get(i);
+        }
+        return resultado;
+    }
+
+    /**
+     * Interpreta un rango de valores enteros con el mismo formato que
+     * {@link #rango(String)}.
+     *
+     * @param texto Texto del rango
+     * @return Valores del rango
+     */
+    public static int[] rangoEntero(String texto) {
+        double[] valores = rango(texto);
+        int[] resultado = new int[valores.length];
+        for (int i = 0; i < valores.length; i++) {
+            resultado[i] = (int) Math.round(valores[i]);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import modelo.Cliente;
+import modelo.PoliticaAtencion;
+
+/**
+ * Parámetros de una corrida de simulación: proceso de llegadas, tiempos de
+ * servicio por tipo de solicitud, proporción de urgentes, cantidad de
+ * ventanillas y duración de la jornada. Todas las duraciones están en
+ * minutos.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ConfiguracionSimulacion {
+
+    private int ventanillas;
+    private Distribucion llegadas;
+    private double tasaLlegadasPorHora;
+    private Map<Cliente.TipoSolicitud, Distribucion> servicio;
+    private double[] proporcionTipos;
+    private double proporcionUrgentes;
+    private double duracionMinutos;
+    private LocalDateTime inicio;
+    private boolean conservarHistorial;
+    private PoliticaAtencion politicaAtencion;
+
+    /**
+     * Constructor con una jornada de 8 horas, 3 ventanillas, 24 llegadas de
+     * Poisson por hora, 20% de urgentes, tipos equiprobables y tiempos de
+     * servicio exponenciales de 4, 6 y 8 minutos para soporte,
+     * mantenimiento y reclamo.
+     */
+    public ConfiguracionSimulacion() {
+        this.ventanillas = 3;
+        setTasaLlegadasPorHora(24);
+        this.servicio = new EnumMap<>(Cliente.TipoSolicitud.class);
+        servicio.put(Cliente.TipoSolicitud.SOPORTE, Distribucion.exponencial(4));
+        servicio.put(Cliente.TipoSolicitud.MANTENIMIENTO, Distribucion.exponencial(6));
+        servicio.put(Cliente.TipoSolicitud.RECLAMO, Distribucion.exponencial(8));
+        this.proporcionTipos = new double[Cliente.TipoSolicitud.values().length];
+        for (Cliente.TipoSolicitud tipo : Cliente.TipoSolicitud.values()) {
+            proporcionTipos[tipo.ordinal()] = 1.0;
+        }
+        this.proporcionUrgentes = 0.2;
+        this.duracionMinutos = 8 * 60;
+        this.inicio = LocalDateTime.of(2025, 1, 6, 8, 0);
+        this.conservarHistorial = true;
+        this.politicaAtencion = PoliticaAtencion.HIBRIDA;
+    }
+
+    /**
+     * Crea una copia independiente de la configuración.
+     *
+     * @return Copia de la configuración
+     */
+    public ConfiguracionSimulacion copiar() {
+        ConfiguracionSimulacion copia = new ConfiguracionSimulacion();
+        copia.ventanillas = ventanillas;
+        copia.llegadas = llegadas;
+        copia.tasaLlegadasPorHora = tasaLlegadasPorHora;
+        copia.servicio = new EnumMap<>(servicio);
+        copia.proporcionTipos = proporcionTipos.clone();
+        copia.proporcionUrgentes = proporcionUrgentes;
+        copia.duracionMinutos = duracionMinutos;
+        copia.inicio = inicio;
+        copia.conservarHistorial = conservarHistorial;
+        copia.politicaAtencion = politicaAtencion;
+        return copia;
+    }
+
+    /**
+     * Obtiene la cantidad de ventanillas que atienden en paralelo.
+     *
+     * @return Cantidad de ventanillas
+     */
+    public int getVentanillas() {
+        return ventanillas;
+    }
+
+    /**
+     * Establece la cantidad de ventanillas.
+     *
+     * @param ventanillas Cantidad de ventanillas, al menos 1
+     */
+    public void setVentanillas(int ventanillas) {
+        if (ventanillas < 1) {
+            throw new IllegalArgumentException("Debe haber al menos una ventanilla");
+        }
+        this.ventanillas = ventanillas;
+    }
+
+    /**
+     * Obtiene la distribución de tiempos entre llegadas.
+     *
+     * @return Distribución de tiempos entre llegadas
+     */
+    public Distribucion getLlegadas() {
+        return llegadas;
+    }
+
+    /**
+     * Establece una distribución arbitraria de tiempos entre llegadas.
+     *
+     * @param llegadas Distribución de tiempos entre llegadas
+     */
+    public void setLlegadas(Distribucion llegadas) {
+        if (llegadas == null) {
+            throw new IllegalArgumentException("La distribución de llegadas es obligatoria");
+        }
+        this.llegadas = llegadas;
+        this.tasaLlegadasPorHora = Double.NaN;
+    }
+
+    /**
+     * Obtiene la tasa de llegadas de Poisson configurada.
+     *
+     * @return Llegadas por hora, o NaN si se configuró una distribución
+     * arbitraria
+     */
+    public double getTasaLlegadasPorHora() {
+        return tasaLlegadasPorHora;
+    }
+
+    /**
+     * Configura llegadas de Poisson con la tasa indicada.
+     *
+     * @param tasa Llegadas por hora
+     */
+    public void setTasaLlegadasPorHora(double tasa) {
+        if (!(tasa > 0)) {
+            throw new IllegalArgumentException("La tasa de llegadas debe ser positiva");
+        }
+        this.llegadas = Distribucion.exponencial(60.0 / tasa);
+        this.tasaLlegadasPorHora = tasa;
+    }
+
+    /**
+     * Obtiene la distribución del tiempo de servicio de un tipo de
+     * solicitud.
+     *
+     * @param tipo Tipo de solicitud
+     * @return Distribución del tiempo de servicio
+     */
+    public Distribucion getServicio(Cliente.TipoSolicitud tipo) {
+        return servicio.get(tipo);
+    }
+
+    /**
+     * Establece la distribución del tiempo de servicio de un tipo de
+     * solicitud.
+     *
+     * @param tipo Tipo de solicitud
+     * @param distribucion Distribución del tiempo de servicio
+     */
+    public void setServicio(Cliente.TipoSolicitud tipo, Distribucion distribucion) {
+        if (distribucion == null) {
+            throw new IllegalArgumentException("La distribución de servicio es obligatoria");
+        }
+        servicio.put(tipo, distribucion);
+    }
+
+    /**
+     * Obtiene el peso relativo de un tipo de solicitud entre las llegadas.
+     *
+     * @param tipo Tipo de solicitud
+     * @return Peso relativo del tipo
+     */
+    public double getProporcionTipo(Cliente.TipoSolicitud tipo) {
+        return proporcionTipos[tipo.ordinal()];
+    }
+
+    /**
+     * Establece el peso relativo de un tipo de solicitud entre las
+     * llegadas. Los pesos no necesitan sumar 1.
+     *
+     * @param tipo Tipo de solicitud
+     * @param peso Peso relativo, no negativo
+     */
+    public void setProporcionTipo(Cliente.TipoSolicitud tipo, double peso) {
+        if (peso < 0) {
+            throw new IllegalArgumentException("El peso de un tipo no puede ser negativo");
+        }
+        proporcionTipos[tipo.ordinal()] = peso;
+    }
+
+    /**
+     * Obtiene la proporción de clientes urgentes.
+     *
+     * @return Proporción entre 0 y 1
+     */
+    public double getProporcionUrgentes() {
+        return proporcionUrgentes;
+    }
+
+    /**
+     * Establece la proporción de clientes urgentes.
+     *
+     * @param proporcion Proporción entre 0 y 1
+     */
+    public void setProporcionUrgentes(double proporcion) {
+        if (proporcion < 0 || proporcion > 1) {
+            throw new IllegalArgumentException("La proporción de urgentes debe estar entre 0 y 1");
+        }
+        this.proporcionUrgentes = proporcion;
+    }
+
+    /**
+     * Obtiene la duración de la jornada. Después de ella no llegan más
+     * clientes, pero se atiende a los que quedaron en la cola.
+     *
+     * @return Duración en minutos
+     */
+    public double getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    /**
+     * Establece la duración de la jornada.
+     *
+     * @param duracionMinutos Duración en minutos
+     */
+    public void setDuracionMinutos(double duracionMinutos) {
+        if (!(duracionMinutos > 0)) {
+            throw new IllegalArgumentException("La duración debe ser positiva");
+        }
+        this.duracionMinutos = duracionMinutos;
+    }
+
+    /**
+     * Obtiene la fecha y hora en que comienza la jornada simulada.
+     *
+     * @return Inicio de la jornada
+     */
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Establece la fecha y hora en que comienza la jornada simulada.
+     *
+     * @param inicio Inicio de la jornada
+     */
+    public void setInicio(LocalDateTime inicio) {
+        this.inicio = inicio;
+    }
+
+    /**
+     * Indica si los clientes atendidos se guardan en el {@code Historial}.
+     *
+     * @return true si se conserva el historial
+     */
+    public boolean isConservarHistorial() {
+        return conservarHistorial;
+    }
+
+    /**
+     * Define si los clientes atendidos se guardan en el {@code Historial}.
+     * Desactivarlo mantiene la memoria constante en corridas muy largas; las
+     * esperas se siguen midiendo en el resultado.
+     *
+     * @param conservarHistorial true para conservar el historial
+     */
+    public void setConservarHistorial(boolean conservarHistorial) {
+        this.conservarHistorial = conservarHistorial;
+    }
+
+    /**
+     * Obtiene la política con la que las ventanillas eligen al siguiente
+     * cliente.
+     *
+     * @return Política de atención
+     */
+    public PoliticaAtencion getPoliticaAtencion() {
+        return politicaAtencion;
+    }
+
+    /**
+     * Establece la política con la que las ventanillas eligen al siguiente
+     * cliente.
+     *
+     * @param politicaAtencion Política de atención
+     */
+    public void setPoliticaAtencion(PoliticaAtencion politicaAtencion) {
+        if (politicaAtencion == null) {
+            throw new IllegalArgumentException("La política de atención es obligatoria");
+        }
+        this.politicaAtencion = politicaAtencion;
+    }
+
+    double[] getProporcionTipos() {
+        return proporcionTipos;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Interface.java to edit this template
+ */
+package simulacion;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribución de probabilidad de una duración en minutos, usada para los
+ * tiempos entre llegadas y los tiempos de servicio de la simulación.
+ *
+ * @author Valery
+ * @author Andres
+ */
+@FunctionalInterface
+public interface Distribucion {
+
+    /**
+     * Obtiene una muestra de la distribución.
+     *
+     * @param aleatorio Generador de números aleatorios de la corrida
+     * @return Duración en minutos, nunca negativa
+     */
+    double muestrear(SplittableRandom aleatorio);
+
+    /**
+     * Distribución exponencial, propia de llegadas de Poisson.
+     *
+     * @param media Media en minutos
+     * @return Distribución exponencial
+     */
+    static Distribucion exponencial(double media) {
+        validarPositivo(media, "media");
+        return aleatorio -> -media * Math.log(1.0 - aleatorio.nextDouble());
+    }
+
+    /**
+     * Distribución constante.
+     *
+     * @param valor Duración fija en minutos
+     * @return Distribución que siempre devuelve el mismo valor
+     */
+    static Distribucion constante(double valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("La duración no puede ser negativa");
+        }
+        return aleatorio -> valor;
+    }
+
+    /**
+     * Distribución uniforme entre dos valores.
+     *
+     * @param minimo Valor mínimo en minutos
+     * @param maximo Valor máximo en minutos
+     * @return Distribución uniforme
+     */
+    static Distribucion uniforme(double minimo, double maximo) {
+        if (minimo < 0 || maximo < minimo) {
+            throw new IllegalArgumentException("Rango de la distribución uniforme inválido");
+        }
+        return aleatorio -> minimo + (maximo - minimo) * aleatorio.nextDouble();
+    }
+
+    /**
+     * Distribución lognormal definida por su media y desviación estándar,
+     * habitual para tiempos de servicio con cola larga.
+     *
+     * @param media Media en minutos
+     * @param desviacion Desviación estándar en minutos
+     * @return Distribución lognormal
+     */
+    static Distribucion lognormal(double media, double desviacion) {
+        validarPositivo(media, "media");
+        validarPositivo(desviacion, "desviación");
+        double varianzaLog = Math.log(1.0 + (desviacion * desviacion) / (media * media));
+        double sigma = Math.sqrt(varianzaLog);
+        double mu = Math.log(media) - varianzaLog / 2.0;
+        return aleatorio -> Math.exp(mu + sigma * normalEstandar(aleatorio));
+    }
+
+    /**
+     * Muestra de una normal estándar por el método de Box-Muller.
+     *
+     * @param aleatorio Generador de números aleatorios
+     * @return Muestra de N(0, 1)
+     */
+    static double normalEstandar(SplittableRandom aleatorio) {
+        double u1 = 1.0 - aleatorio.nextDouble();
+        double u2 = aleatorio.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    private static void validarPositivo(double valor, String nombre) {
+        if (!(valor > 0)) {
+            throw new IllegalArgumentException("La " + nombre + " debe ser positiva");
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+/**
+ * Acumula los valores de una métrica a lo largo de varias réplicas y
+ * calcula su media con un intervalo de confianza. Usa el algoritmo de
+ * Welford, numéricamente estable, y dos acumuladores parciales se pueden
+ * combinar, de modo que cada hilo acumula sus réplicas y luego se unen.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class EstadisticaReplicas {
+
+    private long cantidad;
+    private double media;
+    private double sumaCuadrados;
+    private double minimo = Double.POSITIVE_INFINITY;
+    private double maximo = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Agrega el valor de una réplica.
+     *
+     * @param valor Valor de la métrica en la réplica
+     */
+    public void agregar(double valor) {
+        cantidad++;
+        double delta = valor - media;
+        media += delta / cantidad;
+        sumaCuadrados += delta * (valor - media);
+        minimo = Math.min(minimo, valor);
+        maximo = Math.max(maximo, valor);
+    }
+
+    /**
+     * Combina en este acumulador los valores de otro.
+     *
+     * @param otra Acumulador a combinar
+     */
+    public void combinar(EstadisticaReplicas otra) {
+        if (otra.cantidad == 0) {
+            return;
+        }
+        if (cantidad == 0) {
+            cantidad = otra.cantidad;
+            media = otra.media;
+            sumaCuadrados = otra.sumaCuadrados;
+            minimo = otra.minimo;
+            maximo = otra.maximo;
+            return;
+        }
+        long total = cantidad + otra.cantidad;
+        double delta = otra.media - media;
+        media += delta * otra.cantidad / total;
+        sumaCuadrados += otra.sumaCuadrados + delta * delta * cantidad * otra.cantidad / total;
+        cantidad = total;
+        minimo = Math.min(minimo, otra.minimo);
+        maximo = Math.max(maximo, otra.maximo);
+    }
+
+    /**
+     * Obtiene la cantidad de réplicas acumuladas.
+     *
+     * @return Cantidad de valores
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la media de la métrica.
+     *
+     * @return Media de los valores
+     */
+    public double getMedia() {
+        return media;
+    }
+
+    /**
+     * Obtiene la desviación estándar muestral.
+     *
+     * @return Desviación estándar, o 0.0 con menos de dos valores
+     */
+    public double getDesviacion() {
+        return cantidad > 1 ? Math.sqrt(sumaCuadrados / (cantidad - 1)) : 0.0;
+    }
+
+    /**
+     * Obtiene el valor mínimo.
+     *
+     * @return Mínimo de los valores
+     */
+    public double getMinimo() {
+        return minimo;
+    }
+
+    /**
+     * Obtiene el valor máximo.
+     *
+     * @return Máximo de los valores
+     */
+    public double getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * Calcula el semiancho del intervalo de confianza de la media con la
+     * distribución t de Student.
+     *
+     * @param confianza Nivel de confianza, por ejemplo 0.95
+     * @return Semiancho del intervalo, o NaN con menos de dos valores
+     */
+    public double getSemiancho(double confianza) {
+        if (cantidad < 2) {
+            return Double.NaN;
+        }
+        return cuantilT(1.0 - (1.0 - confianza) / 2.0, cantidad - 1) * getDesviacion() / Math.sqrt(cantidad);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3f ± %.3f (n=%d, desv=%.3f)", media, getSemiancho(0.95), cantidad, getDesviacion());
+    }
+
+    /**
+     * Calcula el cuantil de la distribución t de Student. Para 1 y 2 grados
+     * de libertad se usan las fórmulas cerradas; para más, la expansión de
+     * Cornish-Fisher sobre el cuantil normal da el punto de partida y unas
+     * pocas iteraciones de Newton sobre la distribución exacta (función beta
+     * incompleta) lo llevan a un error relativo menor a 1e-9. La expansión
+     * sola se queda corta con pocas réplicas y niveles altos: con 3 grados
+     * de libertad y 0.995 da 5.646 en lugar de 5.841.
+     *
+     * @param probabilidad Probabilidad acumulada, entre 0.5 y 1
+     * @param gradosLibertad Grados de libertad
+     * @return Cuantil t
+     */
+    static double cuantilT(double probabilidad, long gradosLibertad) {
+        double p = probabilidad;
+        if (gradosLibertad == 1) {
+            return Math.tan(Math.PI * (p - 0.5));
+        }
+        if (gradosLibertad == 2) {
+            double a = 4 * p * (1 - p);
+            return (2 * p - 1) * Math.sqrt(2 / a);
+        }
+        double z = cuantilNormal(p);
+        double v = gradosLibertad;
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        double z7 = z5 * z * z;
+        double t = z + (z3 + z) / (4 * v)
+                + (5 * z5 + 16 * z3 + 3 * z) / (96 * v * v)
+                + (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384 * v * v * v);
+        double logNormalizacion = logGamma((v + 1) / 2) - logGamma(v / 2) - 0.5 * Math.log(v * Math.PI);
+        for (int i = 0; i < 50; i++) {
+            double densidad = Math.exp(logNormalizacion - (v + 1) / 2 * Math.log1p(t * t / v));
+            double paso = (distribucionT(t, v) - p) / densidad;
+            t -= paso;
+            if (Math.abs(paso) <= 1e-12 * Math.abs(t)) {
+                break;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Distribución acumulada de la t de Student.
+     *
+     * @param t Valor de la variable
+     * @param v Grados de libertad
+     * @return Probabilidad acumulada hasta t
+     */
+    static double distribucionT(double t, double v) {
+        double cola = 0.5 * betaIncompleta(v / 2, 0.5, v / (v + t * t));
+        return t >= 0 ? 1 - cola : cola;
+    }
+
+    /**
+     * Función beta incompleta regularizada, por la fracción continua de
+     * Lentz.
+     */
+    private static double betaIncompleta(double a, double b, double x) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double factor = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b)
+                + a * Math.log(x) + b * Math.log1p(-x));
+        if (x < (a + 1) / (a + b + 2)) {
+            return factor * fraccionBeta(a, b, x) / a;
+        }
+        return 1 - factor * fraccionBeta(b, a, 1 - x) / b;
+    }
+
+    private static double fraccionBeta(double a, double b, double x) {
+        double minimo = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < minimo ? minimo : d);
+        double resultado = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double coeficiente = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 + coeficiente * d;
+            d = 1 / (Math.abs(d) < minimo ? minimo : d);
+            c = 1 + coeficiente / c;
+            c = Math.abs(c) < minimo ? minimo : c;
+            resultado *= d * c;
+            coeficiente = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 + coeficiente * d;
+            d = 1 / (Math.abs(d) < minimo ? minimo : d);
+            c = 1 + coeficiente / c;
+            c = Math.abs(c) < minimo ? minimo : c;
+            double delta = d * c;
+            resultado *= delta;
+            if (Math.abs(delta - 1) < 1e-15) {
+                break;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Logaritmo de la función gamma por la aproximación de Lanczos (error
+     * relativo menor a 1e-14 para argumentos positivos).
+     */
+    private static double logGamma(double x) {
+        double[] coeficientes = {0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+            771.32342877765313, -176.61502916214059, 12.507343278686905, -0.13857109526572012,
+            9.9843695780195716e-6, 1.5056327351493116e-7};
+        double y = x - 1;
+        double suma = coeficientes[0];
+        for (int i = 1; i < coeficientes.length; i++) {
+            suma += coeficientes[i] / (y + i);
+        }
+        double t = y + 7.5;
+        return 0.5 * Math.log(2 * Math.PI) + (y + 0.5) * Math.log(t) - t + Math.log(suma);
+    }
+
+    /**
+     * Cuantil de la normal estándar por el algoritmo racional de Acklam
+     * (error relativo menor a 1.2e-9).
+     *
+     * @param p Probabilidad acumulada, entre 0 y 1
+     * @return Cuantil normal
+     */
+    static double cuantilNormal(double p) {
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+        double bajo = 0.02425;
+        if (p < bajo) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - bajo) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+import java.util.Arrays;
+
+/**
+ * Histograma de tiempos de espera con intervalos fijos de un segundo hasta
+ * un máximo de ocho horas. Las esperas mayores se cuentan aparte como
+ * desbordes: un percentil que cae entre ellas solo se sabe mayor que el
+ * máximo y {@link #isPercentilDesbordado(double)} lo indica. Registrar una espera no crea objetos y dos histogramas se
+ * pueden combinar sumando sus intervalos, lo que permite calcular
+ * percentiles globales sin guardar cada espera.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class HistogramaEspera {
+
+    /**
+     * Espera máxima representada con precisión, en segundos.
+     */
+    public static final int SEGUNDOS_MAXIMOS = 8 * 60 * 60;
+
+    private final long[] intervalos;
+    private int ultimoUsado;
+    private long cantidad;
+    private long desbordes;
+    private double sumaMinutos;
+    private double maximoMinutos;
+
+    /**
+     * Constructor que crea un histograma vacío.
+     */
+    public HistogramaEspera() {
+        this.intervalos = new long[SEGUNDOS_MAXIMOS + 1];
+    }
+
+    /**
+     * Registra una espera.
+     *
+     * @param minutos Espera en minutos
+     */
+    public void registrar(double minutos) {
+        long segundos = Math.round(minutos * 60.0);
+        if (segundos > SEGUNDOS_MAXIMOS) {
+            desbordes++;
+        } else {
+            int segundo = (int) Math.max(0, segundos);
+            intervalos[segundo]++;
+            if (segundo > ultimoUsado) {
+                ultimoUsado = segundo;
+            }
+        }
+        cantidad++;
+        sumaMinutos += minutos;
+        if (minutos > maximoMinutos) {
+            maximoMinutos = minutos;
+        }
+    }
+
+    /**
+     * Suma a este histograma todas las esperas de otro.
+     *
+     * @param otro Histograma a combinar
+     */
+    public void combinar(HistogramaEspera otro) {
+        for (int i = 0; i <= otro.ultimoUsado; i++) {
+            intervalos[i] += otro.intervalos[i];
+        }
+        ultimoUsado = Math.max(ultimoUsado, otro.ultimoUsado);
+        cantidad += otro.cantidad;
+        desbordes += otro.desbordes;
+        sumaMinutos += otro.sumaMinutos;
+        maximoMinutos = Math.max(maximoMinutos, otro.maximoMinutos);
+    }
+
+    /**
+     * Vacía el histograma para reutilizarlo. Solo se limpian los intervalos
+     * que llegaron a usarse.
+     */
+    public void reiniciar() {
+        Arrays.fill(intervalos, 0, ultimoUsado + 1, 0);
+        ultimoUsado = 0;
+        cantidad = 0;
+        desbordes = 0;
+        sumaMinutos = 0;
+        maximoMinutos = 0;
+    }
+
+    /**
+     * Obtiene la cantidad de esperas registradas.
+     *
+     * @return Cantidad de esperas
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la cantidad de esperas mayores que {@link #SEGUNDOS_MAXIMOS}.
+     *
+     * @return Cantidad de esperas desbordadas
+     */
+    public long getDesbordes() {
+        return desbordes;
+    }
+
+    /**
+     * Obtiene la fracción de las esperas que superó
+     * {@link #SEGUNDOS_MAXIMOS}.
+     *
+     * @return Fracción entre 0 y 1, o 0.0 si no hay esperas
+     */
+    public double getFraccionDesbordada() {
+        return cantidad > 0 ? (double) desbordes / cantidad : 0.0;
+    }
+
+    /**
+     * Obtiene la espera promedio.
+     *
+     * @return Promedio en minutos, o 0.0 si no hay esperas
+     */
+    public double getPromedio() {
+        return cantidad > 0 ? sumaMinutos / cantidad : 0.0;
+    }
+
+    /**
+     * Obtiene la espera máxima registrada.
+     *
+     * @return Máximo en minutos
+     */
+    public double getMaximo() {
+        return maximoMinutos;
+    }
+
+    /**
+     * Obtiene un percentil de las esperas, con precisión de un segundo.
+     *
+     * @param percentil Percentil entre 0 y 100
+     * @return Espera en minutos bajo la cual queda el percentil indicado, o
+     * 0.0 si no hay esperas. Si el percentil cae entre los desbordes se
+     * devuelve el máximo representable, que es solo una cota inferior.
+     */
+    public double getPercentil(double percentil) {
+        if (cantidad == 0) {
+            return 0.0;
+        }
+        long objetivo = objetivo(percentil);
+        long acumulado = 0;
+        for (int i = 0; i <= ultimoUsado; i++) {
+            acumulado += intervalos[i];
+            if (acumulado >= objetivo) {
+                return i / 60.0;
+            }
+        }
+        return SEGUNDOS_MAXIMOS / 60.0;
+    }
+
+    /**
+     * Indica si un percentil cae entre las esperas mayores que
+     * {@link #SEGUNDOS_MAXIMOS}, en cuyo caso {@link #getPercentil(double)}
+     * solo da una cota inferior.
+     *
+     * @param percentil Percentil entre 0 y 100
+     * @return true si el percentil está desbordado
+     */
+    public boolean isPercentilDesbordado(double percentil) {
+        return cantidad > 0 && objetivo(percentil) > cantidad - desbordes;
+    }
+
+    private long objetivo(double percentil) {
+        return Math.max(1, (long) Math.ceil(cantidad * Math.min(100.0, Math.max(0.0, percentil)) / 100.0));
+    }
+}
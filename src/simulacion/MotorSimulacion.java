@@ -0,0 +1,280 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import modelo.Cliente;
+import modelo.GestionClientes;
+import modelo.Historial;
+import modelo.Modelo;
+
+/**
+ * Motor de simulación de eventos discretos. Genera llegadas y fines de
+ * servicio sobre un reloj virtual y los aplica a la {@link GestionClientes}
+ * y al {@link Historial} de un {@link Modelo} nuevo, de modo que la elección
+ * de cada cliente usa la misma {@code PoliticaAtencion} que la aplicación
+ * (por defecto el sistema híbrido). Todo ocurre en memoria, sin esperas reales.
+ *
+ * La agenda de eventos es un montículo binario sobre arreglos primitivos:
+ * como solo hay una llegada pendiente y a lo sumo un fin de servicio por
+ * ventanilla, nunca crece más allá de la cantidad de ventanillas más uno.
+ *
+ * Un motor puede ejecutar varias corridas seguidas reutilizando sus
+ * estructuras, pero no es seguro para hilos: se usa uno por hilo.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class MotorSimulacion {
+
+    private static final byte LLEGADA = 0;
+    private static final byte FIN_SERVICIO = 1;
+    private static final String NOMBRE_CLIENTE = "Cliente simulado";
+
+    private double[] tiempos;
+    private byte[] tipos;
+    private int pendientes;
+    private final HistogramaEspera espera;
+    private final Map<Cliente.Prioridad, HistogramaEspera> esperaPorPrioridad;
+    private final Map<Cliente.TipoSolicitud, HistogramaEspera> esperaPorTipo;
+
+    /**
+     * Constructor que prepara las estructuras del motor.
+     */
+    public MotorSimulacion() {
+        this.tiempos = new double[16];
+        this.tipos = new byte[16];
+        this.espera = new HistogramaEspera();
+        this.esperaPorPrioridad = new EnumMap<>(Cliente.Prioridad.class);
+        for (Cliente.Prioridad prioridad : Cliente.Prioridad.values()) {
+            esperaPorPrioridad.put(prioridad, new HistogramaEspera());
+        }
+        this.esperaPorTipo = new EnumMap<>(Cliente.TipoSolicitud.class);
+        for (Cliente.TipoSolicitud tipo : Cliente.TipoSolicitud.values()) {
+            esperaPorTipo.put(tipo, new HistogramaEspera());
+        }
+    }
+
+    /**
+     * Ejecuta una corrida completa: llegan clientes durante la jornada
+     * configurada y luego se atiende a los que quedaron en la cola.
+     *
+     * @param configuracion Parámetros de la corrida
+     * @param semilla Semilla del generador aleatorio; la misma semilla y
+     * configuración producen exactamente la misma corrida
+     * @return Resultado de la corrida
+     */
+    public ResultadoSimulacion ejecutar(ConfiguracionSimulacion configuracion, long semilla) {
+        long inicioReal = System.nanoTime();
+        reiniciar();
+
+        SplittableRandom aleatorio = new SplittableRandom(semilla);
+        LocalDateTime inicio = configuracion.getInicio();
+        ZoneId zona = ZoneId.systemDefault();
+        Modelo modelo = new Modelo(Clock.fixed(inicio.atZone(zona).toInstant(), zona));
+        GestionClientes cola = modelo.getGestionClientes();
+        cola.setPoliticaAtencion(configuracion.getPoliticaAtencion());
+        Historial historial = modelo.getHistorial();
+
+        Distribucion llegadas = configuracion.getLlegadas();
+        Distribucion[] servicio = new Distribucion[Cliente.TipoSolicitud.values().length];
+        for (Cliente.TipoSolicitud tipo : Cliente.TipoSolicitud.values()) {
+            servicio[tipo.ordinal()] = configuracion.getServicio(tipo);
+        }
+        double[] acumuladoTipos = acumulado(configuracion.getProporcionTipos());
+        double proporcionUrgentes = configuracion.getProporcionUrgentes();
+        double duracion = configuracion.getDuracionMinutos();
+        boolean conservarHistorial = configuracion.isConservarHistorial();
+
+        int libres = configuracion.getVentanillas();
+        long llegados = 0;
+        long atendidos = 0;
+        long eventos = 0;
+        int maximoEnEspera = 0;
+        double ocupado = 0;
+        double ahora = 0;
+
+        double primera = llegadas.muestrear(aleatorio);
+        if (primera <= duracion) {
+            programar(primera, LLEGADA);
+        }
+        while (pendientes > 0) {
+            ahora = tiempos[0];
+            byte tipoEvento = extraer();
+            eventos++;
+            LocalDateTime fecha = inicio.plusNanos((long) (ahora * 60e9));
+
+            if (tipoEvento == LLEGADA) {
+                llegados++;
+                Cliente.TipoSolicitud tipo = elegirTipo(acumuladoTipos, aleatorio);
+                Cliente.Prioridad prioridad = aleatorio.nextDouble() < proporcionUrgentes
+                        ? Cliente.Prioridad.URGENTE : Cliente.Prioridad.NORMAL;
+                cola.agregarCliente(NOMBRE_CLIENTE, tipo, prioridad, fecha);
+                maximoEnEspera = Math.max(maximoEnEspera, cola.getCantidadClientesEnEspera());
+                double siguiente = ahora + llegadas.muestrear(aleatorio);
+                if (siguiente <= duracion) {
+                    programar(siguiente, LLEGADA);
+                }
+            } else {
+                libres++;
+            }
+
+            while (libres > 0 && cola.hayClientesEnEspera()) {
+                Cliente cliente = cola.atenderCliente(fecha);
+                if (conservarHistorial) {
+                    historial.agregarAtendido(cliente);
+                }
+                double minutos = ChronoUnit.NANOS.between(cliente.getFechaLlegada(), fecha) / 60e9;
+                espera.registrar(minutos);
+                esperaPorPrioridad.get(cliente.getPrioridad()).registrar(minutos);
+                esperaPorTipo.get(cliente.getTipoSolicitud()).registrar(minutos);
+                atendidos++;
+
+                double tiempoServicio = servicio[cliente.getTipoSolicitud().ordinal()].muestrear(aleatorio);
+                ocupado += tiempoServicio;
+                libres--;
+                programar(ahora + tiempoServicio, FIN_SERVICIO);
+            }
+        }
+
+        double ocupacion = ahora > 0 ? ocupado / (ahora * configuracion.getVentanillas()) : 0.0;
+        Map<Cliente.Prioridad, ResumenEspera> resumenPrioridad = new EnumMap<>(Cliente.Prioridad.class);
+        for (Map.Entry<Cliente.Prioridad, HistogramaEspera> entrada : esperaPorPrioridad.entrySet()) {
+            resumenPrioridad.put(entrada.getKey(), new ResumenEspera(entrada.getValue()));
+        }
+        Map<Cliente.TipoSolicitud, ResumenEspera> resumenTipo = new EnumMap<>(Cliente.TipoSolicitud.class);
+        for (Map.Entry<Cliente.TipoSolicitud, HistogramaEspera> entrada : esperaPorTipo.entrySet()) {
+            resumenTipo.put(entrada.getKey(), new ResumenEspera(entrada.getValue()));
+        }
+
+        // Las acciones no pasan por el registro del modelo, así que el
+        // bloque final sale de los contadores del motor
+        StringBuilder estadisticas = new StringBuilder();
+        estadisticas.append("=== MOTOR DE EVENTOS ===\n\n");
+        estadisticas.append("Máximo de clientes en espera: ").append(maximoEnEspera).append("\n");
+        estadisticas.append("Clientes en el historial: ")
+                .append(conservarHistorial ? String.valueOf(historial.getCantidadAtendidos()) : "no se conserva")
+                .append("\n");
+        return new ResultadoSimulacion(semilla, llegados, atendidos, ahora, ocupacion, eventos,
+                System.nanoTime() - inicioReal, new ResumenEspera(espera), resumenPrioridad, resumenTipo,
+                estadisticas.toString());
+    }
+
+    /**
+     * Obtiene el histograma de esperas de la última corrida.
+     *
+     * @return Histograma de esperas de todos los clientes
+     */
+    public HistogramaEspera getHistogramaEspera() {
+        return espera;
+    }
+
+    /**
+     * Obtiene el histograma de esperas de una prioridad en la última
+     * corrida.
+     *
+     * @param prioridad Prioridad de los clientes
+     * @return Histograma de esperas de esa prioridad
+     */
+    public HistogramaEspera getHistogramaEspera(Cliente.Prioridad prioridad) {
+        return esperaPorPrioridad.get(prioridad);
+    }
+
+    private void reiniciar() {
+        pendientes = 0;
+        espera.reiniciar();
+        for (HistogramaEspera histograma : esperaPorPrioridad.values()) {
+            histograma.reiniciar();
+        }
+        for (HistogramaEspera histograma : esperaPorTipo.values()) {
+            histograma.reiniciar();
+        }
+    }
+
+    private static double[] acumulado(double[] pesos) {
+        double[] acumulado = new double[pesos.length];
+        double total = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            total += pesos[i];
+            acumulado[i] = total;
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("Al menos un tipo de solicitud debe tener peso positivo");
+        }
+        for (int i = 0; i < acumulado.length; i++) {
+            acumulado[i] /= total;
+        }
+        return acumulado;
+    }
+
+    private static Cliente.TipoSolicitud elegirTipo(double[] acumulado, SplittableRandom aleatorio) {
+        double valor = aleatorio.nextDouble();
+        Cliente.TipoSolicitud[] tipos = Cliente.TipoSolicitud.values();
+        for (int i = 0; i < acumulado.length - 1; i++) {
+            if (valor < acumulado[i]) {
+                return tipos[i];
+            }
+        }
+        return tipos[acumulado.length - 1];
+    }
+
+    /**
+     * Inserta un evento en el montículo.
+     */
+    private void programar(double tiempo, byte tipo) {
+        if (pendientes == tiempos.length) {
+            tiempos = Arrays.copyOf(tiempos, pendientes * 2);
+            tipos = Arrays.copyOf(tipos, pendientes * 2);
+        }
+        int i = pendientes++;
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (tiempos[padre] <= tiempo) {
+                break;
+            }
+            tiempos[i] = tiempos[padre];
+            tipos[i] = tipos[padre];
+            i = padre;
+        }
+        tiempos[i] = tiempo;
+        tipos[i] = tipo;
+    }
+
+    /**
+     * Quita el evento más próximo del montículo y devuelve su tipo.
+     */
+    private byte extraer() {
+        byte tipo = tipos[0];
+        int ultimo = --pendientes;
+        double tiempo = tiempos[ultimo];
+        byte tipoUltimo = tipos[ultimo];
+        int i = 0;
+        while (true) {
+            int hijo = 2 * i + 1;
+            if (hijo >= ultimo) {
+                break;
+            }
+            if (hijo + 1 < ultimo && tiempos[hijo + 1] < tiempos[hijo]) {
+                hijo++;
+            }
+            if (tiempos[hijo] >= tiempo) {
+                break;
+            }
+            tiempos[i] = tiempos[hijo];
+            tipos[i] = tipos[hijo];
+            i = hijo;
+        }
+        tiempos[i] = tiempo;
+        tipos[i] = tipoUltimo;
+        return tipo;
+    }
+}
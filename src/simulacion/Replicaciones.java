@@ -0,0 +1,149 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ejecuta réplicas independientes de una simulación en paralelo sobre un
+ * {@link ForkJoinPool}. El rango de réplicas se divide recursivamente y los
+ * hilos libres roban las mitades pendientes; cada hoja ejecuta sus réplicas
+ * en secuencia con el motor de su hilo y acumula los resultados, que luego
+ * se combinan al unir las tareas.
+ *
+ * Cada réplica usa su propio {@code Modelo} y una semilla derivada de la
+ * semilla base y de su número, así que el resultado no depende de la
+ * cantidad de hilos ni del orden de ejecución.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class Replicaciones {
+
+    /**
+     * Cantidad de réplicas que una tarea ejecuta sin dividirse.
+     */
+    private static final int UMBRAL = 2;
+
+    /**
+     * Incremento de Weyl usado para separar las semillas de cada réplica.
+     */
+    private static final long SEPARACION_SEMILLAS = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Un motor por hilo: sus histogramas se reutilizan entre réplicas.
+     */
+    private static final ThreadLocal<MotorSimulacion> MOTORES = ThreadLocal.withInitial(MotorSimulacion::new);
+
+    private Replicaciones() {
+    }
+
+    /**
+     * Ejecuta las réplicas en el pool común.
+     *
+     * @param configuracion Configuración de cada réplica
+     * @param replicas Cantidad de réplicas
+     * @param semillaBase Semilla de la que se derivan las de cada réplica
+     * @return Resultados combinados
+     */
+    public static ResultadoReplicaciones ejecutar(ConfiguracionSimulacion configuracion, int replicas,
+            long semillaBase) {
+        return ejecutar(configuracion, replicas, semillaBase, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Ejecuta las réplicas en el pool indicado.
+     *
+     * @param configuracion Configuración de cada réplica
+     * @param replicas Cantidad de réplicas
+     * @param semillaBase Semilla de la que se derivan las de cada réplica
+     * @param pool Pool donde se ejecutan las réplicas
+     * @return Resultados combinados
+     */
+    public static ResultadoReplicaciones ejecutar(ConfiguracionSimulacion configuracion, int replicas,
+            long semillaBase, ForkJoinPool pool) {
+        if (replicas < 1) {
+            throw new IllegalArgumentException("Debe haber al menos una réplica");
+        }
+        return pool.invoke(new Tarea(configuracion.copiar(), semillaBase, 0, replicas));
+    }
+
+    /**
+     * Ejecuta las réplicas una tras otra en el hilo actual, con el motor ya
+     * preparado de ese hilo. Lo usan las tareas que paralelizan a otro
+     * nivel, como el barrido de parámetros.
+     *
+     * @param configuracion Configuración de cada réplica
+     * @param replicas Cantidad de réplicas
+     * @param semillaBase Semilla de la que se derivan las de cada réplica
+     * @return Resultados combinados
+     */
+    static ResultadoReplicaciones ejecutarEnHilo(ConfiguracionSimulacion configuracion, int replicas,
+            long semillaBase) {
+        ResultadoReplicaciones resultado = new ResultadoReplicaciones();
+        for (int replica = 0; replica < replicas; replica++) {
+            resultado.agregar(ejecutarReplica(configuracion, semillaDe(semillaBase, replica)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene la semilla de una réplica.
+     *
+     * @param semillaBase Semilla base de la ejecución
+     * @param replica Número de réplica, desde 0
+     * @return Semilla de la réplica
+     */
+    public static long semillaDe(long semillaBase, int replica) {
+        return semillaBase + replica * SEPARACION_SEMILLAS;
+    }
+
+    /**
+     * Ejecuta una réplica con el motor del hilo actual.
+     *
+     * @param configuracion Configuración de la réplica
+     * @param semilla Semilla de la réplica
+     * @return Resultado de la réplica
+     */
+    static ResultadoSimulacion ejecutarReplica(ConfiguracionSimulacion configuracion, long semilla) {
+        return MOTORES.get().ejecutar(configuracion, semilla);
+    }
+
+    /**
+     * Tarea que ejecuta el rango de réplicas [desde, hasta).
+     */
+    private static final class Tarea extends RecursiveTask<ResultadoReplicaciones> {
+
+        private final ConfiguracionSimulacion configuracion;
+        private final long semillaBase;
+        private final int desde;
+        private final int hasta;
+
+        Tarea(ConfiguracionSimulacion configuracion, long semillaBase, int desde, int hasta) {
+            this.configuracion = configuracion;
+            this.semillaBase = semillaBase;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected ResultadoReplicaciones compute() {
+            if (hasta - desde <= UMBRAL) {
+                ResultadoReplicaciones resultado = new ResultadoReplicaciones();
+                for (int replica = desde; replica < hasta; replica++) {
+                    resultado.agregar(ejecutarReplica(configuracion, semillaDe(semillaBase, replica)));
+                }
+                return resultado;
+            }
+            int medio = (desde + hasta) >>> 1;
+            Tarea izquierda = new Tarea(configuracion, semillaBase, desde, medio);
+            izquierda.fork();
+            ResultadoReplicaciones resultado = new Tarea(configuracion, semillaBase, medio, hasta).compute();
+            resultado.combinar(izquierda.join());
+            return resultado;
+        }
+    }
+}
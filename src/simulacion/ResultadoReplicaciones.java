@@ -0,0 +1,174 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+import modelo.Cliente;
+
+/**
+ * Resultados combinados de varias réplicas independientes de una misma
+ * configuración: por cada métrica, su media entre réplicas con intervalo de
+ * confianza.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class ResultadoReplicaciones {
+
+    /**
+     * Métricas que se extraen de cada réplica.
+     */
+    public enum Metrica {
+        /** Espera promedio de todos los clientes, en minutos */
+        ESPERA_PROMEDIO("Espera promedio (min)"),
+        /**
+         * Percentil 95 de la espera de todos los clientes, en minutos;
+         * acotado al máximo del histograma (ver {@link #ESPERAS_DESBORDADAS})
+         */
+        ESPERA_P95("Espera p95 (min)"),
+        /** Espera promedio de los clientes urgentes, en minutos */
+        ESPERA_PROMEDIO_URGENTE("Espera promedio URGENTE (min)"),
+        /** Percentil 95 de la espera de los clientes urgentes, en minutos */
+        ESPERA_P95_URGENTE("Espera p95 URGENTE (min)"),
+        /** Espera promedio de los clientes normales, en minutos */
+        ESPERA_PROMEDIO_NORMAL("Espera promedio NORMAL (min)"),
+        /** Percentil 95 de la espera de los clientes normales, en minutos */
+        ESPERA_P95_NORMAL("Espera p95 NORMAL (min)"),
+        /**
+         * Fracción de las esperas mayores que el máximo del histograma (8
+         * horas); si no es cero, los percentiles son solo cotas inferiores
+         */
+        ESPERAS_DESBORDADAS("Esperas de más de 480 min"),
+        /** Clientes atendidos por hora simulada */
+        ATENDIDOS_POR_HORA("Atendidos por hora"),
+        /** Ocupación promedio de las ventanillas, entre 0 y 1 */
+        OCUPACION("Ocupación de ventanillas"),
+        /** Tiempo hasta atender al último cliente, en minutos */
+        DURACION("Duración de la jornada (min)");
+
+        private final String descripcion;
+
+        Metrica(String descripcion) {
+            this.descripcion = descripcion;
+        }
+
+        /**
+         * Obtiene la descripción legible de la métrica.
+         *
+         * @return Descripción de la métrica
+         */
+        public String getDescripcion() {
+            return descripcion;
+        }
+
+        double valorDe(ResultadoSimulacion resultado) {
+            switch (this) {
+                case ESPERA_PROMEDIO:
+                    return resultado.getEspera().getPromedio();
+                case ESPERA_P95:
+                    return resultado.getEspera().getP95();
+                case ESPERA_PROMEDIO_URGENTE:
+                    return resultado.getEspera(Cliente.Prioridad.URGENTE).getPromedio();
+                case ESPERA_P95_URGENTE:
+                    return resultado.getEspera(Cliente.Prioridad.URGENTE).getP95();
+                case ESPERA_PROMEDIO_NORMAL:
+                    return resultado.getEspera(Cliente.Prioridad.NORMAL).getPromedio();
+                case ESPERA_P95_NORMAL:
+                    return resultado.getEspera(Cliente.Prioridad.NORMAL).getP95();
+                case ESPERAS_DESBORDADAS:
+                    return resultado.getEspera().getFraccionDesbordada();
+                case ATENDIDOS_POR_HORA:
+                    return resultado.getAtendidosPorHora();
+                case OCUPACION:
+                    return resultado.getOcupacion();
+                case DURACION:
+                    return resultado.getDuracionMinutos();
+                default:
+                    throw new IllegalStateException("Métrica desconocida: " + this);
+            }
+        }
+    }
+
+    private final EstadisticaReplicas[] metricas;
+    private long eventos;
+
+    ResultadoReplicaciones() {
+        this.metricas = new EstadisticaReplicas[Metrica.values().length];
+        for (int i = 0; i < metricas.length; i++) {
+            metricas[i] = new EstadisticaReplicas();
+        }
+    }
+
+    /**
+     * Agrega los resultados de una réplica.
+     */
+    void agregar(ResultadoSimulacion resultado) {
+        for (Metrica metrica : Metrica.values()) {
+            metricas[metrica.ordinal()].agregar(metrica.valorDe(resultado));
+        }
+        eventos += resultado.getEventos();
+    }
+
+    /**
+     * Combina los resultados parciales de otro grupo de réplicas.
+     */
+    void combinar(ResultadoReplicaciones otro) {
+        for (int i = 0; i < metricas.length; i++) {
+            metricas[i].combinar(otro.metricas[i]);
+        }
+        eventos += otro.eventos;
+    }
+
+    /**
+     * Obtiene la estadística de una métrica entre réplicas.
+     *
+     * @param metrica Métrica a consultar
+     * @return Estadística de la métrica
+     */
+    public EstadisticaReplicas get(Metrica metrica) {
+        return metricas[metrica.ordinal()];
+    }
+
+    /**
+     * Obtiene la cantidad de réplicas combinadas.
+     *
+     * @return Cantidad de réplicas
+     */
+    public long getReplicas() {
+        return metricas[0].getCantidad();
+    }
+
+    /**
+     * Obtiene el total de eventos simulados en todas las réplicas.
+     *
+     * @return Cantidad de eventos
+     */
+    public long getEventos() {
+        return eventos;
+    }
+
+    /**
+     * Genera un reporte con la media y el intervalo de confianza de cada
+     * métrica.
+     *
+     * @param confianza Nivel de confianza, por ejemplo 0.95
+     * @return Reporte formateado
+     */
+    public String generarReporte(double confianza) {
+        StringBuilder reporte = new StringBuilder();
+        reporte.append("=== RÉPLICAS: ").append(getReplicas()).append(" (IC ")
+                .append(String.format("%.0f%%", confianza * 100)).append(") ===\n\n");
+        for (Metrica metrica : Metrica.values()) {
+            EstadisticaReplicas estadistica = get(metrica);
+            reporte.append(String.format("%-32s %10.3f ± %-8.3f [min %.3f, max %.3f]%n",
+                    metrica.getDescripcion() + ":", estadistica.getMedia(), estadistica.getSemiancho(confianza),
+                    estadistica.getMinimo(), estadistica.getMaximo()));
+        }
+        if (get(Metrica.ESPERAS_DESBORDADAS).getMaximo() > 0) {
+            reporte.append("Hubo esperas de más de ").append(HistogramaEspera.SEGUNDOS_MAXIMOS / 60)
+                    .append(" min: los percentiles de espera son solo cotas inferiores.\n");
+        }
+        return reporte.toString();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+import java.util.Map;
+import modelo.Cliente;
+
+/**
+ * Resultado inmutable de una corrida de simulación.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class ResultadoSimulacion {
+
+    private final long semilla;
+    private final long clientesLlegados;
+    private final long clientesAtendidos;
+    private final double duracionMinutos;
+    private final double ocupacion;
+    private final long eventos;
+    private final long nanosReales;
+    private final ResumenEspera espera;
+    private final Map<Cliente.Prioridad, ResumenEspera> esperaPorPrioridad;
+    private final Map<Cliente.TipoSolicitud, ResumenEspera> esperaPorTipo;
+    private final String estadisticas;
+
+    ResultadoSimulacion(long semilla, long clientesLlegados, long clientesAtendidos, double duracionMinutos,
+            double ocupacion, long eventos, long nanosReales, ResumenEspera espera,
+            Map<Cliente.Prioridad, ResumenEspera> esperaPorPrioridad,
+            Map<Cliente.TipoSolicitud, ResumenEspera> esperaPorTipo, String estadisticas) {
+        this.semilla = semilla;
+        this.clientesLlegados = clientesLlegados;
+        this.clientesAtendidos = clientesAtendidos;
+        this.duracionMinutos = duracionMinutos;
+        this.ocupacion = ocupacion;
+        this.eventos = eventos;
+        this.nanosReales = nanosReales;
+        this.espera = espera;
+        this.esperaPorPrioridad = esperaPorPrioridad;
+        this.esperaPorTipo = esperaPorTipo;
+        this.estadisticas = estadisticas;
+    }
+
+    /**
+     * Obtiene la semilla de la corrida.
+     *
+     * @return Semilla del generador aleatorio
+     */
+    public long getSemilla() {
+        return semilla;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes que llegaron.
+     *
+     * @return Clientes llegados
+     */
+    public long getClientesLlegados() {
+        return clientesLlegados;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes atendidos.
+     *
+     * @return Clientes atendidos
+     */
+    public long getClientesAtendidos() {
+        return clientesAtendidos;
+    }
+
+    /**
+     * Obtiene el tiempo simulado hasta que terminó el último servicio.
+     *
+     * @return Duración simulada en minutos
+     */
+    public double getDuracionMinutos() {
+        return duracionMinutos;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes atendidos por hora simulada.
+     *
+     * @return Rendimiento en clientes por hora
+     */
+    public double getAtendidosPorHora() {
+        return duracionMinutos > 0 ? clientesAtendidos * 60.0 / duracionMinutos : 0.0;
+    }
+
+    /**
+     * Obtiene la fracción del tiempo en que las ventanillas estuvieron
+     * ocupadas.
+     *
+     * @return Ocupación promedio entre 0 y 1
+     */
+    public double getOcupacion() {
+        return ocupacion;
+    }
+
+    /**
+     * Obtiene la cantidad de eventos procesados.
+     *
+     * @return Eventos de llegada y fin de servicio
+     */
+    public long getEventos() {
+        return eventos;
+    }
+
+    /**
+     * Obtiene el tiempo real que tomó la corrida.
+     *
+     * @return Duración real en nanosegundos
+     */
+    public long getNanosReales() {
+        return nanosReales;
+    }
+
+    /**
+     * Obtiene la velocidad de la simulación.
+     *
+     * @return Eventos procesados por segundo real
+     */
+    public double getEventosPorSegundo() {
+        return nanosReales > 0 ? eventos * 1e9 / nanosReales : 0.0;
+    }
+
+    /**
+     * Obtiene el resumen de esperas de todos los clientes.
+     *
+     * @return Resumen de esperas
+     */
+    public ResumenEspera getEspera() {
+        return espera;
+    }
+
+    /**
+     * Obtiene el resumen de esperas de una prioridad.
+     *
+     * @param prioridad Prioridad de los clientes
+     * @return Resumen de esperas de esa prioridad
+     */
+    public ResumenEspera getEspera(Cliente.Prioridad prioridad) {
+        return esperaPorPrioridad.get(prioridad);
+    }
+
+    /**
+     * Obtiene el resumen de esperas de un tipo de solicitud.
+     *
+     * @param tipo Tipo de solicitud
+     * @return Resumen de esperas de ese tipo
+     */
+    public ResumenEspera getEspera(Cliente.TipoSolicitud tipo) {
+        return esperaPorTipo.get(tipo);
+    }
+
+    /**
+     * Obtiene el bloque de estadísticas propio del modo de ejecución, armado
+     * con los contadores del motor o de los hilos al final de la corrida.
+     *
+     * @return Estadísticas formateadas
+     */
+    public String getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Genera un reporte legible de la corrida.
+     *
+     * @return Reporte con los resultados y las estadísticas del modo de
+     * ejecución
+     */
+    public String generarReporte() {
+        StringBuilder reporte = new StringBuilder();
+        reporte.append("=== SIMULACIÓN (semilla ").append(semilla).append(") ===\n\n");
+        reporte.append("Clientes llegados: ").append(clientesLlegados).append("\n");
+        reporte.append("Clientes atendidos: ").append(clientesAtendidos).append("\n");
+        reporte.append("Duración simulada: ").append(String.format("%.1f", duracionMinutos)).append(" minutos\n");
+        reporte.append("Atendidos por hora: ").append(String.format("%.2f", getAtendidosPorHora())).append("\n");
+        reporte.append("Ocupación de ventanillas: ").append(String.format("%.1f%%", ocupacion * 100)).append("\n");
+        reporte.append("Espera: ").append(espera).append("\n");
+        for (Map.Entry<Cliente.Prioridad, ResumenEspera> entrada : esperaPorPrioridad.entrySet()) {
+            reporte.append("  ").append(entrada.getKey()).append(": ").append(entrada.getValue()).append("\n");
+        }
+        for (Map.Entry<Cliente.TipoSolicitud, ResumenEspera> entrada : esperaPorTipo.entrySet()) {
+            reporte.append("  ").append(entrada.getKey()).append(": ").append(entrada.getValue()).append("\n");
+        }
+        reporte.append("Eventos: ").append(eventos).append(" en ")
+                .append(String.format("%.1f", nanosReales / 1e6)).append(" ms (")
+                .append(String.format("%.0f", getEventosPorSegundo())).append(" eventos/s)\n\n");
+        reporte.append(estadisticas);
+        return reporte.toString();
+    }
+}
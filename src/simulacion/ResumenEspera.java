@@ -0,0 +1,125 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+/**
+ * Resumen inmutable de un conjunto de tiempos de espera, en minutos. Los
+ * percentiles que caen más allá del máximo del histograma se muestran como
+ * {@code p95>480.00} junto con la fracción de esperas desbordadas.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class ResumenEspera {
+
+    private final long cantidad;
+    private final double promedio;
+    private final double p50;
+    private final double p90;
+    private final double p95;
+    private final double maximo;
+    private final double fraccionDesbordada;
+    private final boolean p50Desbordado;
+    private final boolean p90Desbordado;
+    private final boolean p95Desbordado;
+
+    /**
+     * Constructor que resume el contenido actual de un histograma.
+     *
+     * @param histograma Histograma de esperas
+     */
+    public ResumenEspera(HistogramaEspera histograma) {
+        this.cantidad = histograma.getCantidad();
+        this.promedio = histograma.getPromedio();
+        this.p50 = histograma.getPercentil(50);
+        this.p90 = histograma.getPercentil(90);
+        this.p95 = histograma.getPercentil(95);
+        this.maximo = histograma.getMaximo();
+        this.fraccionDesbordada = histograma.getFraccionDesbordada();
+        this.p50Desbordado = histograma.isPercentilDesbordado(50);
+        this.p90Desbordado = histograma.isPercentilDesbordado(90);
+        this.p95Desbordado = histograma.isPercentilDesbordado(95);
+    }
+
+    /**
+     * Obtiene la cantidad de esperas resumidas.
+     *
+     * @return Cantidad de clientes
+     */
+    public long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la espera promedio.
+     *
+     * @return Promedio en minutos
+     */
+    public double getPromedio() {
+        return promedio;
+    }
+
+    /**
+     * Obtiene la mediana de la espera.
+     *
+     * @return Percentil 50 en minutos
+     */
+    public double getP50() {
+        return p50;
+    }
+
+    /**
+     * Obtiene el percentil 90 de la espera.
+     *
+     * @return Percentil 90 en minutos
+     */
+    public double getP90() {
+        return p90;
+    }
+
+    /**
+     * Obtiene el percentil 95 de la espera.
+     *
+     * @return Percentil 95 en minutos; si está desbordado es solo una cota
+     * inferior
+     */
+    public double getP95() {
+        return p95;
+    }
+
+    /**
+     * Obtiene la espera máxima.
+     *
+     * @return Máximo en minutos
+     */
+    public double getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * Obtiene la fracción de las esperas que superó el máximo del
+     * histograma ({@link HistogramaEspera#SEGUNDOS_MAXIMOS}).
+     *
+     * @return Fracción entre 0 y 1
+     */
+    public double getFraccionDesbordada() {
+        return fraccionDesbordada;
+    }
+
+    @Override
+    public String toString() {
+        String resumen = String.format("n=%d promedio=%.2f %s %s %s max=%.2f min",
+                cantidad, promedio, percentil("p50", p50, p50Desbordado), percentil("p90", p90, p90Desbordado),
+                percentil("p95", p95, p95Desbordado), maximo);
+        return fraccionDesbordada > 0
+                ? resumen + String.format(" (%.1f%% de más de %d min)", fraccionDesbordada * 100,
+                        HistogramaEspera.SEGUNDOS_MAXIMOS / 60)
+                : resumen;
+    }
+
+    private static String percentil(String nombre, double minutos, boolean desbordado) {
+        return nombre + (desbordado ? ">" : "=") + String.format("%.2f", minutos);
+    }
+}
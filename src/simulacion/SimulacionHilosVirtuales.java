@@ -0,0 +1,463 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package simulacion;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import modelo.Cliente;
+import modelo.GestionClientesConcurrente;
+
+/**
+ * Simulación en la que cada cliente es su propio hilo virtual. A diferencia
+ * de {@link MotorSimulacion}, el tiempo transcurre de verdad, acelerado por
+ * una escala de nanosegundos reales por minuto simulado.
+ *
+ * Cada cliente llega, se forma en una {@link GestionClientesConcurrente}
+ * compartida y espera su turno. Las ventanillas, también hilos virtuales,
+ * duermen en la cola hasta que una llegada las despierta, eligen al
+ * siguiente con la política de atención configurada y le entregan el
+ * turno; si la paciencia del cliente se agota antes, intenta salir de la
+ * cola y, si lo logra, cuenta como abandono. Cada ventanilla registra las
+ * esperas en sus propios histogramas, que se combinan al final.
+ *
+ * Como el tiempo es real, la corrida solo es fiel mientras la JVM sigue el
+ * ritmo de la escala. Cada llegada y cada fin de servicio mide cuánto se
+ * despertó tarde respecto de su instante programado; el reporte incluye el
+ * atraso máximo y promedio en minutos simulados y advierte cuando supera
+ * {@link #ATRASO_TOLERABLE_MINUTOS}. Con
+ * {@link #setAtrasoMaximo(double)} la corrida falla en lugar de advertir.
+ *
+ * Las llegadas y sus atributos dependen solo de la semilla, pero el orden
+ * de atención depende de la planificación de los hilos, así que dos
+ * corridas con la misma semilla no son idénticas. Sirve también como
+ * prueba de estrés de la cola concurrente con cientos de miles de clientes
+ * esperando a la vez.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class SimulacionHilosVirtuales {
+
+    /**
+     * Nanosegundos reales por minuto simulado por defecto: una jornada de
+     * ocho horas dura menos de medio segundo.
+     */
+    public static final long NANOS_POR_MINUTO_POR_DEFECTO = 1_000_000;
+
+    /**
+     * Atraso respecto del tiempo real, en minutos simulados, a partir del
+     * cual el reporte advierte que los resultados no son confiables.
+     */
+    public static final double ATRASO_TOLERABLE_MINUTOS = 1.0;
+
+    private static final String NOMBRE_CLIENTE = "Cliente simulado";
+
+    private Distribucion paciencia;
+    private long nanosPorMinuto;
+    private double atrasoMaximo;
+
+    /**
+     * Turno de un cliente: la ventanilla que lo elige lo entrega y el
+     * cliente lo espera. Lo crea el primero de los dos que llega a él.
+     */
+    private static final class Turno {
+        private final CountDownLatch entregado = new CountDownLatch(1);
+    }
+
+    /**
+     * Reloj que avanza un minuto simulado cada {@code nanosPorMinuto}
+     * nanosegundos reales a partir del inicio de la corrida.
+     */
+    private static final class RelojEscalado extends Clock {
+        private final Instant inicio;
+        private final ZoneId zona;
+        private final long origenNanos;
+        private final double factor;
+
+        private RelojEscalado(Instant inicio, ZoneId zona, long origenNanos, long nanosPorMinuto) {
+            this.inicio = inicio;
+            this.zona = zona;
+            this.origenNanos = origenNanos;
+            this.factor = 60e9 / nanosPorMinuto;
+        }
+
+        private double minutos() {
+            return (System.nanoTime() - origenNanos) * factor / 60e9;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zona;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new RelojEscalado(inicio, zone, origenNanos, (long) (60e9 / factor));
+        }
+
+        @Override
+        public Instant instant() {
+            return inicio.plusNanos((long) ((System.nanoTime() - origenNanos) * factor));
+        }
+    }
+
+    /**
+     * Constructor que crea una simulación sin abandonos y con la escala por
+     * defecto.
+     */
+    public SimulacionHilosVirtuales() {
+        this.nanosPorMinuto = NANOS_POR_MINUTO_POR_DEFECTO;
+        this.atrasoMaximo = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Obtiene la distribución de la paciencia de los clientes.
+     *
+     * @return Paciencia en minutos, o null si nadie abandona la cola
+     */
+    public Distribucion getPaciencia() {
+        return paciencia;
+    }
+
+    /**
+     * Establece cuánto espera cada cliente antes de abandonar la cola.
+     *
+     * @param paciencia Paciencia en minutos, o null para que nadie abandone
+     */
+    public void setPaciencia(Distribucion paciencia) {
+        this.paciencia = paciencia;
+    }
+
+    /**
+     * Obtiene la escala de tiempo de la simulación.
+     *
+     * @return Nanosegundos reales por minuto simulado
+     */
+    public long getNanosPorMinuto() {
+        return nanosPorMinuto;
+    }
+
+    /**
+     * Establece la escala de tiempo de la simulación.
+     *
+     * @param nanosPorMinuto Nanosegundos reales por minuto simulado
+     */
+    public void setNanosPorMinuto(long nanosPorMinuto) {
+        if (nanosPorMinuto <= 0) {
+            throw new IllegalArgumentException("La escala de tiempo debe ser positiva");
+        }
+        this.nanosPorMinuto = nanosPorMinuto;
+    }
+
+    /**
+     * Obtiene el atraso máximo permitido respecto del tiempo real.
+     *
+     * @return Atraso en minutos simulados, o infinito si la corrida nunca
+     * falla por atraso
+     */
+    public double getAtrasoMaximo() {
+        return atrasoMaximo;
+    }
+
+    /**
+     * Establece el atraso máximo permitido respecto del tiempo real. Si una
+     * llegada o un fin de servicio se despierta más tarde que esto, la
+     * corrida falla al terminar.
+     *
+     * @param minutos Atraso en minutos simulados
+     */
+    public void setAtrasoMaximo(double minutos) {
+        if (!(minutos > 0)) {
+            throw new IllegalArgumentException("El atraso máximo debe ser positivo");
+        }
+        this.atrasoMaximo = minutos;
+    }
+
+    /**
+     * Ejecuta una corrida: un hilo virtual por cliente durante la jornada
+     * configurada y un hilo virtual por ventanilla hasta atender a todos los
+     * que no abandonaron.
+     *
+     * @param configuracion Parámetros de la corrida
+     * @param semilla Semilla de las llegadas, tipos, prioridades, paciencias
+     * y tiempos de servicio
+     * @return Resultado de la corrida
+     * @throws InterruptedException si el hilo se interrumpe antes de terminar
+     * @throws IllegalStateException si la corrida se atrasó respecto del
+     * tiempo real más que {@link #getAtrasoMaximo()}
+     */
+    public ResultadoSimulacion ejecutar(ConfiguracionSimulacion configuracion, long semilla)
+            throws InterruptedException {
+        SplittableRandom aleatorio = new SplittableRandom(semilla);
+        GestionClientesConcurrente cola = new GestionClientesConcurrente();
+        cola.setPoliticaAtencion(configuracion.getPoliticaAtencion());
+        Map<String, Turno> turnos = new ConcurrentHashMap<>();
+        AtomicInteger vivos = new AtomicInteger();
+        LongAdder abandonos = new LongAdder();
+        int ventanillas = configuracion.getVentanillas();
+        Ventanilla[] puestos = new Ventanilla[ventanillas];
+        for (int i = 0; i < ventanillas; i++) {
+            puestos[i] = new Ventanilla(configuracion, aleatorio.split(), nanosPorMinuto);
+        }
+
+        calentar();
+        long inicioReal = System.nanoTime();
+        RelojEscalado reloj = new RelojEscalado(configuracion.getInicio().atZone(ZoneId.systemDefault()).toInstant(),
+                ZoneId.systemDefault(), inicioReal, nanosPorMinuto);
+        Thread[] hilosVentanillas = new Thread[ventanillas];
+        Thread.Builder constructorVentanillas = Thread.ofVirtual().name("ventanilla-", 1);
+        for (int i = 0; i < ventanillas; i++) {
+            Ventanilla puesto = puestos[i];
+            hilosVentanillas[i] = constructorVentanillas.start(() -> puesto.atender(cola, turnos, reloj));
+        }
+
+        Distribucion llegadas = configuracion.getLlegadas();
+        double[] pesos = configuracion.getProporcionTipos();
+        double proporcionUrgentes = configuracion.getProporcionUrgentes();
+        double duracion = configuracion.getDuracionMinutos();
+        long llegados = 0;
+        int maximoConcurrentes = 0;
+        long atrasoMaximoNanos = 0;
+        long atrasoTotalNanos = 0;
+        long despertares = 0;
+        // El cliente se forma en este hilo, antes de arrancar el suyo: al
+        // cerrar la cola ya están todos en ella
+        try (ExecutorService clientes = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("cliente-", 1).factory())) {
+            double llegada = llegadas.muestrear(aleatorio);
+            while (llegada <= duracion) {
+                Cliente.TipoSolicitud tipo = elegirTipo(pesos, aleatorio);
+                Cliente.Prioridad prioridad = aleatorio.nextDouble() < proporcionUrgentes
+                        ? Cliente.Prioridad.URGENTE : Cliente.Prioridad.NORMAL;
+                long pacienciaNanos = paciencia != null
+                        ? (long) (paciencia.muestrear(aleatorio) * nanosPorMinuto) : -1;
+                long atraso = esperarHasta(inicioReal + (long) (llegada * nanosPorMinuto));
+                atrasoMaximoNanos = Math.max(atrasoMaximoNanos, atraso);
+                atrasoTotalNanos += atraso;
+                despertares++;
+                String id = cola.agregarCliente(NOMBRE_CLIENTE, tipo, prioridad, LocalDateTime.now(reloj)).getId();
+                Turno turno = turnos.computeIfAbsent(id, clave -> new Turno());
+                maximoConcurrentes = Math.max(maximoConcurrentes, vivos.incrementAndGet());
+                clientes.execute(() -> esperarTurno(cola, turnos, id, turno, pacienciaNanos, vivos, abandonos));
+                llegados++;
+                llegada += llegadas.muestrear(aleatorio);
+            }
+            cola.cerrar();
+            for (Thread hilo : hilosVentanillas) {
+                hilo.join();
+            }
+        }
+        double minutos = reloj.minutos();
+        long nanosReales = System.nanoTime() - inicioReal;
+
+        // Los histogramas ocupan cientos de KB cada uno: se arman una sola
+        // vez con las esperas de todas las ventanillas
+        HistogramaEspera espera = new HistogramaEspera();
+        Map<Cliente.Prioridad, HistogramaEspera> esperaPorPrioridad = new EnumMap<>(Cliente.Prioridad.class);
+        Map<Cliente.TipoSolicitud, HistogramaEspera> esperaPorTipo = new EnumMap<>(Cliente.TipoSolicitud.class);
+        Cliente.Prioridad[] prioridades = Cliente.Prioridad.values();
+        Cliente.TipoSolicitud[] tipos = Cliente.TipoSolicitud.values();
+        long atendidos = 0;
+        double ocupado = 0;
+        for (Ventanilla puesto : puestos) {
+            for (int i = 0; i < puesto.atendidos; i++) {
+                double esperaCliente = puesto.esperas[i];
+                espera.registrar(esperaCliente);
+                esperaPorPrioridad.computeIfAbsent(prioridades[puesto.prioridades[i]], clave -> new HistogramaEspera())
+                        .registrar(esperaCliente);
+                esperaPorTipo.computeIfAbsent(tipos[puesto.tipos[i]], clave -> new HistogramaEspera())
+                        .registrar(esperaCliente);
+            }
+            atendidos += puesto.atendidos;
+            ocupado += puesto.ocupado;
+            atrasoMaximoNanos = Math.max(atrasoMaximoNanos, puesto.atrasoMaximoNanos);
+            atrasoTotalNanos += puesto.atrasoTotalNanos;
+            despertares += puesto.atendidos;
+        }
+        double atrasoMaximoMinutos = (double) atrasoMaximoNanos / nanosPorMinuto;
+        double atrasoPromedioMinutos = despertares > 0 ? (double) atrasoTotalNanos / despertares / nanosPorMinuto : 0;
+        if (atrasoMaximoMinutos > atrasoMaximo) {
+            throw new IllegalStateException(String.format("La corrida se atrasó %.2f minutos simulados (%.1f ms) "
+                    + "respecto del tiempo real, más que los %.2f permitidos; use una escala de tiempo mayor",
+                    atrasoMaximoMinutos, atrasoMaximoNanos / 1e6, atrasoMaximo));
+        }
+        Map<Cliente.Prioridad, ResumenEspera> resumenPrioridad = new EnumMap<>(Cliente.Prioridad.class);
+        for (Map.Entry<Cliente.Prioridad, HistogramaEspera> entrada : esperaPorPrioridad.entrySet()) {
+            resumenPrioridad.put(entrada.getKey(), new ResumenEspera(entrada.getValue()));
+        }
+        Map<Cliente.TipoSolicitud, ResumenEspera> resumenTipo = new EnumMap<>(Cliente.TipoSolicitud.class);
+        for (Map.Entry<Cliente.TipoSolicitud, HistogramaEspera> entrada : esperaPorTipo.entrySet()) {
+            resumenTipo.put(entrada.getKey(), new ResumenEspera(entrada.getValue()));
+        }
+
+        StringBuilder estadisticas = new StringBuilder();
+        estadisticas.append("=== HILOS VIRTUALES ===\n\n");
+        estadisticas.append("Clientes que abandonaron: ").append(abandonos.sum()).append("\n");
+        estadisticas.append("Máximo de clientes concurrentes: ").append(maximoConcurrentes).append("\n");
+        estadisticas.append("Escala: ").append(String.format("%.3f", nanosPorMinuto / 1e6))
+                .append(" ms por minuto simulado\n");
+        estadisticas.append(String.format("Atraso respecto del tiempo real: máximo %.3f min (%.1f ms), "
+                + "promedio %.3f min%n", atrasoMaximoMinutos, atrasoMaximoNanos / 1e6, atrasoPromedioMinutos));
+        if (atrasoMaximoMinutos >= ATRASO_TOLERABLE_MINUTOS) {
+            estadisticas.append("ADVERTENCIA: la JVM no siguió el ritmo de la escala; las esperas y la ocupación "
+                    + "no son confiables. Use una escala de tiempo mayor.\n");
+        }
+        double ocupacion = minutos > 0 ? Math.min(1.0, ocupado / (minutos * ventanillas)) : 0.0;
+        return new ResultadoSimulacion(semilla, llegados, atendidos, minutos, ocupacion,
+                llegados + atendidos + abandonos.sum(), nanosReales, new ResumenEspera(espera), resumenPrioridad,
+                resumenTipo, estadisticas.toString());
+    }
+
+    /**
+     * Vida de un cliente ya formado: espera su turno hasta agotar la
+     * paciencia y, si nadie lo eligió, sale de la cola.
+     */
+    private static void esperarTurno(GestionClientesConcurrente cola, Map<String, Turno> turnos, String id,
+            Turno turno, long pacienciaNanos, AtomicInteger vivos, LongAdder abandonos) {
+        try {
+            if (pacienciaNanos < 0) {
+                turno.entregado.await();
+            } else if (!turno.entregado.await(pacienciaNanos, TimeUnit.NANOSECONDS)) {
+                if (cola.eliminarClientePorIdCola(id) != null) {
+                    abandonos.increment();
+                } else {
+                    // Una ventanilla lo eligió justo al agotarse la paciencia
+                    turno.entregado.await();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            turnos.remove(id);
+            vivos.decrementAndGet();
+        }
+    }
+
+    /**
+     * Estado de una ventanilla: su generador de tiempos de servicio y sus
+     * propios acumuladores, que solo modifica su hilo. Las esperas se
+     * guardan en arreglos primitivos y no en histogramas propios, para que
+     * miles de ventanillas no ocupen cientos de KB cada una.
+     */
+    private static final class Ventanilla {
+        private final SplittableRandom aleatorio;
+        private final Distribucion[] servicio;
+        private final long nanosPorMinuto;
+        private double[] esperas;
+        private byte[] prioridades;
+        private byte[] tipos;
+        private int atendidos;
+        private double ocupado;
+        private long atrasoMaximoNanos;
+        private long atrasoTotalNanos;
+
+        private Ventanilla(ConfiguracionSimulacion configuracion, SplittableRandom aleatorio, long nanosPorMinuto) {
+            this.aleatorio = aleatorio;
+            this.servicio = new Distribucion[Cliente.TipoSolicitud.values().length];
+            for (Cliente.TipoSolicitud tipo : Cliente.TipoSolicitud.values()) {
+                servicio[tipo.ordinal()] = configuracion.getServicio(tipo);
+            }
+            this.nanosPorMinuto = nanosPorMinuto;
+            this.esperas = new double[16];
+            this.prioridades = new byte[16];
+            this.tipos = new byte[16];
+        }
+
+        private void atender(GestionClientesConcurrente cola, Map<String, Turno> turnos, Clock reloj) {
+            try {
+                Cliente cliente;
+                while ((cliente = cola.atenderCliente(reloj)) != null) {
+                    turnos.computeIfAbsent(cliente.getId(), clave -> new Turno()).entregado.countDown();
+
+                    if (atendidos == esperas.length) {
+                        esperas = Arrays.copyOf(esperas, atendidos * 2);
+                        prioridades = Arrays.copyOf(prioridades, atendidos * 2);
+                        tipos = Arrays.copyOf(tipos, atendidos * 2);
+                    }
+                    esperas[atendidos] = ChronoUnit.NANOS.between(cliente.getFechaLlegada(),
+                            cliente.getFechaAtencion()) / 60e9;
+                    prioridades[atendidos] = (byte) cliente.getPrioridad().ordinal();
+                    tipos[atendidos] = (byte) cliente.getTipoSolicitud().ordinal();
+                    atendidos++;
+
+                    double tiempoServicio = servicio[cliente.getTipoSolicitud().ordinal()].muestrear(aleatorio);
+                    long atraso = esperarHasta(System.nanoTime() + (long) (tiempoServicio * nanosPorMinuto));
+                    atrasoMaximoNanos = Math.max(atrasoMaximoNanos, atraso);
+                    atrasoTotalNanos += atraso;
+                    ocupado += tiempoServicio;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una vez, antes de fijar el origen del reloj, lo que la corrida
+     * hace en cada llegada y atención: la primera vez carga las clases de
+     * los hilos virtuales, las fechas y la cola, y sin esto la primera
+     * llegada empieza cientos de milisegundos atrasada.
+     */
+    private static void calentar() throws InterruptedException {
+        GestionClientesConcurrente prueba = new GestionClientesConcurrente();
+        Clock reloj = new RelojEscalado(Instant.now(), ZoneId.systemDefault(), System.nanoTime(), 1);
+        Thread hilo = Thread.ofVirtual().start(() -> {
+            try {
+                prueba.atenderCliente(reloj);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        prueba.agregarCliente(NOMBRE_CLIENTE, Cliente.TipoSolicitud.values()[0], Cliente.Prioridad.NORMAL,
+                LocalDateTime.now(reloj));
+        hilo.join();
+        new Turno().entregado.countDown();
+    }
+
+    /**
+     * Duerme hasta un instante de {@link System#nanoTime()}.
+     *
+     * @return Nanosegundos de atraso respecto del instante, incluido el que
+     * ya se traía si el instante había pasado al llamar
+     */
+    private static long esperarHasta(long instanteNanos) {
+        long restante;
+        while ((restante = instanteNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+        return -restante;
+    }
+
+    private static Cliente.TipoSolicitud elegirTipo(double[] pesos, SplittableRandom aleatorio) {
+        double total = 0;
+        for (double peso : pesos) {
+            total += peso;
+        }
+        double valor = aleatorio.nextDouble() * total;
+        Cliente.TipoSolicitud[] tipos = Cliente.TipoSolicitud.values();
+        for (int i = 0; i < pesos.length - 1; i++) {
+            if (valor < pesos[i]) {
+                return tipos[i];
+            }
+            valor -= pesos[i];
+        }
+        return tipos[pesos.length - 1];
+    }
+}
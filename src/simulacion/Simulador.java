@@ -0,0 +1,195 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Main.java to edit this template
+ */
+package simulacion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import modelo.Cliente;
+import modelo.PoliticaAtencion;
+
+/**
+ * Punto de entrada de la simulación sin interfaz gráfica. Ejecuta una
+ * corrida con los parámetros de la línea de comandos e imprime el reporte,
+ * que termina con los contadores propios del motor.
+ *
+ * Opciones: {@code --ventanillas N}, {@code --tasa llegadasPorHora},
+ * {@code --urgentes proporcion}, {@code --horas duracion},
+ * {@code --semilla N}, {@code --servicio SOPORTE=4,MANTENIMIENTO=6,RECLAMO=8}
+ * (medias exponenciales en minutos) y {@code --sin-historial} para no
+ * guardar los clientes atendidos en corridas muy largas.
+ *
+ * Con {@code --replicas N} se ejecutan N réplicas independientes en
+ * paralelo y se reporta la media de cada métrica con su intervalo de
+ * confianza ({@code --confianza 0.95} por defecto). {@code --politica}
+ * elige la política de atención (HIBRIDA o PRIORIDAD_ESTRICTA).
+ *
+ * Con {@code --barrido} se ejecuta un {@link BarridoParametros} sobre
+ * {@code --tasas}, {@code --rango-ventanillas}, {@code --rango-urgentes} y
+ * {@code --politicas}, con {@code --replicas} por punto, y los resultados
+ * se escriben en {@code --salida} (barrido.csv por defecto).
+ *
+ * Con {@code --hilos-virtuales} la corrida usa
+ * {@link SimulacionHilosVirtuales}: un hilo virtual por cliente, con
+ * {@code --paciencia media} (minutos, exponencial) antes de abandonar la
+ * cola y {@code --escala-tiempo} milisegundos reales por minuto simulado.
+ * Con {@code --atraso-maximo minutos} la corrida falla si la JVM se atrasa
+ * más que eso respecto del tiempo real.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class Simulador {
+
+    /**
+     * @param args Opciones de la simulación
+     * @throws IOException si no se puede escribir el resultado del barrido
+     */
+    public static void main(String[] args) throws IOException {
+        ConfiguracionSimulacion configuracion = configuracionDesde(args);
+        String valor = valorOpcion(args, "--semilla");
+        long semilla = valor != null ? Long.parseLong(valor) : System.nanoTime();
+        String replicas = valorOpcion(args, "--replicas");
+        if (Arrays.asList(args).contains("--barrido")) {
+            ejecutarBarrido(args, configuracion, semilla, replicas);
+            return;
+        }
+        if (replicas != null) {
+            String confianza = valorOpcion(args, "--confianza");
+            long inicio = System.nanoTime();
+            ResultadoReplicaciones resultado = Replicaciones.ejecutar(configuracion, Integer.parseInt(replicas),
+                    semilla);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.println(resultado.generarReporte(confianza != null ? Double.parseDouble(confianza) : 0.95));
+            System.out.println(String.format("Eventos: %d en %.2f s (%.0f eventos/s)", resultado.getEventos(),
+                    segundos, resultado.getEventos() / segundos));
+            return;
+        }
+        if (Arrays.asList(args).contains("--hilos-virtuales")) {
+            ejecutarHilosVirtuales(args, configuracion, semilla);
+            return;
+        }
+        ResultadoSimulacion resultado = new MotorSimulacion().ejecutar(configuracion, semilla);
+        System.out.println(resultado.generarReporte());
+    }
+
+    private static void ejecutarHilosVirtuales(String[] args, ConfiguracionSimulacion configuracion,
+            long semilla) {
+        SimulacionHilosVirtuales simulacion = new SimulacionHilosVirtuales();
+        String valor;
+        if ((valor = valorOpcion(args, "--paciencia")) != null) {
+            simulacion.setPaciencia(Distribucion.exponencial(Double.parseDouble(valor)));
+        }
+        if ((valor = valorOpcion(args, "--escala-tiempo")) != null) {
+            simulacion.setNanosPorMinuto((long) (Double.parseDouble(valor) * 1e6));
+        }
+        if ((valor = valorOpcion(args, "--atraso-maximo")) != null) {
+            simulacion.setAtrasoMaximo(Double.parseDouble(valor));
+        }
+        try {
+            System.out.println(simulacion.ejecutar(configuracion, semilla).generarReporte());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            System.err.println("Simulación interrumpida");
+        } catch (IllegalStateException ex) {
+            System.err.println(ex.getMessage());
+        }
+    }
+
+    private static void ejecutarBarrido(String[] args, ConfiguracionSimulacion configuracion, long semilla,
+            String replicas) throws IOException {
+        BarridoParametros barrido = new BarridoParametros(configuracion);
+        String valor;
+        if ((valor = valorOpcion(args, "--tasas")) != null) {
+            barrido.setTasas(BarridoParametros.rango(valor));
+        }
+        if ((valor = valorOpcion(args, "--rango-ventanillas")) != null) {
+            barrido.setVentanillas(BarridoParametros.rangoEntero(valor));
+        }
+        if ((valor = valorOpcion(args, "--rango-urgentes")) != null) {
+            barrido.setProporcionesUrgentes(BarridoParametros.rango(valor));
+        }
+        if ((valor = valorOpcion(args, "--politicas")) != null) {
+            String[] nombres = valor.split(",");
+            PoliticaAtencion[] politicas = new PoliticaAtencion[nombres.length];
+            for (int i = 0; i < nombres.length; i++) {
+                politicas[i] = PoliticaAtencion.valueOf(nombres[i].trim().toUpperCase());
+            }
+            barrido.setPoliticas(politicas);
+        }
+        if (replicas != null) {
+            barrido.setReplicas(Integer.parseInt(replicas));
+        }
+        if ((valor = valorOpcion(args, "--confianza")) != null) {
+            barrido.setConfianza(Double.parseDouble(valor));
+        }
+        barrido.setSemilla(semilla);
+        String salida = valorOpcion(args, "--salida");
+        Path archivo = Paths.get(salida != null ? salida : "barrido.csv");
+
+        long inicio = System.nanoTime();
+        int puntos = barrido.ejecutar(archivo);
+        System.out.println(String.format("Barrido: %d puntos en %.2f s -> %s", puntos,
+                (System.nanoTime() - inicio) / 1e9, archivo.toAbsolutePath()));
+    }
+
+    /**
+     * Construye una configuración a partir de las opciones de la línea de
+     * comandos. Las opciones ausentes conservan su valor por defecto.
+     *
+     * @param args Argumentos de la línea de comandos
+     * @return Configuración de la simulación
+     */
+    public static ConfiguracionSimulacion configuracionDesde(String[] args) {
+        ConfiguracionSimulacion configuracion = new ConfiguracionSimulacion();
+        String valor;
+        if ((valor = valorOpcion(args, "--ventanillas")) != null) {
+            configuracion.setVentanillas(Integer.parseInt(valor));
+        }
+        if ((valor = valorOpcion(args, "--tasa")) != null) {
+            configuracion.setTasaLlegadasPorHora(Double.parseDouble(valor));
+        }
+        if ((valor = valorOpcion(args, "--urgentes")) != null) {
+            configuracion.setProporcionUrgentes(Double.parseDouble(valor));
+        }
+        if ((valor = valorOpcion(args, "--horas")) != null) {
+            configuracion.setDuracionMinutos(Double.parseDouble(valor) * 60);
+        }
+        if ((valor = valorOpcion(args, "--servicio")) != null) {
+            for (String par : valor.split(",")) {
+                String[] partes = par.split("=");
+                if (partes.length != 2) {
+                    throw new IllegalArgumentException("Tiempo de servicio inválido: " + par);
+                }
+                configuracion.setServicio(Cliente.TipoSolicitud.valueOf(partes[0].trim().toUpperCase()),
+                        Distribucion.exponencial(Double.parseDouble(partes[1].trim())));
+            }
+        }
+        if ((valor = valorOpcion(args, "--politica")) != null) {
+            configuracion.setPoliticaAtencion(PoliticaAtencion.valueOf(valor.trim().toUpperCase()));
+        }
+        if (Arrays.asList(args).contains("--sin-historial")) {
+            configuracion.setConservarHistorial(false);
+        }
+        return configuracion;
+    }
+
+    /**
+     * Obtiene el valor que sigue a una opción de la línea de comandos.
+     *
+     * @param args Argumentos de la línea de comandos
+     * @param opcion Nombre de la opción
+     * @return Valor de la opción, o null si no está presente
+     */
+    static String valorOpcion(String[] args, String opcion) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(opcion)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+}
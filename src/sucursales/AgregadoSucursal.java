@@ -0,0 +1,190 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package sucursales;
+
+/**
+ * Estadísticas acumuladas de una o varias sucursales: clientes en espera,
+ * atendidos y un histograma de las esperas de los atendidos. Dos agregados
+ * se combinan sumándolos, así que las estadísticas de la red se obtienen
+ * combinando los de cada sucursal sin recorrer sus clientes.
+ *
+ * El histograma usa intervalos logarítmicos sobre segundos: cada potencia
+ * de dos se divide en 16 intervalos, con un error relativo menor al 7% en
+ * los percentiles y 8 KB por sucursal.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class AgregadoSucursal {
+
+    private static final int SUBDIVISIONES = 4;
+    private static final int POR_POTENCIA = 1 << SUBDIVISIONES;
+    private static final int INTERVALOS = (64 - SUBDIVISIONES + 1) * POR_POTENCIA;
+
+    private final long[] intervalos;
+    private long atendidos;
+    private long sumaSegundos;
+    private int enEspera;
+    private int urgentesEnEspera;
+    private String sucursalMasOcupada;
+    private int enEsperaMasOcupada;
+
+    AgregadoSucursal() {
+        this.intervalos = new long[INTERVALOS];
+        this.enEsperaMasOcupada = -1;
+    }
+
+    private AgregadoSucursal(AgregadoSucursal otro) {
+        this.intervalos = otro.intervalos.clone();
+        this.atendidos = otro.atendidos;
+        this.sumaSegundos = otro.sumaSegundos;
+        this.enEspera = otro.enEspera;
+        this.urgentesEnEspera = otro.urgentesEnEspera;
+        this.sucursalMasOcupada = otro.sucursalMasOcupada;
+        this.enEsperaMasOcupada = otro.enEsperaMasOcupada;
+    }
+
+    /**
+     * Suma o resta la espera de un cliente atendido.
+     *
+     * @param segundos Espera en segundos
+     * @param signo 1 al atender, -1 al deshacer la atención
+     */
+    void registrarEspera(long segundos, int signo) {
+        long valor = Math.max(0, segundos);
+        intervalos[indice(valor)] += signo;
+        atendidos += signo;
+        sumaSegundos += signo * valor;
+    }
+
+    /**
+     * Crea una copia con la cola de una sucursal en el momento de la copia.
+     */
+    AgregadoSucursal copiar(String clave, int enEspera, int urgentesEnEspera) {
+        AgregadoSucursal copia = new AgregadoSucursal(this);
+        copia.enEspera = enEspera;
+        copia.urgentesEnEspera = urgentesEnEspera;
+        copia.sucursalMasOcupada = clave;
+        copia.enEsperaMasOcupada = enEspera;
+        return copia;
+    }
+
+    /**
+     * Combina dos agregados en uno nuevo, sin modificarlos.
+     *
+     * @param a Primer agregado
+     * @param b Segundo agregado
+     * @return Agregado con la suma de ambos
+     */
+    static AgregadoSucursal combinar(AgregadoSucursal a, AgregadoSucursal b) {
+        AgregadoSucursal suma = new AgregadoSucursal(a);
+        for (int i = 0; i < INTERVALOS; i++) {
+            suma.intervalos[i] += b.intervalos[i];
+        }
+        suma.atendidos += b.atendidos;
+        suma.sumaSegundos += b.sumaSegundos;
+        suma.enEspera += b.enEspera;
+        suma.urgentesEnEspera += b.urgentesEnEspera;
+        if (b.enEsperaMasOcupada > a.enEsperaMasOcupada) {
+            suma.sucursalMasOcupada = b.sucursalMasOcupada;
+            suma.enEsperaMasOcupada = b.enEsperaMasOcupada;
+        }
+        return suma;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes en espera.
+     *
+     * @return Clientes en espera
+     */
+    public int getEnEspera() {
+        return enEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes urgentes en espera.
+     *
+     * @return Clientes urgentes en espera
+     */
+    public int getUrgentesEnEspera() {
+        return urgentesEnEspera;
+    }
+
+    /**
+     * Obtiene la cantidad de clientes atendidos.
+     *
+     * @return Clientes atendidos
+     */
+    public long getAtendidos() {
+        return atendidos;
+    }
+
+    /**
+     * Obtiene la espera promedio de los atendidos.
+     *
+     * @return Promedio en minutos, o 0 si no hay atendidos
+     */
+    public double getPromedioEsperaMinutos() {
+        return atendidos > 0 ? sumaSegundos / 60.0 / atendidos : 0;
+    }
+
+    /**
+     * Obtiene un percentil de las esperas de los atendidos. Se devuelve el
+     * límite superior del intervalo que lo contiene.
+     *
+     * @param percentil Percentil entre 0 y 100
+     * @return Espera en minutos, o 0 si no hay atendidos
+     */
+    public double getPercentilEsperaMinutos(double percentil) {
+        if (atendidos <= 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(atendidos * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < INTERVALOS; i++) {
+            acumulado += intervalos[i];
+            if (acumulado >= objetivo) {
+                return limiteSuperior(i) / 60.0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Obtiene la sucursal con más clientes en espera.
+     *
+     * @return Clave de la sucursal, o null si no hay sucursales
+     */
+    public String getSucursalMasOcupada() {
+        return sucursalMasOcupada;
+    }
+
+    /**
+     * Obtiene los clientes en espera de la sucursal más ocupada.
+     *
+     * @return Clientes en espera, o -1 si no hay sucursales
+     */
+    public int getEnEsperaMasOcupada() {
+        return enEsperaMasOcupada;
+    }
+
+    private static int indice(long valor) {
+        if (valor < POR_POTENCIA) {
+            return (int) valor;
+        }
+        int potencia = 63 - Long.numberOfLeadingZeros(valor);
+        int desplazamiento = potencia - SUBDIVISIONES;
+        return (desplazamiento + 1) * POR_POTENCIA + (int) ((valor >>> desplazamiento) - POR_POTENCIA);
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < POR_POTENCIA) {
+            return indice;
+        }
+        int desplazamiento = indice / POR_POTENCIA - 1;
+        long base = (long) (POR_POTENCIA + indice % POR_POTENCIA) << desplazamiento;
+        return base + (1L << desplazamiento) - 1;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package sucursales;
+
+/**
+ * Estadísticas de toda la red de sucursales, obtenidas al combinar los
+ * agregados de cada sucursal.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public final class EstadisticasRed {
+
+    private final int sucursales;
+    private final AgregadoSucursal total;
+
+    EstadisticasRed(int sucursales, AgregadoSucursal total) {
+        this.sucursales = sucursales;
+        this.total = total;
+    }
+
+    /**
+     * Obtiene la cantidad de sucursales combinadas.
+     *
+     * @return Cantidad de sucursales
+     */
+    public int getSucursales() {
+        return sucursales;
+    }
+
+    /**
+     * Obtiene la suma de las colas de espera de todas las sucursales.
+     *
+     * @return Clientes en espera en la red
+     */
+    public int getEnEspera() {
+        return total.getEnEspera();
+    }
+
+    /**
+     * Obtiene los clientes urgentes en espera en toda la red.
+     *
+     * @return Clientes urgentes en espera
+     */
+    public int getUrgentesEnEspera() {
+        return total.getUrgentesEnEspera();
+    }
+
+    /**
+     * Obtiene los clientes atendidos en toda la red.
+     *
+     * @return Clientes atendidos
+     */
+    public long getAtendidos() {
+        return total.getAtendidos();
+    }
+
+    /**
+     * Obtiene la espera promedio de los atendidos de toda la red.
+     *
+     * @return Promedio en minutos
+     */
+    public double getPromedioEsperaMinutos() {
+        return total.getPromedioEsperaMinutos();
+    }
+
+    /**
+     * Obtiene un percentil global de espera de los atendidos.
+     *
+     * @param percentil Percentil entre 0 y 100
+     * @return Espera en minutos
+     */
+    public double getPercentilEsperaMinutos(double percentil) {
+        return total.getPercentilEsperaMinutos(percentil);
+    }
+
+    /**
+     * Obtiene la sucursal con la cola más larga.
+     *
+     * @return Clave de la sucursal, o null si la red está vacía
+     */
+    public String getSucursalMasOcupada() {
+        return total.getSucursalMasOcupada();
+    }
+
+    /**
+     * Obtiene la longitud de la cola de la sucursal más ocupada.
+     *
+     * @return Clientes en espera, o 0 si la red está vacía
+     */
+    public int getEnEsperaMasOcupada() {
+        return Math.max(0, total.getEnEsperaMasOcupada());
+    }
+
+    /**
+     * Genera un resumen legible de las estadísticas de la red.
+     *
+     * @return Texto con las estadísticas
+     */
+    public String generarTexto() {
+        return String.format("=== RED DE SUCURSALES ===%n"
+                + "Sucursales: %d%n"
+                + "Clientes en espera: %d (urgentes: %d)%n"
+                + "Clientes atendidos: %d%n"
+                + "Espera promedio: %.2f min%n"
+                + "Espera p50/p90/p99: %.2f / %.2f / %.2f min%n"
+                + "Sucursal más ocupada: %s (%d en espera)",
+                sucursales, getEnEspera(), getUrgentesEnEspera(), getAtendidos(), getPromedioEsperaMinutos(),
+                getPercentilEsperaMinutos(50), getPercentilEsperaMinutos(90), getPercentilEsperaMinutos(99),
+                getSucursalMasOcupada() != null ? getSucursalMasOcupada() : "-", getEnEsperaMasOcupada());
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package sucursales;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import modelo.Cliente;
+import modelo.Modelo;
+
+/**
+ * Contenedor de muchas sucursales independientes en una sola JVM. Cada
+ * sucursal tiene su propio {@link Modelo} y las operaciones se enrutan por
+ * la clave de la sucursal; todas comparten un mismo grupo de hilos, así que
+ * mil sucursales no necesitan mil hilos.
+ *
+ * Las estadísticas de la red no recorren los clientes: cada sucursal
+ * mantiene un {@link AgregadoSucursal} al registrar y deshacer atenciones,
+ * las copias se toman en paralelo (cada una en el turno de su sucursal) y
+ * luego se combinan de a pares.
+ *
+ * Los clientes devueltos son copias; los originales pertenecen al modelo
+ * de su sucursal.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class RedSucursales implements Closeable {
+
+    private final Map<String, Sucursal> sucursales;
+    private final ExecutorService hilos;
+    private final Clock reloj;
+
+    /**
+     * Crea una red con un hilo por procesador disponible.
+     */
+    public RedSucursales() {
+        this(Runtime.getRuntime().availableProcessors(), Clock.systemDefaultZone());
+    }
+
+    /**
+     * Crea una red con la cantidad de hilos indicada.
+     *
+     * @param cantidadHilos Hilos del grupo compartido por las sucursales
+     * @param reloj Reloj con el que se crean los modelos de las sucursales
+     */
+    public RedSucursales(int cantidadHilos, Clock reloj) {
+        if (cantidadHilos < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo");
+        }
+        this.sucursales = new ConcurrentHashMap<>();
+        this.reloj = reloj;
+        AtomicInteger contador = new AtomicInteger();
+        this.hilos = Executors.newFixedThreadPool(cantidadHilos, tarea -> {
+            Thread nuevo = new Thread(tarea, "sucursales-" + contador.getAndIncrement());
+            nuevo.setDaemon(true);
+            return nuevo;
+        });
+    }
+
+    /**
+     * Agrega una sucursal vacía a la red.
+     *
+     * @param clave Clave con la que se enrutan las operaciones
+     * @return true si se agregó, false si ya existía
+     */
+    public boolean agregarSucursal(String clave) {
+        if (clave == null || clave.isBlank()) {
+            throw new IllegalArgumentException("La clave de la sucursal no puede estar vacía");
+        }
+        return sucursales.putIfAbsent(clave, new Sucursal(clave, new Modelo(reloj), hilos)) == null;
+    }
+
+    /**
+     * Obtiene las claves de las sucursales de la red.
+     *
+     * @return Copia de las claves
+     */
+    public List<String> getClaves() {
+        return new ArrayList<>(sucursales.keySet());
+    }
+
+    /**
+     * Obtiene la cantidad de sucursales de la red.
+     *
+     * @return Cantidad de sucursales
+     */
+    public int getCantidadSucursales() {
+        return sucursales.size();
+    }
+
+    /**
+     * Envía un comando al modelo de una sucursal. Se ejecuta después de los
+     * comandos enviados antes a la misma sucursal.
+     *
+     * @param <T> Tipo del resultado
+     * @param clave Clave de la sucursal
+     * @param comando Operación a aplicar sobre el modelo
+     * @return Future con el resultado, o fallido con
+     * IllegalArgumentException si la sucursal no existe
+     */
+    public <T> CompletableFuture<T> enviar(String clave, Function<Modelo, T> comando) {
+        Sucursal sucursal = sucursales.get(clave);
+        if (sucursal == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Sucursal desconocida: " + clave));
+        }
+        return sucursal.enviar(comando);
+    }
+
+    /**
+     * Agrega un nuevo cliente a la cola de una sucursal.
+     *
+     * @param clave Clave de la sucursal
+     * @param nombre Nombre del cliente
+     * @param tipoSolicitud Tipo de solicitud del cliente
+     * @param prioridad Prioridad del cliente
+     * @return Future con una copia del cliente agregado, o null si no se pudo
+     * agregar
+     */
+    public CompletableFuture<Cliente> agregarCliente(String clave, String nombre,
+            Cliente.TipoSolicitud tipoSolicitud, Cliente.Prioridad prioridad) {
+        return enviar(clave, m -> copiar(m.agregarCliente(nombre, tipoSolicitud, prioridad)));
+    }
+
+    /**
+     * Atiende al siguiente cliente de una sucursal.
+     *
+     * @param clave Clave de la sucursal
+     * @return Future con una copia del cliente atendido, o null si la cola
+     * estaba vacía
+     */
+    public CompletableFuture<Cliente> atenderCliente(String clave) {
+        return enviar(clave, m -> copiar(m.atenderCliente()));
+    }
+
+    /**
+     * Elimina un cliente de la cola de una sucursal.
+     *
+     * @param clave Clave de la sucursal
+     * @param id ID del cliente
+     * @return Future con una copia del cliente eliminado, o null si no estaba
+     * en la cola
+     */
+    public CompletableFuture<Cliente> eliminarClientePorId(String clave, String id) {
+        return enviar(clave, m -> copiar(m.eliminarClientePorId(id)));
+    }
+
+    /**
+     * Deshace la última acción de una sucursal.
+     *
+     * @param clave Clave de la sucursal
+     * @return Future con true si se deshizo una acción
+     */
+    public CompletableFuture<Boolean> deshacerUltimaAccion(String clave) {
+        return enviar(clave, Modelo::deshacerUltimaAccion);
+    }
+
+    /**
+     * Calcula las estadísticas de toda la red. Los agregados de las
+     * sucursales se copian en paralelo en el grupo de hilos y se combinan
+     * en forma de árbol, así que el costo depende de la cantidad de
+     * sucursales y no de la de clientes.
+     *
+     * @return Future con las estadísticas combinadas
+     */
+    public CompletableFuture<EstadisticasRed> getEstadisticas() {
+        List<CompletableFuture<AgregadoSucursal>> copias = new ArrayList<>(sucursales.size());
+        for (Sucursal sucursal : sucursales.values()) {
+            copias.add(sucursal.copiarAgregado());
+        }
+        int cantidad = copias.size();
+        if (cantidad == 0) {
+            return CompletableFuture.completedFuture(new EstadisticasRed(0, new AgregadoSucursal()));
+        }
+        while (copias.size() > 1) {
+            List<CompletableFuture<AgregadoSucursal>> siguiente = new ArrayList<>((copias.size() + 1) / 2);
+            for (int i = 0; i + 1 < copias.size(); i += 2) {
+                siguiente.add(copias.get(i).thenCombineAsync(copias.get(i + 1), AgregadoSucursal::combinar, hilos));
+            }
+            if (copias.size() % 2 == 1) {
+                siguiente.add(copias.get(copias.size() - 1));
+            }
+            copias = siguiente;
+        }
+        return copias.get(0).thenApply(total -> new EstadisticasRed(cantidad, total));
+    }
+
+    private static Cliente copiar(Cliente cliente) {
+        return cliente != null ? cliente.copiar() : null;
+    }
+
+    /**
+     * Detiene el grupo de hilos. Los comandos enviados después fallan con
+     * RejectedExecutionException.
+     */
+    @Override
+    public void close() {
+        hilos.shutdown();
+    }
+}
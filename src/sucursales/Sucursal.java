@@ -0,0 +1,156 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package sucursales;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import modelo.Action;
+import modelo.Modelo;
+import modelo.ObservadorModelo;
+
+/**
+ * Una partición de la red: un {@link Modelo} independiente con su propia
+ * cola de comandos. Los comandos de una sucursal se ejecutan de a uno, en
+ * orden de llegada, en cualquier hilo del grupo compartido; así cada
+ * modelo sigue teniendo un solo escritor a la vez sin ocupar un hilo por
+ * sucursal.
+ *
+ * @author Valery
+ * @author Andres
+ */
+final class Sucursal implements ObservadorModelo {
+
+    /**
+     * Comandos que se ejecutan antes de ceder el hilo a otra sucursal.
+     */
+    private static final int TAMANO_LOTE = 64;
+
+    private final String clave;
+    private final Modelo modelo;
+    private final Executor hilos;
+    private final Queue<Comando<?>> comandos;
+    private final AtomicBoolean programada;
+    private final AgregadoSucursal agregado;
+
+    Sucursal(String clave, Modelo modelo, Executor hilos) {
+        this.clave = clave;
+        this.modelo = modelo;
+        this.hilos = hilos;
+        this.comandos = new ConcurrentLinkedQueue<>();
+        this.programada = new AtomicBoolean();
+        this.agregado = new AgregadoSucursal();
+        modelo.agregarObservador(this);
+    }
+
+    String getClave() {
+        return clave;
+    }
+
+    /**
+     * Encola un comando sobre el modelo de la sucursal.
+     *
+     * @param <T> Tipo del resultado
+     * @param comando Operación a aplicar sobre el modelo
+     * @return Future con el resultado del comando
+     */
+    <T> CompletableFuture<T> enviar(Function<Modelo, T> comando) {
+        Comando<T> nuevo = new Comando<>(comando);
+        comandos.add(nuevo);
+        programar();
+        return nuevo.futuro;
+    }
+
+    /**
+     * Copia el agregado de la sucursal en su propio turno, de modo que la
+     * copia es consistente con la cola en ese momento.
+     *
+     * @return Future con la copia del agregado
+     */
+    CompletableFuture<AgregadoSucursal> copiarAgregado() {
+        return enviar(m -> agregado.copiar(clave, m.getGestionClientes().getCantidadClientesEnEspera(),
+                m.getGestionClientes().getCantidadUrgentesEnEspera()));
+    }
+
+    private void programar() {
+        if (programada.compareAndSet(false, true)) {
+            try {
+                hilos.execute(this::drenar);
+            } catch (RejectedExecutionException ex) {
+                // El grupo de hilos se cerró: los comandos pendientes no se
+                // ejecutarán, así que se rechazan en lugar de quedar colgados.
+                Comando<?> comando;
+                while ((comando = comandos.poll()) != null) {
+                    comando.futuro.completeExceptionally(ex);
+                }
+                programada.set(false);
+            }
+        }
+    }
+
+    private void drenar() {
+        for (int i = 0; i < TAMANO_LOTE; i++) {
+            Comando<?> comando = comandos.poll();
+            if (comando == null) {
+                break;
+            }
+            comando.ejecutar(modelo);
+        }
+        programada.set(false);
+        if (!comandos.isEmpty()) {
+            programar();
+        }
+    }
+
+    @Override
+    public void accionRegistrada(Action accion) {
+        registrarEspera(accion, 1);
+    }
+
+    @Override
+    public void accionDeshecha(Action accion) {
+        registrarEspera(accion, -1);
+    }
+
+    @Override
+    public void accionRehecha(Action accion) {
+        registrarEspera(accion, 1);
+    }
+
+    /**
+     * La espera se calcula con la fecha de la acción, que es la fecha de
+     * atención, porque al deshacer el cliente ya no la conserva.
+     */
+    private void registrarEspera(Action accion, int signo) {
+        if (accion.getTipo() == Action.TipoAccion.ATENDER) {
+            agregado.registrarEspera(Duration.between(accion.getCliente().getFechaLlegada(),
+                    accion.getFechaHora()).getSeconds(), signo);
+        }
+    }
+
+    private static final class Comando<T> {
+
+        private final Function<Modelo, T> operacion;
+        private final CompletableFuture<T> futuro;
+
+        Comando(Function<Modelo, T> operacion) {
+            this.operacion = operacion;
+            this.futuro = new CompletableFuture<>();
+        }
+
+        void ejecutar(Modelo modelo) {
+            try {
+                futuro.complete(operacion.apply(modelo));
+            } catch (RuntimeException ex) {
+                futuro.completeExceptionally(ex);
+            }
+        }
+    }
+}
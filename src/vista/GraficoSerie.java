@@ -0,0 +1,195 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package vista;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import javax.swing.JComponent;
+
+/**
+ * Gráfico de líneas de una o más {@link SerieTemporal} dibujado con Java2D.
+ * Cada serie se reduce a un par mínimo/máximo por columna de píxeles y se
+ * dibuja como una línea vertical por columna, así que el costo de pintar
+ * depende del ancho del gráfico y de la capacidad de las series, no de
+ * cuánto tiempo lleva la aplicación abierta. La escala vertical parte de 0 y
+ * se ajusta al máximo visible.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class GraficoSerie extends JComponent {
+
+    private static final int MARGEN_IZQUIERDO = 44;
+    private static final int MARGEN_DERECHO = 8;
+    private static final int MARGEN_SUPERIOR = 22;
+    private static final int MARGEN_INFERIOR = 8;
+    private static final Color COLOR_FONDO = Color.WHITE;
+    private static final Color COLOR_GUIA = new Color(225, 225, 225);
+
+    private final String titulo;
+    private final SerieTemporal[] series;
+    private final String[] nombres;
+    private final Color[] colores;
+    private double[][] minimos;
+    private double[][] maximos;
+
+    /**
+     * Constructor del gráfico.
+     *
+     * @param titulo Título que se muestra arriba a la izquierda
+     * @param series Series a dibujar
+     * @param nombres Nombre de cada serie para la leyenda
+     * @param colores Color de cada serie
+     */
+    public GraficoSerie(String titulo, SerieTemporal[] series, String[] nombres, Color[] colores) {
+        if (series.length != nombres.length || series.length != colores.length) {
+            throw new IllegalArgumentException("Cada serie necesita un nombre y un color");
+        }
+        this.titulo = titulo;
+        this.series = series.clone();
+        this.nombres = nombres.clone();
+        this.colores = colores.clone();
+        this.minimos = new double[series.length][0];
+        this.maximos = new double[series.length][0];
+        setPreferredSize(new Dimension(320, 180));
+        setOpaque(true);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            int ancho = getWidth();
+            int alto = getHeight();
+            g2.setColor(COLOR_FONDO);
+            g2.fillRect(0, 0, ancho, alto);
+            FontMetrics fuente = g2.getFontMetrics();
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(titulo, MARGEN_IZQUIERDO, fuente.getAscent() + 4);
+
+            int columnas = ancho - MARGEN_IZQUIERDO - MARGEN_DERECHO;
+            int altura = alto - MARGEN_SUPERIOR - MARGEN_INFERIOR;
+            if (columnas < 2 || altura < 2) {
+                return;
+            }
+            double tope = reducir(columnas);
+            dibujarEjes(g2, fuente, columnas, altura, tope);
+            for (int s = 0; s < series.length; s++) {
+                dibujarSerie(g2, s, columnas, altura, tope);
+            }
+            dibujarLeyenda(g2, fuente, ancho);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Reduce todas las series al ancho actual, reutilizando los arreglos
+     * mientras el ancho no crezca.
+     *
+     * @return Valor máximo de la escala vertical
+     */
+    private double reducir(int columnas) {
+        double tope = 0;
+        for (int s = 0; s < series.length; s++) {
+            if (minimos[s].length < columnas) {
+                minimos[s] = new double[columnas];
+                maximos[s] = new double[columnas];
+            }
+            series[s].reducir(columnas, minimos[s], maximos[s]);
+            for (int c = 0; c < columnas; c++) {
+                if (maximos[s][c] > tope) {
+                    tope = maximos[s][c];
+                }
+            }
+        }
+        return escalaRedonda(tope);
+    }
+
+    private void dibujarEjes(Graphics2D g2, FontMetrics fuente, int columnas, int altura, double tope) {
+        for (int i = 0; i <= 4; i++) {
+            int y = MARGEN_SUPERIOR + altura - i * altura / 4;
+            g2.setColor(COLOR_GUIA);
+            g2.drawLine(MARGEN_IZQUIERDO, y, MARGEN_IZQUIERDO + columnas - 1, y);
+            String etiqueta = formatear(tope * i / 4);
+            g2.setColor(Color.GRAY);
+            g2.drawString(etiqueta, MARGEN_IZQUIERDO - 4 - fuente.stringWidth(etiqueta),
+                    y + fuente.getAscent() / 2 - 1);
+        }
+    }
+
+    /**
+     * Dibuja una serie como una línea vertical por columna. Cada línea se
+     * estira hasta tocar el rango de la columna anterior para que la curva
+     * quede continua aun cuando cambia bruscamente.
+     */
+    private void dibujarSerie(Graphics2D g2, int s, int columnas, int altura, double tope) {
+        double[] min = minimos[s];
+        double[] max = maximos[s];
+        g2.setColor(colores[s]);
+        double minAnterior = Double.NaN;
+        double maxAnterior = Double.NaN;
+        for (int c = 0; c < columnas; c++) {
+            if (Double.isNaN(min[c])) {
+                continue;
+            }
+            double bajo = min[c];
+            double alto = max[c];
+            if (!Double.isNaN(minAnterior)) {
+                bajo = Math.min(bajo, maxAnterior);
+                alto = Math.max(alto, minAnterior);
+            }
+            int x = MARGEN_IZQUIERDO + c;
+            g2.drawLine(x, aPixel(alto, altura, tope), x, aPixel(bajo, altura, tope));
+            minAnterior = min[c];
+            maxAnterior = max[c];
+        }
+    }
+
+    private void dibujarLeyenda(Graphics2D g2, FontMetrics fuente, int ancho) {
+        int x = ancho - MARGEN_DERECHO;
+        int y = fuente.getAscent() + 4;
+        for (int s = series.length - 1; s >= 0; s--) {
+            String texto = nombres[s] + " " + formatear(series[s].getUltimo());
+            x -= fuente.stringWidth(texto);
+            g2.setColor(colores[s]);
+            g2.drawString(texto, x, y);
+            x -= 12;
+        }
+    }
+
+    private static int aPixel(double valor, int altura, double tope) {
+        return MARGEN_SUPERIOR + altura - 1 - (int) Math.round(valor / tope * (altura - 1));
+    }
+
+    /**
+     * Redondea el máximo hacia arriba a 1, 2 o 5 por una potencia de 10,
+     * para que las marcas del eje sean números legibles.
+     */
+    private static double escalaRedonda(double maximo) {
+        if (!(maximo > 0)) {
+            return 1;
+        }
+        double potencia = Math.pow(10, Math.floor(Math.log10(maximo)));
+        for (double paso : new double[]{1, 2, 5, 10}) {
+            if (paso * potencia >= maximo) {
+                return paso * potencia;
+            }
+        }
+        return 10 * potencia;
+    }
+
+    private static String formatear(double valor) {
+        if (Double.isNaN(valor)) {
+            return "-";
+        }
+        return valor == Math.rint(valor) && Math.abs(valor) < 1e9
+                ? String.valueOf((long) valor)
+                : String.format("%.1f", valor);
+    }
+}
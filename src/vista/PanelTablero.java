@@ -0,0 +1,81 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package vista;
+
+import java.awt.Color;
+import java.awt.GridLayout;
+import javax.swing.BorderFactory;
+import javax.swing.JPanel;
+
+/**
+ * Tablero en vivo de la cola: clientes en espera, llegadas y atenciones por
+ * minuto, y percentiles del tiempo de espera. Guarda la última hora de
+ * muestras (una por segundo) en series de tamaño fijo, así que la memoria y
+ * el costo de pintar no crecen con el tiempo.
+ *
+ * Se usa solo desde el hilo de la interfaz.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class PanelTablero extends JPanel {
+
+    /**
+     * Cantidad de muestras que guarda cada serie.
+     */
+    public static final int CAPACIDAD = 3600;
+
+    private static final Color AZUL = new Color(31, 119, 180);
+    private static final Color NARANJA = new Color(255, 127, 14);
+    private static final Color VERDE = new Color(44, 160, 44);
+    private static final Color ROJO = new Color(214, 39, 40);
+
+    private final SerieTemporal enEspera = new SerieTemporal(CAPACIDAD);
+    private final SerieTemporal llegadas = new SerieTemporal(CAPACIDAD);
+    private final SerieTemporal atenciones = new SerieTemporal(CAPACIDAD);
+    private final SerieTemporal espera50 = new SerieTemporal(CAPACIDAD);
+    private final SerieTemporal espera90 = new SerieTemporal(CAPACIDAD);
+    private final SerieTemporal espera99 = new SerieTemporal(CAPACIDAD);
+
+    /**
+     * Constructor que arma los cuatro gráficos del tablero.
+     */
+    public PanelTablero() {
+        super(new GridLayout(2, 2, 6, 6));
+        setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
+        add(new GraficoSerie("Clientes en espera", new SerieTemporal[]{enEspera},
+                new String[]{"actual"}, new Color[]{AZUL}));
+        add(new GraficoSerie("Llegadas por minuto", new SerieTemporal[]{llegadas},
+                new String[]{"último"}, new Color[]{NARANJA}));
+        add(new GraficoSerie("Atenciones por minuto", new SerieTemporal[]{atenciones},
+                new String[]{"último"}, new Color[]{VERDE}));
+        add(new GraficoSerie("Espera p50/p90/p99 (min)", new SerieTemporal[]{espera50, espera90, espera99},
+                new String[]{"p50", "p90", "p99"}, new Color[]{VERDE, NARANJA, ROJO}));
+    }
+
+    /**
+     * Agrega una muestra a cada serie y vuelve a pintar el tablero si está
+     * visible.
+     *
+     * @param clientesEnEspera Clientes en la cola
+     * @param llegadasPorMinuto Llegadas en el último minuto
+     * @param atencionesPorMinuto Atenciones en el último minuto
+     * @param p50 Mediana de la espera en minutos, o NaN sin atenciones
+     * @param p90 Percentil 90 de la espera en minutos, o NaN sin atenciones
+     * @param p99 Percentil 99 de la espera en minutos, o NaN sin atenciones
+     */
+    public void registrarMuestra(int clientesEnEspera, double llegadasPorMinuto, double atencionesPorMinuto,
+            double p50, double p90, double p99) {
+        enEspera.agregar(clientesEnEspera);
+        llegadas.agregar(llegadasPorMinuto);
+        atenciones.agregar(atencionesPorMinuto);
+        espera50.agregar(p50);
+        espera90.agregar(p90);
+        espera99.agregar(p99);
+        if (isShowing()) {
+            repaint();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package vista;
+
+import java.util.Arrays;
+
+/**
+ * Serie de muestras tomadas a intervalos regulares, guardada en un búfer
+ * circular de capacidad fija: cuando se llena, cada muestra nueva reemplaza
+ * a la más antigua. Una muestra puede ser {@code NaN} cuando no hubo dato
+ * (por ejemplo, un percentil sin clientes atendidos).
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class SerieTemporal {
+
+    private final double[] valores;
+    private int siguiente;
+    private int cantidad;
+
+    /**
+     * Constructor que reserva el búfer.
+     *
+     * @param capacidad Cantidad máxima de muestras guardadas
+     */
+    public SerieTemporal(int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva");
+        }
+        this.valores = new double[capacidad];
+    }
+
+    /**
+     * Agrega una muestra al final de la serie.
+     *
+     * @param valor Valor de la muestra, o NaN si no hubo dato
+     */
+    public void agregar(double valor) {
+        valores[siguiente] = valor;
+        siguiente = (siguiente + 1) % valores.length;
+        if (cantidad < valores.length) {
+            cantidad++;
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de muestras guardadas.
+     *
+     * @return Muestras en la serie
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene la cantidad máxima de muestras.
+     *
+     * @return Capacidad del búfer
+     */
+    public int getCapacidad() {
+        return valores.length;
+    }
+
+    /**
+     * Obtiene una muestra por su antigüedad.
+     *
+     * @param indice 0 para la más antigua, {@code getCantidad() - 1} para la
+     * más reciente
+     * @return Valor de la muestra
+     */
+    public double get(int indice) {
+        if (indice < 0 || indice >= cantidad) {
+            throw new IndexOutOfBoundsException(indice);
+        }
+        return valores[(siguiente - cantidad + indice + valores.length) % valores.length];
+    }
+
+    /**
+     * Obtiene la muestra más reciente.
+     *
+     * @return Último valor, o NaN si la serie está vacía
+     */
+    public double getUltimo() {
+        return cantidad > 0 ? get(cantidad - 1) : Double.NaN;
+    }
+
+    /**
+     * Reduce la serie a columnas guardando el mínimo y el máximo de las
+     * muestras de cada una, de modo que un pico no se pierde al dibujar
+     * muchas muestras en pocos píxeles. La capacidad completa se reparte
+     * entre las columnas: las muestras nuevas entran por la derecha y las
+     * columnas sin muestras quedan en NaN. Recorre cada muestra una vez, así
+     * que el costo depende de la capacidad y no del tiempo transcurrido.
+     *
+     * @param columnas Cantidad de columnas
+     * @param minimos Arreglo de al menos {@code columnas} posiciones que
+     * recibe los mínimos
+     * @param maximos Arreglo de al menos {@code columnas} posiciones que
+     * recibe los máximos
+     */
+    public void reducir(int columnas, double[] minimos, double[] maximos) {
+        Arrays.fill(minimos, 0, columnas, Double.NaN);
+        Arrays.fill(maximos, 0, columnas, Double.NaN);
+        int vacias = valores.length - cantidad;
+        for (int i = 0; i < cantidad; i++) {
+            double valor = get(i);
+            if (Double.isNaN(valor)) {
+                continue;
+            }
+            int columna = (int) ((long) (vacias + i) * columnas / valores.length);
+            if (Double.isNaN(minimos[columna]) || valor < minimos[columna]) {
+                minimos[columna] = valor;
+            }
+            if (Double.isNaN(maximos[columna]) || valor > maximos[columna]) {
+                maximos[columna] = valor;
+            }
+        }
+    }
+}
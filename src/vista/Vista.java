@@ -9,6 +9,7 @@ import javax.swing.JComboBox;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.JTable;
+import javax.swing.JTabbedPane;
 /**
  * Clase vista encargada de la interfaz grafica del proyecto, usando buttons,
  * textArea, textField, Labels y Tabble, cada uno con su getter, ussados en el
@@ -19,8 +20,14 @@ import javax.swing.JTable;
  */
 public class Vista extends javax.swing.JFrame {
 
+    private PanelTablero tablero;
+
     public Vista() {
         initComponents();
+        // El tablero se agrega fuera del código generado para no editar el
+        // formulario
+        tablero = new PanelTablero();
+        jTabbedPane1.addTab("Tablero en vivo", tablero);
     }
 
     @SuppressWarnings("unchecked")
@@ -505,5 +512,23 @@ public class Vista extends javax.swing.JFrame {
      */
     public JTextField getTxtBuscarId() {
         return txtBuscarId;
-    }  
+    }
+
+    /**
+     * Obtiene el panel de pestañas de la ventana.
+     *
+     * @return JTabbedPane con las pestañas de la aplicación
+     */
+    public JTabbedPane getPanelPestanas() {
+        return jTabbedPane1;
+    }
+
+    /**
+     * Obtiene el tablero en vivo de la cola.
+     *
+     * @return PanelTablero con los gráficos de la cola
+     */
+    public PanelTablero getPanelTablero() {
+        return tablero;
+    }
 }
@@ -0,0 +1,271 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import modelo.Action;
+import modelo.BucleModelo;
+import modelo.Cliente;
+import modelo.InstantaneaModelo;
+import modelo.Modelo;
+import modelo.ObservadorModelo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de cada ruta de {@link ServidorApi} contra un servidor en
+ * localhost.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ServidorApiTest {
+
+    private BucleModelo bucle;
+    private ServidorApi servidor;
+    private HttpClient cliente;
+
+    @Before
+    public void iniciar() throws Exception {
+        bucle = new BucleModelo(new Modelo());
+        servidor = ServidorApi.iniciar(bucle, 0);
+        cliente = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void detener() throws Exception {
+        servidor.close();
+        bucle.detener(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void registraYBuscaClientes() throws Exception {
+        HttpResponse<String> respuesta = enviar("POST", "/clientes",
+                "{\"nombre\":\"Ana Pérez\",\"tipo\":\"soporte\",\"prioridad\":\"URGENTE\"}");
+        assertEquals(201, respuesta.statusCode());
+        Map<?, ?> registrado = objeto(respuesta);
+        assertEquals("Ana Pérez", registrado.get("nombre"));
+        assertEquals("SOPORTE", registrado.get("tipo"));
+        assertEquals("URGENTE", registrado.get("prioridad"));
+        assertNull(registrado.get("fechaAtencion"));
+
+        respuesta = enviar("GET", "/clientes/" + registrado.get("id"), null);
+        assertEquals(200, respuesta.statusCode());
+        assertEquals("EN_ESPERA", objeto(respuesta).get("estado"));
+        assertEquals(registrado, objeto(respuesta).get("cliente"));
+
+        assertEquals(404, enviar("GET", "/clientes/999", null).statusCode());
+        assertEquals(400, enviar("POST", "/clientes", "{\"nombre\":\"Ana\",\"tipo\":\"OTRO\"}").statusCode());
+        assertEquals(400, enviar("POST", "/clientes", "{\"nombre\":").statusCode());
+        respuesta = enviar("GET", "/clientes", null);
+        assertEquals(405, respuesta.statusCode());
+        assertEquals("POST", respuesta.headers().firstValue("Allow").orElse(null));
+        assertEquals(1, bucle.getInstantanea().getCantidadClientesEnEspera());
+    }
+
+    @Test
+    public void eliminaClientesDeLaCola() throws Exception {
+        String id = registrar("Beto", "RECLAMO");
+
+        HttpResponse<String> respuesta = enviar("DELETE", "/clientes/" + id, null);
+        assertEquals(200, respuesta.statusCode());
+        assertEquals(id, objeto(respuesta).get("id"));
+        assertEquals(404, enviar("DELETE", "/clientes/" + id, null).statusCode());
+        assertEquals(404, enviar("GET", "/clientes/" + id, null).statusCode());
+        assertEquals(0, bucle.getInstantanea().getCantidadClientesEnEspera());
+    }
+
+    @Test
+    public void atiendeYDeshace() throws Exception {
+        String normal = registrar("Carla", "SOPORTE");
+        String urgente = registrarUrgente("Dario");
+
+        HttpResponse<String> respuesta = enviar("POST", "/atender", "");
+        assertEquals(200, respuesta.statusCode());
+        Map<?, ?> resultado = objeto(respuesta);
+        assertEquals(Boolean.TRUE, resultado.get("exito"));
+        Map<?, ?> atendido = (Map<?, ?>) resultado.get("cliente");
+        assertEquals(urgente, atendido.get("id"));
+        assertNotNull(atendido.get("fechaAtencion"));
+        assertEquals("ATENDIDO", objeto(enviar("GET", "/clientes/" + urgente, null)).get("estado"));
+
+        respuesta = enviar("POST", "/deshacer", "");
+        assertEquals(200, respuesta.statusCode());
+        assertEquals(Boolean.TRUE, objeto(respuesta).get("exito"));
+        assertEquals("EN_ESPERA", objeto(enviar("GET", "/clientes/" + urgente, null)).get("estado"));
+        assertEquals(2, bucle.getInstantanea().getCantidadClientesEnEspera());
+
+        enviar("POST", "/atender", "");
+        enviar("POST", "/atender", "");
+        resultado = objeto(enviar("POST", "/atender", ""));
+        assertEquals(Boolean.FALSE, resultado.get("exito"));
+        assertTrue(resultado.containsKey("cliente"));
+        assertNull(resultado.get("cliente"));
+        assertEquals("ATENDIDO", objeto(enviar("GET", "/clientes/" + normal, null)).get("estado"));
+        assertEquals("ATENDIDO", objeto(enviar("GET", "/clientes/" + urgente, null)).get("estado"));
+        assertEquals(405, enviar("GET", "/atender", null).statusCode());
+        assertEquals(405, enviar("GET", "/deshacer", null).statusCode());
+    }
+
+    @Test
+    public void devuelveLasEstadisticas() throws Exception {
+        registrar("Elena", "MANTENIMIENTO");
+        registrarUrgente("Fabio");
+        enviar("POST", "/atender", "");
+
+        HttpResponse<String> respuesta = enviar("GET", "/estadisticas", null);
+        assertEquals(200, respuesta.statusCode());
+        Map<?, ?> estadisticas = objeto(respuesta);
+        assertEquals(1.0, estadisticas.get("clientesEnEspera"));
+        assertEquals(0.0, estadisticas.get("urgentesEnEspera"));
+        assertEquals(1.0, estadisticas.get("clientesAtendidos"));
+        assertEquals(3.0, estadisticas.get("accionesRegistradas"));
+        assertEquals((double) bucle.getInstantanea().getEstadisticas().getVersion(), estadisticas.get("version"));
+        assertEquals(405, enviar("POST", "/estadisticas", "").statusCode());
+    }
+
+    @Test
+    public void aplicaUnLoteEnOrden() throws Exception {
+        HttpResponse<String> respuesta = enviar("POST", "/lote", "["
+                + "{\"op\":\"registrar\",\"nombre\":\"Gala\",\"tipo\":\"SOPORTE\"},"
+                + "{\"op\":\"registrar\",\"nombre\":\"Hugo\",\"tipo\":\"RECLAMO\",\"prioridad\":\"URGENTE\"},"
+                + "{\"op\":\"atender\"},"
+                + "{\"op\":\"deshacer\"},"
+                + "{\"op\":\"eliminar\",\"id\":\"1\"}]");
+        assertEquals(200, respuesta.statusCode());
+        List<?> resultados = (List<?>) Json.leer(respuesta.body());
+        assertEquals(5, resultados.size());
+        assertEquals("registrar", ((Map<?, ?>) resultados.get(0)).get("op"));
+        assertEquals("Hugo", ((Map<?, ?>) ((Map<?, ?>) resultados.get(2)).get("cliente")).get("nombre"));
+        assertEquals(Boolean.TRUE, ((Map<?, ?>) resultados.get(3)).get("exito"));
+        assertEquals("1", ((Map<?, ?>) ((Map<?, ?>) resultados.get(4)).get("cliente")).get("id"));
+
+        InstantaneaModelo instantanea = bucle.getInstantanea();
+        assertEquals(1, instantanea.getCantidadClientesEnEspera());
+        assertEquals("Hugo", instantanea.getClientesEnEspera().get(0).getNombre());
+        assertEquals(0, instantanea.getCantidadAtendidos());
+    }
+
+    @Test
+    public void unLoteConUnaOperacionInvalidaNoAplicaNinguna() throws Exception {
+        registrar("Irene", "SOPORTE");
+        long version = bucle.getInstantanea().getVersion();
+
+        HttpResponse<String> respuesta = enviar("POST", "/lote", "["
+                + "{\"op\":\"registrar\",\"nombre\":\"Juan\",\"tipo\":\"SOPORTE\"},"
+                + "{\"op\":\"atender\"},"
+                + "{\"op\":\"transferir\",\"id\":\"1\"},"
+                + "{\"op\":\"registrar\",\"nombre\":\"Kiara\",\"tipo\":\"SOPORTE\"}]");
+        assertEquals(400, respuesta.statusCode());
+        assertTrue(String.valueOf(objeto(respuesta).get("error")).contains("transferir"));
+
+        respuesta = enviar("POST", "/lote", "["
+                + "{\"op\":\"atender\"},"
+                + "{\"op\":\"registrar\",\"tipo\":\"SOPORTE\"},"
+                + "{\"op\":\"atender\"}]");
+        assertEquals(400, respuesta.statusCode());
+
+        InstantaneaModelo instantanea = bucle.getInstantanea();
+        assertEquals(version, instantanea.getVersion());
+        assertEquals(1, instantanea.getCantidadClientesEnEspera());
+        assertEquals(0, instantanea.getCantidadAtendidos());
+    }
+
+    @Test
+    public void unLoteQueFallaAlAplicarseConservaLasOperacionesAnteriores() throws Exception {
+        // Simula una bitácora que no se puede escribir al registrar a "Falla"
+        bucle.enviar(m -> {
+            m.agregarObservador(new ObservadorFallido("Falla"));
+            return null;
+        }).join();
+
+        HttpResponse<String> respuesta = enviar("POST", "/lote", "["
+                + "{\"op\":\"registrar\",\"nombre\":\"Lucia\",\"tipo\":\"SOPORTE\"},"
+                + "{\"op\":\"registrar\",\"nombre\":\"Falla\",\"tipo\":\"SOPORTE\"},"
+                + "{\"op\":\"registrar\",\"nombre\":\"Mario\",\"tipo\":\"SOPORTE\"}]");
+        assertEquals(503, respuesta.statusCode());
+        assertTrue(String.valueOf(objeto(respuesta).get("error")).contains("Se aplicaron 1 de 3"));
+
+        List<Cliente> enEspera = bucle.getInstantanea().getClientesEnEspera();
+        assertEquals("Lucia", enEspera.get(0).getNombre());
+        assertFalse(enEspera.stream().anyMatch(cliente -> cliente.getNombre().equals("Mario")));
+    }
+
+    private String registrar(String nombre, String tipo) throws Exception {
+        HttpResponse<String> respuesta = enviar("POST", "/clientes",
+                "{\"nombre\":\"" + nombre + "\",\"tipo\":\"" + tipo + "\"}");
+        assertEquals(201, respuesta.statusCode());
+        return (String) objeto(respuesta).get("id");
+    }
+
+    private String registrarUrgente(String nombre) throws Exception {
+        HttpResponse<String> respuesta = enviar("POST", "/clientes",
+                "{\"nombre\":\"" + nombre + "\",\"tipo\":\"SOPORTE\",\"prioridad\":\"URGENTE\"}");
+        assertEquals(201, respuesta.statusCode());
+        return (String) objeto(respuesta).get("id");
+    }
+
+    private HttpResponse<String> enviar(String metodo, String ruta, String cuerpo) throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + servidor.getPuerto() + ruta))
+                .method(metodo, cuerpo == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        HttpResponse<String> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+        assertEquals("application/json; charset=utf-8",
+                respuesta.headers().firstValue("Content-Type").orElse(null));
+        return respuesta;
+    }
+
+    private static Map<?, ?> objeto(HttpResponse<String> respuesta) {
+        return (Map<?, ?>) Json.leer(respuesta.body());
+    }
+
+    /**
+     * Observador que falla al registrarse un cliente con cierto nombre.
+     */
+    private static final class ObservadorFallido implements ObservadorModelo {
+
+        private final String nombre;
+
+        ObservadorFallido(String nombre) {
+            this.nombre = nombre;
+        }
+
+        @Override
+        public void accionRegistrada(Action accion) {
+            if (accion.getCliente().getNombre().equals(nombre)) {
+                throw new IllegalStateException("No se pudo escribir en la bitácora");
+            }
+        }
+
+        @Override
+        public void accionDeshecha(Action accion) {
+        }
+
+        @Override
+        public void accionRehecha(Action accion) {
+        }
+
+        @Override
+        public void grupoIniciado(String nombre) {
+        }
+
+        @Override
+        public void grupoFinalizado() {
+        }
+    }
+}
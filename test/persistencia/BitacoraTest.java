@@ -0,0 +1,89 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import modelo.Action;
+import modelo.Cliente;
+import modelo.Modelo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Pruebas de reproducción de la {@link Bitacora}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class BitacoraTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 1, 6, 8, 0);
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    @Test
+    public void reproduceTodosLosSegmentos() throws IOException {
+        Path directorio = escribirTresSegmentos();
+        RelojControlable reloj = new RelojControlable();
+        Modelo modelo = new Modelo(reloj);
+        assertEquals(9, Bitacora.reproducir(directorio, 0, modelo, reloj));
+        assertEquals(9, modelo.getGestionClientes().getCantidadClientesEnEspera());
+    }
+
+    @Test
+    public void seDetieneSiFaltaUnSegmento() throws IOException {
+        Path directorio = escribirTresSegmentos();
+        List<Path> segmentos = Bitacora.segmentos(directorio);
+        Files.delete(segmentos.get(1));
+        RelojControlable reloj = new RelojControlable();
+        try {
+            Bitacora.reproducir(directorio, 0, new Modelo(reloj), reloj);
+            fail("Se reprodujo una bitácora con un hueco");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("secuencia 4"));
+        }
+    }
+
+    @Test
+    public void seDetieneSiLaInstantaneaEsAnteriorAlPrimerSegmento() throws IOException {
+        Path directorio = escribirTresSegmentos();
+        Files.delete(Bitacora.segmentos(directorio).get(0));
+        RelojControlable reloj = new RelojControlable();
+        try {
+            Bitacora.reproducir(directorio, 0, new Modelo(reloj), reloj);
+            fail("Se reprodujo una bitácora sin sus primeros registros");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("secuencia 1"));
+        }
+    }
+
+    /**
+     * Escribe nueve registros de clientes en tres segmentos de tres.
+     */
+    private Path escribirTresSegmentos() throws IOException {
+        Path directorio = carpeta.newFolder().toPath();
+        try (Bitacora bitacora = new Bitacora(directorio, 0)) {
+            for (int i = 1; i <= 9; i++) {
+                Cliente cliente = new Cliente(String.valueOf(i), "Cliente " + i, Cliente.TipoSolicitud.SOPORTE,
+                        Cliente.Prioridad.NORMAL, FECHA.plusMinutes(i));
+                bitacora.escribirRegistrada(new Action(Action.TipoAccion.REGISTRAR, cliente, FECHA.plusMinutes(i)));
+                if (i % 3 == 0 && i < 9) {
+                    bitacora.rotar();
+                }
+            }
+        }
+        assertEquals(3, Bitacora.segmentos(directorio).size());
+        return directorio;
+    }
+}
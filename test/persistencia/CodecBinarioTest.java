@@ -0,0 +1,164 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import modelo.Action;
+import modelo.Cliente;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pruebas de ida y vuelta del {@link CodecBinario}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class CodecBinarioTest {
+
+    private static final LocalDateTime LLEGADA = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_238);
+
+    private final CodecBinario codec = new CodecBinario();
+
+    @Test
+    public void clienteConNombreNoAscii() {
+        for (String nombre : new String[]{"José Ñúñez", "Zoë Ørsted", "李小龍", "Ana 😀 Pérez", ""}) {
+            Cliente leido = idaYVuelta(cliente("7", nombre, LLEGADA, null));
+            assertEquals(nombre, leido.getNombre());
+        }
+    }
+
+    @Test
+    public void clienteConFechasAnterioresA1970() {
+        LocalDateTime llegada = LocalDateTime.of(1903, 12, 17, 10, 35, 0, 1);
+        LocalDateTime atencion = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_999);
+        Cliente leido = idaYVuelta(cliente("1", "Orville", llegada, atencion));
+        assertEquals(llegada, leido.getFechaLlegada());
+        assertEquals(atencion, leido.getFechaAtencion());
+    }
+
+    @Test
+    public void clienteSinFechaDeAtencion() {
+        Cliente leido = idaYVuelta(cliente("42", "Ana", LLEGADA, null));
+        assertNull(leido.getFechaAtencion());
+        assertEquals(LLEGADA, leido.getFechaLlegada());
+    }
+
+    @Test
+    public void clienteConCadaTipoYPrioridad() {
+        for (Cliente.TipoSolicitud tipo : Cliente.TipoSolicitud.values()) {
+            for (Cliente.Prioridad prioridad : Cliente.Prioridad.values()) {
+                Cliente original = new Cliente("3", "Ana", tipo, prioridad, LLEGADA, LLEGADA.plusMinutes(5));
+                Cliente leido = idaYVuelta(original);
+                assertEquals(tipo, leido.getTipoSolicitud());
+                assertEquals(prioridad, leido.getPrioridad());
+            }
+        }
+    }
+
+    @Test
+    public void codigosDeEnumeracionesSonReversibles() {
+        for (Cliente.TipoSolicitud tipo : Cliente.TipoSolicitud.values()) {
+            assertEquals(tipo, CodecBinario.tipoSolicitud(CodecBinario.codigo(tipo)));
+        }
+        for (Cliente.Prioridad prioridad : Cliente.Prioridad.values()) {
+            assertEquals(prioridad, CodecBinario.prioridad(CodecBinario.codigo(prioridad)));
+        }
+        for (Action.TipoAccion tipo : Action.TipoAccion.values()) {
+            assertEquals(tipo, CodecBinario.tipoAccion(CodecBinario.codigo(tipo)));
+        }
+    }
+
+    @Test
+    public void clienteConIdNoNumerico() {
+        for (String id : new String[]{"CITA-2025-001", "007", "-5", "+5", "0", "99999999999999999999", "ñ"}) {
+            Cliente leido = idaYVuelta(cliente(id, "Ana", LLEGADA, null));
+            assertEquals(id, leido.getId());
+        }
+    }
+
+    @Test
+    public void accionConCadaTipoDentroYFueraDeGrupo() {
+        for (Action.TipoAccion tipo : Action.TipoAccion.values()) {
+            Action suelta = new Action(tipo, cliente("11", "Ana", LLEGADA, null), LLEGADA.plusSeconds(1), 0, null);
+            Action leida = idaYVuelta(suelta);
+            assertEquals(tipo, leida.getTipo());
+            assertEquals(suelta.getFechaHora(), leida.getFechaHora());
+            assertEquals("11", leida.getCliente().getId());
+            assertFalse(leida.perteneceAGrupo());
+
+            Action agrupada = new Action(tipo, cliente("12", "Bea", LLEGADA, LLEGADA.plusHours(1)),
+                    LLEGADA.plusSeconds(2), 9, "Importación año 2025");
+            leida = idaYVuelta(agrupada);
+            assertTrue(leida.perteneceAGrupo());
+            assertEquals(9, leida.getIdGrupo());
+            assertEquals("Importación año 2025", leida.getNombreGrupo());
+        }
+    }
+
+    @Test
+    public void registroDeVersionPosteriorSeLeeYSeSaltaElResto() {
+        Cliente original = cliente("5", "Ana", LLEGADA, null);
+        ByteBuffer actual = ByteBuffer.allocate(CodecBinario.tamanoCliente(original));
+        codec.escribirCliente(actual, original);
+        actual.flip();
+        actual.get();
+        int cuerpo = CodecBinario.leerVarInt(actual);
+        byte[] campos = new byte[cuerpo];
+        actual.get(campos);
+
+        // Versión siguiente: los mismos campos más tres bytes desconocidos al
+        // final, seguida de otro registro que debe quedar intacto
+        ByteBuffer nuevo = ByteBuffer.allocate(64 + cuerpo);
+        nuevo.put((byte) (CodecBinario.VERSION + 1));
+        CodecBinario.escribirVarInt(nuevo, cuerpo + 3);
+        nuevo.put(campos).put(new byte[]{7, 7, 7});
+        codec.escribirCliente(nuevo, cliente("6", "Bea", LLEGADA, null));
+        nuevo.flip();
+
+        assertEquals("5", codec.leerCliente(nuevo).getId());
+        assertEquals("6", codec.leerCliente(nuevo).getId());
+        assertFalse(nuevo.hasRemaining());
+    }
+
+    @Test
+    public void tamanoCoincideConLosBytesEscritos() {
+        Action accion = new Action(Action.TipoAccion.ATENDER, cliente("CITA-1", "Ñandú 😀", LLEGADA,
+                LLEGADA.plusMinutes(3)), LLEGADA.plusMinutes(3), 2, "Grupo");
+        ByteBuffer destino = ByteBuffer.allocate(256);
+        codec.escribirAccion(destino, accion);
+        assertEquals(CodecBinario.tamanoAccion(accion), destino.position());
+    }
+
+    private static Cliente cliente(String id, String nombre, LocalDateTime llegada, LocalDateTime atencion) {
+        return new Cliente(id, nombre, Cliente.TipoSolicitud.SOPORTE, Cliente.Prioridad.NORMAL, llegada, atencion);
+    }
+
+    private Cliente idaYVuelta(Cliente cliente) {
+        ByteBuffer buffer = ByteBuffer.allocate(CodecBinario.tamanoCliente(cliente));
+        codec.escribirCliente(buffer, cliente);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        Cliente leido = codec.leerCliente(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(cliente.getId(), leido.getId());
+        assertEquals(cliente.getNombre(), leido.getNombre());
+        return leido;
+    }
+
+    private Action idaYVuelta(Action accion) {
+        ByteBuffer buffer = ByteBuffer.allocate(CodecBinario.tamanoAccion(accion));
+        codec.escribirAccion(buffer, accion);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        Action leida = codec.leerAccion(buffer);
+        assertFalse(buffer.hasRemaining());
+        return leida;
+    }
+}
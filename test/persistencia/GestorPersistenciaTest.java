@@ -0,0 +1,63 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.Random;
+import modelo.Modelo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static persistencia.OperacionesModelo.estado;
+import static persistencia.OperacionesModelo.operar;
+
+/**
+ * Pruebas de instantáneas y recuperación de {@link GestorPersistencia}.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class GestorPersistenciaTest {
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    @Test
+    public void laInstantaneaCoincideConElModelo() throws Exception {
+        Path directorio = carpeta.newFolder().toPath();
+        GestorPersistencia gestor = GestorPersistencia.abrir(directorio, 37);
+        Modelo modelo = gestor.getModelo();
+        operar(modelo, 2_000, new Random(7));
+        gestor.tomarInstantanea().get();
+
+        List<Path> instantaneas = GestorPersistencia.instantaneas(directorio);
+        assertEquals(1, instantaneas.size());
+        Modelo restaurado = Instantanea.leer(instantaneas.get(0)).restaurar(Clock.systemDefaultZone());
+        assertEquals(estado(modelo), estado(restaurado));
+        gestor.close();
+    }
+
+    @Test
+    public void recuperaElEstadoAlReabrir() throws Exception {
+        Path directorio = carpeta.newFolder().toPath();
+        GestorPersistencia gestor = GestorPersistencia.abrir(directorio, 37);
+        operar(gestor.getModelo(), 1_000, new Random(11));
+        gestor.close();
+
+        // Se reabre dos veces para que el modelo sombra parta de una
+        // instantánea leída del disco
+        gestor = GestorPersistencia.abrir(directorio, 37);
+        operar(gestor.getModelo(), 1_000, new Random(13));
+        String esperado = estado(gestor.getModelo());
+        gestor.close();
+
+        gestor = GestorPersistencia.abrir(directorio, 37);
+        assertEquals(esperado, estado(gestor.getModelo()));
+        gestor.close();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.util.Random;
+import modelo.Cliente;
+import modelo.Modelo;
+
+/**
+ * Operaciones compartidas por las pruebas de persistencia: una mezcla
+ * aleatoria de cambios sobre el modelo y un texto con su estado completo
+ * para comparar dos modelos.
+ *
+ * @author Valery
+ * @author Andres
+ */
+final class OperacionesModelo {
+
+    private OperacionesModelo() {
+    }
+
+    /**
+     * Aplica una mezcla de registros, atenciones, eliminaciones, deshacer,
+     * rehacer y grupos.
+     */
+    static void operar(Modelo modelo, int operaciones, Random aleatorio) {
+        Cliente.TipoSolicitud[] tipos = Cliente.TipoSolicitud.values();
+        for (int i = 0; i < operaciones; i++) {
+            int operacion = aleatorio.nextInt(12);
+            if (operacion < 5) {
+                modelo.agregarCliente("Cliente " + i, tipos[i % tipos.length],
+                        i % 4 == 0 ? Cliente.Prioridad.URGENTE : Cliente.Prioridad.NORMAL);
+            } else if (operacion < 8) {
+                modelo.atenderCliente();
+            } else if (operacion == 8) {
+                modelo.eliminarClientePorId(String.valueOf(1 + aleatorio.nextInt(i + 1)));
+            } else if (operacion == 9) {
+                modelo.deshacerUltimaAccion();
+            } else if (operacion == 10) {
+                modelo.rehacerUltimaAccion();
+            } else {
+                modelo.iniciarGrupo("Lote " + i);
+                modelo.agregarCliente("Lote " + i, tipos[0], Cliente.Prioridad.NORMAL);
+                modelo.atenderCliente();
+                modelo.finalizarGrupo();
+            }
+        }
+    }
+
+    /**
+     * Describe la cola, el historial, las pilas de acciones y el contador
+     * de IDs del modelo.
+     */
+    static String estado(Modelo modelo) {
+        return modelo.getGestionClientes().getClientesEnEspera() + "\n" + modelo.getHistorial().getClientesAtendidos()
+                + "\n" + modelo.obtenerHistorialAcciones() + "\n"
+                + modelo.getRegistroAcciones().getTodasLasActionsDeshechas() + "\n"
+                + modelo.getGestionClientes().getContadorId();
+    }
+}
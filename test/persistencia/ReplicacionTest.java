@@ -0,0 +1,223 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package persistencia;
+
+import java.io.BufferedReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import modelo.Cliente;
+import modelo.Modelo;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static persistencia.OperacionesModelo.estado;
+import static persistencia.OperacionesModelo.operar;
+
+/**
+ * Pruebas de relevo entre {@link ReplicaPrimaria} y {@link ReplicaEspera}
+ * en localhost: se cae el primario con la réplica conectada y se compara
+ * el modelo que ella entrega con el del primario. En la última prueba el
+ * primario es otra JVM que se mata sin cierre ordenado.
+ *
+ * @author Valery
+ * @author Andres
+ */
+public class ReplicacionTest {
+
+    private static final long ESPERA_MAXIMA_MS = 30_000;
+    private static final Pattern PUERTO_REPLICACION = Pattern.compile("en el puerto (\\d+)");
+    private static final Pattern PUERTO_API = Pattern.compile("API en http://localhost:(\\d+)");
+
+    @Rule
+    public TemporaryFolder carpeta = new TemporaryFolder();
+
+    private final ExecutorService hilos = Executors.newCachedThreadPool();
+
+    @After
+    public void detenerHilos() {
+        hilos.shutdownNow();
+    }
+
+    @Test
+    public void laReplicaTomaElLugarDelPrimarioConElMismoEstado() throws Exception {
+        // Con un intervalo corto el primario rota la bitácora y borra
+        // segmentos mientras envía, y la réplica arranca desde una instantánea
+        GestorPersistencia gestor = GestorPersistencia.abrir(carpeta.newFolder().toPath(), 200);
+        Modelo primario = gestor.getModelo();
+        ReplicaPrimaria primaria = ReplicaPrimaria.iniciar(gestor, 0);
+        operar(primario, 1_500, new Random(3));
+        gestor.tomarInstantanea().get();
+
+        ReplicaEspera espera = ReplicaEspera.desde("localhost:" + primaria.getPuerto());
+        Future<Modelo> relevo = hilos.submit(espera::seguir);
+        operar(primario, 3_000, new Random(5));
+
+        // El primario cae con un grupo abierto
+        String colaAntesDelGrupo = cola(primario);
+        primario.iniciarGrupo("Interrumpido");
+        primario.agregarCliente("Sin terminar", Cliente.TipoSolicitud.SOPORTE, Cliente.Prioridad.URGENTE);
+        primario.atenderCliente();
+        long secuencia = gestor.getSecuencia();
+        esperarSecuencia(espera, secuencia);
+        primaria.close();
+        gestor.close();
+
+        Modelo replicado = relevo.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+        assertEquals(secuencia, espera.getSecuencia());
+        assertEquals(estado(primario), estado(replicado));
+
+        // El grupo a medio llegar quedó cerrado y se deshace completo
+        assertTrue(replicado.deshacerUltimaAccion());
+        assertEquals(colaAntesDelGrupo, cola(replicado));
+    }
+
+    @Test
+    public void laCaidaAMitadDeEnvioDejaUnPrefijoDelPrimario() throws Exception {
+        // Sin instantáneas la bitácora completa queda en el disco para
+        // reconstruir el primario en cualquier secuencia
+        Path directorio = carpeta.newFolder().toPath();
+        GestorPersistencia gestor = GestorPersistencia.abrir(directorio, Integer.MAX_VALUE);
+        ReplicaPrimaria primaria = ReplicaPrimaria.iniciar(gestor, 0);
+        ReplicaEspera espera = ReplicaEspera.desde("localhost:" + primaria.getPuerto());
+        Future<Modelo> relevo = hilos.submit(espera::seguir);
+
+        // Con la réplica ya conectada, el primario cae justo después de una
+        // ráfaga, sin esperar a que ella reciba lo último
+        operar(gestor.getModelo(), 10_000, new Random(17));
+        esperarSecuencia(espera, 1);
+        operar(gestor.getModelo(), 10_000, new Random(19));
+        long secuenciaPrimario = gestor.getSecuencia();
+        primaria.close();
+        gestor.close();
+
+        Modelo replicado = relevo.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+        long secuencia = espera.getSecuencia();
+        assertTrue(secuencia > 0 && secuencia <= secuenciaPrimario);
+        assertEquals(estado(reproducir(directorio, secuencia)), estado(replicado));
+    }
+
+    @Test
+    public void laReplicaTomaElLugarDeUnPrimarioQueSeMata() throws Exception {
+        Path directorio = carpeta.newFolder().toPath();
+        GestorPersistencia gestor = GestorPersistencia.abrir(directorio, Integer.MAX_VALUE);
+        operar(gestor.getModelo(), 2_000, new Random(23));
+        long secuenciaInicial = gestor.getSecuencia();
+        gestor.close();
+
+        // El primario recupera el directorio en otra JVM, replica su
+        // bitácora y recibe cambios por la API
+        Process proceso = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), "main.Main",
+                "--datos", directorio.toString(), "--replicar", "0", "--api", "0")
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BlockingQueue<String> salida = new LinkedBlockingQueue<>();
+            hilos.submit(() -> {
+                try (BufferedReader lector = proceso.inputReader()) {
+                    String linea;
+                    while ((linea = lector.readLine()) != null) {
+                        salida.add(linea);
+                    }
+                }
+                return null;
+            });
+            int puertoReplicacion = puertoAnunciado(salida, PUERTO_REPLICACION);
+            int puertoApi = puertoAnunciado(salida, PUERTO_API);
+
+            ReplicaEspera espera = ReplicaEspera.desde("localhost:" + puertoReplicacion);
+            Future<Modelo> relevo = hilos.submit(espera::seguir);
+            HttpClient http = HttpClient.newHttpClient();
+            int registrados = 20;
+            int atendidos = 5;
+            for (int i = 0; i < registrados; i++) {
+                assertEquals(201, enviar(http, puertoApi, "/clientes",
+                        "{\"nombre\":\"Remoto " + i + "\",\"tipo\":\"RECLAMO\"}").statusCode());
+            }
+            for (int i = 0; i < atendidos; i++) {
+                assertEquals(200, enviar(http, puertoApi, "/atender", "").statusCode());
+            }
+            long secuencia = secuenciaInicial + registrados + atendidos;
+            esperarSecuencia(espera, secuencia);
+
+            // Se mata el proceso sin cierre ordenado
+            proceso.destroyForcibly();
+            assertTrue(proceso.waitFor(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS));
+
+            Modelo replicado = relevo.get(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS);
+            assertEquals(secuencia, espera.getSecuencia());
+            GestorPersistencia recuperado = GestorPersistencia.abrir(directorio, Integer.MAX_VALUE);
+            assertEquals(secuencia, recuperado.getSecuencia());
+            assertEquals(estado(recuperado.getModelo()), estado(replicado));
+
+            // La réplica sigue numerando los clientes donde quedó el primario
+            assertEquals(recuperado.getModelo().agregarCliente("Después de la caída",
+                    Cliente.TipoSolicitud.SOPORTE, Cliente.Prioridad.NORMAL).getId(),
+                    replicado.agregarCliente("Después de la caída",
+                            Cliente.TipoSolicitud.SOPORTE, Cliente.Prioridad.NORMAL).getId());
+            recuperado.close();
+        } finally {
+            proceso.destroyForcibly();
+        }
+    }
+
+    private static int puertoAnunciado(BlockingQueue<String> salida, Pattern patron) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+        while (true) {
+            String linea = salida.poll(Math.max(1, limite - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            assertTrue("El primario no anunció " + patron.pattern(), linea != null);
+            Matcher coincidencia = patron.matcher(linea);
+            if (coincidencia.find()) {
+                return Integer.parseInt(coincidencia.group(1));
+            }
+        }
+    }
+
+    private static HttpResponse<String> enviar(HttpClient http, int puerto, String ruta, String cuerpo)
+            throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        return http.send(peticion, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void esperarSecuencia(ReplicaEspera espera, long secuencia) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+        while (espera.getSecuencia() < secuencia) {
+            assertTrue("La réplica quedó en la secuencia " + espera.getSecuencia() + " de " + secuencia,
+                    System.currentTimeMillis() < limite);
+            Thread.sleep(10);
+        }
+    }
+
+    private static Modelo reproducir(Path directorio, long hasta) throws Exception {
+        RelojControlable reloj = new RelojControlable();
+        Modelo modelo = new Modelo(reloj);
+        assertEquals(hasta, Bitacora.reproducir(directorio, 0, hasta, modelo, reloj));
+        reloj.liberar();
+        return modelo;
+    }
+
+    private static String cola(Modelo modelo) {
+        return modelo.getGestionClientes().getClientesEnEspera() + "\n"
+                + modelo.getHistorial().getClientesAtendidos();
+    }
+}